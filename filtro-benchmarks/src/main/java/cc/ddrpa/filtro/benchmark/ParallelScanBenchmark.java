@@ -0,0 +1,134 @@
+package cc.ddrpa.filtro.benchmark;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroFieldMetaFactory;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
+import cc.ddrpa.filtro.visitor.extension.columnar.ColumnarDataset;
+import cc.ddrpa.filtro.visitor.extension.columnar.ColumnarQuery;
+import cc.ddrpa.filtro.visitor.extension.columnar.ColumnarQueryNodeHandler;
+import cc.ddrpa.filtro.visitor.extension.predicate.InMemoryPredicateVisitor;
+import cc.ddrpa.filtro.visitor.extension.predicate.ParallelFilter;
+import cc.ddrpa.filtro.visitor.extension.predicate.PredicateClassCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 大集合的内存过滤：{@link ParallelFilter}（编译后的 {@link Predicate}）与 {@link ColumnarQuery} 在不同线程数下的吞吐。
+ * <p>
+ * 运行：{@code mvn -Pbenchmarks -pl filtro-benchmarks -am package && java -jar filtro-benchmarks/target/benchmarks.jar ParallelScanBenchmark}，
+ * 结果为每秒完成的 {@value #ROWS} 行扫描次数。{@code threads=1} 为单线程基线（不经线程池），其余使用同等并行度的
+ * {@link ForkJoinPool}；线程数超过可用核数时吞吐不再增长。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class ParallelScanBenchmark {
+
+    static final int ROWS = 1_000_000;
+    static final String QUERY = "stock=ge=10;stock=lt=90;price=gt=25.0;ownerId!=3;region==eu";
+
+    @Param({"1", "4", "16", "32"})
+    public int threads;
+
+    private List<Item> items;
+    private ForkJoinPool pool;
+    private ParallelFilter filter;
+    private Predicate<Object> predicate;
+    private ColumnarDataset<Item> dataset;
+    private ColumnarQuery query;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        Map<String, FiltroFieldMeta> fields = new HashMap<>();
+        fields.put("stock", meta("stock", QueryIntent.RANGE, int.class));
+        fields.put("price", meta("price", QueryIntent.RANGE, double.class));
+        fields.put("ownerId", meta("ownerId", QueryIntent.EXACT, Long.class));
+        fields.put("region", meta("region", QueryIntent.EXACT, String.class));
+
+        String[] regions = {"eu", "us", "ap"};
+        SplittableRandom random = new SplittableRandom(42);
+        items = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            items.add(new Item(random.nextInt(100), random.nextDouble(100),
+                    random.nextInt(8) == 0 ? null : (long) random.nextInt(12), regions[random.nextInt(3)]));
+        }
+
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        FiltroNode root = new FiltroPlanner().compile(fields, new JirutkaFiltroQueryParser().parse(QUERY));
+        predicate = new PredicateClassCompiler().compile(new InMemoryPredicateVisitor(fields).apply(root));
+        filter = pool != null ? new ParallelFilter(pool) : new ParallelFilter().setThreshold(Integer.MAX_VALUE);
+
+        dataset = ColumnarDataset.of(items, fields);
+        query = new ColumnarQueryNodeHandler(new FiltroRegistry())
+                .setForkJoinPool(pool)
+                .parse(fields, new JirutkaFiltroQueryParser().parse(QUERY));
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static FiltroFieldMeta meta(String name, QueryIntent intent, Class<?> type)
+            throws NoSuchFieldException {
+        return FiltroFieldMetaFactory.create(name, intent, type).build()
+                .setSourceField(Item.class.getDeclaredField(name));
+    }
+
+    @Benchmark
+    public int predicate() {
+        return filter.filter(items, predicate).size();
+    }
+
+    @Benchmark
+    public int columnar() {
+        return query.count(dataset);
+    }
+
+    public static class Item {
+        private final int stock;
+        private final double price;
+        private final Long ownerId;
+        private final String region;
+
+        Item(int stock, double price, Long ownerId, String region) {
+            this.stock = stock;
+            this.price = price;
+            this.ownerId = ownerId;
+            this.region = region;
+        }
+
+        public int getStock() {
+            return stock;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package cc.ddrpa.filtro.benchmark;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroFieldMetaFactory;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
+import cc.ddrpa.filtro.visitor.extension.predicate.InMemoryPredicateVisitor;
+import cc.ddrpa.filtro.visitor.extension.predicate.PredicateClassCompiler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 内存过滤：解释执行的 {@link Predicate} 树与 {@link PredicateClassCompiler} 生成的隐藏类逐行求值的耗时对比。
+ * <p>
+ * 运行：{@code mvn -Pbenchmarks -pl filtro-benchmarks -am package && java -jar filtro-benchmarks/target/benchmarks.jar PredicateCompilationBenchmark}，
+ * 结果为扫描 {@value #ROWS} 行的耗时。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PredicateCompilationBenchmark {
+
+    static final int ROWS = 4096;
+
+    @Param({"conjunction", "disjunction"})
+    public String shape;
+
+    private Item[] items;
+    private Predicate<Object> interpreted;
+    private Predicate<Object> compiled;
+
+    @Setup
+    public void setUp() throws NoSuchFieldException {
+        Map<String, FiltroFieldMeta> fields = new HashMap<>();
+        fields.put("id", meta("id", QueryIntent.RANGE, long.class));
+        fields.put("stock", meta("stock", QueryIntent.RANGE, int.class));
+        fields.put("price", meta("price", QueryIntent.RANGE, double.class));
+        fields.put("ownerId", meta("ownerId", QueryIntent.EXACT, Long.class));
+        fields.put("region", meta("region", QueryIntent.EXACT, String.class));
+
+        String query = switch (shape) {
+            case "conjunction" -> "stock=ge=10;stock=lt=90;price=gt=25.0;ownerId!=3;region==eu";
+            case "disjunction" -> "(stock=lt=5,stock=gt=95,price=lt=1.0);(ownerId==7,region==us);id=gt=16";
+            default -> throw new IllegalArgumentException(shape);
+        };
+        FiltroNode root = new FiltroPlanner().compile(fields, new JirutkaFiltroQueryParser().parse(query));
+        interpreted = new InMemoryPredicateVisitor(fields).apply(root);
+        compiled = new PredicateClassCompiler().compile(interpreted);
+
+        String[] regions = {"eu", "us", "ap"};
+        SplittableRandom random = new SplittableRandom(42);
+        items = new Item[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            items[i] = new Item(i, random.nextInt(100), random.nextDouble(100),
+                    random.nextInt(8) == 0 ? null : (long) random.nextInt(12), regions[random.nextInt(3)]);
+        }
+    }
+
+    private static FiltroFieldMeta meta(String name, QueryIntent intent, Class<?> type)
+            throws NoSuchFieldException {
+        return FiltroFieldMetaFactory.create(name, intent, type).build()
+                .setSourceField(Item.class.getDeclaredField(name));
+    }
+
+    @Benchmark
+    public int interpreted() {
+        return count(interpreted);
+    }
+
+    @Benchmark
+    public int compiled() {
+        return count(compiled);
+    }
+
+    private int count(Predicate<Object> predicate) {
+        int matches = 0;
+        for (Item item : items) {
+            if (predicate.test(item)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    public static class Item {
+        private final long id;
+        private final int stock;
+        private final double price;
+        private final Long ownerId;
+        private final String region;
+
+        Item(long id, int stock, double price, Long ownerId, String region) {
+            this.id = id;
+            this.stock = stock;
+            this.price = price;
+            this.ownerId = ownerId;
+            this.region = region;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getStock() {
+            return stock;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public Long getOwnerId() {
+            return ownerId;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+    }
+}
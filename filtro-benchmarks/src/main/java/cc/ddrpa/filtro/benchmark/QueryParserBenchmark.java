@@ -0,0 +1,56 @@
+package cc.ddrpa.filtro.benchmark;
+
+import cc.ddrpa.filtro.core.rsql.FiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.NativeFiltroQueryParser;
+import cz.jirutka.rsql.parser.ast.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * jirutka rsql-parser 与内置手写解析器的吞吐与分配对比。
+ * <p>
+ * 运行：{@code mvn -Pbenchmarks -pl filtro-benchmarks -am package && java -jar filtro-benchmarks/target/benchmarks.jar QueryParserBenchmark -prof gc}
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryParserBenchmark {
+
+    @Param({"simple", "nested", "in100"})
+    public String shape;
+
+    private String query;
+    private FiltroQueryParser jirutka;
+    private FiltroQueryParser nativeParser;
+
+    @Setup
+    public void setUp() {
+        query = switch (shape) {
+            case "simple" -> "title=contains=java";
+            case "nested" -> "title=contains=java;(price=gt=10,price=lt=100);status=in=(ACTIVE,PENDING)"
+                    + ";publishedAt>=2024-01-01T00:00:00Z";
+            case "in100" -> IntStream.range(0, 100).mapToObj(Integer::toString)
+                    .collect(Collectors.joining(",", "id=in=(", ")"));
+            default -> throw new IllegalArgumentException(shape);
+        };
+        jirutka = new JirutkaFiltroQueryParser();
+        nativeParser = new NativeFiltroQueryParser();
+    }
+
+    @Benchmark
+    public Node jirutka() {
+        return jirutka.parse(query);
+    }
+
+    @Benchmark
+    public Node nativeParser() {
+        return nativeParser.parse(query);
+    }
+}
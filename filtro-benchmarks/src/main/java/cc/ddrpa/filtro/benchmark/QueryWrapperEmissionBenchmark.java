@@ -0,0 +1,102 @@
+package cc.ddrpa.filtro.benchmark;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroFieldMetaFactory;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
+import cc.ddrpa.filtro.visitor.extension.mp.MybatisPlusQueryWrapperVisitor;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MyBatis-Plus 条件生成：最小括号的平铺写入与逐层 {@code nested(...)} 的耗时与分配对比。
+ * <p>
+ * 运行：{@code mvn -Pbenchmarks -pl filtro-benchmarks -am package && java -jar filtro-benchmarks/target/benchmarks.jar QueryWrapperEmissionBenchmark -prof gc}，
+ * 分配量看 {@code gc.alloc.rate.norm}（字节/次）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryWrapperEmissionBenchmark {
+
+    @Param({"conjunction", "deep"})
+    public String shape;
+
+    private Map<String, FiltroFieldMeta> fields;
+    private FiltroNode root;
+
+    @Setup
+    public void setUp() {
+        fields = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            fields.put("f" + i, FiltroFieldMetaFactory.create("f" + i, QueryIntent.RANGE, Long.class).build());
+        }
+        String query = switch (shape) {
+            case "conjunction" -> "f0==1;f1==2;f2=gt=3;f3=lt=4;f4==5;f5==6;f6=gt=7;f7=lt=8";
+            // 前端条件构造器常见的交替嵌套
+            case "deep" -> "f0==1;(f1==2,(f2==3;(f3==4,(f4==5;(f5==6,(f6==7;f7==8))))))";
+            default -> throw new IllegalArgumentException(shape);
+        };
+        root = new FiltroPlanner().compile(fields, new JirutkaFiltroQueryParser().parse(query));
+    }
+
+    @Benchmark
+    public String flat() {
+        QueryWrapper<?> wrapper = new QueryWrapper<>();
+        new MybatisPlusQueryWrapperVisitor(fields).apply(root, wrapper);
+        return wrapper.getSqlSegment();
+    }
+
+    @Benchmark
+    public String nested() {
+        QueryWrapper<?> wrapper = new QueryWrapper<>();
+        new NestedQueryWrapperVisitor(fields).apply(root, wrapper);
+        return wrapper.getSqlSegment();
+    }
+
+    /**
+     * 平铺写入之前的做法：每个 AND / OR 节点都包一层 {@code nested(...)}
+     */
+    static class NestedQueryWrapperVisitor extends MybatisPlusQueryWrapperVisitor {
+
+        NestedQueryWrapperVisitor(Map<String, FiltroFieldMeta> fields) {
+            super(fields);
+        }
+
+        @Override
+        public QueryWrapper<?> visit(FiltroAndNode node, QueryWrapper<?> param) {
+            param.nested(w -> {
+                for (FiltroNode child : node.children()) {
+                    child.accept(this, w);
+                }
+            });
+            return param;
+        }
+
+        @Override
+        public QueryWrapper<?> visit(FiltroOrNode node, QueryWrapper<?> param) {
+            param.nested(w -> {
+                boolean first = true;
+                for (FiltroNode child : node.children()) {
+                    if (!first) {
+                        w.or();
+                    }
+                    first = false;
+                    child.accept(this, w);
+                }
+            });
+            return param;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import java.util.Arrays;
+
+/**
+ * 以 {@code long[]} 表示的行位图：第 i 行对应 {@code words[i >>> 6]} 的第 {@code i & 63} 位，超出行数的高位始终为 0
+ */
+public final class Bitsets {
+
+    private Bitsets() {
+    }
+
+    public static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    /**
+     * {@code target &= other}
+     */
+    public static void and(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= other[i];
+        }
+    }
+
+    /**
+     * {@code target |= other}
+     */
+    public static void or(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= other[i];
+        }
+    }
+
+    /**
+     * {@code target &= ~other}
+     */
+    public static void andNot(long[] target, long[] other) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] &= ~other[i];
+        }
+    }
+
+    /**
+     * 按位取反，并清除超出行数的高位
+     */
+    public static void not(long[] target, int rows) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] = ~target[i];
+        }
+        clearTail(target, rows);
+    }
+
+    public static long[] all(int rows) {
+        long[] words = new long[words(rows)];
+        Arrays.fill(words, -1L);
+        clearTail(words, rows);
+        return words;
+    }
+
+    public static boolean isEmpty(long[] words) {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static int cardinality(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static boolean get(long[] words, int index) {
+        return (words[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public static void set(long[] words, int index) {
+        words[index >>> 6] |= 1L << index;
+    }
+
+    /**
+     * @return index 及之后第一个置位的行号，没有时返回 -1
+     */
+    public static int nextSetBit(long[] words, int index) {
+        int w = index >>> 6;
+        if (w >= words.length) {
+            return -1;
+        }
+        long word = words[w] & (-1L << index);
+        while (true) {
+            if (word != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++w == words.length) {
+                return -1;
+            }
+            word = words[w];
+        }
+    }
+
+    private static void clearTail(long[] words, int rows) {
+        if ((rows & 63) != 0) {
+            words[words.length - 1] &= (1L << rows) - 1;
+        }
+    }
+}
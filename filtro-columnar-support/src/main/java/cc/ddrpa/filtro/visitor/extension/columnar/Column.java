@@ -0,0 +1,47 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+/**
+ * 一个字段的全部行值。null 行在 {@code nulls} 位图中置位（没有 null 时位图为 null），其数组槽位取 0
+ */
+sealed interface Column permits Column.IntColumn, Column.LongColumn, Column.DoubleColumn, Column.DictionaryColumn {
+
+    long[] nulls();
+
+    /**
+     * 行值到基本类型的编码方式，常量按同样的方式编码后才能与列比较
+     */
+    enum Encoding {
+        /**
+         * 数值本身
+         */
+        NUMBER,
+        /**
+         * {@link java.time.LocalDate#toEpochDay()}
+         */
+        EPOCH_DAY,
+        /**
+         * {@link java.time.LocalDateTime} 按 UTC 换算的纪元微秒，即墙上时间
+         */
+        LOCAL_MICROS,
+        /**
+         * {@link java.time.Instant} 的纪元微秒
+         */
+        INSTANT_MICROS
+    }
+
+    record IntColumn(int[] values, long[] nulls, Encoding encoding) implements Column {
+    }
+
+    record LongColumn(long[] values, long[] nulls, Encoding encoding) implements Column {
+    }
+
+    record DoubleColumn(double[] values, long[] nulls) implements Column {
+    }
+
+    /**
+     * 字典编码：{@code dictionary} 按自然顺序排列且去重，{@code codes} 为下标，null 行为 -1。
+     * 编码保序，因此范围比较可以直接在编码上进行；枚举取 {@link Enum#name()}，其余取 {@link Object#toString()}
+     */
+    record DictionaryColumn(String[] dictionary, int[] codes, long[] nulls) implements Column {
+    }
+}
@@ -0,0 +1,63 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+/**
+ * 批量比较内核：对列上 {@code [from, to)} 行求值，把命中的行写入（按位或）结果位图 {@code out}。
+ * {@code from} 是 64 的整数倍，第 i 行写入 {@code out} 的第 {@code i - from} 位，分块并行时各块互不重叠。
+ * <p>
+ * 所有比较都归约为闭区间 {@code [low, high]}：{@code >} / {@code >=} / {@code <} / {@code <=} / {@code ==} 由调用方换算为区间，
+ * {@code !=} 与 {@code =out=} 在区间或集合结果上取反。null 行的处理同样由调用方完成。
+ */
+interface ColumnKernels {
+
+    void range(int[] values, int from, int to, int low, int high, long[] out);
+
+    void range(long[] values, int from, int to, long low, long high, long[] out);
+
+    /**
+     * NaN 不在任何区间内
+     */
+    void range(double[] values, int from, int to, double low, double high, long[] out);
+
+    /**
+     * @param sorted 升序排列的常量
+     */
+    void in(int[] values, int from, int to, int[] sorted, long[] out);
+
+    void in(long[] values, int from, int to, long[] sorted, long[] out);
+
+    void in(double[] values, int from, int to, double[] sorted, long[] out);
+
+    /**
+     * 字典编码列：编码在 {@code codeBits} 中置位的行命中，编码为负（null）的行不命中
+     */
+    void codes(int[] codes, int from, int to, long[] codeBits, long[] out);
+
+    /**
+     * @param vectorized 为 true 且运行时已添加 {@code jdk.incubator.vector} 模块时使用 Vector API 实现
+     */
+    static ColumnKernels of(boolean vectorized) {
+        return vectorized && VectorSupport.AVAILABLE != null ? VectorSupport.AVAILABLE : ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * 延迟探测，未添加孵化模块时不会加载 {@code VectorKernels}
+     */
+    final class VectorSupport {
+        static final ColumnKernels AVAILABLE = load();
+
+        private VectorSupport() {
+        }
+
+        private static ColumnKernels load() {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+                return null;
+            }
+            try {
+                return (ColumnKernels) Class.forName(ColumnKernels.class.getPackageName() + ".VectorKernels")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.visitor.extension.columnar.Column.*;
+
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * 只读的内存数据集：行对象本身之外，每个 {@code @Filtro} 字段另存为一列基本类型数组，过滤时按列批量求值，不再逐个访问对象。
+ * <ul>
+ *   <li>{@code int} / {@code short} / {@code byte} 及其包装类型 → {@code int[]}，{@code long} / {@code Long} → {@code long[]}，
+ *       {@code float} / {@code double} 及其包装类型 → {@code double[]}</li>
+ *   <li>{@link LocalDate} → 纪元日（{@code int[]}），{@link LocalDateTime} / {@link Instant} → 纪元微秒（{@code long[]}），
+ *       比较精度为微秒</li>
+ *   <li>{@link String}、枚举、{@link Boolean} → 保序的字典编码（{@code int[]}）</li>
+ * </ul>
+ * 其余类型（如 {@link java.math.BigDecimal}）不建列，查询引用这类字段时报错。数据集构建后不可修改，数据变化时重新构建。
+ */
+public final class ColumnarDataset<T> {
+
+    private final List<T> rows;
+    private final Map<String, Column> columns;
+
+    private ColumnarDataset(List<T> rows, Map<String, Column> columns) {
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * @param fields 通常为 {@code filtroRegistry.getAsMap(Asset.class, group)}；行对象为 {@link Map} 时按字段名取值
+     */
+    public static <T> ColumnarDataset<T> of(List<T> rows, Map<String, FiltroFieldMeta> fields) {
+        List<T> snapshot = List.copyOf(rows);
+        Map<String, Column> columns = new HashMap<>();
+        for (FiltroFieldMeta meta : fields.values()) {
+            Column column = build(meta, snapshot);
+            if (column != null) {
+                columns.put(meta.getField(), column);
+            }
+        }
+        return new ColumnarDataset<>(snapshot, Map.copyOf(columns));
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    public List<T> rows() {
+        return rows;
+    }
+
+    public boolean hasColumn(String field) {
+        return columns.containsKey(field);
+    }
+
+    /**
+     * @return 位图中置位的行，保持原有顺序
+     */
+    public List<T> select(long[] bits) {
+        List<T> selected = new ArrayList<>(Bitsets.cardinality(bits));
+        for (int i = Bitsets.nextSetBit(bits, 0); i >= 0; i = Bitsets.nextSetBit(bits, i + 1)) {
+            selected.add(rows.get(i));
+        }
+        return selected;
+    }
+
+    Column column(String field) {
+        return columns.get(field);
+    }
+
+    /**
+     * 纪元微秒；常量与行值使用同一换算
+     */
+    static long micros(long epochSecond, int nano) {
+        return Math.addExact(Math.multiplyExact(epochSecond, 1_000_000L), nano / 1_000);
+    }
+
+    static long micros(LocalDateTime dateTime) {
+        return micros(dateTime.toEpochSecond(ZoneOffset.UTC), dateTime.getNano());
+    }
+
+    static long micros(Instant instant) {
+        return micros(instant.getEpochSecond(), instant.getNano());
+    }
+
+    private static Column build(FiltroFieldMeta meta, List<?> rows) {
+        Field source = meta.getSourceField();
+        Class<?> type = wrap(source != null ? source.getType() : meta.getJavaType());
+        Function<Object, Object> reader = reader(meta);
+        int size = rows.size();
+        long[] nulls = new long[Bitsets.words(size)];
+        boolean hasNull = false;
+
+        if (type == Integer.class || type == Short.class || type == Byte.class || type == LocalDate.class) {
+            int[] values = new int[size];
+            for (int i = 0; i < size; i++) {
+                Object value = reader.apply(rows.get(i));
+                if (value == null) {
+                    Bitsets.set(nulls, i);
+                    hasNull = true;
+                } else {
+                    values[i] = value instanceof LocalDate date
+                            ? Math.toIntExact(date.toEpochDay())
+                            : ((Number) value).intValue();
+                }
+            }
+            return new IntColumn(values, hasNull ? nulls : null,
+                    type == LocalDate.class ? Encoding.EPOCH_DAY : Encoding.NUMBER);
+        }
+        if (type == Long.class || type == LocalDateTime.class || type == Instant.class) {
+            long[] values = new long[size];
+            for (int i = 0; i < size; i++) {
+                Object value = reader.apply(rows.get(i));
+                if (value == null) {
+                    Bitsets.set(nulls, i);
+                    hasNull = true;
+                } else if (value instanceof LocalDateTime dateTime) {
+                    values[i] = micros(dateTime);
+                } else if (value instanceof Instant instant) {
+                    values[i] = micros(instant);
+                } else {
+                    values[i] = ((Number) value).longValue();
+                }
+            }
+            Encoding encoding = type == LocalDateTime.class ? Encoding.LOCAL_MICROS
+                    : type == Instant.class ? Encoding.INSTANT_MICROS : Encoding.NUMBER;
+            return new LongColumn(values, hasNull ? nulls : null, encoding);
+        }
+        if (type == Double.class || type == Float.class) {
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                Object value = reader.apply(rows.get(i));
+                if (value == null) {
+                    Bitsets.set(nulls, i);
+                    hasNull = true;
+                } else {
+                    values[i] = ((Number) value).doubleValue();
+                }
+            }
+            return new DoubleColumn(values, hasNull ? nulls : null);
+        }
+        if (type == String.class || type == Boolean.class || type.isEnum()) {
+            String[] keys = new String[size];
+            for (int i = 0; i < size; i++) {
+                Object value = reader.apply(rows.get(i));
+                if (value == null) {
+                    Bitsets.set(nulls, i);
+                    hasNull = true;
+                } else {
+                    keys[i] = dictionaryKey(value);
+                }
+            }
+            String[] dictionary = Arrays.stream(keys).filter(Objects::nonNull).distinct().sorted()
+                    .toArray(String[]::new);
+            int[] codes = new int[size];
+            for (int i = 0; i < size; i++) {
+                codes[i] = keys[i] == null ? -1 : Arrays.binarySearch(dictionary, keys[i]);
+            }
+            return new DictionaryColumn(dictionary, codes, hasNull ? nulls : null);
+        }
+        return null;
+    }
+
+    static String dictionaryKey(Object value) {
+        return value instanceof Enum<?> constant ? constant.name() : value.toString();
+    }
+
+    private static Function<Object, Object> reader(FiltroFieldMeta meta) {
+        Field source = meta.getSourceField();
+        if (source != null) {
+            source.trySetAccessible();
+            return row -> read(source, row);
+        }
+        String name = meta.getField();
+        Map<Class<?>, Field> fields = new HashMap<>(4);
+        return row -> {
+            if (row instanceof Map<?, ?> map) {
+                return map.get(name);
+            }
+            return read(fields.computeIfAbsent(row.getClass(), type -> declaredField(type, name)), row);
+        };
+    }
+
+    private static Object read(Field field, Object row) {
+        try {
+            return field.get(row);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access field " + field.getDeclaringClass().getName()
+                    + "." + field.getName(), e);
+        }
+    }
+
+    private static Field declaredField(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(name);
+                field.trySetAccessible();
+                return field;
+            } catch (NoSuchFieldException ignored) {
+                // 继续查找父类
+            }
+        }
+        throw new IllegalArgumentException("No field '" + name + "' in " + type.getName());
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (type == null) {
+            return Object.class;
+        }
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+}
@@ -0,0 +1,424 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroNodeVisitor;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
+import cc.ddrpa.filtro.core.rsql.AbstractRSQLVisitor;
+import cc.ddrpa.filtro.visitor.extension.columnar.Column.*;
+import cz.jirutka.rsql.parser.ast.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * IR → {@link ColumnarDataset} 上的行位图（{@code long[]}，见 {@link Bitsets}）。
+ * <p>
+ * 每个比较条件由批量内核对整列求值得到一个位图，AND / OR 按字做位运算合并；AND 的中间结果为空时跳过其余子条件。
+ * <ul>
+ *   <li>数值与日期时间的比较换算为列上的闭区间，{@code !=} / {@code =out=} 在结果上取反</li>
+ *   <li>字典编码列：{@code ==} 与范围比较在编码上进行；{@code =in=}、{@code =contains=}、{@code =startswith=}
+ *       先在字典上求出命中的编码集合，每个不同的值只匹配一次</li>
+ *   <li>空值语义与 SQL 一致：null 行只被 {@code =null=} 与 {@code =nullableneq=} 选中</li>
+ * </ul>
+ * 默认在运行时已添加 {@code jdk.incubator.vector} 模块时使用 Vector API 内核，见 {@link #setVectorized(boolean)}。
+ */
+public class ColumnarFilterVisitor extends AbstractRSQLVisitor<long[]>
+        implements RSQLVisitor<long[], Void>, FiltroNodeVisitor<long[], Void> {
+
+    private final ColumnarDataset<?> dataset;
+    private ColumnKernels kernels = ColumnKernels.of(true);
+    private ZoneId zone = ZoneId.systemDefault();
+    private int from;
+    private int to;
+
+    public ColumnarFilterVisitor(ColumnarDataset<?> dataset, Map<String, FiltroFieldMeta> fieldSpecMap) {
+        super(fieldSpecMap);
+        this.dataset = dataset;
+        this.to = dataset.size();
+    }
+
+    public ColumnarFilterVisitor(ColumnarDataset<?> dataset, Map<String, FiltroFieldMeta> fieldSpecMap,
+                                 int maxDepth) {
+        super(fieldSpecMap, maxDepth);
+        this.dataset = dataset;
+        this.to = dataset.size();
+    }
+
+    /**
+     * @param vectorized false 时始终使用标量内核
+     */
+    public ColumnarFilterVisitor setVectorized(boolean vectorized) {
+        this.kernels = ColumnKernels.of(vectorized);
+        return this;
+    }
+
+    /**
+     * {@link Instant} 与 {@link LocalDateTime} / {@link LocalDate} 互相换算时使用的时区，默认为系统时区
+     */
+    public ColumnarFilterVisitor setZone(ZoneId zone) {
+        this.zone = zone;
+        return this;
+    }
+
+    /**
+     * 只对 {@code [from, to)} 行求值，结果位图的第 0 位对应第 {@code from} 行；{@code from} 须为 64 的整数倍
+     */
+    ColumnarFilterVisitor setRange(int from, int to) {
+        if ((from & 63) != 0 || from > to || to > dataset.size()) {
+            throw new IllegalArgumentException("Invalid row range [" + from + ", " + to + ")");
+        }
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    public long[] apply(Node rootNode) {
+        return apply(compile(rootNode));
+    }
+
+    public long[] apply(FiltroNode rootNode) {
+        return rootNode.accept(this, null);
+    }
+
+    @Override
+    public long[] visit(AndNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public long[] visit(OrNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public long[] visit(ComparisonNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public long[] visit(FiltroAndNode node, Void param) {
+        long[] result = null;
+        for (FiltroNode child : node.children()) {
+            long[] bits = child.accept(this, null);
+            if (result == null) {
+                result = bits;
+            } else {
+                Bitsets.and(result, bits);
+            }
+            if (Bitsets.isEmpty(result)) {
+                break;
+            }
+        }
+        return result != null ? result : Bitsets.all(to - from);
+    }
+
+    @Override
+    public long[] visit(FiltroOrNode node, Void param) {
+        long[] result = null;
+        for (FiltroNode child : node.children()) {
+            long[] bits = child.accept(this, null);
+            if (result == null) {
+                result = bits;
+            } else {
+                Bitsets.or(result, bits);
+            }
+        }
+        return result != null ? result : new long[Bitsets.words(to - from)];
+    }
+
+    @Override
+    public long[] visit(FiltroComparisonNode node, Void param) {
+        Column column = dataset.column(node.meta().getField());
+        if (column == null) {
+            throw new IllegalArgumentException("Field " + node.meta().getField()
+                    + " has no column in the dataset, its type is not supported by "
+                    + this.getClass().getSimpleName());
+        }
+        int rows = to - from;
+        FiltroOperator operator = node.operator();
+        long[] nulls = slice(column.nulls());
+        if (operator == FiltroOperator.IS_NULL) {
+            return nulls != null ? nulls.clone() : new long[Bitsets.words(rows)];
+        }
+        if (operator == FiltroOperator.NOT_NULL) {
+            long[] bits = Bitsets.all(rows);
+            if (nulls != null) {
+                Bitsets.andNot(bits, nulls);
+            }
+            return bits;
+        }
+
+        long[] bits = new long[Bitsets.words(rows)];
+        if (column instanceof IntColumn ints) {
+            match(ints, node, bits);
+        } else if (column instanceof LongColumn longs) {
+            match(longs, node, bits);
+        } else if (column instanceof DoubleColumn doubles) {
+            match(doubles, node, bits);
+        } else {
+            match((DictionaryColumn) column, node, bits);
+        }
+        if (negated(operator)) {
+            Bitsets.not(bits, rows);
+        }
+        if (nulls != null) {
+            if (operator == FiltroOperator.NULLABLE_NEQ) {
+                Bitsets.or(bits, nulls);
+            } else {
+                Bitsets.andNot(bits, nulls);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * 列的 null 位图截取到当前行区间
+     */
+    private long[] slice(long[] nulls) {
+        if (nulls == null || (from == 0 && to == dataset.size())) {
+            return nulls;
+        }
+        return Arrays.copyOfRange(nulls, from >>> 6, (from >>> 6) + Bitsets.words(to - from));
+    }
+
+    /**
+     * 写入条件的肯定形式（{@code !=} 按 {@code ==}，{@code =out=} 按 {@code =in=}），不考虑 null 行
+     */
+    private void match(IntColumn column, FiltroComparisonNode node, long[] out) {
+        if (isMembership(node.operator())) {
+            int[] sorted = node.values().stream()
+                    .mapToLong(value -> encode(value, column.encoding(), node))
+                    .filter(value -> value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+                    .mapToInt(value -> (int) value)
+                    .sorted().distinct().toArray();
+            if (sorted.length > 0) {
+                kernels.in(column.values(), from, to, sorted, out);
+            }
+            return;
+        }
+        long[] range = range(node, encode(node.firstValue(), column.encoding(), node));
+        long low = Math.max(range[0], Integer.MIN_VALUE);
+        long high = Math.min(range[1], Integer.MAX_VALUE);
+        if (low <= high) {
+            kernels.range(column.values(), from, to, (int) low, (int) high, out);
+        }
+    }
+
+    private void match(LongColumn column, FiltroComparisonNode node, long[] out) {
+        if (isMembership(node.operator())) {
+            long[] sorted = node.values().stream()
+                    .mapToLong(value -> encode(value, column.encoding(), node))
+                    .sorted().distinct().toArray();
+            if (sorted.length > 0) {
+                kernels.in(column.values(), from, to, sorted, out);
+            }
+            return;
+        }
+        long[] range = range(node, encode(node.firstValue(), column.encoding(), node));
+        if (range[0] <= range[1]) {
+            kernels.range(column.values(), from, to, range[0], range[1], out);
+        }
+    }
+
+    private void match(DoubleColumn column, FiltroComparisonNode node, long[] out) {
+        if (isMembership(node.operator())) {
+            double[] sorted = node.values().stream()
+                    .mapToDouble(value -> number(value, node).doubleValue())
+                    .sorted().distinct().toArray();
+            if (sorted.length > 0) {
+                kernels.in(column.values(), from, to, sorted, out);
+            }
+            return;
+        }
+        double constant = number(node.firstValue(), node).doubleValue();
+        double low = Double.NEGATIVE_INFINITY;
+        double high = Double.POSITIVE_INFINITY;
+        switch (comparison(node)) {
+            case EQ, NEQ, NULLABLE_NEQ -> low = high = constant;
+            case GT -> low = constant == Double.POSITIVE_INFINITY ? Double.NaN : Math.nextUp(constant);
+            case GTE -> low = constant;
+            case LT -> high = constant == Double.NEGATIVE_INFINITY ? Double.NaN : Math.nextDown(constant);
+            case LTE -> high = constant;
+            default -> throw unsupported(node);
+        }
+        // 边界为 NaN 时任何行都不在区间内
+        if (!Double.isNaN(low) && !Double.isNaN(high)) {
+            kernels.range(column.values(), from, to, low, high, out);
+        }
+    }
+
+    private void match(DictionaryColumn column, FiltroComparisonNode node, long[] out) {
+        String[] dictionary = column.dictionary();
+        switch (node.operator()) {
+            case IN, NOT_IN -> {
+                long[] codeBits = new long[Bitsets.words(dictionary.length)];
+                for (Object value : node.values()) {
+                    int code = Arrays.binarySearch(dictionary, ColumnarDataset.dictionaryKey(value));
+                    if (code >= 0) {
+                        Bitsets.set(codeBits, code);
+                    }
+                }
+                kernels.codes(column.codes(), from, to, codeBits, out);
+            }
+            case CONTAINS, NOT_CONTAINS, STARTS_WITH -> {
+                String text = node.firstArgument();
+                boolean ignoreCase = node.meta().getQueryIntent() == QueryIntent.SEARCH
+                        && node.meta().getSearchMode() == SearchMode.COLLATION;
+                boolean prefix = node.operator() == FiltroOperator.STARTS_WITH;
+                long[] codeBits = new long[Bitsets.words(dictionary.length)];
+                for (int code = 0; code < dictionary.length; code++) {
+                    if (prefix ? dictionary[code].regionMatches(ignoreCase, 0, text, 0, text.length())
+                            : contains(dictionary[code], text, ignoreCase)) {
+                        Bitsets.set(codeBits, code);
+                    }
+                }
+                kernels.codes(column.codes(), from, to, codeBits, out);
+            }
+            default -> {
+                // 字典有序，比较结果等价于编码上的区间
+                int index = Arrays.binarySearch(dictionary, ColumnarDataset.dictionaryKey(node.firstValue()));
+                int insertion = index >= 0 ? index : -index - 1;
+                int low = 0;
+                int high = dictionary.length - 1;
+                switch (comparison(node)) {
+                    case EQ, NEQ, NULLABLE_NEQ -> {
+                        low = index >= 0 ? index : 1;
+                        high = index >= 0 ? index : 0;
+                    }
+                    case GT -> low = index >= 0 ? index + 1 : insertion;
+                    case GTE -> low = insertion;
+                    case LT -> high = insertion - 1;
+                    case LTE -> high = index >= 0 ? index : insertion - 1;
+                    default -> throw unsupported(node);
+                }
+                if (low <= high) {
+                    kernels.range(column.codes(), from, to, low, high, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * 整数编码列上的闭区间 {@code [low, high]}，low > high 表示空集
+     */
+    private static long[] range(FiltroComparisonNode node, long constant) {
+        return switch (comparison(node)) {
+            case EQ, NEQ, NULLABLE_NEQ -> new long[]{constant, constant};
+            case GT -> constant == Long.MAX_VALUE ? new long[]{1, 0} : new long[]{constant + 1, Long.MAX_VALUE};
+            case GTE -> new long[]{constant, Long.MAX_VALUE};
+            case LT -> constant == Long.MIN_VALUE ? new long[]{1, 0} : new long[]{Long.MIN_VALUE, constant - 1};
+            case LTE -> new long[]{Long.MIN_VALUE, constant};
+            default -> throw unsupported(node);
+        };
+    }
+
+    /**
+     * 常量按列的编码换算；整数列不接受带小数的常量
+     */
+    private long encode(Object value, Encoding encoding, FiltroComparisonNode node) {
+        return switch (encoding) {
+            case NUMBER -> {
+                Number number = number(value, node);
+                if (number instanceof Double || number instanceof Float
+                        || (number instanceof BigDecimal decimal && decimal.stripTrailingZeros().scale() > 0)) {
+                    throw new IllegalArgumentException("Field " + node.meta().getField()
+                            + " expects an integer, got " + value);
+                }
+                yield number instanceof BigDecimal || number instanceof BigInteger
+                        ? new BigDecimal(number.toString()).longValueExact()
+                        : number.longValue();
+            }
+            case EPOCH_DAY -> {
+                if (value instanceof LocalDate date) {
+                    yield date.toEpochDay();
+                }
+                throw new IllegalArgumentException("Field " + node.meta().getField()
+                        + " is a date and cannot be compared with " + value);
+            }
+            case LOCAL_MICROS -> {
+                if (value instanceof LocalDateTime dateTime) {
+                    yield ColumnarDataset.micros(dateTime);
+                }
+                if (value instanceof LocalDate date) {
+                    yield ColumnarDataset.micros(date.atStartOfDay());
+                }
+                if (value instanceof Instant instant) {
+                    yield ColumnarDataset.micros(LocalDateTime.ofInstant(instant, zone));
+                }
+                throw new IllegalArgumentException("Field " + node.meta().getField()
+                        + " expects a date time, got " + value);
+            }
+            case INSTANT_MICROS -> {
+                if (value instanceof Instant instant) {
+                    yield ColumnarDataset.micros(instant);
+                }
+                if (value instanceof LocalDateTime dateTime) {
+                    yield ColumnarDataset.micros(dateTime.atZone(zone).toInstant());
+                }
+                if (value instanceof LocalDate date) {
+                    yield ColumnarDataset.micros(date.atStartOfDay(zone).toInstant());
+                }
+                throw new IllegalArgumentException("Field " + node.meta().getField()
+                        + " expects an instant, got " + value);
+            }
+        };
+    }
+
+    private static Number number(Object value, FiltroComparisonNode node) {
+        if (value instanceof Number number) {
+            return number;
+        }
+        throw new IllegalArgumentException("Field " + node.meta().getField() + " expects a number, got " + value);
+    }
+
+    private static boolean contains(String value, String text, boolean ignoreCase) {
+        if (!ignoreCase) {
+            return value.contains(text);
+        }
+        for (int i = 0, last = value.length() - text.length(); i <= last; i++) {
+            if (value.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isMembership(FiltroOperator operator) {
+        return operator == FiltroOperator.IN || operator == FiltroOperator.NOT_IN;
+    }
+
+    private static boolean negated(FiltroOperator operator) {
+        return switch (operator) {
+            case NEQ, NULLABLE_NEQ, NOT_IN, NOT_CONTAINS -> true;
+            default -> false;
+        };
+    }
+
+    private static FiltroOperator comparison(FiltroComparisonNode node) {
+        return switch (node.operator()) {
+            case ALT_GT -> FiltroOperator.GT;
+            case ALT_GTE -> FiltroOperator.GTE;
+            case ALT_LT -> FiltroOperator.LT;
+            case ALT_LTE -> FiltroOperator.LTE;
+            default -> node.operator();
+        };
+    }
+
+    private static IllegalArgumentException unsupported(FiltroComparisonNode node) {
+        return new IllegalArgumentException("FiltroOperator " + node.operator().getSymbol()
+                + " is not supported for field " + node.meta().getField()
+                + " in " + ColumnarFilterVisitor.class.getSimpleName());
+    }
+}
@@ -0,0 +1,137 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 已规划的查询，可在任意 {@link ColumnarDataset} 上求值；与 SQL / Mongo 等后端消费的是同一份 IR。
+ * <p>
+ * 数据集行数不低于并行阈值时，按 64 行对齐切分为若干块，每块的位图写回结果中各自的字区间，无需合并，行序不变。
+ * 配置了 {@link ForkJoinPool} 时各块并行求值，否则在调用线程上逐块求值——块内的列片段与中间位图留在缓存中，
+ * AND 的提前结束也按块生效，单线程时同样快于整列扫描。
+ */
+public final class ColumnarQuery {
+
+    /**
+     * 默认并行阈值，行数低于该值时整列求值
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 100_000;
+
+    /**
+     * 每块至少包含的行数（64 的整数倍），避免任务调度开销超过扫描本身；单线程时即为块大小
+     */
+    static final int MIN_CHUNK_ROWS = 8192;
+
+    private static final ColumnarQuery EMPTY_RESULT = new ColumnarQuery(null, Map.of(), 0, true, ZoneId.of("UTC"),
+            null, Integer.MAX_VALUE);
+
+    private final FiltroNode root;
+    private final Map<String, FiltroFieldMeta> fields;
+    private final int maxDepth;
+    private final boolean vectorized;
+    private final ZoneId zone;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    ColumnarQuery(FiltroNode root, Map<String, FiltroFieldMeta> fields, int maxDepth, boolean vectorized,
+                  ZoneId zone, ForkJoinPool pool, int parallelThreshold) {
+        this.root = root;
+        this.fields = fields;
+        this.maxDepth = maxDepth;
+        this.vectorized = vectorized;
+        this.zone = zone;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * 查询条件自相矛盾，不会选中任何行
+     */
+    public static ColumnarQuery emptyResult() {
+        return EMPTY_RESULT;
+    }
+
+    public boolean isEmptyResult() {
+        return root == null;
+    }
+
+    /**
+     * @return 命中行的位图，见 {@link Bitsets}
+     */
+    public long[] evaluate(ColumnarDataset<?> dataset) {
+        int rows = dataset.size();
+        if (root == null) {
+            return new long[Bitsets.words(rows)];
+        }
+        if (rows < parallelThreshold) {
+            return visitor(dataset).apply(root);
+        }
+        long[] result = new long[Bitsets.words(rows)];
+        if (pool == null || pool.getParallelism() < 2) {
+            for (int from = 0; from < rows; from += MIN_CHUNK_ROWS) {
+                scan(dataset, result, from, Math.min(from + MIN_CHUNK_ROWS, rows));
+            }
+            return result;
+        }
+        // 每个工作线程约 4 块，便于负载不均时窃取
+        int chunkRows = Math.max(MIN_CHUNK_ROWS, (rows / (pool.getParallelism() * 4) + 63) & ~63);
+        pool.invoke(new Scan(dataset, result, chunkRows, 0, rows));
+        return result;
+    }
+
+    public <T> List<T> select(ColumnarDataset<T> dataset) {
+        return dataset.select(evaluate(dataset));
+    }
+
+    public int count(ColumnarDataset<?> dataset) {
+        return Bitsets.cardinality(evaluate(dataset));
+    }
+
+    private ColumnarFilterVisitor visitor(ColumnarDataset<?> dataset) {
+        return new ColumnarFilterVisitor(dataset, fields, maxDepth)
+                .setVectorized(vectorized)
+                .setZone(zone);
+    }
+
+    private void scan(ColumnarDataset<?> dataset, long[] result, int from, int to) {
+        long[] bits = visitor(dataset).setRange(from, to).apply(root);
+        System.arraycopy(bits, 0, result, from >>> 6, bits.length);
+    }
+
+    /**
+     * 二分切分行区间，切分点对齐到 64 行，各块写入 {@code result} 中互不重叠的字
+     */
+    private final class Scan extends RecursiveAction {
+
+        private final ColumnarDataset<?> dataset;
+        private final long[] result;
+        private final int chunkRows;
+        private final int from;
+        private final int to;
+
+        Scan(ColumnarDataset<?> dataset, long[] result, int chunkRows, int from, int to) {
+            this.dataset = dataset;
+            this.result = result;
+            this.chunkRows = chunkRows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkRows) {
+                scan(dataset, result, from, to);
+                return;
+            }
+            int middle = from + (((to - from) >>> 1) & ~63);
+            invokeAll(new Scan(dataset, result, chunkRows, from, middle),
+                    new Scan(dataset, result, chunkRows, middle, to));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cz.jirutka.rsql.parser.ast.Node;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+public class ColumnarQueryNodeHandler implements RsqlNodeHandler<ColumnarQuery> {
+
+    private final FiltroRegistry filtroRegistry;
+
+    private boolean vectorized = true;
+    private ZoneId zone = ZoneId.systemDefault();
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private int parallelThreshold = ColumnarQuery.DEFAULT_PARALLEL_THRESHOLD;
+
+    public ColumnarQueryNodeHandler(FiltroRegistry filtroRegistry) {
+        this.filtroRegistry = filtroRegistry;
+    }
+
+    /**
+     * 见 {@link ColumnarFilterVisitor#setVectorized(boolean)}
+     */
+    public ColumnarQueryNodeHandler setVectorized(boolean vectorized) {
+        this.vectorized = vectorized;
+        return this;
+    }
+
+    /**
+     * 见 {@link ColumnarFilterVisitor#setZone(ZoneId)}
+     */
+    public ColumnarQueryNodeHandler setZone(ZoneId zone) {
+        this.zone = zone;
+        return this;
+    }
+
+    /**
+     * 大数据集分块并行求值使用的线程池，默认为 {@link ForkJoinPool#commonPool()}；为 null 时在调用线程上逐块求值
+     */
+    public ColumnarQueryNodeHandler setForkJoinPool(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    /**
+     * 数据集行数不低于该值时才分块（并行）求值，默认为 {@link ColumnarQuery#DEFAULT_PARALLEL_THRESHOLD}
+     */
+    public ColumnarQueryNodeHandler setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+        return this;
+    }
+
+    @Override
+    public boolean supports(Class<?> targetType) {
+        return ColumnarQuery.class.equals(targetType);
+    }
+
+    @Override
+    public ColumnarQuery parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+        return translate(new FiltroPlanner(filtroRegistry.getMaxDepth()).plan(metaMap, queryRoot));
+    }
+
+    @Override
+    public ColumnarQuery translate(FiltroPlan plan) {
+        if (plan.isEmptyResult()) {
+            return ColumnarQuery.emptyResult();
+        }
+        return new ColumnarQuery(plan.getRoot(), plan.getFields(), filtroRegistry.getMaxDepth(), vectorized, zone,
+                pool, parallelThreshold);
+    }
+}
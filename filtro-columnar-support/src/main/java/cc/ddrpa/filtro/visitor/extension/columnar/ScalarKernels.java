@@ -0,0 +1,90 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import java.util.Arrays;
+
+/**
+ * 标量实现：每次生成一个 64 行的字，比较结果以无分支的方式移入字中，循环体可被 JIT 自动展开
+ */
+class ScalarKernels implements ColumnKernels {
+
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    @Override
+    public void range(int[] values, int from, int to, int low, int high, long[] out) {
+        // 无符号比较把两次边界检查合并为一次
+        int width = high - low;
+        for (int base = from, w = 0; base < to; base += 64, w++) {
+            int end = Math.min(base + 64, to);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                word |= (Integer.compareUnsigned(values[i] - low, width) <= 0 ? 1L : 0L) << i;
+            }
+            out[w] |= word;
+        }
+    }
+
+    @Override
+    public void range(long[] values, int from, int to, long low, long high, long[] out) {
+        long width = high - low;
+        for (int base = from, w = 0; base < to; base += 64, w++) {
+            int end = Math.min(base + 64, to);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                word |= (Long.compareUnsigned(values[i] - low, width) <= 0 ? 1L : 0L) << i;
+            }
+            out[w] |= word;
+        }
+    }
+
+    @Override
+    public void range(double[] values, int from, int to, double low, double high, long[] out) {
+        for (int base = from, w = 0; base < to; base += 64, w++) {
+            int end = Math.min(base + 64, to);
+            long word = 0;
+            for (int i = base; i < end; i++) {
+                double value = values[i];
+                word |= (value >= low & value <= high ? 1L : 0L) << i;
+            }
+            out[w] |= word;
+        }
+    }
+
+    @Override
+    public void in(int[] values, int from, int to, int[] sorted, long[] out) {
+        for (int i = from; i < to; i++) {
+            if (Arrays.binarySearch(sorted, values[i]) >= 0) {
+                out[(i - from) >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void in(long[] values, int from, int to, long[] sorted, long[] out) {
+        for (int i = from; i < to; i++) {
+            if (Arrays.binarySearch(sorted, values[i]) >= 0) {
+                out[(i - from) >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void in(double[] values, int from, int to, double[] sorted, long[] out) {
+        for (int i = from; i < to; i++) {
+            double value = values[i];
+            // binarySearch 视 NaN 等于 NaN，与区间比较的语义不一致，单独排除
+            if (value == value && Arrays.binarySearch(sorted, value) >= 0) {
+                out[(i - from) >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void codes(int[] codes, int from, int to, long[] codeBits, long[] out) {
+        for (int i = from; i < to; i++) {
+            int code = codes[i];
+            if (code >= 0 && (codeBits[code >>> 6] & (1L << code)) != 0) {
+                out[(i - from) >>> 6] |= 1L << i;
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import jdk.incubator.vector.*;
+
+/**
+ * Vector API 实现（JDK 孵化模块 {@code jdk.incubator.vector}，运行时需 {@code --add-modules jdk.incubator.vector}）。
+ * <p>
+ * 每次比较一整个向量，比较掩码经 {@link VectorMask#toLong()} 直接拼入结果字：通道数是 64 的约数，向量不会跨字。
+ * 不足一个向量的尾部逐行处理，常量较多的 {@code =in=} 交给标量实现。
+ */
+final class VectorKernels extends ScalarKernels {
+
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * 常量不超过该数量时，{@code =in=} 以逐个相等比较的掩码合并求值
+     */
+    private static final int MAX_VECTOR_IN = 8;
+
+    @Override
+    public void range(int[] values, int from, int to, int low, int high, long[] out) {
+        int lanes = INTS.length();
+        int bound = from + INTS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += lanes) {
+            IntVector vector = IntVector.fromArray(INTS, values, i);
+            VectorMask<Integer> mask = vector.compare(VectorOperators.GE, low)
+                    .and(vector.compare(VectorOperators.LE, high));
+            out[(i - from) >>> 6] |= mask.toLong() << i;
+        }
+        for (; i < to; i++) {
+            if (values[i] >= low && values[i] <= high) {
+                out[(i - from) >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void range(long[] values, int from, int to, long low, long high, long[] out) {
+        int lanes = LONGS.length();
+        int bound = from + LONGS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += lanes) {
+            LongVector vector = LongVector.fromArray(LONGS, values, i);
+            VectorMask<Long> mask = vector.compare(VectorOperators.GE, low)
+                    .and(vector.compare(VectorOperators.LE, high));
+            out[(i - from) >>> 6] |= mask.toLong() << i;
+        }
+        for (; i < to; i++) {
+            if (values[i] >= low && values[i] <= high) {
+                out[(i - from) >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void range(double[] values, int from, int to, double low, double high, long[] out) {
+        int lanes = DOUBLES.length();
+        int bound = from + DOUBLES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += lanes) {
+            DoubleVector vector = DoubleVector.fromArray(DOUBLES, values, i);
+            VectorMask<Double> mask = vector.compare(VectorOperators.GE, low)
+                    .and(vector.compare(VectorOperators.LE, high));
+            out[(i - from) >>> 6] |= mask.toLong() << i;
+        }
+        for (; i < to; i++) {
+            if (values[i] >= low && values[i] <= high) {
+                out[(i - from) >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    @Override
+    public void in(int[] values, int from, int to, int[] sorted, long[] out) {
+        if (sorted.length > MAX_VECTOR_IN) {
+            super.in(values, from, to, sorted, out);
+            return;
+        }
+        int lanes = INTS.length();
+        int bound = from + INTS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += lanes) {
+            IntVector vector = IntVector.fromArray(INTS, values, i);
+            VectorMask<Integer> mask = vector.eq(sorted[0]);
+            for (int c = 1; c < sorted.length; c++) {
+                mask = mask.or(vector.eq(sorted[c]));
+            }
+            out[(i - from) >>> 6] |= mask.toLong() << i;
+        }
+        for (; i < to; i++) {
+            for (int constant : sorted) {
+                if (values[i] == constant) {
+                    out[(i - from) >>> 6] |= 1L << i;
+                    break;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void in(long[] values, int from, int to, long[] sorted, long[] out) {
+        if (sorted.length > MAX_VECTOR_IN) {
+            super.in(values, from, to, sorted, out);
+            return;
+        }
+        int lanes = LONGS.length();
+        int bound = from + LONGS.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += lanes) {
+            LongVector vector = LongVector.fromArray(LONGS, values, i);
+            VectorMask<Long> mask = vector.eq(sorted[0]);
+            for (int c = 1; c < sorted.length; c++) {
+                mask = mask.or(vector.eq(sorted[c]));
+            }
+            out[(i - from) >>> 6] |= mask.toLong() << i;
+        }
+        for (; i < to; i++) {
+            for (long constant : sorted) {
+                if (values[i] == constant) {
+                    out[(i - from) >>> 6] |= 1L << i;
+                    break;
+                }
+            }
+        }
+    }
+}
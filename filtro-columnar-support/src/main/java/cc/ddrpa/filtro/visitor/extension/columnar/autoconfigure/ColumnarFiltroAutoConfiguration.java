@@ -0,0 +1,19 @@
+package cc.ddrpa.filtro.visitor.extension.columnar.autoconfigure;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cc.ddrpa.filtro.visitor.extension.columnar.ColumnarQuery;
+import cc.ddrpa.filtro.visitor.extension.columnar.ColumnarQueryNodeHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(ColumnarQuery.class)
+public class ColumnarFiltroAutoConfiguration {
+
+    @Bean
+    public RsqlNodeHandler<ColumnarQuery> columnarQueryNodeHandler(FiltroRegistry filtroRegistry) {
+        return new ColumnarQueryNodeHandler(filtroRegistry);
+    }
+}
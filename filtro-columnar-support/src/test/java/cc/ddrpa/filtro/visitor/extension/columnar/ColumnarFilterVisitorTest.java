@@ -0,0 +1,264 @@
+package cc.ddrpa.filtro.visitor.extension.columnar;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.annotation.Filtro;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroFieldMetaBuilder;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarFilterVisitorTest {
+
+    // 不是 64 的整数倍，覆盖位图末字
+    private static final int ROWS = 1000;
+    private static final String[] REGIONS = {"eu-west", "eu-north", "us-east", "ap-south", null};
+
+    private static List<Asset> assets;
+    private static ColumnarDataset<Asset> dataset;
+    private static Map<String, FiltroFieldMeta> fieldMap;
+    private static RSQLParser parser;
+    // 分块并行：行数使切分点落在块内部，末块不满 64 行
+    private static ColumnarDataset<Asset> large;
+    private static ForkJoinPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        fieldMap = new HashMap<>();
+        for (Field field : Asset.class.getDeclaredFields()) {
+            Filtro anno = field.getAnnotation(Filtro.class);
+            if (anno != null) {
+                FiltroFieldMeta meta = new FiltroFieldMetaBuilder(field, anno).build();
+                meta.setSupportedOperations(EnumSet.allOf(FiltroOperator.class));
+                fieldMap.put(meta.getField(), meta);
+            }
+        }
+
+        Set<ComparisonOperator> operators = new HashSet<>(RSQLOperators.defaultOperators());
+        Pattern symbolPattern = Pattern.compile("=[a-zA-Z]*=|[><]=?|!=");
+        Arrays.stream(FiltroOperator.values())
+                .filter(op -> !op.isRsqlOriginal())
+                .filter(op -> symbolPattern.matcher(op.getSymbol()).matches())
+                .map(op -> new ComparisonOperator(op.getSymbol(), op.isMultiValue()))
+                .forEach(operators::add);
+        parser = new RSQLParser(operators);
+
+        SplittableRandom random = new SplittableRandom(7);
+        assets = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            assets.add(new Asset(i, random.nextInt(100),
+                    random.nextInt(10) == 0 ? null : random.nextInt(10),
+                    random.nextInt(10) == 0 ? null : random.nextInt(11) / 2.0,
+                    REGIONS[random.nextInt(REGIONS.length)],
+                    Status.values()[random.nextInt(Status.values().length)],
+                    LocalDate.of(2024, 1, 1).plusDays(random.nextInt(366)),
+                    LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(random.nextInt(527_040)),
+                    random.nextInt(5) == 0 ? null : random.nextBoolean(),
+                    BigDecimal.valueOf(random.nextInt(1000))));
+        }
+        dataset = ColumnarDataset.of(assets, fieldMap);
+
+        List<Asset> repeated = new ArrayList<>();
+        for (int i = 0; i < 37; i++) {
+            repeated.addAll(assets);
+        }
+        large = ColumnarDataset.of(repeated, fieldMap);
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    private static ColumnarQueryNodeHandler handler(boolean vectorized) {
+        return new ColumnarQueryNodeHandler(new FiltroRegistry()).setVectorized(vectorized).setZone(ZoneOffset.UTC);
+    }
+
+    private static List<Long> ids(List<Asset> rows) {
+        return rows.stream().map(asset -> asset.id).toList();
+    }
+
+    static Stream<Arguments> queries() {
+        return Stream.of(
+                Arguments.of("stock>50", (Predicate<Asset>) a -> a.stock > 50),
+                Arguments.of("stock>=10;stock<20", (Predicate<Asset>) a -> a.stock >= 10 && a.stock < 20),
+                Arguments.of("stock=in=(1,2,3,5,8,13,21,34,55,89)", (Predicate<Asset>) a ->
+                        Set.of(1, 2, 3, 5, 8, 13, 21, 34, 55, 89).contains(a.stock)),
+                Arguments.of("stock=out=(1,2,3)", (Predicate<Asset>) a -> a.stock > 3 || a.stock < 1),
+                Arguments.of("stock>100", (Predicate<Asset>) a -> false),
+                Arguments.of("id<100,id>=990", (Predicate<Asset>) a -> a.id < 100 || a.id >= 990),
+                Arguments.of("quantity!=5", (Predicate<Asset>) a -> a.quantity != null && a.quantity != 5),
+                Arguments.of("quantity=nullableneq=5", (Predicate<Asset>) a -> a.quantity == null || a.quantity != 5),
+                Arguments.of("quantity=null=''", (Predicate<Asset>) a -> a.quantity == null),
+                Arguments.of("quantity=nonull=''", (Predicate<Asset>) a -> a.quantity != null),
+                Arguments.of("rating>2.5;rating<=4.0", (Predicate<Asset>) a ->
+                        a.rating != null && a.rating > 2.5 && a.rating <= 4.0),
+                Arguments.of("rating=in=(1.5,2.0)", (Predicate<Asset>) a ->
+                        a.rating != null && (a.rating == 1.5 || a.rating == 2.0)),
+                Arguments.of("region==eu-west", (Predicate<Asset>) a -> "eu-west".equals(a.region)),
+                Arguments.of("region=startswith=eu", (Predicate<Asset>) a -> a.region != null && a.region.startsWith("eu")),
+                Arguments.of("region=contains=EAST", (Predicate<Asset>) a -> false),
+                Arguments.of("region=nocontains=eu", (Predicate<Asset>) a -> a.region != null && !a.region.contains("eu")),
+                Arguments.of("region>eu-north", (Predicate<Asset>) a -> a.region != null && a.region.compareTo("eu-north") > 0),
+                Arguments.of("region<eu", (Predicate<Asset>) a -> a.region != null && a.region.compareTo("eu") < 0),
+                Arguments.of("status=in=(ACTIVE,RETIRED)", (Predicate<Asset>) a -> a.status != Status.IDLE),
+                Arguments.of("status!=ACTIVE", (Predicate<Asset>) a -> a.status != Status.ACTIVE),
+                Arguments.of("day>=2024-03-01;day<2024-04-01", (Predicate<Asset>) a ->
+                        !a.day.isBefore(LocalDate.of(2024, 3, 1)) && a.day.isBefore(LocalDate.of(2024, 4, 1))),
+                Arguments.of("createdAt<2024-02-01T00:00:00", (Predicate<Asset>) a ->
+                        a.createdAt.isBefore(LocalDateTime.of(2024, 2, 1, 0, 0))),
+                Arguments.of("createdAt>=2024-06-15", (Predicate<Asset>) a ->
+                        !a.createdAt.isBefore(LocalDateTime.of(2024, 6, 15, 0, 0))),
+                Arguments.of("active==true", (Predicate<Asset>) a -> Boolean.TRUE.equals(a.active)),
+                Arguments.of("(stock<10,rating>4);status==ACTIVE;quantity=nonull=''", (Predicate<Asset>) a ->
+                        (a.stock < 10 || (a.rating != null && a.rating > 4))
+                                && a.status == Status.ACTIVE && a.quantity != null));
+    }
+
+    enum Status {ACTIVE, IDLE, RETIRED}
+
+    static class Asset {
+        @Filtro
+        private final long id;
+        @Filtro
+        private final int stock;
+        @Filtro
+        private final Integer quantity;
+        @Filtro
+        private final Double rating;
+        @Filtro(intent = QueryIntent.SEARCH)
+        private final String region;
+        @Filtro
+        private final Status status;
+        @Filtro
+        private final LocalDate day;
+        @Filtro
+        private final LocalDateTime createdAt;
+        @Filtro
+        private final Boolean active;
+        // 不支持建列
+        @Filtro
+        private final BigDecimal price;
+
+        Asset(long id, int stock, Integer quantity, Double rating, String region, Status status, LocalDate day,
+              LocalDateTime createdAt, Boolean active, BigDecimal price) {
+            this.id = id;
+            this.stock = stock;
+            this.quantity = quantity;
+            this.rating = rating;
+            this.region = region;
+            this.status = status;
+            this.day = day;
+            this.createdAt = createdAt;
+            this.active = active;
+            this.price = price;
+        }
+    }
+
+    @Nested
+    @DisplayName("与逐行求值一致")
+    class Parity {
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("cc.ddrpa.filtro.visitor.extension.columnar.ColumnarFilterVisitorTest#queries")
+        void scalarAndVectorKernels(String rsql, Predicate<Asset> reference) {
+            List<Long> expected = ids(assets.stream().filter(reference).toList());
+            for (boolean vectorized : new boolean[]{false, true}) {
+                ColumnarQuery query = handler(vectorized).parse(fieldMap, parser.parse(rsql));
+                assertThat(ids(query.select(dataset))).as("vectorized=%s", vectorized).isEqualTo(expected);
+                assertThat(query.count(dataset)).isEqualTo(expected.size());
+            }
+        }
+
+        @ParameterizedTest(name = "{0}")
+        @MethodSource("cc.ddrpa.filtro.visitor.extension.columnar.ColumnarFilterVisitorTest#queries")
+        void parallelChunks(String rsql, Predicate<Asset> reference) {
+            long[] whole = handler(true).setParallelThreshold(Integer.MAX_VALUE).parse(fieldMap, parser.parse(rsql))
+                    .evaluate(large);
+            for (boolean vectorized : new boolean[]{false, true}) {
+                ColumnarQuery parallel = handler(vectorized).setForkJoinPool(pool).setParallelThreshold(0)
+                        .parse(fieldMap, parser.parse(rsql));
+                assertThat(parallel.evaluate(large)).as("vectorized=%s", vectorized).isEqualTo(whole);
+                // 未配置线程池时在调用线程上逐块求值
+                ColumnarQuery chunked = handler(vectorized).setForkJoinPool(null).setParallelThreshold(0)
+                        .parse(fieldMap, parser.parse(rsql));
+                assertThat(chunked.evaluate(large)).as("vectorized=%s", vectorized).isEqualTo(whole);
+            }
+            assertThat(Bitsets.cardinality(whole))
+                    .isEqualTo(37 * (int) assets.stream().filter(reference).count());
+        }
+    }
+
+    @Nested
+    @DisplayName("数据集与内核")
+    class Dataset {
+        @Test
+        void vectorKernelsLoadWhenModuleIsPresent() {
+            // surefire 以 --add-modules jdk.incubator.vector 运行
+            assertThat(ColumnKernels.of(true)).isInstanceOf(VectorKernels.class);
+            assertThat(ColumnKernels.of(false)).isSameAs(ScalarKernels.INSTANCE);
+        }
+
+        @Test
+        void unsupportedTypeHasNoColumn() {
+            assertThat(dataset.hasColumn("price")).isFalse();
+            assertThatThrownBy(() -> handler(true).parse(fieldMap, parser.parse("price>1")).evaluate(dataset))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("price");
+        }
+
+        @Test
+        void contradictionSelectsNothing() {
+            ColumnarQuery query = handler(true).parse(fieldMap, parser.parse("stock>10;stock<5"));
+            assertThat(query.isEmptyResult()).isTrue();
+            assertThat(query.count(dataset)).isZero();
+        }
+
+        @Test
+        void mapRowsWithDynamicFields() {
+            FiltroFieldMeta score = new FiltroFieldMeta().setField("score").setKey("score")
+                    .setQueryIntent(QueryIntent.RANGE).setJavaType(Long.class)
+                    .setSupportedOperations(EnumSet.of(FiltroOperator.ALT_GT));
+            Map<String, FiltroFieldMeta> fields = Map.of("score", score);
+            List<Map<String, Object>> rows = List.of(Map.of("score", 3L), Map.of(), Map.of("score", 9L));
+            ColumnarDataset<Map<String, Object>> maps = ColumnarDataset.of(rows, fields);
+            long[] bits = new ColumnarFilterVisitor(maps, fields).apply(parser.parse("score>5"));
+            assertThat(maps.select(bits)).containsExactly(Map.of("score", 9L));
+        }
+
+        @Test
+        void bitsetTailStaysClear() {
+            long[] bits = Bitsets.all(ROWS);
+            assertThat(Bitsets.cardinality(bits)).isEqualTo(ROWS);
+            Bitsets.not(bits, ROWS);
+            assertThat(Bitsets.isEmpty(bits)).isTrue();
+            Bitsets.set(bits, ROWS - 1);
+            assertThat(Bitsets.nextSetBit(bits, 0)).isEqualTo(ROWS - 1);
+            assertThat(Bitsets.nextSetBit(bits, ROWS)).isEqualTo(-1);
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package cc.ddrpa.filtro.core;
 
+import cc.ddrpa.filtro.core.field.FiltroFieldIndex;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.provider.FiltroFieldMetaChangeListener;
 import cc.ddrpa.filtro.core.provider.FiltroFieldMetaProvider;
 import cc.ddrpa.filtro.core.provider.InMemoryFiltroFieldMetaProvider;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 字段元数据选择器：按 {@link FiltroFieldMetaProvider#getOrder()} 升序选取第一个
  * {@link FiltroFieldMetaProvider#supports(Class)} 为 true 的 Provider，取其完整字段列表后再做 group 过滤。
+ * <p>
+ * 每个类型是否跟踪变更只判定一次，记录在该类型的 {@link ClassValue} 中；对跟踪变更的类型，再按 group 缓存不可变的
+ * {@link FiltroFieldIndex}。收到 Provider 变更通知时丢弃该类型的记录，替换 Provider 时丢弃全部记录。
  */
 public class FiltroRegistry {
 
-    private List<FiltroFieldMetaProvider> providers = List.of();
+    private final List<FiltroFieldMetaChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // setProviders 时整体替换，即清空所有类型的记录
+    private volatile ClassValue<TypeIndexes> types = newTypes();
+    // 每次变更递增，构建期间发生变更的索引不写入缓存
+    private final AtomicLong version = new AtomicLong();
+    // 已订阅过变更的 Provider（按实例），重复 setProviders 时不再重复注册监听
+    private final Set<FiltroFieldMetaProvider> subscribed = Collections.newSetFromMap(new IdentityHashMap<>());
+    private volatile List<FiltroFieldMetaProvider> providers = List.of();
     private int maxDepth = 20;
 
     public FiltroRegistry() {
@@ -28,15 +45,28 @@ public class FiltroRegistry {
         setProviders(providers);
     }
 
-    public void setProviders(List<FiltroFieldMetaProvider> providers) {
+    public synchronized void setProviders(List<FiltroFieldMetaProvider> providers) {
+        version.incrementAndGet();
         if (providers == null || providers.isEmpty()) {
             this.providers = List.of();
+            this.types = newTypes();
             return;
         }
         // 稳定排序：order 升序，同 order 保留原相对顺序
         List<FiltroFieldMetaProvider> copy = new ArrayList<>(providers);
         copy.sort(Comparator.comparingInt(FiltroFieldMetaProvider::getOrder));
         this.providers = List.copyOf(copy);
+        this.types = newTypes();
+        for (FiltroFieldMetaProvider provider : this.providers) {
+            if (subscribed.add(provider)) {
+                provider.addChangeListener(criteriaType -> {
+                    // 已被替换掉的 Provider 不再触发失效
+                    if (this.providers.contains(provider)) {
+                        fireChange(criteriaType);
+                    }
+                });
+            }
+        }
     }
 
     public List<FiltroFieldMetaProvider> getProviders() {
@@ -50,6 +80,35 @@ public class FiltroRegistry {
         return providers.stream().anyMatch(p -> p.supports(clazz));
     }
 
+    /**
+     * 该类型的字段列表是否只会随 Provider 变更通知而变化，即可安全缓存。
+     * <p>
+     * 排在认领 Provider 之前（含其自身）的任一 Provider 未跟踪变更时返回 false：
+     * 它们随时可能开始认领该类型或返回不同的字段。
+     */
+    public boolean isChangeTracked(Class<?> criteriaType) {
+        return types.get(criteriaType).tracked;
+    }
+
+    private boolean computeChangeTracked(Class<?> criteriaType) {
+        for (FiltroFieldMetaProvider provider : providers) {
+            if (!provider.isChangeTracked()) {
+                return false;
+            }
+            if (provider.supports(criteriaType)) {
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 订阅任意 Provider 的字段变更，用于缓存失效。
+     */
+    public void addChangeListener(FiltroFieldMetaChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
     /**
      * 内置可计数 Provider（Annotated + InMemory）登记类型数之和（可能重复计数同一 Class）。
      * 扫描完成日志请优先使用 {@link cc.ddrpa.filtro.core.provider.AnnotatedClassFiltroFieldMetaProvider#registeredTypeCount()}。
@@ -90,18 +149,82 @@ public class FiltroRegistry {
     }
 
     public List<FiltroFieldMeta> get(Class<?> criteriaType, Class<?> metaGroup) {
+        return getIndex(criteriaType, metaGroup).getFields();
+    }
+
+    /**
+     * @return 不可修改的字段名 → 元数据映射
+     */
+    public Map<String, FiltroFieldMeta> getAsMap(Class<?> criteriaType, Class<?> metaGroup) {
+        return getIndex(criteriaType, metaGroup).asMap();
+    }
+
+    /**
+     * 获取 (criteriaType, group) 的字段索引。跟踪变更的类型命中缓存时只做类型与 group 两次查找，无分配；
+     * 未跟踪变更的类型每次重新读取 Provider。
+     */
+    public FiltroFieldIndex getIndex(Class<?> criteriaType, Class<?> metaGroup) {
+        TypeIndexes type = types.get(criteriaType);
+        if (!type.tracked) {
+            return buildIndex(criteriaType, metaGroup);
+        }
+        Class<?> group = metaGroup == null ? void.class : metaGroup;
+        FiltroFieldIndex index = type.byGroup.get(group);
+        if (index != null) {
+            return index;
+        }
+        long stamp = version.get();
+        index = buildIndex(criteriaType, metaGroup);
+        if (version.get() == stamp) {
+            FiltroFieldIndex existing = type.byGroup.putIfAbsent(group, index);
+            if (existing != null) {
+                return existing;
+            }
+            // 写入与变更通知交错时撤回，避免留下过期索引
+            if (version.get() != stamp) {
+                type.byGroup.remove(group, index);
+            }
+        }
+        return index;
+    }
+
+    private ClassValue<TypeIndexes> newTypes() {
+        return new ClassValue<>() {
+            @Override
+            protected TypeIndexes computeValue(Class<?> criteriaType) {
+                return new TypeIndexes(computeChangeTracked(criteriaType));
+            }
+        };
+    }
+
+    private FiltroFieldIndex buildIndex(Class<?> criteriaType, Class<?> metaGroup) {
         for (FiltroFieldMetaProvider provider : providers) {
             if (provider.supports(criteriaType)) {
-                return filterByGroup(provider.getFields(criteriaType), metaGroup);
+                return FiltroFieldIndex.of(filterByGroup(provider.getFields(criteriaType), metaGroup));
             }
         }
-        return Collections.emptyList();
+        return FiltroFieldIndex.empty();
     }
 
-    public Map<String, FiltroFieldMeta> getAsMap(Class<?> criteriaType, Class<?> metaGroup) {
-        return get(criteriaType, metaGroup)
-                .stream()
-                .collect(Collectors.toMap(FiltroFieldMeta::getField, f -> f, (a, b) -> b));
+    private void fireChange(Class<?> criteriaType) {
+        version.incrementAndGet();
+        // 认领该类型的 Provider 可能改变，是否跟踪变更也一并重新判定
+        types.remove(criteriaType);
+        for (FiltroFieldMetaChangeListener listener : listeners) {
+            listener.onChange(criteriaType);
+        }
+    }
+
+    /**
+     * 单个类型的缓存记录：是否跟踪变更，以及跟踪变更时按 group 缓存的字段索引
+     */
+    private static final class TypeIndexes {
+        final boolean tracked;
+        final ConcurrentMap<Class<?>, FiltroFieldIndex> byGroup = new ConcurrentHashMap<>();
+
+        TypeIndexes(boolean tracked) {
+            this.tracked = tracked;
+        }
     }
 
     private static List<FiltroFieldMeta> filterByGroup(List<FiltroFieldMeta> fields, Class<?> metaGroup) {
@@ -1,7 +1,9 @@
 package cc.ddrpa.filtro.core.annotation;
 
+import cc.ddrpa.filtro.core.codec.FiltroValueCodec;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
 import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -48,4 +50,29 @@ public @interface Filtro {
      * 适用分组，参考 Jakarta Bean Validation 的 group 概念
      */
     Class<?>[] groups() default {};
+
+    /**
+     * 查询代价权重，参与复杂度预算计分；无索引的大字段可调高，0 表示不计分
+     */
+    int weight() default 1;
+
+    /**
+     * 对应列是否有可用索引；AND 条件中有索引的等值、范围条件会被排到前面
+     */
+    boolean indexed() default false;
+
+    /**
+     * 预估选择率（单个条件命中记录的比例，0 ~ 1），越小越先求值
+     */
+    double selectivity() default 1.0;
+
+    /**
+     * 模糊匹配方式，仅对 {@code SEARCH} 字段有效；非默认值要求数据库侧建有对应的全文或 collation 索引
+     */
+    SearchMode searchMode() default SearchMode.PATTERN;
+
+    /**
+     * 参数解码器，默认按 Java 字段类型选择内置实现；自定义实现须提供无参构造器
+     */
+    Class<? extends FiltroValueCodec> codec() default FiltroValueCodec.Auto.class;
 }
@@ -0,0 +1,261 @@
+package cc.ddrpa.filtro.core.codec;
+
+import java.text.ParsePosition;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 单遍扫描的日期时间解析器，按字符形态识别 ISO 格式，不借助异常试探：
+ * <ul>
+ *   <li>{@code 2024-01-15} → {@link LocalDate}</li>
+ *   <li>{@code 2024-01-15T10:30[:00[.123456789]]} → {@link LocalDateTime}</li>
+ *   <li>上述日期时间后接 {@code Z} 或 {@code ±HH:MM[:SS]} → {@link Instant}</li>
+ *   <li>{@code 10:30[:00[.123]]} → {@link LocalTime}（仅 {@link #parseTime(String)}）</li>
+ * </ul>
+ * ISO 形态不匹配时依次尝试 {@link #withPatterns 附加格式}：先以 {@link DateTimeFormatter#parseUnresolved} 做无异常的形态匹配，
+ * 命中后才完整解析，结果类型由格式包含的字段决定。
+ * <p>
+ * 解析失败返回 null，由调用方决定如何报错。实例不可变，线程安全。
+ */
+public final class FiltroTemporalParser {
+
+    /**
+     * 仅识别 ISO 格式
+     */
+    public static final FiltroTemporalParser ISO = new FiltroTemporalParser(List.of());
+
+    private static final int MAX_OFFSET_HOURS = 18;
+    private static final int[] NANO_SCALE = {
+            100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    private final List<DateTimeFormatter> patterns;
+
+    private FiltroTemporalParser(List<DateTimeFormatter> patterns) {
+        this.patterns = patterns;
+    }
+
+    /**
+     * ISO 之外追加的格式，按声明顺序尝试，如 {@code "yyyy/MM/dd"}、{@code "yyyy-MM-dd HH:mm:ss"}。
+     */
+    public static FiltroTemporalParser withPatterns(String... patterns) {
+        return new FiltroTemporalParser(Arrays.stream(patterns).map(DateTimeFormatter::ofPattern).toList());
+    }
+
+    public static FiltroTemporalParser withFormatters(List<DateTimeFormatter> formatters) {
+        return new FiltroTemporalParser(List.copyOf(formatters));
+    }
+
+    /**
+     * @return {@link Instant}、{@link LocalDateTime} 或 {@link LocalDate}；无法识别时返回 null
+     */
+    public Object parse(String text) {
+        Object iso = parseIso(text);
+        return iso != null ? iso : parsePatterns(text, false);
+    }
+
+    /**
+     * @return {@link LocalTime}；无法识别时返回 null
+     */
+    public LocalTime parseTime(String text) {
+        Cursor cursor = new Cursor(text);
+        LocalTime time = cursor.time();
+        if (time != null && cursor.atEnd()) {
+            return time;
+        }
+        return (LocalTime) parsePatterns(text, true);
+    }
+
+    private static Object parseIso(String text) {
+        Cursor cursor = new Cursor(text);
+        LocalDate date = cursor.date();
+        if (date == null) {
+            return null;
+        }
+        if (cursor.atEnd()) {
+            return date;
+        }
+        if (!cursor.accept('T') && !cursor.accept('t')) {
+            return null;
+        }
+        LocalTime time = cursor.time();
+        if (time == null) {
+            return null;
+        }
+        LocalDateTime dateTime = LocalDateTime.of(date, time);
+        if (cursor.atEnd()) {
+            return dateTime;
+        }
+        ZoneOffset offset = cursor.offset();
+        if (offset == null || !cursor.atEnd()) {
+            return null;
+        }
+        return dateTime.toInstant(offset);
+    }
+
+    private Object parsePatterns(String text, boolean timeOnly) {
+        for (DateTimeFormatter formatter : patterns) {
+            ParsePosition position = new ParsePosition(0);
+            TemporalAccessor unresolved = formatter.parseUnresolved(text, position);
+            if (unresolved == null || position.getErrorIndex() >= 0 || position.getIndex() != text.length()) {
+                continue;
+            }
+            // 形态已匹配，字段值非法（如 2 月 30 日）时由 parse 抛出，属于真正的输入错误
+            TemporalAccessor parsed = formatter.parse(text);
+            Object value = toValue(parsed);
+            if (value != null && (value instanceof LocalTime) == timeOnly) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static Object toValue(TemporalAccessor parsed) {
+        boolean hasDate = parsed.isSupported(ChronoField.EPOCH_DAY);
+        boolean hasTime = parsed.isSupported(ChronoField.NANO_OF_DAY);
+        if (parsed.isSupported(ChronoField.INSTANT_SECONDS)) {
+            return Instant.from(parsed);
+        }
+        if (hasDate && hasTime) {
+            return LocalDateTime.from(parsed);
+        }
+        if (hasDate) {
+            return LocalDate.from(parsed);
+        }
+        if (hasTime) {
+            return LocalTime.from(parsed);
+        }
+        return null;
+    }
+
+    /**
+     * 定长数字段读取，任何不匹配返回 -1 / null，不抛异常
+     */
+    private static final class Cursor {
+        private final String text;
+        private int index;
+
+        Cursor(String text) {
+            this.text = text;
+        }
+
+        boolean atEnd() {
+            return index == text.length();
+        }
+
+        boolean accept(char expected) {
+            if (index < text.length() && text.charAt(index) == expected) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        int digits(int count) {
+            if (index + count > text.length()) {
+                return -1;
+            }
+            int value = 0;
+            for (int i = 0; i < count; i++) {
+                char c = text.charAt(index + i);
+                if (c < '0' || c > '9') {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+            }
+            index += count;
+            return value;
+        }
+
+        LocalDate date() {
+            int year = digits(4);
+            if (year < 0 || !accept('-')) {
+                return null;
+            }
+            int month = digits(2);
+            if (month < 1 || month > 12 || !accept('-')) {
+                return null;
+            }
+            int day = digits(2);
+            if (day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+                return null;
+            }
+            return LocalDate.of(year, month, day);
+        }
+
+        LocalTime time() {
+            int hour = digits(2);
+            if (hour < 0 || hour > 23 || !accept(':')) {
+                return null;
+            }
+            int minute = digits(2);
+            if (minute < 0 || minute > 59) {
+                return null;
+            }
+            int second = 0;
+            int nano = 0;
+            if (accept(':')) {
+                second = digits(2);
+                if (second < 0 || second > 59) {
+                    return null;
+                }
+                if (accept('.')) {
+                    int count = 0;
+                    while (count < NANO_SCALE.length && index < text.length()) {
+                        char c = text.charAt(index);
+                        if (c < '0' || c > '9') {
+                            break;
+                        }
+                        nano += (c - '0') * NANO_SCALE[count];
+                        count++;
+                        index++;
+                    }
+                    if (count == 0) {
+                        return null;
+                    }
+                }
+            }
+            return LocalTime.of(hour, minute, second, nano);
+        }
+
+        ZoneOffset offset() {
+            if (accept('Z') || accept('z')) {
+                return ZoneOffset.UTC;
+            }
+            int sign = accept('+') ? 1 : accept('-') ? -1 : 0;
+            if (sign == 0) {
+                return null;
+            }
+            int hours = digits(2);
+            if (hours < 0 || hours > MAX_OFFSET_HOURS || !accept(':')) {
+                return null;
+            }
+            int minutes = digits(2);
+            if (minutes < 0 || minutes > 59) {
+                return null;
+            }
+            int seconds = 0;
+            if (accept(':')) {
+                seconds = digits(2);
+                if (seconds < 0 || seconds > 59) {
+                    return null;
+                }
+            }
+            int total = hours * 3600 + minutes * 60 + seconds;
+            if (total > MAX_OFFSET_HOURS * 3600) {
+                return null;
+            }
+            return ZoneOffset.ofTotalSeconds(sign * total);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package cc.ddrpa.filtro.core.codec;
+
+/**
+ * 将 RSQL 字符串参数解码为类型化值。在构建字段元数据时按 Java 类型解析一次并挂在
+ * {@link cc.ddrpa.filtro.core.field.FiltroFieldMeta#getCodec()} 上，编译 IR 时逐参数调用，各后端共享解码结果。
+ * <p>
+ * 自定义类型通过 {@code @Filtro(codec = ...)} 或 {@code FiltroFieldMetaFactory.Builder.codec(...)} 声明，
+ * 实现须无状态、线程安全；注解方式要求提供无参构造器。
+ */
+public interface FiltroValueCodec {
+
+    /**
+     * @param raw RSQL 参数原文
+     * @return 类型化值，须正确实现 {@code equals} / {@code hashCode}（用于条件去重）
+     * @throws IllegalArgumentException 或 {@link java.time.DateTimeException} 参数不合法，由规划器包装为
+     *                                  {@link cc.ddrpa.filtro.core.exception.PredicateBuildException}
+     */
+    Object decode(String raw);
+
+    /**
+     * 类型名称，出现在 {@link cc.ddrpa.filtro.core.exception.PredicateBuildException#getStage()} 中，如 {@code INT}
+     */
+    String typeName();
+
+    /**
+     * 注解默认哨兵，表示按字段 Java 类型选择内置实现。
+     */
+    final class Auto implements FiltroValueCodec {
+        private Auto() {
+        }
+
+        @Override
+        public Object decode(String raw) {
+            throw new UnsupportedOperationException("FiltroValueCodec.Auto is not a real codec");
+        }
+
+        @Override
+        public String typeName() {
+            return "AUTO";
+        }
+    }
+}
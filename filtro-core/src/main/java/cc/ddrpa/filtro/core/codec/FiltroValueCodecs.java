@@ -0,0 +1,160 @@
+package cc.ddrpa.filtro.core.codec;
+
+import java.lang.reflect.Constructor;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 内置 {@link FiltroValueCodec}：
+ * <ul>
+ *   <li>整型 → {@link Long}，浮点 → {@link Double}，BigDecimal / Decimal128 → {@link BigDecimal}</li>
+ *   <li>布尔 → {@link Boolean}（仅接受 true / false，忽略大小写）</li>
+ *   <li>LocalTime → {@link LocalTime}；其他日期时间 → 按 {@link FiltroTemporalParser} 识别出的形态得到 {@link Instant}、{@link LocalDateTime} 或 {@link LocalDate}</li>
+ *   <li>枚举 → 枚举常量，按预先建好的常量名表查找</li>
+ *   <li>其他 → 原字符串</li>
+ * </ul>
+ */
+public final class FiltroValueCodecs {
+
+    public static final FiltroValueCodec STRING = new SimpleCodec("STRING", raw -> raw);
+    public static final FiltroValueCodec INT = new SimpleCodec("INT", Long::parseLong);
+    public static final FiltroValueCodec FLOAT = new SimpleCodec("FLOAT", Double::parseDouble);
+    public static final FiltroValueCodec DECIMAL = new SimpleCodec("DECIMAL", BigDecimal::new);
+    public static final FiltroValueCodec BOOLEAN = new SimpleCodec("BOOLEAN", FiltroValueCodecs::parseBoolean);
+    public static final FiltroValueCodec TIME = time(FiltroTemporalParser.ISO);
+    public static final FiltroValueCodec DATETIME = dateTime(FiltroTemporalParser.ISO);
+
+    private FiltroValueCodecs() {
+    }
+
+    /**
+     * 按 Java 类型选择内置实现；{@code type} 为 null 时视为字符串。
+     */
+    public static FiltroValueCodec forType(Class<?> type) {
+        if (type == null || String.class.equals(type)) {
+            return STRING;
+        }
+        if (type.isEnum()) {
+            return forEnum(type);
+        }
+        if (Integer.class.equals(type) || int.class.equals(type)
+                || Long.class.equals(type) || long.class.equals(type)
+                || Short.class.equals(type) || short.class.equals(type)) {
+            return INT;
+        }
+        if (Float.class.equals(type) || float.class.equals(type)
+                || Double.class.equals(type) || double.class.equals(type)) {
+            return FLOAT;
+        }
+        if (BigDecimal.class.equals(type) || "org.bson.types.Decimal128".equals(type.getName())) {
+            return DECIMAL;
+        }
+        if (Boolean.class.equals(type) || boolean.class.equals(type)) {
+            return BOOLEAN;
+        }
+        if (LocalTime.class.equals(type)) {
+            return TIME;
+        }
+        if (LocalDate.class.equals(type) || LocalDateTime.class.equals(type)
+                || Instant.class.equals(type) || Date.class.equals(type)) {
+            return DATETIME;
+        }
+        return STRING;
+    }
+
+    /**
+     * 按字段选择内置实现：以字符串（或枚举本身）存储、并声明了枚举类型 {@code enumerationClass} 的字段按枚举常量名解码，
+     * 未知常量名在编译期即被拒绝；其余同 {@link #forType(Class)}。
+     */
+    public static FiltroValueCodec forField(Class<?> javaType, Class<?> enumerationClass) {
+        if (enumerationClass != null && enumerationClass.isEnum()
+                && (javaType == null || String.class.equals(javaType) || enumerationClass.equals(javaType))) {
+            return forEnum(enumerationClass);
+        }
+        return forType(javaType);
+    }
+
+    /**
+     * 枚举常量名 → 常量的查找表，构建一次，解码时不再经过 {@link Enum#valueOf}。
+     */
+    public static FiltroValueCodec forEnum(Class<?> enumClass) {
+        if (!enumClass.isEnum()) {
+            throw new IllegalArgumentException(enumClass + " is not an enum type");
+        }
+        Object[] constants = enumClass.getEnumConstants();
+        Map<String, Object> byName = new HashMap<>(constants.length * 2);
+        for (Object constant : constants) {
+            byName.put(((Enum<?>) constant).name(), constant);
+        }
+        String prefix = "No enum constant " + enumClass.getCanonicalName() + ".";
+        return new SimpleCodec("ENUM", raw -> {
+            Object constant = byName.get(raw);
+            if (constant == null) {
+                throw new IllegalArgumentException(prefix + raw);
+            }
+            return constant;
+        });
+    }
+
+    /**
+     * 使用指定解析器（如追加了自定义格式）的日期时间 codec。
+     */
+    public static FiltroValueCodec dateTime(FiltroTemporalParser parser) {
+        return new SimpleCodec("DATETIME", raw -> {
+            Object value = parser.parse(raw);
+            if (value == null) {
+                throw new IllegalArgumentException("not a recognized date, date-time or instant");
+            }
+            return value;
+        });
+    }
+
+    public static FiltroValueCodec time(FiltroTemporalParser parser) {
+        return new SimpleCodec("TIME", raw -> {
+            LocalTime value = parser.parseTime(raw);
+            if (value == null) {
+                throw new IllegalArgumentException("not a recognized time");
+            }
+            return value;
+        });
+    }
+
+    /**
+     * 实例化 {@code @Filtro(codec = ...)} 声明的实现类。
+     */
+    public static FiltroValueCodec instantiate(Class<? extends FiltroValueCodec> codecClass) {
+        try {
+            Constructor<? extends FiltroValueCodec> constructor = codecClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException(
+                    "FiltroValueCodec " + codecClass.getName() + " requires a no-arg constructor", e);
+        }
+    }
+
+    private static Boolean parseBoolean(String raw) {
+        if ("true".equalsIgnoreCase(raw)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(raw)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("not a boolean");
+    }
+
+    private record SimpleCodec(String typeName, Function<String, Object> decoder) implements FiltroValueCodec {
+
+        @Override
+        public Object decode(String raw) {
+            return decoder.apply(raw);
+        }
+    }
+}
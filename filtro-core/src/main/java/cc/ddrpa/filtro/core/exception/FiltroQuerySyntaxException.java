@@ -0,0 +1,34 @@
+package cc.ddrpa.filtro.core.exception;
+
+/**
+ * {@code q} 表达式语法错误，携带出错位置（从 0 开始的字符偏移，未知时为 -1）。
+ */
+public class FiltroQuerySyntaxException extends RuntimeException {
+
+    private final String query;
+    private final int offset;
+    private final String reason;
+
+    public FiltroQuerySyntaxException(String query, int offset, String reason) {
+        this(query, offset, reason, null);
+    }
+
+    public FiltroQuerySyntaxException(String query, int offset, String reason, Throwable cause) {
+        super(offset >= 0 ? reason + " at offset " + offset : reason, cause);
+        this.query = query;
+        this.offset = offset;
+        this.reason = reason;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
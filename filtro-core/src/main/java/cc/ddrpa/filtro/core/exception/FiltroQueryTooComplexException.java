@@ -0,0 +1,59 @@
+package cc.ddrpa.filtro.core.exception;
+
+/**
+ * {@code q} 表达式超出 {@link cc.ddrpa.filtro.core.plan.FiltroQueryBudget} 限定的复杂度，在生成任何后端查询对象之前抛出。
+ * <p>
+ * 继承 {@link IllegalArgumentException}，IN 参数超量时消息保留 {@code IN/NOT_IN argument count} 字样，兼容按消息匹配的既有处理逻辑。
+ */
+public class FiltroQueryTooComplexException extends IllegalArgumentException {
+
+    private final Limit limit;
+    private final long maximum;
+    private final long actual;
+    private final String field;
+
+    public FiltroQueryTooComplexException(Limit limit, long maximum, long actual, String field) {
+        super(limit.describe(field) + " " + actual + " exceeds maximum " + maximum);
+        this.limit = limit;
+        this.maximum = maximum;
+        this.actual = actual;
+        this.field = field;
+    }
+
+    public Limit getLimit() {
+        return limit;
+    }
+
+    public long getMaximum() {
+        return maximum;
+    }
+
+    public long getActual() {
+        return actual;
+    }
+
+    /**
+     * 触发限制的字段，仅 {@link Limit#IN_ARGUMENTS} 时非空
+     */
+    public String getField() {
+        return field;
+    }
+
+    public enum Limit {
+        IN_ARGUMENTS("IN/NOT_IN argument count"),
+        COMPARISONS("RSQL comparison count"),
+        OR_FAN_OUT("RSQL OR fan-out"),
+        CONTAINS("RSQL CONTAINS clause count"),
+        COST("RSQL query cost");
+
+        private final String label;
+
+        Limit(String label) {
+            this.label = label;
+        }
+
+        private String describe(String field) {
+            return field == null ? label : label + " for field " + field;
+        }
+    }
+}
@@ -2,8 +2,10 @@ package cc.ddrpa.filtro.core.exception;
 
 /**
  * 查询条件构建异常，替代裸 JDK 异常，包含字段名、原始值、构建阶段和根因。
+ * <p>
+ * 继承 {@link IllegalArgumentException}：参数解码失败属于调用方输入错误，按 IllegalArgumentException 捕获的既有逻辑仍然适用。
  */
-public class PredicateBuildException extends RuntimeException {
+public class PredicateBuildException extends IllegalArgumentException {
 
     private final String field;
     private final String rawValue;
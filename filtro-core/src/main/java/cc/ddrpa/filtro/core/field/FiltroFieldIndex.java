@@ -0,0 +1,59 @@
+package cc.ddrpa.filtro.core.field;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 某实体类型在某 group 下的字段索引：已按 group 过滤的字段列表及字段名 → 元数据映射。
+ * <p>
+ * 不可变，由 {@link cc.ddrpa.filtro.core.FiltroRegistry} 预计算并在请求之间共享。
+ */
+public final class FiltroFieldIndex {
+
+    private static final FiltroFieldIndex EMPTY = new FiltroFieldIndex(List.of());
+
+    private final List<FiltroFieldMeta> fields;
+    private final Map<String, FiltroFieldMeta> byField;
+
+    private FiltroFieldIndex(List<FiltroFieldMeta> fields) {
+        this.fields = List.copyOf(fields);
+        Map<String, FiltroFieldMeta> map = new LinkedHashMap<>();
+        // 同名字段后者覆盖前者
+        for (FiltroFieldMeta meta : this.fields) {
+            map.put(meta.getField(), meta);
+        }
+        this.byField = Collections.unmodifiableMap(map);
+    }
+
+    public static FiltroFieldIndex of(List<FiltroFieldMeta> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return EMPTY;
+        }
+        return new FiltroFieldIndex(fields);
+    }
+
+    public static FiltroFieldIndex empty() {
+        return EMPTY;
+    }
+
+    public List<FiltroFieldMeta> getFields() {
+        return fields;
+    }
+
+    /**
+     * RSQL 字段名 → 字段元数据，不可修改
+     */
+    public Map<String, FiltroFieldMeta> asMap() {
+        return byField;
+    }
+
+    public FiltroFieldMeta get(String field) {
+        return byField.get(field);
+    }
+
+    public boolean isEmpty() {
+        return fields.isEmpty();
+    }
+}
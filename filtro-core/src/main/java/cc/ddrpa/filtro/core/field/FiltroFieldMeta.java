@@ -1,7 +1,10 @@
 package cc.ddrpa.filtro.core.field;
 
+import cc.ddrpa.filtro.core.codec.FiltroValueCodec;
+import cc.ddrpa.filtro.core.codec.FiltroValueCodecs;
 import cc.ddrpa.filtro.core.dictionary.FiltroDictionarySource;
 
+import java.lang.reflect.Field;
 import java.util.Map;
 import java.util.Set;
 
@@ -21,6 +24,9 @@ public class FiltroFieldMeta {
     // Java 字段类型（用于值转型与控件提示）
     private Class<?> javaType;
 
+    // 参数解码器，未设置时按 javaType 选择内置实现
+    private FiltroValueCodec codec;
+
     // 支持的操作符
     private Set<FiltroOperator> supportedOperations;
 
@@ -44,6 +50,31 @@ public class FiltroFieldMeta {
      */
     private Set<Class<?>> groups;
 
+    /**
+     * 查询代价权重，默认 1
+     */
+    private int weight = 1;
+
+    /**
+     * 是否有可用索引
+     */
+    private boolean indexed;
+
+    /**
+     * 预估选择率 0 ~ 1，默认 1
+     */
+    private double selectivity = 1.0;
+
+    /**
+     * 模糊匹配方式，默认 {@link SearchMode#PATTERN}
+     */
+    private SearchMode searchMode = SearchMode.PATTERN;
+
+    /**
+     * 注解所在的 Java 字段，由 {@link FiltroFieldMetaBuilder} 记录；动态字段为 null
+     */
+    private Field sourceField;
+
     /**
      * 是否携带可选字典（静态 dict 或延迟 source），供前端 SELECT。
      */
@@ -91,8 +122,26 @@ public class FiltroFieldMeta {
         return javaType;
     }
 
+    /**
+     * 同时清除已解析的 codec，下次 {@link #getCodec()} 时按新类型重新选择；自定义 codec 须在此之后设置。
+     */
     public FiltroFieldMeta setJavaType(Class<?> javaType) {
         this.javaType = javaType;
+        this.codec = null;
+        return this;
+    }
+
+    public FiltroValueCodec getCodec() {
+        FiltroValueCodec resolved = codec;
+        if (resolved == null) {
+            resolved = FiltroValueCodecs.forField(javaType, enumerationClass);
+            codec = resolved;
+        }
+        return resolved;
+    }
+
+    public FiltroFieldMeta setCodec(FiltroValueCodec codec) {
+        this.codec = codec;
         return this;
     }
 
@@ -158,4 +207,49 @@ public class FiltroFieldMeta {
         this.groups = groups;
         return this;
     }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public FiltroFieldMeta setWeight(int weight) {
+        this.weight = weight;
+        return this;
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public FiltroFieldMeta setIndexed(boolean indexed) {
+        this.indexed = indexed;
+        return this;
+    }
+
+    public double getSelectivity() {
+        return selectivity;
+    }
+
+    public FiltroFieldMeta setSelectivity(double selectivity) {
+        this.selectivity = selectivity;
+        return this;
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    public FiltroFieldMeta setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+        return this;
+    }
+
+    public Field getSourceField() {
+        return sourceField;
+    }
+
+    public FiltroFieldMeta setSourceField(Field sourceField) {
+        this.sourceField = sourceField;
+        return this;
+    }
 }
@@ -2,6 +2,8 @@ package cc.ddrpa.filtro.core.field;
 
 import cc.ddrpa.filtro.core.annotation.Filtro;
 import cc.ddrpa.filtro.core.annotation.FiltroOneOf;
+import cc.ddrpa.filtro.core.codec.FiltroValueCodec;
+import cc.ddrpa.filtro.core.codec.FiltroValueCodecs;
 import cc.ddrpa.filtro.core.dictionary.FiltroDictionarySource;
 import org.apache.commons.lang3.StringUtils;
 
@@ -19,7 +21,7 @@ public class FiltroFieldMetaBuilder {
     // ──────────── QueryIntent → 默认操作符集 ────────────
 
     private static final Set<FiltroOperator> SEARCH_OPERATORS = Set.of(
-            FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS,
+            FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS, FiltroOperator.STARTS_WITH,
             FiltroOperator.IS_NULL, FiltroOperator.NOT_NULL
     );
 
@@ -211,12 +213,26 @@ public class FiltroFieldMetaBuilder {
                     "Field '" + this.field.getName() + "': @FiltroOneOf conflicts with QueryIntent.SEARCH");
         }
 
+        if (this.filtroAnnotation.weight() < 0) {
+            throw new IllegalArgumentException(
+                    "Field '" + this.field.getName() + "': @Filtro weight must not be negative");
+        }
+        double selectivity = this.filtroAnnotation.selectivity();
+        if (!(selectivity >= 0 && selectivity <= 1)) {
+            throw new IllegalArgumentException(
+                    "Field '" + this.field.getName() + "': @Filtro selectivity must be between 0 and 1");
+        }
+
         QueryIntent queryIntent;
         if (claimedIntent == null || claimedIntent == QueryIntent.AUTO) {
             queryIntent = hasOneOf ? QueryIntent.EXACT : inferIntent(javaType);
         } else {
             queryIntent = claimedIntent;
         }
+        if (this.filtroAnnotation.searchMode() != SearchMode.PATTERN && queryIntent != QueryIntent.SEARCH) {
+            throw new IllegalArgumentException(
+                    "Field '" + this.field.getName() + "': @Filtro searchMode requires QueryIntent.SEARCH");
+        }
 
         FiltroFieldMeta filtroFieldMeta = new FiltroFieldMeta();
         filtroFieldMeta.setField(StringUtils.isNotBlank(claimedFieldName) ? claimedFieldName : this.field.getName())
@@ -225,7 +241,17 @@ public class FiltroFieldMetaBuilder {
                 .setQueryIntent(queryIntent)
                 .setJavaType(javaType)
                 .setLabel(this.filtroAnnotation.value())
-                .setTooltip(this.filtroAnnotation.tooltip());
+                .setTooltip(this.filtroAnnotation.tooltip())
+                .setWeight(this.filtroAnnotation.weight())
+                .setIndexed(this.filtroAnnotation.indexed())
+                .setSelectivity(selectivity)
+                .setSearchMode(this.filtroAnnotation.searchMode())
+                .setSourceField(this.field);
+
+        Class<? extends FiltroValueCodec> codecClass = this.filtroAnnotation.codec();
+        filtroFieldMeta.setCodec(codecClass == FiltroValueCodec.Auto.class
+                ? FiltroValueCodecs.forType(javaType)
+                : FiltroValueCodecs.instantiate(codecClass));
 
         if (this.filtroAnnotation.groups().length < 1) {
             filtroFieldMeta.setGroups(Collections.emptySet());
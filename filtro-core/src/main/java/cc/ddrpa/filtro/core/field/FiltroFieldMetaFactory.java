@@ -1,5 +1,7 @@
 package cc.ddrpa.filtro.core.field;
 
+import cc.ddrpa.filtro.core.codec.FiltroValueCodec;
+import cc.ddrpa.filtro.core.codec.FiltroValueCodecs;
 import cc.ddrpa.filtro.core.dictionary.FiltroDictionarySource;
 import org.apache.commons.lang3.StringUtils;
 
@@ -48,6 +50,11 @@ public final class FiltroFieldMetaFactory {
         private Class<?> enumerationClass;
         private java.util.Map<String, String> enumerationDictionary;
         private Class<? extends FiltroDictionarySource> dictionarySourceClass;
+        private int weight = 1;
+        private boolean indexed;
+        private double selectivity = 1.0;
+        private SearchMode searchMode = SearchMode.PATTERN;
+        private FiltroValueCodec codec;
 
         private Builder(String field, QueryIntent intent, Class<?> javaType) {
             this.field = field;
@@ -89,6 +96,59 @@ public final class FiltroFieldMetaFactory {
             return this;
         }
 
+        /**
+         * 查询代价权重，等同 {@code @Filtro(weight = ...)}。
+         */
+        public Builder weight(int weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException("weight must not be negative: " + weight);
+            }
+            this.weight = weight;
+            return this;
+        }
+
+        /**
+         * 是否有可用索引，等同 {@code @Filtro(indexed = ...)}。
+         */
+        public Builder indexed(boolean indexed) {
+            this.indexed = indexed;
+            return this;
+        }
+
+        /**
+         * 预估选择率，等同 {@code @Filtro(selectivity = ...)}。
+         */
+        public Builder selectivity(double selectivity) {
+            if (!(selectivity >= 0 && selectivity <= 1)) {
+                throw new IllegalArgumentException("selectivity must be between 0 and 1: " + selectivity);
+            }
+            this.selectivity = selectivity;
+            return this;
+        }
+
+        /**
+         * 模糊匹配方式，等同 {@code @Filtro(searchMode = ...)}，仅 SEARCH 字段可用。
+         */
+        public Builder searchMode(SearchMode searchMode) {
+            Objects.requireNonNull(searchMode, "searchMode");
+            if (searchMode != SearchMode.PATTERN && intent != QueryIntent.SEARCH) {
+                throw new IllegalArgumentException("searchMode requires QueryIntent.SEARCH: " + field);
+            }
+            this.searchMode = searchMode;
+            return this;
+        }
+
+        /**
+         * 自定义参数解码器，等同 {@code @Filtro(codec = ...)}；不设置时按 Java 类型选择内置实现。
+         */
+        public Builder codec(FiltroValueCodec codec) {
+            this.codec = Objects.requireNonNull(codec, "codec");
+            return this;
+        }
+
+        /**
+         * 枚举类型；{@code javaType} 为 String 时参数按该枚举的常量名解码，未知常量名在编译期即被拒绝
+         */
         public Builder enumerationClass(Class<?> enumerationClass) {
             this.enumerationClass = enumerationClass;
             return this;
@@ -141,7 +201,12 @@ public final class FiltroFieldMetaFactory {
                     .setJavaType(javaType)
                     .setLabel(label)
                     .setTooltip(tooltip)
-                    .setGroups(groups);
+                    .setGroups(groups)
+                    .setWeight(weight)
+                    .setIndexed(indexed)
+                    .setSelectivity(selectivity)
+                    .setSearchMode(searchMode)
+                    .setCodec(codec != null ? codec : FiltroValueCodecs.forField(javaType, enumerationClass));
 
             Set<FiltroOperator> fullSet = FiltroFieldMetaBuilder.operatorsFor(intent, javaType);
             if (claimedOperators.isEmpty()) {
@@ -27,7 +27,9 @@ public enum FiltroOperator {
 
     // 专门用于字符串的模糊匹配
     CONTAINS(false, "=contains=", false),
-    NOT_CONTAINS(false, "=nocontains=", false);
+    NOT_CONTAINS(false, "=nocontains=", false),
+    // 前缀匹配，可走索引范围扫描
+    STARTS_WITH(false, "=startswith=", false);
 
     private final boolean rsqlOriginal;
     private final String symbol;
@@ -0,0 +1,72 @@
+package cc.ddrpa.filtro.core.field;
+
+/**
+ * MySQL {@code MATCH(col) AGAINST(? IN BOOLEAN MODE)} 的短语参数，MyBatis-Plus 与 JDBC 后端共用，
+ * 同一字段元数据与参数在两者下的路由（全文索引或 {@code LIKE}）一致。
+ * <p>
+ * 参数包装为短语 {@code "..."}，短语内的运算符按字面处理，仅需去掉双引号本身。
+ * 参数为空，或任一词短于分词长度时全文索引无法命中，此时不生成短语，调用方应退回 {@code LIKE}。
+ */
+public final class MySqlFullTextPhrase {
+
+    /**
+     * MySQL {@code innodb_ft_min_token_size} 默认值
+     */
+    public static final int DEFAULT_FULLTEXT_MIN_TOKEN_SIZE = 3;
+
+    /**
+     * MySQL {@code ngram_token_size} 默认值
+     */
+    public static final int DEFAULT_NGRAM_TOKEN_SIZE = 2;
+
+    private int fullTextMinTokenSize = DEFAULT_FULLTEXT_MIN_TOKEN_SIZE;
+    private int ngramTokenSize = DEFAULT_NGRAM_TOKEN_SIZE;
+
+    /**
+     * 与服务端 {@code innodb_ft_min_token_size} 保持一致
+     */
+    public MySqlFullTextPhrase setFullTextMinTokenSize(int fullTextMinTokenSize) {
+        this.fullTextMinTokenSize = fullTextMinTokenSize;
+        return this;
+    }
+
+    /**
+     * 与服务端 {@code ngram_token_size} 保持一致
+     */
+    public MySqlFullTextPhrase setNgramTokenSize(int ngramTokenSize) {
+        this.ngramTokenSize = ngramTokenSize;
+        return this;
+    }
+
+    /**
+     * @return 短语参数；字段不是 {@link SearchMode#FULLTEXT} / {@link SearchMode#NGRAM} 的 {@code SEARCH} 字段，
+     * 或参数无法命中全文索引时为 null
+     */
+    public String toPhrase(FiltroFieldMeta meta, String value) {
+        if (meta.getQueryIntent() != QueryIntent.SEARCH) {
+            return null;
+        }
+        return switch (meta.getSearchMode()) {
+            case FULLTEXT -> toPhrase(value, fullTextMinTokenSize);
+            case NGRAM -> toPhrase(value, ngramTokenSize);
+            default -> null;
+        };
+    }
+
+    /**
+     * @param tokenSize {@code innodb_ft_min_token_size} 或 {@code ngram_token_size}
+     * @return 短语参数；参数为空或任一词短于 {@code tokenSize} 时为 null
+     */
+    public static String toPhrase(String value, int tokenSize) {
+        String stripped = value.replace('"', ' ').strip();
+        if (stripped.isEmpty()) {
+            return null;
+        }
+        for (String term : stripped.split("\\s+")) {
+            if (term.codePointCount(0, term.length()) < tokenSize) {
+                return null;
+            }
+        }
+        return '"' + stripped + '"';
+    }
+}
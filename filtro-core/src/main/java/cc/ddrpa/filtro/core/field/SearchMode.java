@@ -0,0 +1,27 @@
+package cc.ddrpa.filtro.core.field;
+
+/**
+ * {@link QueryIntent#SEARCH} 字段的模糊匹配实现方式，由后端 Visitor 按各自能力解释，不影响字段支持的操作符。
+ */
+public enum SearchMode {
+    /**
+     * 模式匹配（默认）— {@code LIKE '%x%'}、非锚定正则，结果精确但无法走索引
+     */
+    PATTERN,
+
+    /**
+     * 全文检索 — {@code =contains=} 交给全文索引求值（MongoDB {@code $text}、MySQL {@code MATCH ... AGAINST}），按分词匹配
+     */
+    FULLTEXT,
+
+    /**
+     * ngram 全文检索 — MySQL {@code FULLTEXT ... WITH PARSER ngram}，适用于不以空格分词的中日韩文本；
+     * MongoDB 文本索引不支持 ngram，按 {@link #PATTERN} 处理
+     */
+    NGRAM,
+
+    /**
+     * 排序规则 — 依赖大小写不敏感的 collation 索引，{@code ==} / {@code =startswith=} 可走索引，{@code =contains=} 忽略大小写
+     */
+    COLLATION
+}
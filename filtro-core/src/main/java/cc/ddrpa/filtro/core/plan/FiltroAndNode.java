@@ -0,0 +1,18 @@
+package cc.ddrpa.filtro.core.plan;
+
+import java.util.List;
+
+/**
+ * 逻辑与
+ */
+public record FiltroAndNode(List<FiltroNode> children) implements FiltroNode {
+
+    public FiltroAndNode {
+        children = List.copyOf(children);
+    }
+
+    @Override
+    public <R, A> R accept(FiltroNodeVisitor<R, A> visitor, A param) {
+        return visitor.visit(this, param);
+    }
+}
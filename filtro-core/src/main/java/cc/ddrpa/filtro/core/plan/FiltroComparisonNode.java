@@ -0,0 +1,46 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+
+import java.util.List;
+
+/**
+ * 比较条件。
+ *
+ * @param meta      已解析的字段元数据
+ * @param operator  已校验的操作符
+ * @param arguments RSQL 原始参数
+ * @param values    按字段 Java 类型转型后的参数，与 {@code arguments} 一一对应；
+ *                  模糊匹配操作符保留字符串，空值判断操作符为空列表
+ */
+public record FiltroComparisonNode(FiltroFieldMeta meta,
+                                   FiltroOperator operator,
+                                   List<String> arguments,
+                                   List<Object> values) implements FiltroNode {
+
+    public FiltroComparisonNode {
+        arguments = List.copyOf(arguments);
+        values = List.copyOf(values);
+    }
+
+    /**
+     * 数据库列名或 key-path
+     */
+    public String key() {
+        return meta.getKey();
+    }
+
+    public String firstArgument() {
+        return arguments.get(0);
+    }
+
+    public Object firstValue() {
+        return values.get(0);
+    }
+
+    @Override
+    public <R, A> R accept(FiltroNodeVisitor<R, A> visitor, A param) {
+        return visitor.visit(this, param);
+    }
+}
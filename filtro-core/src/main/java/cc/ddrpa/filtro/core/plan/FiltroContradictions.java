@@ -0,0 +1,140 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 判定同一 AND 组内、同一字段上的比较条件是否互相矛盾：
+ * <ul>
+ *   <li>{@code =null=} 与任何要求非空的条件同时出现</li>
+ *   <li>两个 {@code ==} 取不同值，或 {@code ==} 落在 {@code =in=} 之外、{@code !=} / {@code =out=} 之内</li>
+ *   <li>下界高于上界，或 {@code ==} 落在范围之外</li>
+ * </ul>
+ * {@code !=}、{@code =out=}、{@code =nocontains=} 在 MongoDB 中会匹配缺失字段，不视为要求非空。
+ */
+final class FiltroContradictions {
+
+    private FiltroContradictions() {
+    }
+
+    static boolean contradicts(List<FiltroNode> conjuncts) {
+        Map<FiltroFieldMeta, List<FiltroComparisonNode>> byField = new IdentityHashMap<>();
+        for (FiltroNode node : conjuncts) {
+            if (node instanceof FiltroComparisonNode comparison) {
+                byField.computeIfAbsent(comparison.meta(), k -> new ArrayList<>(2)).add(comparison);
+            }
+        }
+        for (List<FiltroComparisonNode> comparisons : byField.values()) {
+            if (comparisons.size() > 1 && contradicts(comparisons.toArray(FiltroComparisonNode[]::new))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean contradicts(FiltroComparisonNode[] comparisons) {
+        boolean requiresNull = false;
+        boolean requiresNonNull = false;
+        for (FiltroComparisonNode comparison : comparisons) {
+            switch (FiltroNormalizer.canonical(comparison.operator())) {
+                case IS_NULL -> requiresNull = true;
+                case EQ, GT, GTE, LT, LTE, IN, CONTAINS, STARTS_WITH, NOT_NULL -> requiresNonNull = true;
+                default -> {
+                }
+            }
+        }
+        if (requiresNull && requiresNonNull) {
+            return true;
+        }
+        for (int i = 0; i < comparisons.length; i++) {
+            for (int j = i + 1; j < comparisons.length; j++) {
+                if (conflicts(comparisons[i], comparisons[j]) || conflicts(comparisons[j], comparisons[i])) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean conflicts(FiltroComparisonNode a, FiltroComparisonNode b) {
+        FiltroOperator opA = FiltroNormalizer.canonical(a.operator());
+        FiltroOperator opB = FiltroNormalizer.canonical(b.operator());
+        if (opA == FiltroOperator.EQ) {
+            Object value = a.firstValue();
+            if (!isExact(value)) {
+                return false;
+            }
+            return switch (opB) {
+                case EQ -> differs(value, b.firstValue());
+                case NEQ -> same(value, b.firstValue());
+                case IN -> b.values().stream().allMatch(v -> differs(value, v));
+                case NOT_IN -> b.values().stream().anyMatch(v -> same(value, v));
+                case GT, GTE -> outside(value, b, true);
+                case LT, LTE -> outside(value, b, false);
+                default -> false;
+            };
+        }
+        if ((opA == FiltroOperator.GT || opA == FiltroOperator.GTE)
+                && (opB == FiltroOperator.LT || opB == FiltroOperator.LTE)) {
+            Object lower = a.firstValue();
+            Object upper = b.firstValue();
+            if (!FiltroNormalizer.isOrdered(lower) || !FiltroNormalizer.isOrdered(upper)) {
+                return false;
+            }
+            int order = FiltroNormalizer.compare(lower, upper);
+            if (order == Integer.MIN_VALUE) {
+                return false;
+            }
+            return order > 0 || order == 0
+                    && (FiltroNormalizer.isExclusive(a.operator()) || FiltroNormalizer.isExclusive(b.operator()));
+        }
+        return false;
+    }
+
+    // value 是否落在 bound 所表示的范围之外
+    private static boolean outside(Object value, FiltroComparisonNode bound, boolean lower) {
+        Object limit = bound.firstValue();
+        if (!FiltroNormalizer.isOrdered(value) || !FiltroNormalizer.isOrdered(limit)) {
+            return false;
+        }
+        int order = FiltroNormalizer.compare(value, limit);
+        if (order == Integer.MIN_VALUE) {
+            return false;
+        }
+        if (order == 0) {
+            return FiltroNormalizer.isExclusive(bound.operator());
+        }
+        return lower ? order < 0 : order > 0;
+    }
+
+    /**
+     * 可做精确相等判定的值：字符串受排序规则影响，不参与
+     */
+    private static boolean isExact(Object value) {
+        return value != null && !(value instanceof String);
+    }
+
+    private static boolean same(Object a, Object b) {
+        if (!isExact(b) || a.getClass() != b.getClass()) {
+            return false;
+        }
+        if (a instanceof BigDecimal x) {
+            return x.compareTo((BigDecimal) b) == 0;
+        }
+        if (a instanceof Double x) {
+            return x.doubleValue() == (Double) b;
+        }
+        return a.equals(b);
+    }
+
+    // 类型不同时无法判定，按不冲突处理
+    private static boolean differs(Object a, Object b) {
+        return isExact(b) && a.getClass() == b.getClass() && !same(a, b);
+    }
+}
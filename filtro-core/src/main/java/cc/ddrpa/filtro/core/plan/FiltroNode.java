@@ -0,0 +1,10 @@
+package cc.ddrpa.filtro.core.plan;
+
+/**
+ * 后端无关的查询中间表示（IR）节点。由 {@link FiltroPlanner} 从 RSQL AST 编译得到，
+ * 字段已解析、操作符已校验、参数已按字段类型转型；不可变，可跨请求共享。
+ */
+public sealed interface FiltroNode permits FiltroAndNode, FiltroOrNode, FiltroComparisonNode {
+
+    <R, A> R accept(FiltroNodeVisitor<R, A> visitor, A param);
+}
@@ -0,0 +1,16 @@
+package cc.ddrpa.filtro.core.plan;
+
+/**
+ * IR 遍历接口，各后端据此生成 QueryWrapper、Criteria 或表达式字符串。
+ *
+ * @param <R> 返回类型
+ * @param <A> 上下文参数类型
+ */
+public interface FiltroNodeVisitor<R, A> {
+
+    R visit(FiltroAndNode node, A param);
+
+    R visit(FiltroOrNode node, A param);
+
+    R visit(FiltroComparisonNode node, A param);
+}
@@ -0,0 +1,269 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.SearchMode;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * IR 代数化简，编译后、后端 Visitor 之前执行，结果与输入语义等价：
+ * <ul>
+ *   <li>展平同类嵌套：{@code a;(b;c)} → {@code a;b;c}</li>
+ *   <li>同字段等值析取合并为集合：{@code s==A,s==B} → {@code s=in=(A,B)}，{@code s!=A;s!=B} → {@code s=out=(A,B)}，
+ *       仅在字段支持 {@code =in=} / {@code =out=} 时进行</li>
+ *   <li>去除重复条件（同字段、同操作符、同参数值）</li>
+ *   <li>合并同字段同方向的范围：AND 取最紧边界，OR 取最松边界</li>
+ *   <li>AND 子节点按 {@link FiltroFieldMeta#isIndexed()}、{@link FiltroFieldMeta#getSelectivity()} 稳定排序，无提示时保持原顺序</li>
+ *   <li>折叠只剩一个子节点的逻辑节点</li>
+ *   <li>识别矛盾条件：AND 中任一子节点不可满足则整体不可满足；OR 剔除不可满足的分支，全部剔除则整体不可满足</li>
+ * </ul>
+ * 范围合并与矛盾判定只作用于类型化的非字符串值，字符串比较依赖数据库排序规则（大小写、尾随空格），保持原样。
+ */
+final class FiltroNormalizer {
+
+    /**
+     * 有索引且可走索引的条件在前，其次按选择率升序；逻辑子节点视为无索引、选择率 1
+     */
+    private static final Comparator<FiltroNode> SELECTIVITY_ORDER =
+            Comparator.comparingInt((FiltroNode node) -> indexBacked(node) ? 0 : 1)
+                    .thenComparingDouble(FiltroNormalizer::selectivity);
+
+    private FiltroNormalizer() {
+    }
+
+    /**
+     * @return 化简后的节点；条件不可满足（恒不匹配任何记录）时返回 null
+     */
+    static FiltroNode normalize(FiltroNode node) {
+        if (node instanceof FiltroAndNode and) {
+            return simplify(and.children(), true);
+        }
+        if (node instanceof FiltroOrNode or) {
+            return simplify(or.children(), false);
+        }
+        return node;
+    }
+
+    private static FiltroNode simplify(List<FiltroNode> children, boolean conjunction) {
+        List<FiltroNode> flattened = new ArrayList<>(children.size());
+        for (FiltroNode child : children) {
+            FiltroNode normalized = normalize(child);
+            if (normalized == null) {
+                if (conjunction) {
+                    return null;
+                }
+                continue;
+            }
+            if (conjunction && normalized instanceof FiltroAndNode and) {
+                flattened.addAll(and.children());
+            } else if (!conjunction && normalized instanceof FiltroOrNode or) {
+                flattened.addAll(or.children());
+            } else {
+                flattened.add(normalized);
+            }
+        }
+
+        flattened = mergeIntoSets(flattened, conjunction);
+
+        List<FiltroNode> result = new ArrayList<>(flattened.size());
+        Set<Object> seen = new HashSet<>();
+        // (字段, 方向) → 已保留边界在 result 中的下标
+        Map<BoundKey, Integer> bounds = new HashMap<>();
+        for (FiltroNode node : flattened) {
+            if (!(node instanceof FiltroComparisonNode comparison)) {
+                if (seen.add(node)) {
+                    result.add(node);
+                }
+                continue;
+            }
+            if (!seen.add(identity(comparison))) {
+                continue;
+            }
+            Boolean lower = direction(comparison);
+            if (lower == null) {
+                result.add(comparison);
+                continue;
+            }
+            BoundKey key = new BoundKey(comparison.meta(), lower);
+            Integer index = bounds.get(key);
+            if (index == null) {
+                bounds.put(key, result.size());
+                result.add(comparison);
+                continue;
+            }
+            FiltroComparisonNode kept = (FiltroComparisonNode) result.get(index);
+            int order = compare(comparison.firstValue(), kept.firstValue());
+            if (order == Integer.MIN_VALUE) {
+                result.add(comparison);
+            } else if (replaces(comparison, kept, order, lower, conjunction)) {
+                result.set(index, comparison);
+            }
+        }
+
+        if (result.isEmpty() || conjunction && FiltroContradictions.contradicts(result)) {
+            return null;
+        }
+        if (result.size() == 1) {
+            return result.get(0);
+        }
+        if (conjunction) {
+            result.sort(SELECTIVITY_ORDER);
+        }
+        return conjunction ? new FiltroAndNode(result) : new FiltroOrNode(result);
+    }
+
+    /**
+     * OR 中同字段的 {@code ==} / {@code =in=} 合并为一个 {@code =in=}，AND 中的 {@code !=} / {@code =out=} 合并为一个 {@code =out=}。
+     * 合并后的节点位于该字段首个条件的位置，参数按值去重并保持出现顺序。
+     * 合并结果的参数个数随后由 {@link FiltroPlanner} 按 {@link FiltroQueryBudget#getMaxInArguments()} 校验。
+     */
+    private static List<FiltroNode> mergeIntoSets(List<FiltroNode> nodes, boolean conjunction) {
+        FiltroOperator single = conjunction ? FiltroOperator.NEQ : FiltroOperator.EQ;
+        FiltroOperator multi = conjunction ? FiltroOperator.NOT_IN : FiltroOperator.IN;
+        Map<FiltroFieldMeta, List<FiltroComparisonNode>> groups = null;
+        for (FiltroNode node : nodes) {
+            if (node instanceof FiltroComparisonNode comparison
+                    && (comparison.operator() == single || comparison.operator() == multi)
+                    && comparison.meta().getSupportedOperations().contains(multi)) {
+                if (groups == null) {
+                    groups = new IdentityHashMap<>();
+                }
+                groups.computeIfAbsent(comparison.meta(), k -> new ArrayList<>(2)).add(comparison);
+            }
+        }
+        if (groups == null || groups.values().stream().allMatch(group -> group.size() < 2)) {
+            return nodes;
+        }
+        List<FiltroNode> merged = new ArrayList<>(nodes.size());
+        for (FiltroNode node : nodes) {
+            if (!(node instanceof FiltroComparisonNode comparison)) {
+                merged.add(node);
+                continue;
+            }
+            List<FiltroComparisonNode> group = groups.get(comparison.meta());
+            if (group == null || group.size() < 2 || !group.contains(comparison)) {
+                merged.add(node);
+            } else if (group.get(0) == comparison) {
+                merged.add(toSet(comparison.meta(), multi, group));
+            }
+        }
+        return merged;
+    }
+
+    private static FiltroComparisonNode toSet(FiltroFieldMeta meta, FiltroOperator operator,
+                                              List<FiltroComparisonNode> group) {
+        Map<Object, String> arguments = new LinkedHashMap<>();
+        for (FiltroComparisonNode comparison : group) {
+            for (int i = 0; i < comparison.values().size(); i++) {
+                arguments.putIfAbsent(comparison.values().get(i), comparison.arguments().get(i));
+            }
+        }
+        return new FiltroComparisonNode(meta, operator, new ArrayList<>(arguments.values()),
+                new ArrayList<>(arguments.keySet()));
+    }
+
+    private static boolean indexBacked(FiltroNode node) {
+        if (!(node instanceof FiltroComparisonNode comparison) || !comparison.meta().isIndexed()) {
+            return false;
+        }
+        // 取反与模糊匹配无法利用 B-tree 索引，前缀匹配以及全文、collation 模式下的 CONTAINS 可以
+        return switch (comparison.operator()) {
+            case CONTAINS -> comparison.meta().getSearchMode() != SearchMode.PATTERN;
+            case NEQ, NULLABLE_NEQ, NOT_IN, NOT_CONTAINS -> false;
+            default -> true;
+        };
+    }
+
+    private static double selectivity(FiltroNode node) {
+        return node instanceof FiltroComparisonNode comparison ? comparison.meta().getSelectivity() : 1.0;
+    }
+
+    /**
+     * AND 保留更紧的边界（下界取大、上界取小，值相等取开区间），OR 保留更松的边界。
+     *
+     * @param order candidate 相对 kept 的大小（-1 / 0 / 1）
+     */
+    private static boolean replaces(FiltroComparisonNode candidate, FiltroComparisonNode kept, int order,
+                                    boolean lower, boolean conjunction) {
+        boolean candidateExclusive = isExclusive(candidate.operator());
+        boolean keptExclusive = isExclusive(kept.operator());
+        if (order == 0) {
+            return conjunction ? candidateExclusive && !keptExclusive : !candidateExclusive && keptExclusive;
+        }
+        boolean tighter = lower ? order > 0 : order < 0;
+        return tighter == conjunction;
+    }
+
+    /**
+     * 去重键：ALT 操作符与原生操作符视为同一个，比较转型后的值而非原始字符串。
+     */
+    private static Object identity(FiltroComparisonNode node) {
+        return List.of(node.meta().getField(), canonical(node.operator()), node.values());
+    }
+
+    static FiltroOperator canonical(FiltroOperator operator) {
+        return switch (operator) {
+            case ALT_GT -> FiltroOperator.GT;
+            case ALT_GTE -> FiltroOperator.GTE;
+            case ALT_LT -> FiltroOperator.LT;
+            case ALT_LTE -> FiltroOperator.LTE;
+            default -> operator;
+        };
+    }
+
+    /**
+     * @return 下界为 true，上界为 false，非范围条件或值不可比较时为 null
+     */
+    private static Boolean direction(FiltroComparisonNode node) {
+        if (node.values().size() != 1 || !isOrdered(node.firstValue())) {
+            return null;
+        }
+        return switch (canonical(node.operator())) {
+            case GT, GTE -> Boolean.TRUE;
+            case LT, LTE -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    static boolean isExclusive(FiltroOperator operator) {
+        FiltroOperator op = canonical(operator);
+        return op == FiltroOperator.GT || op == FiltroOperator.LT;
+    }
+
+    static boolean isOrdered(Object value) {
+        if (value instanceof Double d) {
+            return !d.isNaN();
+        }
+        return value instanceof Long || value instanceof BigDecimal
+                || value instanceof Instant || value instanceof LocalDateTime
+                || value instanceof LocalDate || value instanceof LocalTime;
+    }
+
+    /**
+     * 同类型值比较，类型不同（如日期字段混用 Instant 与 LocalDate）时返回 {@link Integer#MIN_VALUE}。
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static int compare(Object a, Object b) {
+        if (a.getClass() != b.getClass()) {
+            return Integer.MIN_VALUE;
+        }
+        return Integer.signum(((Comparable) a).compareTo(b));
+    }
+
+    private record BoundKey(FiltroFieldMeta meta, boolean lower) {
+    }
+}
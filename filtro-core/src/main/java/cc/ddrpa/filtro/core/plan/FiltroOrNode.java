@@ -0,0 +1,18 @@
+package cc.ddrpa.filtro.core.plan;
+
+import java.util.List;
+
+/**
+ * 逻辑或
+ */
+public record FiltroOrNode(List<FiltroNode> children) implements FiltroNode {
+
+    public FiltroOrNode {
+        children = List.copyOf(children);
+    }
+
+    @Override
+    public <R, A> R accept(FiltroNodeVisitor<R, A> visitor, A param) {
+        return visitor.visit(this, param);
+    }
+}
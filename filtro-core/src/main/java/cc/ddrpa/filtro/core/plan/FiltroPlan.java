@@ -0,0 +1,88 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cz.jirutka.rsql.parser.ast.Node;
+
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 一次 {@code q} 查询的编译结果：原始 RSQL AST、编译后的 IR 及编译时所用的字段元数据。
+ * <p>
+ * 不可变，可在请求之间共享，由 {@link FiltroPlanCache} 缓存。
+ */
+public final class FiltroPlan {
+
+    private final Node source;
+    private final FiltroNode root;
+    private final Map<String, FiltroFieldMeta> fields;
+    private final int depth;
+    private final int nodeCount;
+    private final long cost;
+    private final boolean emptyResult;
+
+    public FiltroPlan(Node source, FiltroNode root, Map<String, FiltroFieldMeta> fields, int depth, int nodeCount) {
+        this(source, root, fields, depth, nodeCount, 0, false);
+    }
+
+    public FiltroPlan(Node source, FiltroNode root, Map<String, FiltroFieldMeta> fields, int depth, int nodeCount,
+                      long cost, boolean emptyResult) {
+        this.source = Objects.requireNonNull(source, "source");
+        this.root = Objects.requireNonNull(root, "root");
+        this.fields = Objects.requireNonNull(fields, "fields");
+        this.depth = depth;
+        this.nodeCount = nodeCount;
+        this.cost = cost;
+        this.emptyResult = emptyResult;
+    }
+
+    /**
+     * 原始 RSQL AST，供只实现了 {@code parse(Map, Node)} 的自定义 Handler 使用
+     */
+    public Node getSource() {
+        return source;
+    }
+
+    /**
+     * 已校验、已转型的 IR 根节点
+     */
+    public FiltroNode getRoot() {
+        return root;
+    }
+
+    /**
+     * RSQL 字段名 → 字段元数据（已按 group 过滤）
+     */
+    public Map<String, FiltroFieldMeta> getFields() {
+        return fields;
+    }
+
+    /**
+     * 逻辑节点最大嵌套层数，单个比较条件为 0
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * AST 节点总数（逻辑节点 + 比较节点）
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * 按 {@link FiltroQueryBudget} 代价模型计算的查询总代价
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    /**
+     * 条件恒不可满足（如 {@code price=lt=10;price=gt=20}），Handler 可直接产出“不匹配任何记录”的查询对象。
+     * 此时 {@link #getRoot()} 为未化简的编译结果，照常执行同样返回空集。
+     */
+    public boolean isEmptyResult() {
+        return emptyResult;
+    }
+}
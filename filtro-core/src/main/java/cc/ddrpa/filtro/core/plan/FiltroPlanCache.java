@@ -0,0 +1,223 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cz.jirutka.rsql.parser.ast.Node;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 有界近似 LRU 查询计划缓存，同时限制条目数与总权重（{@code q} 字符数），并记录命中统计。
+ * <p>
+ * 命中路径不加锁：条目存放在 {@link ConcurrentHashMap} 中，访问时只记录当前写入纪元（每次写入递增），
+ * 纪元未变时不产生任何写操作。写入、失效与淘汰在锁内进行，淘汰纪元最小的条目；同一纪元内的多次访问不再区分先后。
+ * <p>
+ * 加载在锁外进行，并发未命中同一键时可能重复解析，结果等价，后写入者覆盖；加载期间发生失效时结果不写入缓存。
+ * <p>
+ * 字段元数据不发变更通知的类型可通过 {@link #getSource} 只缓存 RSQL AST，IR 由调用方每次重新编译。
+ */
+public class FiltroPlanCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 1024 * 1024;
+
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final ConcurrentHashMap<FiltroPlanKey, Entry> entries = new ConcurrentHashMap<>();
+    // 写入、失效与淘汰共用的锁
+    private final Object lock = new Object();
+    // 以下字段只在持有 lock 时修改
+    private long weight;
+    // 写入纪元，每次写入递增；命中时记入条目
+    private volatile long epoch;
+    // 每次失效递增，加载期间发生失效的结果不写入缓存
+    private volatile long version;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder invalidationCount = new LongAdder();
+
+    public FiltroPlanCache() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_MAXIMUM_WEIGHT);
+    }
+
+    /**
+     * @param maximumSize   最大条目数
+     * @param maximumWeight 所有缓存键 {@code q} 字符数之和的上限；单条超过该值的查询不缓存
+     */
+    public FiltroPlanCache(int maximumSize, long maximumWeight) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive: " + maximumSize);
+        }
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("maximumWeight must be positive: " + maximumWeight);
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+    }
+
+    private static int weigh(FiltroPlanKey key) {
+        return key.query().length();
+    }
+
+    /**
+     * 命中直接返回；未命中时调用 {@code loader} 解析并写入缓存。loader 抛出的异常原样传播，不缓存失败结果。
+     */
+    public FiltroPlan get(FiltroPlanKey key, Function<FiltroPlanKey, FiltroPlan> loader) {
+        Objects.requireNonNull(key, "key");
+        // 先于查找记录版本，查找之后发生的失效都会使本次加载结果作废
+        long stamp = version;
+        Object value = lookup(key);
+        if (value instanceof FiltroPlan plan) {
+            hitCount.increment();
+            return plan;
+        }
+        missCount.increment();
+        FiltroPlan plan = Objects.requireNonNull(loader.apply(key), "loader returned null");
+        store(key, plan, stamp);
+        return plan;
+    }
+
+    /**
+     * 只缓存 RSQL AST：命中（包括同一键下已缓存的完整计划）直接返回 AST，未命中时调用 {@code loader} 解析并写入缓存。
+     */
+    public Node getSource(FiltroPlanKey key, Function<FiltroPlanKey, Node> loader) {
+        Objects.requireNonNull(key, "key");
+        long stamp = version;
+        Object value = lookup(key);
+        if (value != null) {
+            hitCount.increment();
+            return value instanceof FiltroPlan plan ? plan.getSource() : (Node) value;
+        }
+        missCount.increment();
+        Node source = Objects.requireNonNull(loader.apply(key), "loader returned null");
+        store(key, source, stamp);
+        return source;
+    }
+
+    private Object lookup(FiltroPlanKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long now = epoch;
+        if (entry.accessed != now) {
+            entry.accessed = now;
+        }
+        return entry.value;
+    }
+
+    public void put(FiltroPlanKey key, FiltroPlan plan) {
+        int entryWeight = weigh(key);
+        if (entryWeight > maximumWeight) {
+            return;
+        }
+        synchronized (lock) {
+            insert(key, plan, entryWeight);
+        }
+    }
+
+    // 与 FiltroRegistry#getIndex 相同：加载前记录版本，期间发生失效则丢弃结果，避免留下按旧元数据编译的计划
+    private void store(FiltroPlanKey key, Object value, long stamp) {
+        int entryWeight = weigh(key);
+        if (entryWeight > maximumWeight) {
+            return;
+        }
+        synchronized (lock) {
+            if (version == stamp) {
+                insert(key, value, entryWeight);
+            }
+        }
+    }
+
+    // 调用方需持有 lock；新条目记入当前纪元后纪元递增，此后的命中都晚于它
+    private void insert(FiltroPlanKey key, Object value, int entryWeight) {
+        long now = epoch;
+        if (entries.put(key, new Entry(value, now)) == null) {
+            weight += entryWeight;
+        }
+        epoch = now + 1;
+        evictIfNecessary();
+    }
+
+    /**
+     * 失效某实体类型的全部计划（字段元数据变更时调用）。
+     */
+    public void invalidate(Class<?> criteriaType) {
+        synchronized (lock) {
+            version++;
+            Iterator<FiltroPlanKey> it = entries.keySet().iterator();
+            while (it.hasNext()) {
+                FiltroPlanKey key = it.next();
+                if (key.criteriaType() == criteriaType) {
+                    it.remove();
+                    weight -= weigh(key);
+                    invalidationCount.increment();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (lock) {
+            version++;
+            invalidationCount.add(entries.size());
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public FiltroPlanCacheStats stats() {
+        int size;
+        long currentWeight;
+        synchronized (lock) {
+            size = entries.size();
+            currentWeight = weight;
+        }
+        return new FiltroPlanCacheStats(hitCount.sum(), missCount.sum(), evictionCount.sum(),
+                invalidationCount.sum(), size, currentWeight);
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    // 调用方需持有 lock；每次淘汰纪元最小的条目。只在未命中写入时发生，扫描开销由解析摊销
+    private void evictIfNecessary() {
+        while (entries.size() > maximumSize || weight > maximumWeight) {
+            Map.Entry<FiltroPlanKey, Entry> eldest = null;
+            for (Map.Entry<FiltroPlanKey, Entry> candidate : entries.entrySet()) {
+                if (eldest == null || candidate.getValue().accessed < eldest.getValue().accessed) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null) {
+                return;
+            }
+            entries.remove(eldest.getKey());
+            weight -= weigh(eldest.getKey());
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * 缓存值（{@link FiltroPlan} 或仅 AST 的 {@link Node}）与最近一次访问时的写入纪元
+     */
+    private static final class Entry {
+        final Object value;
+        volatile long accessed;
+
+        Entry(Object value, long accessed) {
+            this.value = value;
+            this.accessed = accessed;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package cc.ddrpa.filtro.core.plan;
+
+/**
+ * {@link FiltroPlanCache} 统计快照。
+ *
+ * @param hitCount          命中次数
+ * @param missCount         未命中次数
+ * @param evictionCount     因容量或权重超限被淘汰的条目数
+ * @param invalidationCount 因字段元数据变更被失效的条目数
+ * @param size              当前条目数
+ * @param weight            当前总权重
+ */
+public record FiltroPlanCacheStats(long hitCount,
+                                   long missCount,
+                                   long evictionCount,
+                                   long invalidationCount,
+                                   int size,
+                                   long weight) {
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,12 @@
+package cc.ddrpa.filtro.core.plan;
+
+/**
+ * 查询计划缓存键。
+ *
+ * @param query        原始 {@code q} 字符串
+ * @param criteriaType 查询实体类型
+ * @param group        字段分组
+ * @param targetType   控制器参数类型（决定由哪个 Handler 翻译）
+ */
+public record FiltroPlanKey(String query, Class<?> criteriaType, Class<?> group, Class<?> targetType) {
+}
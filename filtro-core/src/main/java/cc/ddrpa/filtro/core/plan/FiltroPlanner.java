@@ -0,0 +1,279 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cc.ddrpa.filtro.core.codec.FiltroValueCodec;
+import cc.ddrpa.filtro.core.exception.FiltroQueryTooComplexException;
+import cc.ddrpa.filtro.core.exception.FiltroQueryTooComplexException.Limit;
+import cc.ddrpa.filtro.core.exception.PredicateBuildException;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cz.jirutka.rsql.parser.ast.AndNode;
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.LogicalNode;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.OrNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 将 RSQL AST 编译为 {@link FiltroNode} IR：校验嵌套深度、复杂度预算、字段存在性与操作符支持性，并完成参数转型。
+ * <p>
+ * 编译结果与后端无关，经 {@link FiltroNormalizer} 化简后交给各后端；校验与转型的开销每个计划只付一次。
+ */
+public class FiltroPlanner {
+
+    public static final int DEFAULT_MAX_DEPTH = 20;
+
+    private final int maxDepth;
+    private final FiltroQueryBudget budget;
+
+    public FiltroPlanner() {
+        this(DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * 不限制查询复杂度，仅校验嵌套深度。
+     */
+    public FiltroPlanner(int maxDepth) {
+        this(maxDepth, FiltroQueryBudget.unlimited());
+    }
+
+    public FiltroPlanner(int maxDepth, FiltroQueryBudget budget) {
+        this.maxDepth = maxDepth;
+        this.budget = Objects.requireNonNull(budget, "budget");
+    }
+
+    /**
+     * 查找字段元数据，不存在时抛出 {@link IllegalArgumentException}。
+     */
+    public static FiltroFieldMeta resolveField(Map<String, FiltroFieldMeta> fields, String selector) {
+        FiltroFieldMeta meta = fields.get(selector);
+        if (meta == null) {
+            throw new IllegalArgumentException("Field " + selector + " not found in filtroFieldMeta");
+        }
+        return meta;
+    }
+
+    /**
+     * 解析操作符并校验字段是否支持，不支持时抛出 {@link IllegalArgumentException}。
+     */
+    public static FiltroOperator resolveOperator(FiltroFieldMeta meta, String symbol) {
+        FiltroOperator operator = FiltroOperator.of(symbol);
+        if (!meta.getSupportedOperations().contains(operator)) {
+            throw new IllegalArgumentException(
+                    "FiltroOperator " + symbol + " not supported for field " + meta.getField());
+        }
+        return operator;
+    }
+
+    /**
+     * 构造比较节点并按字段类型转型参数。
+     */
+    public static FiltroComparisonNode comparison(FiltroFieldMeta meta, FiltroOperator operator,
+                                                  List<String> arguments) {
+        return new FiltroComparisonNode(meta, operator, arguments, convert(meta, operator, arguments));
+    }
+
+    private static List<Object> convert(FiltroFieldMeta meta, FiltroOperator operator, List<String> arguments) {
+        switch (operator) {
+            case IS_NULL, NOT_NULL -> {
+                return Collections.emptyList();
+            }
+            case CONTAINS, NOT_CONTAINS, STARTS_WITH -> {
+                return List.copyOf(arguments);
+            }
+            default -> {
+                FiltroValueCodec codec = meta.getCodec();
+                List<Object> values = new ArrayList<>(arguments.size());
+                for (String argument : arguments) {
+                    values.add(decode(meta, codec, argument));
+                }
+                return values;
+            }
+        }
+    }
+
+    private static Object decode(FiltroFieldMeta meta, FiltroValueCodec codec, String raw) {
+        try {
+            return codec.decode(raw);
+        } catch (PredicateBuildException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new PredicateBuildException(meta.getField(), raw, codec.typeName(), e);
+        }
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public FiltroQueryBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * 编译并返回完整计划。
+     */
+    public FiltroPlan plan(Map<String, FiltroFieldMeta> fields, Node root) {
+        Compilation compilation = new Compilation(fields);
+        FiltroNode compiled = compilation.compile(root, 0);
+        FiltroNode normalized = FiltroNormalizer.normalize(compiled);
+        compilation.charge(normalized != null ? normalized : compiled);
+        if (normalized == null) {
+            return new FiltroPlan(root, compiled, fields, compilation.depth, compilation.nodeCount,
+                    compilation.cost, true);
+        }
+        return new FiltroPlan(root, normalized, fields, compilation.depth, compilation.nodeCount,
+                compilation.cost, false);
+    }
+
+    /**
+     * 编译 AST 为 IR。
+     * <p>
+     * 单次遍历同时完成深度、字段、操作符校验与参数转型，任一校验失败立即抛出，不产生任何后端对象；
+     * 随后做代数化简，复杂度预算按化简后的 IR 计算（合并出的 {@code =in=} 计为一个比较条件）。
+     */
+    public FiltroNode compile(Map<String, FiltroFieldMeta> fields, Node root) {
+        // 不可满足的条件保留原样，由后端照常求值为空集
+        return plan(fields, root).getRoot();
+    }
+
+    /**
+     * 仅校验 AST 嵌套深度，不解析字段。
+     */
+    public void validateDepth(Node root) {
+        validateDepth(root, maxDepth);
+    }
+
+    /**
+     * 仅校验 AST 嵌套深度，不解析字段，也不创建 {@link FiltroPlanner}。
+     */
+    public static void validateDepth(Node root, int maxDepth) {
+        int depth = computeDepth(root, 0);
+        if (depth > maxDepth) {
+            throw depthExceeded(depth, maxDepth);
+        }
+    }
+
+    private static int computeDepth(Node node, int currentDepth) {
+        if (node instanceof LogicalNode logicalNode) {
+            int maxChild = currentDepth + 1;
+            for (Node child : logicalNode.getChildren()) {
+                maxChild = Math.max(maxChild, computeDepth(child, currentDepth + 1));
+            }
+            return maxChild;
+        }
+        return currentDepth;
+    }
+
+    private static IllegalArgumentException depthExceeded(int depth, int maxDepth) {
+        return new IllegalArgumentException("RSQL nesting depth " + depth + " exceeds maximum " + maxDepth);
+    }
+
+    /**
+     * 单次编译的状态：记录已见最大深度、节点数与预算消耗。
+     */
+    private final class Compilation {
+
+        private final Map<String, FiltroFieldMeta> fields;
+        private int depth;
+        private int nodeCount;
+        private int comparisons;
+        private int containsCount;
+        private long cost;
+
+        private Compilation(Map<String, FiltroFieldMeta> fields) {
+            this.fields = fields;
+        }
+
+        private FiltroNode compile(Node node, int parentDepth) {
+            nodeCount++;
+            if (node instanceof ComparisonNode comparisonNode) {
+                FiltroFieldMeta meta = resolveField(fields, comparisonNode.getSelector());
+                FiltroOperator operator = resolveOperator(meta, comparisonNode.getOperator().getSymbol());
+                // 化简只会合并、不会拆分 =in= 参数，超长的参数列表在转型之前即可拒绝
+                if (operator == FiltroOperator.IN || operator == FiltroOperator.NOT_IN) {
+                    checkInArguments(meta, comparisonNode.getArguments().size());
+                }
+                return comparison(meta, operator, comparisonNode.getArguments());
+            }
+            if (node instanceof LogicalNode logicalNode) {
+                // 进入逻辑节点即检查深度，超限时不再下探
+                int currentDepth = parentDepth + 1;
+                if (currentDepth > maxDepth) {
+                    throw depthExceeded(currentDepth, maxDepth);
+                }
+                depth = Math.max(depth, currentDepth);
+                List<Node> children = logicalNode.getChildren();
+                List<FiltroNode> compiled = new ArrayList<>(children.size());
+                for (Node child : children) {
+                    compiled.add(compile(child, currentDepth));
+                }
+                if (node instanceof AndNode) {
+                    return new FiltroAndNode(compiled);
+                }
+                if (node instanceof OrNode) {
+                    return new FiltroOrNode(compiled);
+                }
+            }
+            throw new IllegalArgumentException("Unsupported RSQL node: " + node.getClass().getName());
+        }
+
+        /**
+         * 按化简后的 IR 计分：OR 扇出、比较条件数、代价均以后端实际收到的节点为准，
+         * 同字段等值析取合并出的 {@code =in=} 计为一个比较条件，其参数个数受 {@code maxInArguments} 约束
+         */
+        private void charge(FiltroNode node) {
+            if (node instanceof FiltroComparisonNode comparison) {
+                charge(comparison.meta(), comparison.operator(), comparison.arguments().size());
+                return;
+            }
+            List<FiltroNode> children = node instanceof FiltroAndNode and ? and.children()
+                    : ((FiltroOrNode) node).children();
+            if (node instanceof FiltroOrNode && FiltroQueryBudget.exceeds(children.size(), budget.getMaxOrFanOut())) {
+                throw new FiltroQueryTooComplexException(Limit.OR_FAN_OUT,
+                        budget.getMaxOrFanOut(), children.size(), null);
+            }
+            for (FiltroNode child : children) {
+                charge(child);
+            }
+        }
+
+        private void checkInArguments(FiltroFieldMeta meta, int argumentCount) {
+            if (FiltroQueryBudget.exceeds(argumentCount, budget.getMaxInArguments())) {
+                throw new FiltroQueryTooComplexException(Limit.IN_ARGUMENTS,
+                        budget.getMaxInArguments(), argumentCount, meta.getField());
+            }
+        }
+
+        private void charge(FiltroFieldMeta meta, FiltroOperator operator, int argumentCount) {
+            long factor = 1;
+            switch (operator) {
+                case IN, NOT_IN -> {
+                    checkInArguments(meta, argumentCount);
+                    factor = argumentCount;
+                }
+                case CONTAINS, NOT_CONTAINS -> {
+                    if (FiltroQueryBudget.exceeds(++containsCount, budget.getMaxContains())) {
+                        throw new FiltroQueryTooComplexException(Limit.CONTAINS,
+                                budget.getMaxContains(), containsCount, null);
+                    }
+                    factor = budget.getContainsWeight();
+                }
+                default -> {
+                }
+            }
+            if (FiltroQueryBudget.exceeds(++comparisons, budget.getMaxComparisons())) {
+                throw new FiltroQueryTooComplexException(Limit.COMPARISONS,
+                        budget.getMaxComparisons(), comparisons, null);
+            }
+            cost += meta.getWeight() * factor;
+            if (FiltroQueryBudget.exceeds(cost, budget.getMaxCost())) {
+                throw new FiltroQueryTooComplexException(Limit.COST, budget.getMaxCost(), cost, null);
+            }
+        }
+    }
+}
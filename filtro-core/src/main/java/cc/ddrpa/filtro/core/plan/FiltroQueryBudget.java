@@ -0,0 +1,106 @@
+package cc.ddrpa.filtro.core.plan;
+
+/**
+ * 查询复杂度预算，由 {@link FiltroPlanner} 在化简后的 IR 上逐节点累计并校验（合并出的 {@code =in=} 计为一个比较条件）。
+ * <p>
+ * 单个比较条件的代价 = 字段权重（{@code @Filtro(weight)}）× 操作符系数：
+ * {@code =in=} / {@code =out=} 按参数个数计，{@code =contains=} / {@code =nocontains=} 按 {@link #getContainsWeight()} 计，其余为 1。
+ * 各项上限小于等于 0 表示不限制。
+ */
+public class FiltroQueryBudget {
+
+    public static final int DEFAULT_MAX_IN_ARGUMENTS = 1000;
+    public static final int DEFAULT_MAX_COMPARISONS = 100;
+    public static final int DEFAULT_MAX_OR_FAN_OUT = 50;
+    public static final int DEFAULT_MAX_CONTAINS = 10;
+    public static final long DEFAULT_MAX_COST = 2000;
+    public static final int DEFAULT_CONTAINS_WEIGHT = 10;
+
+    // 单个 IN / NOT_IN 的参数个数上限
+    private int maxInArguments = DEFAULT_MAX_IN_ARGUMENTS;
+
+    // 比较条件总数上限
+    private int maxComparisons = DEFAULT_MAX_COMPARISONS;
+
+    // 单个 OR 节点的子节点数上限
+    private int maxOrFanOut = DEFAULT_MAX_OR_FAN_OUT;
+
+    // CONTAINS / NOT_CONTAINS 条件总数上限（前缀通配的模糊匹配无法走索引）
+    private int maxContains = DEFAULT_MAX_CONTAINS;
+
+    // 总代价上限
+    private long maxCost = DEFAULT_MAX_COST;
+
+    // CONTAINS / NOT_CONTAINS 的操作符系数
+    private int containsWeight = DEFAULT_CONTAINS_WEIGHT;
+
+    /**
+     * 所有上限均关闭的预算，等价于未启用复杂度校验。
+     */
+    public static FiltroQueryBudget unlimited() {
+        return new FiltroQueryBudget()
+                .setMaxInArguments(0)
+                .setMaxComparisons(0)
+                .setMaxOrFanOut(0)
+                .setMaxContains(0)
+                .setMaxCost(0);
+    }
+
+    static boolean exceeds(long actual, long limit) {
+        return limit > 0 && actual > limit;
+    }
+
+    public int getMaxInArguments() {
+        return maxInArguments;
+    }
+
+    public FiltroQueryBudget setMaxInArguments(int maxInArguments) {
+        this.maxInArguments = maxInArguments;
+        return this;
+    }
+
+    public int getMaxComparisons() {
+        return maxComparisons;
+    }
+
+    public FiltroQueryBudget setMaxComparisons(int maxComparisons) {
+        this.maxComparisons = maxComparisons;
+        return this;
+    }
+
+    public int getMaxOrFanOut() {
+        return maxOrFanOut;
+    }
+
+    public FiltroQueryBudget setMaxOrFanOut(int maxOrFanOut) {
+        this.maxOrFanOut = maxOrFanOut;
+        return this;
+    }
+
+    public int getMaxContains() {
+        return maxContains;
+    }
+
+    public FiltroQueryBudget setMaxContains(int maxContains) {
+        this.maxContains = maxContains;
+        return this;
+    }
+
+    public long getMaxCost() {
+        return maxCost;
+    }
+
+    public FiltroQueryBudget setMaxCost(long maxCost) {
+        this.maxCost = maxCost;
+        return this;
+    }
+
+    public int getContainsWeight() {
+        return containsWeight;
+    }
+
+    public FiltroQueryBudget setContainsWeight(int containsWeight) {
+        this.containsWeight = containsWeight;
+        return this;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 承接 ClassGraph / 反射扫描到的 {@code @Filtro} 字段元数据，作为最低优先级兜底。
@@ -16,6 +17,7 @@ public class AnnotatedClassFiltroFieldMetaProvider implements FiltroFieldMetaPro
     public static final int ORDER = Integer.MAX_VALUE;
 
     private final ConcurrentMap<Class<?>, List<FiltroFieldMeta>> store = new ConcurrentHashMap<>();
+    private final List<FiltroFieldMetaChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     @Override
     public boolean supports(Class<?> criteriaType) {
@@ -33,10 +35,24 @@ public class AnnotatedClassFiltroFieldMetaProvider implements FiltroFieldMetaPro
         return ORDER;
     }
 
+    @Override
+    public boolean isChangeTracked() {
+        return true;
+    }
+
+    @Override
+    public void addChangeListener(FiltroFieldMetaChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
     /** 仅当类型尚未存在时写入 */
     public void register(Class<?> criteriaType, List<FiltroFieldMeta> fields) {
         Objects.requireNonNull(criteriaType, "criteriaType");
-        store.putIfAbsent(criteriaType, fields == null ? List.of() : List.copyOf(fields));
+        if (store.putIfAbsent(criteriaType, fields == null ? List.of() : List.copyOf(fields)) == null) {
+            for (FiltroFieldMetaChangeListener listener : listeners) {
+                listener.onChange(criteriaType);
+            }
+        }
     }
 
     public boolean hasType(Class<?> criteriaType) {
@@ -0,0 +1,14 @@
+package cc.ddrpa.filtro.core.provider;
+
+/**
+ * 字段元数据变更通知。Provider 在某类型的字段列表发生变化后回调，
+ * 供 {@link cc.ddrpa.filtro.core.FiltroRegistry} 及查询计划缓存失效使用。
+ */
+@FunctionalInterface
+public interface FiltroFieldMetaChangeListener {
+
+    /**
+     * @param criteriaType 字段列表发生变化的类型
+     */
+    void onChange(Class<?> criteriaType);
+}
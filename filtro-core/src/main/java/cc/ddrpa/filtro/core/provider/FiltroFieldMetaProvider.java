@@ -26,4 +26,20 @@ public interface FiltroFieldMetaProvider {
     default int getOrder() {
         return 0;
     }
+
+    /**
+     * {@link #supports(Class)} 与 {@link #getFields(Class)} 的结果是否只会在通知
+     * {@link FiltroFieldMetaChangeListener} 之后才变化。
+     * <p>
+     * 默认 {@code false}：视为拉模式动态来源，Registry 与查询计划缓存每次请求都重新读取。
+     */
+    default boolean isChangeTracked() {
+        return false;
+    }
+
+    /**
+     * 订阅字段变更；仅 {@link #isChangeTracked()} 为 true 的 Provider 需要实现。
+     */
+    default void addChangeListener(FiltroFieldMetaChangeListener listener) {
+    }
 }
@@ -7,16 +7,18 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 可变内存 Provider：支持命令式 {@link #register(Class, List)}（无则创建、有则更新）与 clear。
- * 仅对已登记类型 {@link #supports(Class)} 为 true。
+ * 仅对已登记类型 {@link #supports(Class)} 为 true。每次变更都会通知已订阅的 {@link FiltroFieldMetaChangeListener}。
  */
 public class InMemoryFiltroFieldMetaProvider implements FiltroFieldMetaProvider {
 
     public static final int ORDER = 100;
 
     private final ConcurrentMap<Class<?>, List<FiltroFieldMeta>> store = new ConcurrentHashMap<>();
+    private final List<FiltroFieldMetaChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     @Override
     public boolean supports(Class<?> criteriaType) {
@@ -34,22 +36,41 @@ public class InMemoryFiltroFieldMetaProvider implements FiltroFieldMetaProvider
         return ORDER;
     }
 
+    @Override
+    public boolean isChangeTracked() {
+        return true;
+    }
+
+    @Override
+    public void addChangeListener(FiltroFieldMetaChangeListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
     /**
      * 登记或更新该类型的完整字段列表（无则创建，有则覆盖）。
      */
     public void register(Class<?> criteriaType, List<FiltroFieldMeta> fields) {
         Objects.requireNonNull(criteriaType, "criteriaType");
         store.put(criteriaType, copyOf(fields));
+        fireChange(criteriaType);
     }
 
     public void remove(Class<?> criteriaType) {
-        store.remove(criteriaType);
+        if (store.remove(criteriaType) != null) {
+            fireChange(criteriaType);
+        }
     }
 
     public int registeredTypeCount() {
         return store.size();
     }
 
+    private void fireChange(Class<?> criteriaType) {
+        for (FiltroFieldMetaChangeListener listener : listeners) {
+            listener.onChange(criteriaType);
+        }
+    }
+
     private static List<FiltroFieldMeta> copyOf(List<FiltroFieldMeta> fields) {
         return fields == null ? List.of() : List.copyOf(fields);
     }
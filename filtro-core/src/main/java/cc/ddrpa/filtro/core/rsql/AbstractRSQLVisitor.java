@@ -2,6 +2,9 @@ package cc.ddrpa.filtro.core.rsql;
 
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
 import cz.jirutka.rsql.parser.ast.ComparisonNode;
 import cz.jirutka.rsql.parser.ast.Node;
 
@@ -15,7 +18,7 @@ import java.util.Map;
  */
 public abstract class AbstractRSQLVisitor<T> {
 
-    protected static final int DEFAULT_MAX_DEPTH = 20;
+    protected static final int DEFAULT_MAX_DEPTH = FiltroPlanner.DEFAULT_MAX_DEPTH;
 
     protected final Map<String, FiltroFieldMeta> fieldSpecMap;
     protected final int maxDepth;
@@ -33,22 +36,7 @@ public abstract class AbstractRSQLVisitor<T> {
      * 校验 AST 嵌套深度，防止栈溢出或后端嵌套超限。
      */
     protected void validateDepth(Node rootNode) {
-        int depth = computeDepth(rootNode, 0);
-        if (depth > maxDepth) {
-            throw new IllegalArgumentException(
-                    "RSQL nesting depth " + depth + " exceeds maximum " + maxDepth);
-        }
-    }
-
-    private int computeDepth(Node node, int currentDepth) {
-        if (node instanceof cz.jirutka.rsql.parser.ast.LogicalNode logicalNode) {
-            int maxChild = currentDepth + 1;
-            for (Node child : logicalNode.getChildren()) {
-                maxChild = Math.max(maxChild, computeDepth(child, currentDepth + 1));
-            }
-            return maxChild;
-        }
-        return currentDepth;
+        FiltroPlanner.validateDepth(rootNode, maxDepth);
     }
 
     /**
@@ -57,22 +45,24 @@ public abstract class AbstractRSQLVisitor<T> {
      * @return ResolvedComparison 包含字段元数据、操作符和转换后的参数列表
      */
     protected ResolvedComparison resolve(ComparisonNode node) {
-        String claimedField = node.getSelector();
-        if (!fieldSpecMap.containsKey(claimedField)) {
-            throw new IllegalArgumentException("Field " + claimedField + " not found in filtroFieldMeta");
-        }
-
-        FiltroOperator operator = FiltroOperator.of(node.getOperator().getSymbol());
-        FiltroFieldMeta meta = fieldSpecMap.get(claimedField);
-
-        if (!meta.getSupportedOperations().contains(operator)) {
-            throw new IllegalArgumentException(
-                    "FiltroOperator " + node.getOperator().getSymbol() + " not supported for field " + claimedField);
-        }
+        FiltroFieldMeta meta = FiltroPlanner.resolveField(fieldSpecMap, node.getSelector());
+        FiltroOperator operator = FiltroPlanner.resolveOperator(meta, node.getOperator().getSymbol());
+        return new ResolvedComparison(meta, operator, node.getArguments());
+    }
 
-        List<String> arguments = node.getArguments();
+    /**
+     * 将整棵 AST 编译为 IR（含深度校验）。
+     */
+    protected FiltroNode compile(Node rootNode) {
+        return new FiltroPlanner(maxDepth).compile(fieldSpecMap, rootNode);
+    }
 
-        return new ResolvedComparison(meta, operator, arguments);
+    /**
+     * 将单个比较节点编译为 IR，校验逻辑经由 {@link #resolve(ComparisonNode)}。
+     */
+    protected FiltroComparisonNode compile(ComparisonNode node) {
+        ResolvedComparison resolved = resolve(node);
+        return FiltroPlanner.comparison(resolved.meta(), resolved.operator(), resolved.arguments());
     }
 
     /**
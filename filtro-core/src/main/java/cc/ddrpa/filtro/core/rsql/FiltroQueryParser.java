@@ -0,0 +1,36 @@
+package cc.ddrpa.filtro.core.rsql;
+
+import cc.ddrpa.filtro.core.exception.FiltroQuerySyntaxException;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * {@code q} 表达式解析器，产出 RSQL AST。
+ */
+public interface FiltroQueryParser {
+
+    /**
+     * RSQL 原生操作符加上符号可被 RSQL 词法识别的 Filtro 扩展操作符。
+     */
+    static Set<ComparisonOperator> comparisonOperators() {
+        Set<ComparisonOperator> comparisonOperatorSet = new HashSet<>(RSQLOperators.defaultOperators());
+        Pattern symbolPattern = Pattern.compile("=[a-zA-Z]*=|[><]=?|!=");
+        for (FiltroOperator op : FiltroOperator.values()) {
+            if (!op.isRsqlOriginal() && symbolPattern.matcher(op.getSymbol()).matches()) {
+                comparisonOperatorSet.add(new ComparisonOperator(op.getSymbol(), op.isMultiValue()));
+            }
+        }
+        return comparisonOperatorSet;
+    }
+
+    /**
+     * @throws FiltroQuerySyntaxException 语法错误或未知操作符
+     */
+    Node parse(String query);
+}
@@ -0,0 +1,45 @@
+package cc.ddrpa.filtro.core.rsql;
+
+import cc.ddrpa.filtro.core.exception.FiltroQuerySyntaxException;
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.RSQLParserException;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.Node;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 基于 jirutka {@link RSQLParser}（JavaCC 生成）的解析器。
+ */
+public class JirutkaFiltroQueryParser implements FiltroQueryParser {
+
+    private static final Pattern COLUMN = Pattern.compile("column (\\d+)");
+
+    private final RSQLParser rsqlParser;
+
+    public JirutkaFiltroQueryParser() {
+        this(FiltroQueryParser.comparisonOperators());
+    }
+
+    public JirutkaFiltroQueryParser(Set<ComparisonOperator> operators) {
+        this.rsqlParser = new RSQLParser(operators);
+    }
+
+    @Override
+    public Node parse(String query) {
+        try {
+            return rsqlParser.parse(query);
+        } catch (RSQLParserException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new FiltroQuerySyntaxException(query, offsetOf(cause), String.valueOf(cause.getMessage()), e);
+        }
+    }
+
+    // JavaCC 错误信息形如 "... at line 1, column 7."，列号从 1 开始
+    private static int offsetOf(Throwable cause) {
+        Matcher matcher = COLUMN.matcher(String.valueOf(cause.getMessage()));
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) - 1 : -1;
+    }
+}
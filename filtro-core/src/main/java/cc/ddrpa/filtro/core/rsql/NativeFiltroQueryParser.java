@@ -0,0 +1,377 @@
+package cc.ddrpa.filtro.core.rsql;
+
+import cc.ddrpa.filtro.core.exception.FiltroQuerySyntaxException;
+import cz.jirutka.rsql.parser.ast.AndNode;
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.OrNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 手写递归下降 RSQL 解析器，语法与 jirutka {@link cz.jirutka.rsql.parser.RSQLParser} 一致，产出相同的 AST：
+ * <pre>
+ * or         = and { ( "," | " or " ) and }
+ * and        = constraint { ( ";" | " and " ) constraint }
+ * constraint = "(" or ")" | selector operator arguments
+ * arguments  = "(" value { "," value } ")" | value
+ * value      = unreserved | '...' | "..."
+ * </pre>
+ * 直接扫描输入字符，无词法 token 对象；操作符按符号长度分桶预建查找表。
+ * 内部以返回 null + 记录错误位置的方式回溯，仅在最外层抛出一次 {@link FiltroQuerySyntaxException}。
+ */
+public class NativeFiltroQueryParser implements FiltroQueryParser {
+
+    private final ComparisonOperator[][] operatorsByLength;
+    private final String[][] symbolsByLength;
+
+    public NativeFiltroQueryParser() {
+        this(FiltroQueryParser.comparisonOperators());
+    }
+
+    public NativeFiltroQueryParser(Set<ComparisonOperator> operators) {
+        int maxLength = 0;
+        for (ComparisonOperator operator : operators) {
+            for (String symbol : operator.getSymbols()) {
+                maxLength = Math.max(maxLength, symbol.length());
+            }
+        }
+        List<List<ComparisonOperator>> operatorBuckets = new ArrayList<>(maxLength + 1);
+        List<List<String>> symbolBuckets = new ArrayList<>(maxLength + 1);
+        for (int i = 0; i <= maxLength; i++) {
+            operatorBuckets.add(new ArrayList<>());
+            symbolBuckets.add(new ArrayList<>());
+        }
+        for (ComparisonOperator operator : operators) {
+            for (String symbol : operator.getSymbols()) {
+                operatorBuckets.get(symbol.length()).add(operator);
+                symbolBuckets.get(symbol.length()).add(symbol);
+            }
+        }
+        this.operatorsByLength = new ComparisonOperator[maxLength + 1][];
+        this.symbolsByLength = new String[maxLength + 1][];
+        for (int i = 0; i <= maxLength; i++) {
+            this.operatorsByLength[i] = operatorBuckets.get(i).toArray(ComparisonOperator[]::new);
+            this.symbolsByLength[i] = symbolBuckets.get(i).toArray(String[]::new);
+        }
+    }
+
+    private static boolean isReserved(char c) {
+        return switch (c) {
+            case '"', '\'', '(', ')', ';', ',', '=', '<', '>', '!', '~', ' ' -> true;
+            default -> false;
+        };
+    }
+
+    private static boolean isAlpha(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    @Override
+    public Node parse(String query) {
+        Objects.requireNonNull(query, "query");
+        Cursor cursor = new Cursor(query);
+        cursor.skipSpaces();
+        Node root = cursor.parseOr();
+        if (root != null) {
+            cursor.skipSpaces();
+            if (!cursor.atEnd()) {
+                cursor.fail("Unexpected character '" + cursor.peek() + "'");
+                root = null;
+            }
+        }
+        if (root == null) {
+            throw new FiltroQuerySyntaxException(query, cursor.errorOffset, cursor.errorReason);
+        }
+        return root;
+    }
+
+    private ComparisonOperator findOperator(String input, int start, int end) {
+        int length = end - start;
+        if (length >= symbolsByLength.length) {
+            return null;
+        }
+        String[] symbols = symbolsByLength[length];
+        for (int i = 0; i < symbols.length; i++) {
+            if (input.regionMatches(start, symbols[i], 0, length)) {
+                return operatorsByLength[length][i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 单次解析的状态：输入、当前位置与首个错误。
+     */
+    private final class Cursor {
+
+        private final String input;
+        private final int length;
+        private int pos;
+        private int errorOffset = -1;
+        private String errorReason;
+
+        private Cursor(String input) {
+            this.input = input;
+            this.length = input.length();
+        }
+
+        private boolean atEnd() {
+            return pos >= length;
+        }
+
+        private char peek() {
+            return input.charAt(pos);
+        }
+
+        private void skipSpaces() {
+            while (pos < length && input.charAt(pos) == ' ') {
+                pos++;
+            }
+        }
+
+        private void fail(String reason) {
+            fail(pos, reason);
+        }
+
+        private void fail(int offset, String reason) {
+            if (errorReason == null) {
+                errorOffset = offset;
+                errorReason = reason;
+            }
+        }
+
+        private String describeCurrent() {
+            return atEnd() ? "end of input" : "'" + peek() + "'";
+        }
+
+        /**
+         * 匹配逻辑运算符：单字符形式或前后带空格的关键字形式（{@code " and "} / {@code " or "}）。
+         */
+        private boolean acceptLogical(char symbol, String keyword) {
+            int start = pos;
+            skipSpaces();
+            if (pos < length && input.charAt(pos) == symbol) {
+                pos++;
+                return true;
+            }
+            int end = pos + keyword.length();
+            if (pos > start && end < length && input.charAt(end) == ' '
+                    && input.regionMatches(pos, keyword, 0, keyword.length())) {
+                pos = end;
+                return true;
+            }
+            pos = start;
+            return false;
+        }
+
+        private Node parseOr() {
+            Node first = parseAnd();
+            if (first == null) {
+                return null;
+            }
+            List<Node> children = null;
+            while (acceptLogical(',', "or")) {
+                Node next = parseAnd();
+                if (next == null) {
+                    return null;
+                }
+                if (children == null) {
+                    children = new ArrayList<>(4);
+                    children.add(first);
+                }
+                children.add(next);
+            }
+            return children == null ? first : new OrNode(children);
+        }
+
+        private Node parseAnd() {
+            Node first = parseConstraint();
+            if (first == null) {
+                return null;
+            }
+            List<Node> children = null;
+            while (acceptLogical(';', "and")) {
+                Node next = parseConstraint();
+                if (next == null) {
+                    return null;
+                }
+                if (children == null) {
+                    children = new ArrayList<>(4);
+                    children.add(first);
+                }
+                children.add(next);
+            }
+            return children == null ? first : new AndNode(children);
+        }
+
+        private Node parseConstraint() {
+            skipSpaces();
+            if (pos < length && input.charAt(pos) == '(') {
+                pos++;
+                skipSpaces();
+                Node inner = parseOr();
+                if (inner == null) {
+                    return null;
+                }
+                skipSpaces();
+                if (atEnd() || peek() != ')') {
+                    fail("Expected ')' but found " + describeCurrent());
+                    return null;
+                }
+                pos++;
+                return inner;
+            }
+            return parseComparison();
+        }
+
+        private Node parseComparison() {
+            int selectorStart = pos;
+            while (pos < length && !isReserved(input.charAt(pos))) {
+                pos++;
+            }
+            if (pos == selectorStart) {
+                fail("Expected selector but found " + describeCurrent());
+                return null;
+            }
+            String selector = input.substring(selectorStart, pos);
+            skipSpaces();
+
+            ComparisonOperator operator = parseOperator();
+            if (operator == null) {
+                return null;
+            }
+            skipSpaces();
+
+            List<String> arguments = parseArguments();
+            if (arguments == null) {
+                return null;
+            }
+            if (!operator.isMultiValue() && arguments.size() != 1) {
+                fail(selectorStart, "Operator " + operator + " expects a single argument");
+                return null;
+            }
+            return new ComparisonNode(operator, selector, arguments);
+        }
+
+        private ComparisonOperator parseOperator() {
+            int start = pos;
+            int end;
+            char c = pos < length ? input.charAt(pos) : '\0';
+            if (c == '=' || c == '!') {
+                end = pos + 1;
+                if (c == '=') {
+                    while (end < length && isAlpha(input.charAt(end))) {
+                        end++;
+                    }
+                }
+                if (end >= length || input.charAt(end) != '=') {
+                    fail(start, "Expected comparison operator");
+                    return null;
+                }
+                end++;
+            } else if (c == '<' || c == '>') {
+                end = pos + 1;
+                if (end < length && input.charAt(end) == '=') {
+                    end++;
+                }
+            } else {
+                fail("Expected comparison operator but found " + describeCurrent());
+                return null;
+            }
+            ComparisonOperator operator = findOperator(input, start, end);
+            if (operator == null) {
+                fail(start, "Unknown operator: " + input.substring(start, end));
+                return null;
+            }
+            pos = end;
+            return operator;
+        }
+
+        private List<String> parseArguments() {
+            if (pos < length && input.charAt(pos) == '(') {
+                pos++;
+                List<String> arguments = new ArrayList<>();
+                while (true) {
+                    skipSpaces();
+                    String value = parseValue();
+                    if (value == null) {
+                        return null;
+                    }
+                    arguments.add(value);
+                    skipSpaces();
+                    if (atEnd()) {
+                        fail("Expected ',' or ')' but found end of input");
+                        return null;
+                    }
+                    char c = input.charAt(pos++);
+                    if (c == ')') {
+                        return arguments;
+                    }
+                    if (c != ',') {
+                        fail(pos - 1, "Expected ',' or ')' but found '" + c + "'");
+                        return null;
+                    }
+                }
+            }
+            String value = parseValue();
+            return value == null ? null : List.of(value);
+        }
+
+        private String parseValue() {
+            if (atEnd()) {
+                fail("Expected argument but found end of input");
+                return null;
+            }
+            char c = input.charAt(pos);
+            if (c == '\'' || c == '"') {
+                return parseQuoted(c);
+            }
+            int start = pos;
+            while (pos < length && !isReserved(input.charAt(pos))) {
+                pos++;
+            }
+            if (pos == start) {
+                fail("Expected argument but found '" + c + "'");
+                return null;
+            }
+            return input.substring(start, pos);
+        }
+
+        // 反斜杠转义其后任意字符；无转义时直接截取子串
+        private String parseQuoted(char quote) {
+            int start = pos;
+            int contentStart = ++pos;
+            StringBuilder unescaped = null;
+            while (pos < length) {
+                char c = input.charAt(pos);
+                if (c == quote) {
+                    String value = unescaped == null
+                            ? input.substring(contentStart, pos)
+                            : unescaped.append(input, contentStart, pos).toString();
+                    pos++;
+                    return value;
+                }
+                if (c == '\\') {
+                    if (pos + 1 >= length) {
+                        break;
+                    }
+                    if (unescaped == null) {
+                        unescaped = new StringBuilder(pos - contentStart + 16);
+                    }
+                    unescaped.append(input, contentStart, pos).append(input.charAt(pos + 1));
+                    pos += 2;
+                    contentStart = pos;
+                    continue;
+                }
+                pos++;
+            }
+            fail(start, "Unterminated quoted argument");
+            return null;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package cc.ddrpa.filtro.core.rsql;
 
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
 import cz.jirutka.rsql.parser.ast.Node;
 
 import java.util.Map;
@@ -10,4 +11,12 @@ public interface RsqlNodeHandler<T> {
     boolean supports(Class<?> targetType);
 
     T parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot);
-}
\ No newline at end of file
+
+    /**
+     * 将已编译的计划翻译为后端 DSL。内置 Handler 直接消费 {@link FiltroPlan#getRoot()}，
+     * 自定义 Handler 默认回落到 {@link #parse(Map, Node)}。
+     */
+    default T translate(FiltroPlan plan) {
+        return parse(plan.getFields(), plan.getSource());
+    }
+}
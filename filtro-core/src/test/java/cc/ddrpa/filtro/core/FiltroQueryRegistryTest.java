@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -234,4 +235,149 @@ class FiltroQueryRegistryTest {
             assertThat(selecting.get(Book.class, void.class)).isEmpty();
         }
     }
+
+    @Nested
+    class ChangeTracking {
+
+        @Test
+        void inMemoryRegisterAndRemoveNotifyListeners() {
+            List<Class<?>> changed = new ArrayList<>();
+            registry.addChangeListener(changed::add);
+
+            inMemory.register(Asset.class, List.of(meta("color")));
+            inMemory.remove(Asset.class);
+            inMemory.remove(Asset.class);
+
+            assertThat(changed).containsExactly(Asset.class, Asset.class);
+        }
+
+        @Test
+        void resettingProvidersDoesNotDuplicateNotifications() {
+            InMemoryFiltroFieldMetaProvider replaced = new InMemoryFiltroFieldMetaProvider();
+            registry.setProviders(List.of(inMemory, replaced));
+            registry.setProviders(List.of(inMemory));
+            List<Class<?>> changed = new ArrayList<>();
+            registry.addChangeListener(changed::add);
+
+            inMemory.register(Asset.class, List.of(meta("color")));
+            replaced.register(Asset.class, List.of(meta("size")));
+
+            assertThat(changed).containsExactly(Asset.class);
+        }
+
+        @Test
+        void annotatedNotifiesOnlyOnFirstRegistration() {
+            AnnotatedClassFiltroFieldMetaProvider annotated = new AnnotatedClassFiltroFieldMetaProvider();
+            FiltroRegistry tracked = new FiltroRegistry(List.of(annotated));
+            List<Class<?>> changed = new ArrayList<>();
+            tracked.addChangeListener(changed::add);
+
+            annotated.register(Book.class, List.of(meta("title")));
+            annotated.register(Book.class, List.of(meta("ignored")));
+
+            assertThat(changed).containsExactly(Book.class);
+        }
+
+        @Test
+        void builtInProvidersAreChangeTracked() {
+            assertThat(registry.isChangeTracked(Book.class)).isTrue();
+            assertThat(registry.isChangeTracked(String.class)).isTrue();
+        }
+
+        @Test
+        void untrackedProviderAheadOfClaimDisablesTracking() {
+            FiltroFieldMetaProvider dynamic = new FiltroFieldMetaProvider() {
+                @Override
+                public boolean supports(Class<?> criteriaType) {
+                    return Asset.class.equals(criteriaType);
+                }
+
+                @Override
+                public List<FiltroFieldMeta> getFields(Class<?> criteriaType) {
+                    return List.of(meta("dynamic"));
+                }
+            };
+            FiltroRegistry mixed = new FiltroRegistry(List.of(inMemory, dynamic));
+            assertThat(mixed.isChangeTracked(Asset.class)).isFalse();
+            assertThat(mixed.isChangeTracked(Book.class)).isFalse();
+        }
+
+        @Test
+        void trackingIsRecomputedAfterChange() {
+            FiltroFieldMetaProvider dynamic = new FiltroFieldMetaProvider() {
+                @Override
+                public int getOrder() {
+                    return Integer.MAX_VALUE;
+                }
+
+                @Override
+                public boolean supports(Class<?> criteriaType) {
+                    return Asset.class.equals(criteriaType);
+                }
+
+                @Override
+                public List<FiltroFieldMeta> getFields(Class<?> criteriaType) {
+                    return List.of(meta("dynamic"));
+                }
+            };
+            FiltroRegistry mixed = new FiltroRegistry(List.of(inMemory, dynamic));
+            assertThat(mixed.isChangeTracked(Asset.class)).isFalse();
+            assertThat(mixed.getAsMap(Asset.class, void.class)).containsOnlyKeys("dynamic");
+
+            inMemory.register(Asset.class, List.of(meta("color")));
+            assertThat(mixed.isChangeTracked(Asset.class)).isTrue();
+            assertThat(mixed.getAsMap(Asset.class, void.class)).containsOnlyKeys("color")
+                    .isSameAs(mixed.getAsMap(Asset.class, void.class));
+        }
+    }
+
+    @Nested
+    class IndexCaching {
+
+        @Test
+        void trackedTypeReusesIndex() {
+            Map<String, FiltroFieldMeta> first = registry.getAsMap(Book.class, AdminRole.class);
+            Map<String, FiltroFieldMeta> second = registry.getAsMap(Book.class, AdminRole.class);
+            assertThat(second).isSameAs(first);
+            assertThat(registry.getIndex(Book.class, null)).isSameAs(registry.getIndex(Book.class, void.class));
+        }
+
+        @Test
+        void indexIsRebuiltAfterProviderChange() {
+            Map<String, FiltroFieldMeta> before = registry.getAsMap(Book.class, void.class);
+            inMemory.register(Book.class, List.of(meta("isbn")));
+            Map<String, FiltroFieldMeta> after = registry.getAsMap(Book.class, void.class);
+            assertThat(before).containsOnlyKeys("title");
+            assertThat(after).containsOnlyKeys("isbn");
+        }
+
+        @Test
+        void changeOnlyEvictsAffectedType() {
+            inMemory.register(Asset.class, List.of(meta("color")));
+            Map<String, FiltroFieldMeta> book = registry.getAsMap(Book.class, void.class);
+            inMemory.register(Asset.class, List.of(meta("size")));
+            assertThat(registry.getAsMap(Book.class, void.class)).isSameAs(book);
+            assertThat(registry.getAsMap(Asset.class, void.class)).containsOnlyKeys("size");
+        }
+
+        @Test
+        void untrackedTypeIsReadEveryTime() {
+            List<String> names = new ArrayList<>(List.of("a"));
+            FiltroFieldMetaProvider dynamic = new FiltroFieldMetaProvider() {
+                @Override
+                public boolean supports(Class<?> criteriaType) {
+                    return Asset.class.equals(criteriaType);
+                }
+
+                @Override
+                public List<FiltroFieldMeta> getFields(Class<?> criteriaType) {
+                    return names.stream().map(FiltroQueryRegistryTest::meta).toList();
+                }
+            };
+            FiltroRegistry untracked = new FiltroRegistry(List.of(dynamic));
+            assertThat(untracked.getAsMap(Asset.class, void.class)).containsOnlyKeys("a");
+            names.set(0, "b");
+            assertThat(untracked.getAsMap(Asset.class, void.class)).containsOnlyKeys("b");
+        }
+    }
 }
@@ -0,0 +1,97 @@
+package cc.ddrpa.filtro.core.codec;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroTemporalParserTest {
+
+    private final FiltroTemporalParser iso = FiltroTemporalParser.ISO;
+
+    @Nested
+    @DisplayName("ISO 形态识别")
+    class Iso {
+
+        @Test
+        void dateBecomesLocalDate() {
+            assertThat(iso.parse("2024-02-29")).isEqualTo(LocalDate.of(2024, 2, 29));
+        }
+
+        @Test
+        void dateTimeBecomesLocalDateTime() {
+            assertThat(iso.parse("2024-01-15T10:30")).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+            assertThat(iso.parse("2024-01-15T10:30:05.123"))
+                    .isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30, 5, 123_000_000));
+        }
+
+        @Test
+        void offsetOrZuluBecomesInstant() {
+            assertThat(iso.parse("2024-01-15T10:30:00Z")).isEqualTo(Instant.parse("2024-01-15T10:30:00Z"));
+            assertThat(iso.parse("2024-01-15T18:30:00+08:00")).isEqualTo(Instant.parse("2024-01-15T10:30:00Z"));
+            assertThat(iso.parse("2024-01-15T10:30:00.000000001Z"))
+                    .isEqualTo(Instant.parse("2024-01-15T10:30:00.000000001Z"));
+        }
+
+        @Test
+        void agreesWithJdkParsers() {
+            for (String text : new String[]{"2023-12-31T23:59:59.999999999Z", "2000-01-01T00:00:00-05:30"}) {
+                assertThat(iso.parse(text)).isEqualTo(Instant.parse(text.endsWith("Z") ? text
+                        : java.time.OffsetDateTime.parse(text).toInstant().toString()));
+            }
+            assertThat(iso.parse("1999-09-09T09:09:09")).isEqualTo(LocalDateTime.parse("1999-09-09T09:09:09"));
+        }
+
+        @Test
+        void invalidValuesReturnNull() {
+            assertThat(iso.parse("2023-02-29")).isNull();
+            assertThat(iso.parse("2024-13-01")).isNull();
+            assertThat(iso.parse("2024-01-15T24:00")).isNull();
+            assertThat(iso.parse("2024-01-15T10:30:00.")).isNull();
+            assertThat(iso.parse("2024-01-15T10:30:00+19:00")).isNull();
+            assertThat(iso.parse("2024-01-15 10:30")).isNull();
+            assertThat(iso.parse("2024/01/15")).isNull();
+            assertThat(iso.parse("")).isNull();
+            assertThat(iso.parse("20240115")).isNull();
+        }
+
+        @Test
+        void timeIsParsed() {
+            assertThat(iso.parseTime("08:15")).isEqualTo(LocalTime.of(8, 15));
+            assertThat(iso.parseTime("08:15:30.5")).isEqualTo(LocalTime.of(8, 15, 30, 500_000_000));
+            assertThat(iso.parseTime("8:15")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("附加格式")
+    class Patterns {
+
+        private final FiltroTemporalParser parser =
+                FiltroTemporalParser.withPatterns("yyyy/MM/dd", "yyyy-MM-dd HH:mm:ss", "HHmm");
+
+        @Test
+        void isoIsTriedFirst() {
+            assertThat(parser.parse("2024-01-15")).isEqualTo(LocalDate.of(2024, 1, 15));
+        }
+
+        @Test
+        void patternsAreTriedInOrder() {
+            assertThat(parser.parse("2024/01/15")).isEqualTo(LocalDate.of(2024, 1, 15));
+            assertThat(parser.parse("2024-01-15 10:30:00")).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 30));
+            assertThat(parser.parseTime("0830")).isEqualTo(LocalTime.of(8, 30));
+        }
+
+        @Test
+        void unmatchedShapeReturnsNull() {
+            assertThat(parser.parse("15.01.2024")).isNull();
+            assertThat(parser.parse("0830")).isNull();
+        }
+    }
+}
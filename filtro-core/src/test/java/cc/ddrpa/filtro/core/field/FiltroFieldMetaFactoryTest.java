@@ -1,5 +1,7 @@
 package cc.ddrpa.filtro.core.field;
 
+import cc.ddrpa.filtro.core.codec.FiltroValueCodec;
+import cc.ddrpa.filtro.core.codec.FiltroValueCodecs;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -110,4 +112,65 @@ class FiltroFieldMetaFactoryTest {
 
         assertThat(meta.getSupportedOperations()).containsExactly(FiltroOperator.CONTAINS);
     }
+
+    @Test
+    void weightDefaultsToOneAndRejectsNegative() {
+        assertThat(FiltroFieldMetaFactory.create("note", QueryIntent.SEARCH, String.class).build().getWeight())
+                .isEqualTo(1);
+        assertThat(FiltroFieldMetaFactory.create("note", QueryIntent.SEARCH, String.class).weight(5).build()
+                .getWeight()).isEqualTo(5);
+        assertThatThrownBy(() -> FiltroFieldMetaFactory.create("note", QueryIntent.SEARCH, String.class).weight(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void selectivityHintsAreValidated() {
+        FiltroFieldMeta meta = FiltroFieldMetaFactory.create("sku", QueryIntent.EXACT, String.class)
+                .indexed(true)
+                .selectivity(0.001)
+                .build();
+        assertThat(meta.isIndexed()).isTrue();
+        assertThat(meta.getSelectivity()).isEqualTo(0.001);
+        assertThatThrownBy(() -> FiltroFieldMetaFactory.create("sku", QueryIntent.EXACT, String.class)
+                .selectivity(1.5))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void searchModeRequiresSearchIntent() {
+        assertThat(FiltroFieldMetaFactory.create("note", QueryIntent.SEARCH, String.class).build().getSearchMode())
+                .isEqualTo(SearchMode.PATTERN);
+        assertThat(FiltroFieldMetaFactory.create("note", QueryIntent.SEARCH, String.class)
+                .searchMode(SearchMode.FULLTEXT).build().getSearchMode()).isEqualTo(SearchMode.FULLTEXT);
+        assertThatThrownBy(() -> FiltroFieldMetaFactory.create("sku", QueryIntent.EXACT, String.class)
+                .searchMode(SearchMode.COLLATION))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void codecIsResolvedOnBuild() {
+        assertThat(FiltroFieldMetaFactory.create("qty", QueryIntent.RANGE, Integer.class).build().getCodec())
+                .isSameAs(FiltroValueCodecs.INT);
+        FiltroValueCodec custom = FiltroValueCodecs.forEnum(QueryIntent.class);
+        FiltroFieldMeta meta = FiltroFieldMetaFactory.create("intent", QueryIntent.EXACT, String.class)
+                .codec(custom)
+                .build();
+        assertThat(meta.getCodec()).isSameAs(custom);
+        assertThat(meta.getCodec().decode("RANGE")).isEqualTo(QueryIntent.RANGE);
+    }
+
+    @Test
+    void enumerationClassSelectsEnumCodec() {
+        FiltroFieldMeta meta = FiltroFieldMetaFactory.create("color", QueryIntent.EXACT, String.class)
+                .enumerationClass(Color.class)
+                .build();
+        assertThat(meta.getCodec().decode("RED")).isEqualTo(Color.RED);
+        assertThatThrownBy(() -> meta.getCodec().decode("GREEN"))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        FiltroFieldMeta lazy = new FiltroFieldMeta().setJavaType(String.class).setEnumerationClass(Color.class);
+        assertThat(lazy.getCodec().decode("BLUE")).isEqualTo(Color.BLUE);
+        // 以序号等非字符串形式存储时不按枚举名解码
+        assertThat(FiltroValueCodecs.forField(Integer.class, Color.class)).isSameAs(FiltroValueCodecs.INT);
+    }
 }
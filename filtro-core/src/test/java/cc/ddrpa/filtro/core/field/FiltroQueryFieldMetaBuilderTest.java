@@ -103,6 +103,9 @@ class FiltroQueryFieldMetaBuilderTest {
 
         @Filtro(groups = {AdminRole.class})
         private String secret;                         // group
+
+        @Filtro(weight = 5, indexed = true, selectivity = 0.01)
+        private Long serialNo;                         // 代价与选择率提示
     }
 
     @SuppressWarnings("unused")
@@ -278,7 +281,7 @@ class FiltroQueryFieldMetaBuilderTest {
         void searchHasContainsAndNullOps() {
             Set<FiltroOperator> o = ops("title");
             assertThat(o).containsExactlyInAnyOrder(
-                    FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS,
+                    FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS, FiltroOperator.STARTS_WITH,
                     FiltroOperator.IS_NULL, FiltroOperator.NOT_NULL);
         }
 
@@ -399,6 +402,22 @@ class FiltroQueryFieldMetaBuilderTest {
         void noGroupsDefaultsToEmpty() {
             assertThat(build(PlainTypes.class, "title").getGroups()).isEmpty();
         }
+
+        @Test
+        void costAndSelectivityHintsAreCarried() {
+            FiltroFieldMeta meta = build(OverrideFields.class, "serialNo");
+            assertThat(meta.getWeight()).isEqualTo(5);
+            assertThat(meta.isIndexed()).isTrue();
+            assertThat(meta.getSelectivity()).isEqualTo(0.01);
+        }
+
+        @Test
+        void hintsDefaultToNeutral() {
+            FiltroFieldMeta meta = build(PlainTypes.class, "title");
+            assertThat(meta.getWeight()).isEqualTo(1);
+            assertThat(meta.isIndexed()).isFalse();
+            assertThat(meta.getSelectivity()).isEqualTo(1.0);
+        }
     }
 
     // ─── operator subtraction + ALT completion ───
@@ -0,0 +1,325 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cc.ddrpa.filtro.core.rsql.FiltroQueryParser;
+import cz.jirutka.rsql.parser.RSQLParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroNormalizerTest {
+
+    private static final Set<FiltroOperator> RANGE = Set.of(FiltroOperator.EQ, FiltroOperator.IN,
+            FiltroOperator.ALT_GT, FiltroOperator.ALT_GTE, FiltroOperator.ALT_LT, FiltroOperator.ALT_LTE);
+
+    private Map<String, FiltroFieldMeta> fieldMap;
+    private RSQLParser parser;
+    private FiltroPlanner planner;
+
+    private static FiltroFieldMeta meta(String field, Class<?> javaType) {
+        return new FiltroFieldMeta()
+                .setField(field)
+                .setKey(field)
+                .setQueryIntent(QueryIntent.RANGE)
+                .setJavaType(javaType)
+                .setSupportedOperations(RANGE);
+    }
+
+    @BeforeEach
+    void setUp() {
+        fieldMap = Map.of(
+                "a", meta("a", Integer.class),
+                "b", meta("b", Integer.class),
+                "price", meta("price", Integer.class),
+                "day", meta("day", LocalDate.class),
+                "name", meta("name", String.class),
+                "status", meta("status", Status.class)
+        );
+        fieldMap.get("name").setSupportedOperations(Set.of(FiltroOperator.EQ, FiltroOperator.ALT_GT,
+                FiltroOperator.IS_NULL, FiltroOperator.NEQ));
+        fieldMap.get("status").setSupportedOperations(Set.of(FiltroOperator.EQ, FiltroOperator.NEQ,
+                FiltroOperator.IN, FiltroOperator.NOT_IN, FiltroOperator.IS_NULL));
+        parser = new RSQLParser(FiltroQueryParser.comparisonOperators());
+        planner = new FiltroPlanner();
+    }
+
+    enum Status {A, B, C}
+
+    private FiltroNode normalize(String rsql) {
+        return planner.compile(fieldMap, parser.parse(rsql));
+    }
+
+    private static List<String> render(FiltroNode node) {
+        List<FiltroNode> children = node instanceof FiltroAndNode and ? and.children()
+                : node instanceof FiltroOrNode or ? or.children() : List.of(node);
+        return children.stream().map(FiltroNormalizerTest::describe).toList();
+    }
+
+    private static String describe(FiltroNode node) {
+        if (node instanceof FiltroComparisonNode c) {
+            return c.meta().getField() + c.operator().getSymbol() + String.join("|", c.arguments());
+        }
+        String separator = node instanceof FiltroAndNode ? ";" : ",";
+        List<FiltroNode> children = node instanceof FiltroAndNode and ? and.children() : ((FiltroOrNode) node).children();
+        return "(" + String.join(separator, children.stream().map(FiltroNormalizerTest::describe).toList()) + ")";
+    }
+
+    @Nested
+    @DisplayName("结构化简")
+    class Structure {
+
+        @Test
+        void nestedConjunctionsAreFlattened() {
+            FiltroNode root = normalize("(a==1);((b==2;(price==3)))");
+            assertThat(root).isInstanceOf(FiltroAndNode.class);
+            assertThat(render(root)).containsExactly("a==1", "b==2", "price==3");
+        }
+
+        @Test
+        void nestedDisjunctionsAreFlattened() {
+            FiltroNode root = normalize("a==1,(b==2,(price==3))");
+            assertThat(root).isInstanceOf(FiltroOrNode.class);
+            assertThat(render(root)).containsExactly("a==1", "b==2", "price==3");
+        }
+
+        @Test
+        void mixedNestingIsKept() {
+            assertThat(render(normalize("a==1;(b==2,price==3)"))).containsExactly("a==1", "(b==2,price==3)");
+        }
+
+        @Test
+        void duplicatesAreRemoved() {
+            assertThat(render(normalize("a==1;b==2;a==1;a==01"))).containsExactly("a==1", "b==2");
+        }
+
+        @Test
+        void singleChildCollapses() {
+            FiltroNode root = normalize("(a==1;a==1)");
+            assertThat(root).isInstanceOf(FiltroComparisonNode.class);
+        }
+
+        @Test
+        void duplicateSubtreesAreRemoved() {
+            assertThat(render(normalize("(a==1;b==2),(a==1;b==2),price==3")))
+                    .containsExactly("(a==1;b==2)", "price==3");
+        }
+    }
+
+    @Nested
+    @DisplayName("范围合并")
+    class Ranges {
+
+        @Test
+        void conjunctionKeepsTightestLowerBound() {
+            assertThat(render(normalize("price=gt=10;price=gt=20;price=gt=15"))).containsExactly("price=gt=20");
+        }
+
+        @Test
+        void conjunctionKeepsTightestUpperBound() {
+            assertThat(render(normalize("price=lt=10;b==1;price=le=5"))).containsExactly("price=le=5", "b==1");
+        }
+
+        @Test
+        void conjunctionPrefersExclusiveOnTie() {
+            assertThat(render(normalize("price=ge=10;price=gt=10"))).containsExactly("price=gt=10");
+            assertThat(render(normalize("price=gt=10;price=ge=10"))).containsExactly("price=gt=10");
+        }
+
+        @Test
+        void lowerAndUpperBoundsAreBothKept() {
+            assertThat(render(normalize("price=gt=10;price=lt=100;price=gt=20;price=lt=50")))
+                    .containsExactly("price=gt=20", "price=lt=50");
+        }
+
+        @Test
+        void disjunctionKeepsLoosestBound() {
+            assertThat(render(normalize("price=gt=10,price=gt=20"))).containsExactly("price=gt=10");
+            assertThat(render(normalize("price=gt=10,price=ge=10"))).containsExactly("price=ge=10");
+        }
+
+        @Test
+        void dateBoundsAreMerged() {
+            assertThat(render(normalize("day=ge=2024-01-01;day=ge=2024-03-01"))).containsExactly("day=ge=2024-03-01");
+        }
+
+        @Test
+        void stringBoundsAreNotMerged() {
+            assertThat(render(normalize("name=gt=a;name=gt=b"))).containsExactly("name=gt=a", "name=gt=b");
+        }
+
+        @Test
+        void differentFieldsAreNotMerged() {
+            assertThat(render(normalize("a=gt=1;b=gt=2"))).containsExactly("a=gt=1", "b=gt=2");
+        }
+    }
+
+    @Nested
+    @DisplayName("集合合并")
+    class Sets {
+
+        @Test
+        void equalityDisjunctionBecomesIn() {
+            FiltroNode root = normalize("status==A,status==B,status==C");
+            assertThat(root).isInstanceOf(FiltroComparisonNode.class);
+            FiltroComparisonNode in = (FiltroComparisonNode) root;
+            assertThat(in.operator()).isEqualTo(FiltroOperator.IN);
+            assertThat(in.arguments()).containsExactly("A", "B", "C");
+            assertThat(in.values()).containsExactly(Status.A, Status.B, Status.C);
+        }
+
+        @Test
+        void existingInIsMergedAndDeduplicated() {
+            assertThat(render(normalize("a==1,b==2,a=in=(3,1),a==01")))
+                    .containsExactly("a=in=1|3", "b==2");
+        }
+
+        @Test
+        void inequalityConjunctionBecomesNotIn() {
+            assertThat(render(normalize("status!=A;a==1;status!=B;status=out=(C)")))
+                    .containsExactly("status=out=A|B|C", "a==1");
+        }
+
+        @Test
+        void unsupportedSetOperatorIsRespected() {
+            assertThat(render(normalize("name==x,name==y"))).containsExactly("name==x", "name==y");
+        }
+
+        @Test
+        void equalityConjunctionIsNotMerged() {
+            assertThat(render(normalize("status==A;status=in=(A,B)"))).containsExactly("status==A", "status=in=A|B");
+        }
+
+        @Test
+        void nestedGroupsMergeAfterFlattening() {
+            assertThat(render(normalize("status==A,(status==B,a==1)"))).containsExactly("status=in=A|B", "a==1");
+        }
+    }
+
+    @Nested
+    @DisplayName("选择率排序")
+    class Ordering {
+
+        @Test
+        void withoutHintsOrderIsKept() {
+            assertThat(render(normalize("name==x;a==1;(b==1,b==2);price=gt=1")))
+                    .containsExactly("name==x", "a==1", "b=in=1|2", "price=gt=1");
+        }
+
+        @Test
+        void indexedFieldsComeFirst() {
+            fieldMap.get("price").setIndexed(true);
+            assertThat(render(normalize("name==x;a==1;price=gt=1")))
+                    .containsExactly("price=gt=1", "name==x", "a==1");
+        }
+
+        @Test
+        void moreSelectiveFieldsComeFirst() {
+            fieldMap.get("a").setSelectivity(0.5);
+            fieldMap.get("b").setSelectivity(0.01);
+            assertThat(render(normalize("name==x;a==1;b==1")))
+                    .containsExactly("b==1", "a==1", "name==x");
+        }
+
+        @Test
+        void indexNeverHelpsNegation() {
+            fieldMap.get("status").setIndexed(true);
+            assertThat(render(normalize("a==1;status!=A")))
+                    .containsExactly("a==1", "status!=A");
+        }
+
+        @Test
+        void indexedSearchModeContainsComesFirst() {
+            fieldMap.get("name").setIndexed(true)
+                    .setSupportedOperations(Set.of(FiltroOperator.EQ, FiltroOperator.CONTAINS));
+            assertThat(render(normalize("a==1;name=contains=x"))).containsExactly("a==1", "name=contains=x");
+            fieldMap.get("name").setSearchMode(SearchMode.FULLTEXT);
+            assertThat(render(normalize("a==1;name=contains=x"))).containsExactly("name=contains=x", "a==1");
+        }
+
+        @Test
+        void disjunctionOrderIsKept() {
+            fieldMap.get("price").setIndexed(true);
+            assertThat(render(normalize("a==1,price==2"))).containsExactly("a==1", "price==2");
+        }
+    }
+
+    @Nested
+    @DisplayName("矛盾检测")
+    class Contradictions {
+
+        private boolean empty(String rsql) {
+            return planner.plan(fieldMap, parser.parse(rsql)).isEmptyResult();
+        }
+
+        @Test
+        void disjointRangeIsEmpty() {
+            assertThat(empty("price=lt=10;price=gt=20")).isTrue();
+            assertThat(empty("price=lt=10;price=ge=10")).isTrue();
+            assertThat(empty("price=le=10;price=ge=10")).isFalse();
+        }
+
+        @Test
+        void differentEqualitiesAreEmpty() {
+            assertThat(empty("status==A;status==B")).isTrue();
+            assertThat(empty("a==1;a==2")).isTrue();
+        }
+
+        @Test
+        void nullAndValueAreEmpty() {
+            assertThat(empty("name=null='';name==x")).isTrue();
+            assertThat(empty("status=null='';status=in=(A,B)")).isTrue();
+        }
+
+        @Test
+        void nullAndNotEqualIsKept() {
+            // MongoDB 的 $ne 匹配缺失字段
+            assertThat(empty("name=null='';name!=x")).isFalse();
+        }
+
+        @Test
+        void equalityAgainstSetsAndRanges() {
+            assertThat(empty("status==A;status=in=(B,C)")).isTrue();
+            assertThat(empty("status==A;status=out=(A,B)")).isTrue();
+            assertThat(empty("status==A;status!=A")).isTrue();
+            assertThat(empty("status==A;status=in=(A,C)")).isFalse();
+            assertThat(empty("a==5;a=gt=5")).isTrue();
+            assertThat(empty("a==5;a=le=4")).isTrue();
+            assertThat(empty("a==5;a=ge=5")).isFalse();
+        }
+
+        @Test
+        void stringEqualitiesAreNotJudged() {
+            assertThat(empty("name==x;name==X")).isFalse();
+        }
+
+        @Test
+        void contradictoryBranchIsPrunedFromDisjunction() {
+            FiltroPlan plan = planner.plan(fieldMap, parser.parse("(price=lt=10;price=gt=20),a==1"));
+            assertThat(plan.isEmptyResult()).isFalse();
+            assertThat(render(plan.getRoot())).containsExactly("a==1");
+        }
+
+        @Test
+        void contradictionPropagatesThroughConjunction() {
+            assertThat(empty("b==1;((price=lt=10;price=gt=20),(a==1;a==2))")).isTrue();
+        }
+
+        @Test
+        void emptyPlanKeepsCompiledRoot() {
+            FiltroPlan plan = planner.plan(fieldMap, parser.parse("a==1;a==2"));
+            assertThat(render(plan.getRoot())).containsExactly("a==1", "a==2");
+            assertThat(planner.compile(fieldMap, parser.parse("a==1;a==2"))).isInstanceOf(FiltroAndNode.class);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.Node;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FiltroPlanCacheTest {
+
+    private static FiltroPlanKey key(String q, Class<?> type) {
+        return new FiltroPlanKey(q, type, void.class, Object.class);
+    }
+
+    private static FiltroPlan plan() {
+        ComparisonNode source = new ComparisonNode(RSQLOperators.EQUAL, "title", List.of("x"));
+        return new FiltroPlan(source, new FiltroAndNode(List.of()), Map.of(), 0, 1);
+    }
+
+    static class Book {
+    }
+
+    static class Asset {
+    }
+
+    @Nested
+    class Loading {
+
+        @Test
+        void hitSkipsLoader() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            AtomicInteger loads = new AtomicInteger();
+            FiltroPlan first = cache.get(key("title==x", Book.class), k -> {
+                loads.incrementAndGet();
+                return plan();
+            });
+            FiltroPlan second = cache.get(key("title==x", Book.class), k -> {
+                loads.incrementAndGet();
+                return plan();
+            });
+            assertThat(second).isSameAs(first);
+            assertThat(loads).hasValue(1);
+            assertThat(cache.stats().hitCount()).isEqualTo(1);
+            assertThat(cache.stats().missCount()).isEqualTo(1);
+            assertThat(cache.stats().hitRate()).isEqualTo(0.5);
+        }
+
+        @Test
+        void differentTargetTypeIsDifferentEntry() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            cache.get(new FiltroPlanKey("title==x", Book.class, void.class, String.class), k -> plan());
+            cache.get(new FiltroPlanKey("title==x", Book.class, void.class, Integer.class), k -> plan());
+            assertThat(cache.stats().size()).isEqualTo(2);
+        }
+
+        @Test
+        void concurrentHitsShareEntry() throws InterruptedException {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            FiltroPlan plan = plan();
+            cache.put(key("title==x", Book.class), plan);
+            List<Thread> threads = IntStream.range(0, 8).mapToObj(i -> new Thread(() -> {
+                for (int n = 0; n < 1000; n++) {
+                    assertThat(cache.get(key("title==x", Book.class), k -> plan())).isSameAs(plan);
+                }
+            })).toList();
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertThat(cache.stats().hitCount()).isEqualTo(8000);
+            assertThat(cache.stats().missCount()).isZero();
+        }
+
+        @Test
+        void loaderFailureIsNotCached() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            assertThatThrownBy(() -> cache.get(key("bad", Book.class), k -> {
+                throw new IllegalArgumentException("boom");
+            })).hasMessage("boom");
+            assertThat(cache.stats().size()).isZero();
+        }
+    }
+
+    @Nested
+    class SourceOnly {
+
+        @Test
+        void sourceHitSkipsLoader() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            AtomicInteger loads = new AtomicInteger();
+            Node first = cache.getSource(key("title==x", Book.class), k -> {
+                loads.incrementAndGet();
+                return plan().getSource();
+            });
+            assertThat(cache.getSource(key("title==x", Book.class), k -> {
+                loads.incrementAndGet();
+                return plan().getSource();
+            })).isSameAs(first);
+            assertThat(loads).hasValue(1);
+        }
+
+        @Test
+        void cachedPlanServesSource() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            FiltroPlan plan = plan();
+            cache.put(key("title==x", Book.class), plan);
+            assertThat(cache.getSource(key("title==x", Book.class), k -> {
+                throw new AssertionError("should hit");
+            })).isSameAs(plan.getSource());
+        }
+
+        @Test
+        void sourceEntryIsNotAPlan() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            cache.getSource(key("title==x", Book.class), k -> plan().getSource());
+            FiltroPlan plan = plan();
+            assertThat(cache.get(key("title==x", Book.class), k -> plan)).isSameAs(plan);
+            assertThat(cache.stats().missCount()).isEqualTo(2);
+            assertThat(cache.stats().size()).isEqualTo(1);
+        }
+    }
+
+    @Nested
+    class Bounds {
+
+        @Test
+        void evictsLeastRecentlyUsedBySize() {
+            FiltroPlanCache cache = new FiltroPlanCache(2, 1000);
+            cache.put(key("a==1", Book.class), plan());
+            cache.put(key("b==1", Book.class), plan());
+            cache.get(key("a==1", Book.class), k -> plan());
+            cache.put(key("c==1", Book.class), plan());
+
+            AtomicInteger loads = new AtomicInteger();
+            cache.get(key("a==1", Book.class), k -> {
+                loads.incrementAndGet();
+                return plan();
+            });
+            assertThat(loads).hasValue(0);
+            assertThat(cache.stats().evictionCount()).isEqualTo(1);
+            assertThat(cache.stats().size()).isEqualTo(2);
+        }
+
+        @Test
+        void entriesHitAfterLastInsertSurviveEviction() {
+            FiltroPlanCache cache = new FiltroPlanCache(3, 1000);
+            cache.put(key("a==1", Book.class), plan());
+            cache.put(key("b==1", Book.class), plan());
+            cache.put(key("c==1", Book.class), plan());
+            cache.get(key("a==1", Book.class), k -> plan());
+            cache.get(key("b==1", Book.class), k -> plan());
+            cache.put(key("d==1", Book.class), plan());
+
+            AtomicInteger loads = new AtomicInteger();
+            for (String q : List.of("a==1", "b==1", "d==1")) {
+                cache.get(key(q, Book.class), k -> {
+                    loads.incrementAndGet();
+                    return plan();
+                });
+            }
+            assertThat(loads).hasValue(0);
+        }
+
+        @Test
+        void evictsByWeight() {
+            FiltroPlanCache cache = new FiltroPlanCache(100, 10);
+            cache.put(key("a==12", Book.class), plan());
+            cache.put(key("b==12", Book.class), plan());
+            cache.put(key("c==12", Book.class), plan());
+            assertThat(cache.stats().weight()).isLessThanOrEqualTo(10);
+            assertThat(cache.stats().size()).isEqualTo(2);
+        }
+
+        @Test
+        void oversizedQueryIsNotCached() {
+            FiltroPlanCache cache = new FiltroPlanCache(100, 4);
+            cache.put(key("title==x", Book.class), plan());
+            assertThat(cache.stats().size()).isZero();
+        }
+    }
+
+    @Nested
+    class Invalidation {
+
+        @Test
+        void invalidateRemovesOnlyThatType() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            cache.put(key("a==1", Book.class), plan());
+            cache.put(key("b==1", Book.class), plan());
+            cache.put(key("a==1", Asset.class), plan());
+
+            cache.invalidate(Book.class);
+
+            FiltroPlanCacheStats stats = cache.stats();
+            assertThat(stats.size()).isEqualTo(1);
+            assertThat(stats.invalidationCount()).isEqualTo(2);
+            assertThat(stats.weight()).isEqualTo("a==1".length());
+        }
+
+        @Test
+        void invalidationDuringLoadDiscardsResult() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            FiltroPlan plan = cache.get(key("a==1", Book.class), k -> {
+                cache.invalidate(Book.class);
+                return plan();
+            });
+            assertThat(plan).isNotNull();
+            assertThat(cache.stats().size()).isZero();
+
+            cache.getSource(key("a==1", Book.class), k -> {
+                cache.invalidateAll();
+                return plan().getSource();
+            });
+            assertThat(cache.stats().size()).isZero();
+        }
+
+        @Test
+        void invalidateAllClears() {
+            FiltroPlanCache cache = new FiltroPlanCache();
+            cache.put(key("a==1", Book.class), plan());
+            cache.invalidateAll();
+            assertThat(cache.stats().size()).isZero();
+            assertThat(cache.stats().weight()).isZero();
+        }
+    }
+}
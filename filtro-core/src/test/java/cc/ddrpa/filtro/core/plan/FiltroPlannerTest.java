@@ -0,0 +1,367 @@
+package cc.ddrpa.filtro.core.plan;
+
+import cc.ddrpa.filtro.core.codec.FiltroValueCodec;
+import cc.ddrpa.filtro.core.codec.FiltroValueCodecs;
+import cc.ddrpa.filtro.core.exception.FiltroQueryTooComplexException;
+import cc.ddrpa.filtro.core.exception.FiltroQueryTooComplexException.Limit;
+import cc.ddrpa.filtro.core.exception.PredicateBuildException;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FiltroPlannerTest {
+
+    private Map<String, FiltroFieldMeta> fieldMap;
+    private RSQLParser parser;
+    private FiltroPlanner planner;
+
+    private static FiltroFieldMeta meta(String field, Class<?> javaType, FiltroOperator... ops) {
+        FiltroFieldMeta m = new FiltroFieldMeta();
+        m.setField(field);
+        m.setKey(field);
+        m.setQueryIntent(QueryIntent.EXACT);
+        m.setJavaType(javaType);
+        m.setSupportedOperations(Set.of(ops));
+        return m;
+    }
+
+    enum Status {ACTIVE, INACTIVE}
+
+    @BeforeEach
+    void setUp() {
+        fieldMap = Map.of(
+                "title", meta("title", String.class, FiltroOperator.EQ, FiltroOperator.CONTAINS,
+                        FiltroOperator.IS_NULL),
+                "price", meta("price", Integer.class, FiltroOperator.EQ, FiltroOperator.ALT_GT, FiltroOperator.IN),
+                "amount", meta("amount", BigDecimal.class, FiltroOperator.ALT_LT),
+                "active", meta("active", Boolean.class, FiltroOperator.EQ),
+                "status", meta("status", Status.class, FiltroOperator.IN),
+                "createdAt", meta("createdAt", Instant.class, FiltroOperator.ALT_GTE)
+        );
+        Set<ComparisonOperator> operators = new HashSet<>(RSQLOperators.defaultOperators());
+        Pattern symbolPattern = Pattern.compile("=[a-zA-Z]*=|[><]=?|!=");
+        Arrays.stream(FiltroOperator.values())
+                .filter(op -> !op.isRsqlOriginal())
+                .filter(op -> symbolPattern.matcher(op.getSymbol()).matches())
+                .map(op -> new ComparisonOperator(op.getSymbol(), op.isMultiValue()))
+                .forEach(operators::add);
+        parser = new RSQLParser(operators);
+        planner = new FiltroPlanner();
+    }
+
+    private FiltroNode compile(String rsql) {
+        return planner.compile(fieldMap, parser.parse(rsql));
+    }
+
+    private FiltroComparisonNode single(String rsql) {
+        return (FiltroComparisonNode) compile(rsql);
+    }
+
+    @Nested
+    @DisplayName("结构")
+    class Structure {
+
+        @Test
+        void logicalNodesPreserveShape() {
+            FiltroNode root = compile("title==a;(price=gt=1,active==true)");
+            assertThat(root).isInstanceOf(FiltroAndNode.class);
+            List<FiltroNode> children = ((FiltroAndNode) root).children();
+            assertThat(children.get(0)).isInstanceOf(FiltroComparisonNode.class);
+            assertThat(children.get(1)).isInstanceOf(FiltroOrNode.class);
+            assertThat(((FiltroOrNode) children.get(1)).children()).hasSize(2);
+        }
+
+        @Test
+        void planKeepsSourceAndFields() {
+            FiltroPlan plan = planner.plan(fieldMap, parser.parse("title==a"));
+            assertThat(plan.getSource()).isNotNull();
+            assertThat(plan.getFields()).isSameAs(fieldMap);
+            assertThat(plan.getRoot()).isInstanceOf(FiltroComparisonNode.class);
+            assertThat(plan.getDepth()).isZero();
+            assertThat(plan.getNodeCount()).isEqualTo(1);
+        }
+
+        @Test
+        void planCountsDepthAndNodes() {
+            FiltroPlan plan = planner.plan(fieldMap, parser.parse("title==a;(price=gt=1,active==true)"));
+            assertThat(plan.getDepth()).isEqualTo(2);
+            assertThat(plan.getNodeCount()).isEqualTo(5);
+        }
+    }
+
+    @Nested
+    @DisplayName("参数转型")
+    class Conversion {
+
+        @Test
+        void integerBecomesLong() {
+            assertThat(single("price==42").firstValue()).isEqualTo(42L);
+        }
+
+        @Test
+        void inConvertsEveryArgument() {
+            assertThat(single("price=in=(1,2)").values()).containsExactly(1L, 2L);
+        }
+
+        @Test
+        void decimalBecomesBigDecimal() {
+            assertThat(single("amount=lt=9.99").firstValue()).isEqualTo(new BigDecimal("9.99"));
+        }
+
+        @Test
+        void booleanBecomesBoolean() {
+            assertThat(single("active==TRUE").firstValue()).isEqualTo(Boolean.TRUE);
+        }
+
+        @Test
+        void enumBecomesConstant() {
+            assertThat(single("status=in=(ACTIVE)").firstValue()).isEqualTo(Status.ACTIVE);
+        }
+
+        @Test
+        void dateTimeKeepsMatchedType() {
+            assertThat(single("createdAt=ge=2024-01-15T00:00:00Z").firstValue()).isInstanceOf(Instant.class);
+            assertThat(single("createdAt=ge=2024-01-15").firstValue()).isEqualTo(LocalDate.of(2024, 1, 15));
+        }
+
+        @Test
+        void containsKeepsRawString() {
+            FiltroComparisonNode node = single("title=contains=java");
+            assertThat(node.firstValue()).isEqualTo("java");
+        }
+
+        @Test
+        void nullCheckHasNoValues() {
+            assertThat(single("title=null=''").values()).isEmpty();
+        }
+
+        @Test
+        void unknownEnumConstantThrowsPredicateBuildException() {
+            assertThatThrownBy(() -> compile("status=in=(ACTIVE,GONE)"))
+                    .isInstanceOf(PredicateBuildException.class)
+                    .hasMessageContaining("No enum constant")
+                    .satisfies(e -> assertThat(((PredicateBuildException) e).getStage()).isEqualTo("ENUM"));
+        }
+
+        @Test
+        void customCodecIsUsed() {
+            fieldMap.get("title").setCodec(new FiltroValueCodec() {
+                @Override
+                public Object decode(String raw) {
+                    return raw.toUpperCase();
+                }
+
+                @Override
+                public String typeName() {
+                    return "UPPER";
+                }
+            });
+            assertThat(single("title==abc").firstValue()).isEqualTo("ABC");
+            assertThat(single("title=contains=abc").firstValue()).isEqualTo("abc");
+        }
+
+        @Test
+        void codecFollowsJavaType() {
+            FiltroFieldMeta meta = fieldMap.get("price");
+            assertThat(meta.getCodec()).isSameAs(FiltroValueCodecs.INT);
+            meta.setJavaType(String.class);
+            assertThat(meta.getCodec()).isSameAs(FiltroValueCodecs.STRING);
+        }
+    }
+
+    @Nested
+    @DisplayName("校验")
+    class Validation {
+
+        @Test
+        void unknownFieldThrows() {
+            assertThatThrownBy(() -> compile("unknown==x"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("filtroFieldMeta");
+        }
+
+        @Test
+        void unsupportedOperatorThrows() {
+            assertThatThrownBy(() -> compile("title=gt=x"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("FiltroOperator");
+        }
+
+        @Test
+        void invalidNumberThrowsPredicateBuildException() {
+            assertThatThrownBy(() -> compile("price==abc"))
+                    .isInstanceOf(PredicateBuildException.class)
+                    .hasMessageContaining("price");
+        }
+
+        @Test
+        void invalidBooleanThrowsPredicateBuildException() {
+            assertThatThrownBy(() -> compile("active==yes"))
+                    .isInstanceOf(PredicateBuildException.class);
+        }
+
+        @Test
+        void depthLimitEnforced() {
+            FiltroPlanner shallow = new FiltroPlanner(1);
+            assertThatThrownBy(() -> shallow.compile(fieldMap, parser.parse("title==a;(price==1,active==true)")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("RSQL nesting");
+        }
+
+        @Test
+        void depthCheckedBeforeDeeperFields() {
+            FiltroPlanner shallow = new FiltroPlanner(1);
+            assertThatThrownBy(() -> shallow.compile(fieldMap, parser.parse("title==a;(unknown==1,price==1)")))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("RSQL nesting depth 2");
+        }
+
+        @Test
+        void firstInvalidFieldStopsCompilation() {
+            assertThatThrownBy(() -> compile("unknown==x;price==abc"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("filtroFieldMeta");
+        }
+    }
+
+    @Nested
+    @DisplayName("复杂度预算")
+    class Budget {
+
+        private FiltroPlan plan(FiltroQueryBudget budget, String rsql) {
+            return new FiltroPlanner(FiltroPlanner.DEFAULT_MAX_DEPTH, budget).plan(fieldMap, parser.parse(rsql));
+        }
+
+        private String inList(int size) {
+            return IntStream.range(0, size).mapToObj(String::valueOf).collect(Collectors.joining(",", "(", ")"));
+        }
+
+        private String equalityDisjunction(String field, int terms) {
+            return IntStream.range(0, terms).mapToObj(i -> field + "==S" + i).collect(Collectors.joining(","));
+        }
+
+        @Test
+        void mergedEqualityDisjunctionFitsDefaultBudget() {
+            Map<String, FiltroFieldMeta> fields = Map.of("code",
+                    meta("code", String.class, FiltroOperator.EQ, FiltroOperator.IN));
+            FiltroPlan plan = new FiltroPlanner(FiltroPlanner.DEFAULT_MAX_DEPTH, new FiltroQueryBudget())
+                    .plan(fields, parser.parse(equalityDisjunction("code", 200)));
+            // 200 个等值条件合并为一个 =in=：扇出与比较条件数按化简后的 IR 计
+            FiltroComparisonNode merged = (FiltroComparisonNode) plan.getRoot();
+            assertThat(merged.operator()).isEqualTo(FiltroOperator.IN);
+            assertThat(merged.values()).hasSize(200);
+            assertThat(plan.getCost()).isEqualTo(200);
+        }
+
+        @Test
+        void unmergeableDisjunctionStillLimited() {
+            Map<String, FiltroFieldMeta> fields = Map.of("code", meta("code", String.class, FiltroOperator.EQ));
+            assertThatThrownBy(() -> new FiltroPlanner(FiltroPlanner.DEFAULT_MAX_DEPTH, new FiltroQueryBudget())
+                    .plan(fields, parser.parse(equalityDisjunction("code", 60))))
+                    .isInstanceOfSatisfying(FiltroQueryTooComplexException.class,
+                            ex -> assertThat(ex.getLimit()).isEqualTo(Limit.OR_FAN_OUT));
+        }
+
+        @Test
+        void defaultPlannerIsUnlimited() {
+            assertThat(planner.compile(fieldMap, parser.parse("price=in=" + inList(5000)))).isNotNull();
+        }
+
+        @Test
+        void costSumsWeightTimesOperatorFactor() {
+            fieldMap.get("title").setWeight(3);
+            FiltroPlan plan = plan(new FiltroQueryBudget(), "title=contains=a;price=in=(1,2,3);active==true");
+            // 3 × 10 + 1 × 3 + 1 × 1
+            assertThat(plan.getCost()).isEqualTo(34);
+        }
+
+        @Test
+        void inArgumentCountRejected() {
+            FiltroQueryBudget budget = FiltroQueryBudget.unlimited().setMaxInArguments(3);
+            assertThat(plan(budget, "price=in=(1,2,3)").getCost()).isEqualTo(3);
+            assertThatThrownBy(() -> plan(budget, "price=in=(1,2,3,4)"))
+                    .isInstanceOfSatisfying(FiltroQueryTooComplexException.class, ex -> {
+                        assertThat(ex.getLimit()).isEqualTo(Limit.IN_ARGUMENTS);
+                        assertThat(ex.getMaximum()).isEqualTo(3);
+                        assertThat(ex.getActual()).isEqualTo(4);
+                        assertThat(ex.getField()).isEqualTo("price");
+                    })
+                    .hasMessageContaining("IN/NOT_IN argument count");
+        }
+
+        @Test
+        void inArgumentCountCheckedBeforeConversion() {
+            FiltroQueryBudget budget = FiltroQueryBudget.unlimited().setMaxInArguments(1);
+            assertThatThrownBy(() -> plan(budget, "price=in=(x,y)"))
+                    .isInstanceOf(FiltroQueryTooComplexException.class);
+        }
+
+        @Test
+        void comparisonCountRejected() {
+            FiltroQueryBudget budget = FiltroQueryBudget.unlimited().setMaxComparisons(2);
+            assertThatThrownBy(() -> plan(budget, "title==a;price==1;active==true"))
+                    .isInstanceOfSatisfying(FiltroQueryTooComplexException.class,
+                            ex -> assertThat(ex.getLimit()).isEqualTo(Limit.COMPARISONS));
+        }
+
+        @Test
+        void orFanOutRejected() {
+            FiltroQueryBudget budget = FiltroQueryBudget.unlimited().setMaxOrFanOut(2);
+            assertThat(plan(budget, "(title==a,price==1);(active==true,price==2)")).isNotNull();
+            assertThatThrownBy(() -> plan(budget, "title==a,price==1,active==true"))
+                    .isInstanceOfSatisfying(FiltroQueryTooComplexException.class, ex -> {
+                        assertThat(ex.getLimit()).isEqualTo(Limit.OR_FAN_OUT);
+                        assertThat(ex.getActual()).isEqualTo(3);
+                    });
+        }
+
+        @Test
+        void containsCountRejected() {
+            FiltroQueryBudget budget = FiltroQueryBudget.unlimited().setMaxContains(1);
+            assertThatThrownBy(() -> plan(budget, "title=contains=a;title=contains=b"))
+                    .isInstanceOfSatisfying(FiltroQueryTooComplexException.class,
+                            ex -> assertThat(ex.getLimit()).isEqualTo(Limit.CONTAINS));
+        }
+
+        @Test
+        void totalCostRejected() {
+            fieldMap.get("price").setWeight(10);
+            FiltroQueryBudget budget = FiltroQueryBudget.unlimited().setMaxCost(25);
+            assertThat(plan(budget, "price==1;price==2").getCost()).isEqualTo(20);
+            assertThatThrownBy(() -> plan(budget, "price==1;price==2;price==3"))
+                    .isInstanceOfSatisfying(FiltroQueryTooComplexException.class, ex -> {
+                        assertThat(ex.getLimit()).isEqualTo(Limit.COST);
+                        assertThat(ex.getActual()).isEqualTo(30);
+                    });
+        }
+
+        @Test
+        void zeroWeightFieldIsFree() {
+            fieldMap.get("active").setWeight(0);
+            FiltroQueryBudget budget = FiltroQueryBudget.unlimited().setMaxCost(1);
+            assertThat(plan(budget, "active==true;active==false;price==1").getCost()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package cc.ddrpa.filtro.core.rsql;
+
+import cc.ddrpa.filtro.core.exception.FiltroQuerySyntaxException;
+import cz.jirutka.rsql.parser.ast.ComparisonNode;
+import cz.jirutka.rsql.parser.ast.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class NativeFiltroQueryParserTest {
+
+    private final NativeFiltroQueryParser parser = new NativeFiltroQueryParser();
+    private final JirutkaFiltroQueryParser reference = new JirutkaFiltroQueryParser();
+
+    @Nested
+    @DisplayName("与 jirutka 解析结果一致")
+    class Parity {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "a==1",
+                "a==1;b==2;c==3",
+                "a==1;b==2,c==3",
+                "a==1,b==2;c==3,d==4",
+                "(a==1,b==2);c==3",
+                "a==1;(b==2;c==3)",
+                "((a==1))",
+                "a==1 and b==2",
+                "a==1  or  b==2",
+                " a == 1 ",
+                "a==1 ;b==2",
+                "a==x\ty",
+                "a=='x y'",
+                "a==\"q\\\"x\"",
+                "a=='it\\'s'",
+                "a=='a\\\\b'",
+                "a==\\x",
+                "a=in=(1, 2 ,3)",
+                "a=in=(1,'2',\"3\")",
+                "a==(1)",
+                "title=null=''",
+                "title=contains=java",
+                "title=nullableneq=x",
+                "a<1",
+                "a>=2",
+                "a=lt=1",
+                "a!=1",
+                "a==-1.5e3",
+                "a==ü",
+                "a.b.c==2024-01-01T00:00:00Z"
+        })
+        void sameAst(String query) {
+            Node expected = reference.parse(query);
+            Node actual = parser.parse(query);
+            assertThat(actual).isEqualTo(expected);
+            assertThat(actual.toString()).isEqualTo(expected.toString());
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "",
+                "a==",
+                "==1",
+                "a=foo=1",
+                "a==1;",
+                "a==1,(b==2",
+                "a==1)",
+                "a==b=c",
+                "a==1andb==2",
+                "a==1 AND b==2",
+                "a==1 and(b==2)",
+                "a=in=()",
+                "a=gt=1,2",
+                "a==x~y",
+                "a=='open",
+                "a==1,b==(1,2)"
+        })
+        void bothReject(String query) {
+            assertThatThrownBy(() -> reference.parse(query)).isInstanceOf(FiltroQuerySyntaxException.class);
+            assertThatThrownBy(() -> parser.parse(query)).isInstanceOf(FiltroQuerySyntaxException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("错误位置")
+    class ErrorOffsets {
+
+        @Test
+        void unknownOperatorPointsAtOperator() {
+            assertThatThrownBy(() -> parser.parse("title=foo=1"))
+                    .isInstanceOfSatisfying(FiltroQuerySyntaxException.class, e -> {
+                        assertThat(e.getOffset()).isEqualTo(5);
+                        assertThat(e.getReason()).contains("=foo=");
+                    });
+        }
+
+        @Test
+        void missingParenthesisPointsAtEnd() {
+            assertThatThrownBy(() -> parser.parse("(a==1"))
+                    .isInstanceOfSatisfying(FiltroQuerySyntaxException.class,
+                            e -> assertThat(e.getOffset()).isEqualTo(5));
+        }
+
+        @Test
+        void unterminatedQuotePointsAtQuote() {
+            assertThatThrownBy(() -> parser.parse("a=='open"))
+                    .isInstanceOfSatisfying(FiltroQuerySyntaxException.class,
+                            e -> assertThat(e.getOffset()).isEqualTo(3));
+        }
+
+        @Test
+        void messageCarriesOffset() {
+            assertThatThrownBy(() -> parser.parse("a==1)"))
+                    .hasMessageContaining("offset 4");
+        }
+    }
+
+    @Test
+    void longInListKeepsAllArguments() {
+        StringBuilder q = new StringBuilder("id=in=(");
+        for (int i = 0; i < 500; i++) {
+            q.append(i == 0 ? "" : ",").append(i);
+        }
+        Node node = parser.parse(q.append(')').toString());
+        assertThat(((ComparisonNode) node).getArguments()).hasSize(500).endsWith("499");
+    }
+}
@@ -0,0 +1,126 @@
+package cc.ddrpa.filtro.visitor.extension.elasticsearch;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Elasticsearch / OpenSearch 查询 DSL 的 {@code query} 部分，以 {@code Map} / {@code List} 树表示，不可变。
+ * <p>
+ * 可交给任意客户端：低级 REST 客户端直接发送 {@link #toJson()}，
+ * Java 客户端可用 {@code Query.of(q -> q.withJson(new StringReader(query.toJson())))}。
+ * <p>
+ * 条件不可满足时为 {@code {"match_none": {}}}，调用方也可先检查 {@link #isEmptyResult()} 直接返回空结果。
+ */
+public final class ElasticsearchQuery {
+
+    private final Map<String, Object> query;
+    private final boolean emptyResult;
+
+    /**
+     * @param query       查询树，键按生成顺序排列
+     * @param emptyResult 条件是否恒不可满足
+     */
+    public ElasticsearchQuery(Map<String, Object> query, boolean emptyResult) {
+        this.query = Collections.unmodifiableMap(new LinkedHashMap<>(Objects.requireNonNull(query, "query")));
+        this.emptyResult = emptyResult;
+    }
+
+    public static ElasticsearchQuery matchNone() {
+        return new ElasticsearchQuery(Map.of("match_none", Map.of()), true);
+    }
+
+    public Map<String, Object> query() {
+        return query;
+    }
+
+    public boolean isEmptyResult() {
+        return emptyResult;
+    }
+
+    /**
+     * 紧凑 JSON，相同的查询树总是得到相同的字符串
+     */
+    public String toJson() {
+        StringBuilder builder = new StringBuilder(128);
+        writeJson(query, builder);
+        return builder.toString();
+    }
+
+    private static void writeJson(Object value, StringBuilder builder) {
+        if (value instanceof Map<?, ?> map) {
+            builder.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (!first) {
+                    builder.append(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), builder);
+                builder.append(':');
+                writeJson(entry.getValue(), builder);
+            }
+            builder.append('}');
+        } else if (value instanceof List<?> list) {
+            builder.append('[');
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                writeJson(list.get(i), builder);
+            }
+            builder.append(']');
+        } else if (value instanceof Number || value instanceof Boolean) {
+            builder.append(value);
+        } else if (value == null) {
+            builder.append("null");
+        } else {
+            writeString(value.toString(), builder);
+        }
+    }
+
+    private static void writeString(String value, StringBuilder builder) {
+        builder.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        builder.append('"');
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ElasticsearchQuery that)) {
+            return false;
+        }
+        return emptyResult == that.emptyResult && query.equals(that.query);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, emptyResult);
+    }
+
+    @Override
+    public String toString() {
+        return "ElasticsearchQuery[query=" + toJson() + ", emptyResult=" + emptyResult + "]";
+    }
+}
@@ -0,0 +1,39 @@
+package cc.ddrpa.filtro.visitor.extension.elasticsearch;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cz.jirutka.rsql.parser.ast.Node;
+
+import java.util.Map;
+
+public class ElasticsearchQueryNodeHandler implements RsqlNodeHandler<ElasticsearchQuery> {
+
+    private final FiltroRegistry filtroRegistry;
+
+    public ElasticsearchQueryNodeHandler(FiltroRegistry filtroRegistry) {
+        this.filtroRegistry = filtroRegistry;
+    }
+
+    @Override
+    public boolean supports(Class<?> targetType) {
+        return ElasticsearchQuery.class.equals(targetType);
+    }
+
+    @Override
+    public ElasticsearchQuery parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+        return translate(new FiltroPlanner(filtroRegistry.getMaxDepth()).plan(metaMap, queryRoot));
+    }
+
+    @Override
+    public ElasticsearchQuery translate(FiltroPlan plan) {
+        if (plan.isEmptyResult()) {
+            return ElasticsearchQuery.matchNone();
+        }
+        return new ElasticsearchQuery(
+                new ElasticsearchQueryVisitor(plan.getFields(), filtroRegistry.getMaxDepth()).apply(plan.getRoot()),
+                false);
+    }
+}
@@ -0,0 +1,240 @@
+package cc.ddrpa.filtro.visitor.extension.elasticsearch;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroNodeVisitor;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
+import cc.ddrpa.filtro.core.rsql.AbstractRSQLVisitor;
+import cz.jirutka.rsql.parser.ast.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IR → Elasticsearch / OpenSearch bool 查询，所有条件都处于 filter 上下文：不计算相关度，且可被引擎以 bitset 缓存。
+ * <ul>
+ *   <li>根节点包在 {@code bool.filter} 中；AND → 嵌套的 {@code bool.filter}，OR → {@code bool.should}
+ *       （{@code minimum_should_match: 1}），取反 → {@code bool.must_not}</li>
+ *   <li>范围 → {@code range}，同一 AND 下同字段的上下界合并为一个 {@code range}</li>
+ *   <li>{@code ==} → {@code term}，{@code =in=} → {@code terms}，{@code =startswith=} → {@code prefix}，
+ *       {@code =null=} / {@code =notnull=} → {@code exists}</li>
+ *   <li>{@code =contains=} 按字段的 {@link SearchMode}：FULLTEXT / NGRAM → {@code match_phrase}（analyzed 字段），
+ *       COLLATION → 忽略大小写的 {@code wildcard}，其余 → {@code wildcard}（keyword 字段）</li>
+ * </ul>
+ * 字段取 {@link FiltroFieldMeta#getKey()}，text 与 keyword 分属不同子字段时在注解中指定，如 {@code title.keyword}。
+ */
+public class ElasticsearchQueryVisitor extends AbstractRSQLVisitor<Map<String, Object>>
+        implements RSQLVisitor<Map<String, Object>, Void>, FiltroNodeVisitor<Map<String, Object>, Void> {
+
+    public ElasticsearchQueryVisitor(Map<String, FiltroFieldMeta> fieldSpecMap) {
+        super(fieldSpecMap);
+    }
+
+    public ElasticsearchQueryVisitor(Map<String, FiltroFieldMeta> fieldSpecMap, int maxDepth) {
+        super(fieldSpecMap, maxDepth);
+    }
+
+    /**
+     * 转义 wildcard 元字符 {@code *}、{@code ?} 与反斜杠
+     */
+    static String escapeWildcard(String input) {
+        StringBuilder builder = new StringBuilder(input.length() + 2);
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '*' || c == '?' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    public Map<String, Object> apply(Node rootNode) {
+        return apply(compile(rootNode));
+    }
+
+    /**
+     * @return 顶层 {@code bool.filter} 查询
+     */
+    public Map<String, Object> apply(FiltroNode rootNode) {
+        List<Object> clauses = rootNode instanceof FiltroAndNode and
+                ? conjunction(and.children())
+                : List.of(clause(rootNode));
+        return bool("filter", clauses);
+    }
+
+    @Override
+    public Map<String, Object> visit(AndNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public Map<String, Object> visit(OrNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public Map<String, Object> visit(ComparisonNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public Map<String, Object> visit(FiltroAndNode node, Void param) {
+        return clause(node);
+    }
+
+    @Override
+    public Map<String, Object> visit(FiltroOrNode node, Void param) {
+        return clause(node);
+    }
+
+    @Override
+    public Map<String, Object> visit(FiltroComparisonNode node, Void param) {
+        return clause(node);
+    }
+
+    private Map<String, Object> clause(FiltroNode node) {
+        if (node instanceof FiltroComparisonNode comparison) {
+            return comparison(comparison);
+        }
+        if (node instanceof FiltroAndNode and) {
+            return bool("filter", conjunction(and.children()));
+        }
+        if (node instanceof FiltroOrNode or) {
+            List<Object> should = new ArrayList<>(or.children().size());
+            for (FiltroNode child : or.children()) {
+                should.add(clause(child));
+            }
+            Map<String, Object> body = new LinkedHashMap<>(4);
+            body.put("should", should);
+            body.put("minimum_should_match", 1);
+            return single("bool", body);
+        }
+        throw new IllegalArgumentException("Unknown FiltroNode: " + node.getClass().getName());
+    }
+
+    /**
+     * AND 的子条件；同字段的范围条件合并到首次出现的 {@code range} 中。
+     * 已有同方向边界（{@code gt} / {@code gte} 同为下界，{@code lt} / {@code lte} 同为上界）时另起一个 {@code range}：
+     * Elasticsearch 把 {@code gt} 与 {@code gte} 解析为同一个下界，放在一起只有一个生效
+     */
+    private List<Object> conjunction(List<FiltroNode> children) {
+        List<Object> clauses = new ArrayList<>(children.size());
+        Map<String, Map<String, Object>> ranges = null;
+        for (FiltroNode child : children) {
+            if (child instanceof FiltroComparisonNode comparison && rangeBound(comparison.operator()) != null) {
+                if (ranges == null) {
+                    ranges = new LinkedHashMap<>();
+                }
+                Map<String, Object> bounds = ranges.get(comparison.key());
+                String bound = rangeBound(comparison.operator());
+                if (bounds != null && !hasSameDirection(bounds, bound)) {
+                    bounds.put(bound, value(comparison, 0));
+                    continue;
+                }
+                bounds = new LinkedHashMap<>(4);
+                bounds.put(bound, value(comparison, 0));
+                ranges.put(comparison.key(), bounds);
+                clauses.add(single("range", single(comparison.key(), bounds)));
+                continue;
+            }
+            clauses.add(clause(child));
+        }
+        return clauses;
+    }
+
+    private Map<String, Object> comparison(FiltroComparisonNode node) {
+        FiltroOperator operator = node.operator();
+        String field = node.key();
+        return switch (operator) {
+            case EQ -> single("term", single(field, value(node, 0)));
+            case NEQ, NULLABLE_NEQ -> not(single("term", single(field, value(node, 0))));
+            case GT, ALT_GT, GTE, ALT_GTE, LT, ALT_LT, LTE, ALT_LTE ->
+                    single("range", single(field, single(rangeBound(operator), value(node, 0))));
+            case IN -> single("terms", single(field, values(node)));
+            case NOT_IN -> not(single("terms", single(field, values(node))));
+            case CONTAINS -> contains(node);
+            case NOT_CONTAINS -> not(contains(node));
+            case STARTS_WITH -> single("prefix", single(field, single("value", node.firstArgument())));
+            case IS_NULL -> not(single("exists", single("field", field)));
+            case NOT_NULL -> single("exists", single("field", field));
+            default -> throw new IllegalArgumentException("FiltroOperator " + operator.getSymbol()
+                    + " is not supported in " + this.getClass().getSimpleName());
+        };
+    }
+
+    private Map<String, Object> contains(FiltroComparisonNode node) {
+        FiltroFieldMeta meta = node.meta();
+        SearchMode mode = meta.getQueryIntent() == QueryIntent.SEARCH ? meta.getSearchMode() : SearchMode.PATTERN;
+        String field = node.key();
+        String value = node.firstArgument();
+        if (mode == SearchMode.FULLTEXT || mode == SearchMode.NGRAM) {
+            return single("match_phrase", single(field, value));
+        }
+        Map<String, Object> wildcard = new LinkedHashMap<>(4);
+        wildcard.put("value", "*" + escapeWildcard(value) + "*");
+        if (mode == SearchMode.COLLATION) {
+            wildcard.put("case_insensitive", true);
+        }
+        return single("wildcard", single(field, wildcard));
+    }
+
+    private static boolean hasSameDirection(Map<String, Object> bounds, String bound) {
+        return bound.startsWith("g")
+                ? bounds.containsKey("gt") || bounds.containsKey("gte")
+                : bounds.containsKey("lt") || bounds.containsKey("lte");
+    }
+
+    private static String rangeBound(FiltroOperator operator) {
+        return switch (operator) {
+            case GT, ALT_GT -> "gt";
+            case GTE, ALT_GTE -> "gte";
+            case LT, ALT_LT -> "lt";
+            case LTE, ALT_LTE -> "lte";
+            default -> null;
+        };
+    }
+
+    /**
+     * 数值、布尔使用 IR 中的类型化值，枚举取常量名；日期时间与字符串保留原始参数，由索引映射的 format 解析
+     */
+    private static Object value(FiltroComparisonNode node, int index) {
+        Object value = node.values().get(index);
+        if (value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return node.arguments().get(index);
+    }
+
+    private static List<Object> values(FiltroComparisonNode node) {
+        List<Object> values = new ArrayList<>(node.values().size());
+        for (int i = 0; i < node.values().size(); i++) {
+            values.add(value(node, i));
+        }
+        return values;
+    }
+
+    private static Map<String, Object> not(Map<String, Object> clause) {
+        return bool("must_not", List.of(clause));
+    }
+
+    private static Map<String, Object> bool(String occur, List<Object> clauses) {
+        return single("bool", single(occur, clauses));
+    }
+
+    private static Map<String, Object> single(String key, Object value) {
+        Map<String, Object> map = new LinkedHashMap<>(2);
+        map.put(key, value);
+        return map;
+    }
+}
@@ -0,0 +1,19 @@
+package cc.ddrpa.filtro.visitor.extension.elasticsearch.autoconfigure;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cc.ddrpa.filtro.visitor.extension.elasticsearch.ElasticsearchQuery;
+import cc.ddrpa.filtro.visitor.extension.elasticsearch.ElasticsearchQueryNodeHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(ElasticsearchQuery.class)
+public class ElasticsearchFiltroAutoConfiguration {
+
+    @Bean
+    public RsqlNodeHandler<ElasticsearchQuery> elasticsearchQueryNodeHandler(FiltroRegistry filtroRegistry) {
+        return new ElasticsearchQueryNodeHandler(filtroRegistry);
+    }
+}
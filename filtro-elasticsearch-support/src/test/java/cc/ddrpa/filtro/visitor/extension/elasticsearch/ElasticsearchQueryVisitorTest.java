@@ -0,0 +1,221 @@
+package cc.ddrpa.filtro.visitor.extension.elasticsearch;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ElasticsearchQueryVisitorTest {
+
+    private Map<String, FiltroFieldMeta> fieldMap;
+    private RSQLParser parser;
+
+    private static FiltroFieldMeta meta(String field, String key, QueryIntent intent,
+                                        Class<?> javaType, Set<FiltroOperator> ops) {
+        FiltroFieldMeta m = new FiltroFieldMeta();
+        m.setField(field);
+        m.setKey(key);
+        m.setQueryIntent(intent);
+        m.setJavaType(javaType);
+        m.setSupportedOperations(ops);
+        return m;
+    }
+
+    @BeforeEach
+    void setUp() {
+        FiltroFieldMeta status = meta("status", "status", QueryIntent.EXACT, Status.class,
+                Set.of(FiltroOperator.EQ, FiltroOperator.IN, FiltroOperator.NOT_IN));
+        status.setEnumerationClass(Status.class);
+        FiltroFieldMeta summary = meta("summary", "summary", QueryIntent.SEARCH, String.class,
+                Set.of(FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS));
+        summary.setSearchMode(SearchMode.FULLTEXT);
+        FiltroFieldMeta author = meta("author", "author.keyword", QueryIntent.SEARCH, String.class,
+                Set.of(FiltroOperator.CONTAINS));
+        author.setSearchMode(SearchMode.COLLATION);
+
+        fieldMap = new HashMap<>();
+        fieldMap.put("title", meta("title", "title.keyword", QueryIntent.SEARCH, String.class,
+                Set.of(FiltroOperator.EQ, FiltroOperator.NEQ, FiltroOperator.CONTAINS, FiltroOperator.STARTS_WITH,
+                        FiltroOperator.IS_NULL, FiltroOperator.NOT_NULL, FiltroOperator.ALT_GT, FiltroOperator.ALT_GTE,
+                        FiltroOperator.ALT_LT)));
+        fieldMap.put("price", meta("price", "price", QueryIntent.RANGE, Integer.class,
+                Set.of(FiltroOperator.EQ, FiltroOperator.GT, FiltroOperator.ALT_GT,
+                        FiltroOperator.GTE, FiltroOperator.ALT_GTE,
+                        FiltroOperator.LT, FiltroOperator.ALT_LT,
+                        FiltroOperator.LTE, FiltroOperator.ALT_LTE)));
+        fieldMap.put("publishedAt", meta("publishedAt", "published_at", QueryIntent.RANGE,
+                LocalDateTime.class, Set.of(FiltroOperator.GTE, FiltroOperator.ALT_GTE)));
+        fieldMap.put("status", status);
+        fieldMap.put("summary", summary);
+        fieldMap.put("author", author);
+
+        Set<ComparisonOperator> operators = new HashSet<>(RSQLOperators.defaultOperators());
+        Pattern symbolPattern = Pattern.compile("=[a-zA-Z]*=|[><]=?|!=");
+        Arrays.stream(FiltroOperator.values())
+                .filter(op -> !op.isRsqlOriginal())
+                .filter(op -> symbolPattern.matcher(op.getSymbol()).matches())
+                .map(op -> new ComparisonOperator(op.getSymbol(), op.isMultiValue()))
+                .forEach(operators::add);
+        parser = new RSQLParser(operators);
+    }
+
+    private ElasticsearchQuery translate(String rsql) {
+        return new ElasticsearchQueryNodeHandler(new FiltroRegistry()).parse(fieldMap, parser.parse(rsql));
+    }
+
+    private String json(String rsql) {
+        return translate(rsql).toJson();
+    }
+
+    enum Status {ACTIVE, INACTIVE}
+
+    @Nested
+    @DisplayName("比较条件")
+    class Comparisons {
+        @Test
+        void termInFilterContext() {
+            assertThat(json("title==java"))
+                    .isEqualTo("{\"bool\":{\"filter\":[{\"term\":{\"title.keyword\":\"java\"}}]}}");
+        }
+
+        @Test
+        void neqIsMustNot() {
+            assertThat(json("title!=java")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"bool\":{\"must_not\":[{\"term\":{\"title.keyword\":\"java\"}}]}}]}}");
+        }
+
+        @Test
+        void termsUseEnumNames() {
+            assertThat(json("status=in=(ACTIVE,INACTIVE)")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"terms\":{\"status\":[\"ACTIVE\",\"INACTIVE\"]}}]}}");
+        }
+
+        @Test
+        void rangeKeepsTypedNumbersAndRawDates() {
+            assertThat(json("price>10")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"range\":{\"price\":{\"gt\":10}}}]}}");
+            assertThat(json("publishedAt>=2024-01-01T00:00:00")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"range\":{\"published_at\":{\"gte\":\"2024-01-01T00:00:00\"}}}]}}");
+        }
+
+        @Test
+        void existence() {
+            assertThat(json("title=null=''")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"bool\":{\"must_not\":[{\"exists\":{\"field\":\"title.keyword\"}}]}}]}}");
+            assertThat(json("title=nonull=''")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"exists\":{\"field\":\"title.keyword\"}}]}}");
+        }
+
+        @Test
+        void prefix() {
+            assertThat(json("title=startswith=ja")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"prefix\":{\"title.keyword\":{\"value\":\"ja\"}}}]}}");
+        }
+    }
+
+    @Nested
+    @DisplayName("模糊匹配策略")
+    class Contains {
+        @Test
+        void patternUsesEscapedWildcard() {
+            assertThat(json("title=contains='a*b?'")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"wildcard\":{\"title.keyword\":{\"value\":\"*a\\\\*b\\\\?*\"}}}]}}");
+        }
+
+        @Test
+        void fullTextUsesMatchPhrase() {
+            assertThat(json("summary=contains='spring boot'")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"match_phrase\":{\"summary\":\"spring boot\"}}]}}");
+        }
+
+        @Test
+        void collationIsCaseInsensitive() {
+            assertThat(json("author=contains=tolkien")).isEqualTo("{\"bool\":{\"filter\":[{\"wildcard\":"
+                    + "{\"author.keyword\":{\"value\":\"*tolkien*\",\"case_insensitive\":true}}}]}}");
+        }
+
+        @Test
+        void notContainsWrapsInMustNot() {
+            assertThat(json("summary=nocontains=spring")).isEqualTo("{\"bool\":{\"filter\":[{\"bool\":"
+                    + "{\"must_not\":[{\"match_phrase\":{\"summary\":\"spring\"}}]}}]}}");
+        }
+    }
+
+    @Nested
+    @DisplayName("逻辑组合")
+    class Logic {
+        @Test
+        void rootAndChildrenAreFilterClauses() {
+            assertThat(json("title==a;status==ACTIVE")).isEqualTo("{\"bool\":{\"filter\":["
+                    + "{\"term\":{\"title.keyword\":\"a\"}},{\"term\":{\"status\":\"ACTIVE\"}}]}}");
+        }
+
+        @Test
+        void orIsShouldWithMinimumMatch() {
+            assertThat(json("title==a,price>3")).isEqualTo("{\"bool\":{\"filter\":[{\"bool\":{\"should\":["
+                    + "{\"term\":{\"title.keyword\":\"a\"}},{\"range\":{\"price\":{\"gt\":3}}}],"
+                    + "\"minimum_should_match\":1}}]}}");
+        }
+
+        @Test
+        void rangeBoundsAreMergedPerField() {
+            assertThat(json("price>=10;title==a;price<20")).isEqualTo("{\"bool\":{\"filter\":["
+                    + "{\"range\":{\"price\":{\"gte\":10,\"lt\":20}}},{\"term\":{\"title.keyword\":\"a\"}}]}}");
+        }
+
+        @Test
+        void sameDirectionBoundsStaySeparate() {
+            // 字符串范围不经化简合并；gt 与 gte 同为下界，不能放进同一个 range
+            assertThat(json("title>=m;title>a;title<z")).isEqualTo("{\"bool\":{\"filter\":["
+                    + "{\"range\":{\"title.keyword\":{\"gte\":\"m\"}}},"
+                    + "{\"range\":{\"title.keyword\":{\"gt\":\"a\",\"lt\":\"z\"}}}]}}");
+        }
+
+        @Test
+        void nestedAndUnderOr() {
+            assertThat(json("title==a,(title==b;price<40)")).isEqualTo("{\"bool\":{\"filter\":[{\"bool\":"
+                    + "{\"should\":[{\"term\":{\"title.keyword\":\"a\"}},{\"bool\":{\"filter\":["
+                    + "{\"term\":{\"title.keyword\":\"b\"}},{\"range\":{\"price\":{\"lt\":40}}}]}}],"
+                    + "\"minimum_should_match\":1}}]}}");
+        }
+    }
+
+    @Nested
+    @DisplayName("查询树")
+    class Tree {
+        @Test
+        void contradictionIsMatchNone() {
+            ElasticsearchQuery query = translate("price>50;price<10");
+            assertThat(query.isEmptyResult()).isTrue();
+            assertThat(query.toJson()).isEqualTo("{\"match_none\":{}}");
+        }
+
+        @Test
+        void mapTreeIsInspectable() {
+            Map<String, Object> query = translate("title==a").query();
+            assertThat(query).containsOnlyKeys("bool");
+            assertThatThrownBy(() -> query.put("x", 1)).isInstanceOf(UnsupportedOperationException.class);
+        }
+
+        @Test
+        void jsonEscapesStrings() {
+            assertThat(json("title=='say \"hi\"'")).isEqualTo(
+                    "{\"bool\":{\"filter\":[{\"term\":{\"title.keyword\":\"say \\\"hi\\\"\"}}]}}");
+        }
+    }
+}
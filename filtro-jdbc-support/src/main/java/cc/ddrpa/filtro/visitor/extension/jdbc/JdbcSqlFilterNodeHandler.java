@@ -0,0 +1,102 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.MySqlFullTextPhrase;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cz.jirutka.rsql.parser.ast.Node;
+
+import java.util.List;
+import java.util.Map;
+
+public class JdbcSqlFilterNodeHandler implements RsqlNodeHandler<SqlFilter> {
+
+    /**
+     * 条件不可满足时的 WHERE 片段，三种数据库的优化器都会直接判定为空结果
+     */
+    public static final String EMPTY_RESULT_CONDITION = "1 = 0";
+
+    private final FiltroRegistry filtroRegistry;
+    private final SqlDialect dialect;
+
+    private boolean namedParameters = false;
+    private boolean padInLists = true;
+    private String textSearchConfig = SqlDialect.DEFAULT_TEXT_SEARCH_CONFIG;
+    private int fullTextMinTokenSize = MySqlFullTextPhrase.DEFAULT_FULLTEXT_MIN_TOKEN_SIZE;
+    private int ngramTokenSize = MySqlFullTextPhrase.DEFAULT_NGRAM_TOKEN_SIZE;
+
+    public JdbcSqlFilterNodeHandler(FiltroRegistry filtroRegistry, SqlDialect dialect) {
+        this.filtroRegistry = filtroRegistry;
+        this.dialect = dialect;
+    }
+
+    /**
+     * 见 {@link JdbcSqlVisitor#setNamedParameters(boolean)}
+     */
+    public JdbcSqlFilterNodeHandler setNamedParameters(boolean namedParameters) {
+        this.namedParameters = namedParameters;
+        return this;
+    }
+
+    /**
+     * 见 {@link JdbcSqlVisitor#setPadInLists(boolean)}
+     */
+    public JdbcSqlFilterNodeHandler setPadInLists(boolean padInLists) {
+        this.padInLists = padInLists;
+        return this;
+    }
+
+    /**
+     * 见 {@link JdbcSqlVisitor#setTextSearchConfig(String)}
+     */
+    public JdbcSqlFilterNodeHandler setTextSearchConfig(String textSearchConfig) {
+        this.textSearchConfig = SqlDialect.requireTextSearchConfig(textSearchConfig);
+        return this;
+    }
+
+    /**
+     * 见 {@link JdbcSqlVisitor#setFullTextMinTokenSize(int)}
+     */
+    public JdbcSqlFilterNodeHandler setFullTextMinTokenSize(int fullTextMinTokenSize) {
+        this.fullTextMinTokenSize = fullTextMinTokenSize;
+        return this;
+    }
+
+    /**
+     * 见 {@link JdbcSqlVisitor#setNgramTokenSize(int)}
+     */
+    public JdbcSqlFilterNodeHandler setNgramTokenSize(int ngramTokenSize) {
+        this.ngramTokenSize = ngramTokenSize;
+        return this;
+    }
+
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
+    @Override
+    public boolean supports(Class<?> targetType) {
+        return SqlFilter.class.equals(targetType);
+    }
+
+    @Override
+    public SqlFilter parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+        return translate(new FiltroPlanner(filtroRegistry.getMaxDepth()).plan(metaMap, queryRoot));
+    }
+
+    @Override
+    public SqlFilter translate(FiltroPlan plan) {
+        if (plan.isEmptyResult()) {
+            return new SqlFilter(EMPTY_RESULT_CONDITION, List.of());
+        }
+        return new JdbcSqlVisitor(plan.getFields(), filtroRegistry.getMaxDepth(), dialect)
+                .setNamedParameters(namedParameters)
+                .setPadInLists(padInLists)
+                .setTextSearchConfig(textSearchConfig)
+                .setFullTextMinTokenSize(fullTextMinTokenSize)
+                .setNgramTokenSize(ngramTokenSize)
+                .apply(plan.getRoot());
+    }
+}
@@ -0,0 +1,283 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.MySqlFullTextPhrase;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroNodeVisitor;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
+import cc.ddrpa.filtro.core.rsql.AbstractRSQLVisitor;
+import cz.jirutka.rsql.parser.ast.*;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * IR → 参数化 SQL WHERE 片段。
+ * <p>
+ * 相同形状的查询（结构、字段、操作符相同，仅参数值不同）总是生成逐字节相同的 SQL，使数据库与驱动的预编译语句缓存可以命中：
+ * 所有值都以占位符绑定，{@code =in=} / {@code =out=} 的参数个数向上补齐到 2 的幂（以最后一个值重复填充，语义不变），
+ * 1~1000 个参数只对应 11 种语句。全文检索字段的 {@code =contains=} 例外：参数无法命中全文索引时退回 {@code LIKE}。
+ * <p>
+ * 括号规则与 MyBatis-Plus 后端一致：AND 子条件平铺，OR 总是加括号。实例非线程安全，可多次 {@link #apply(FiltroNode)}。
+ */
+public class JdbcSqlVisitor extends AbstractRSQLVisitor<SqlFilter>
+        implements RSQLVisitor<SqlFilter, Void>, FiltroNodeVisitor<SqlFilter, Void> {
+
+    /**
+     * LIKE 转义符；不使用反斜杠，MySQL 字符串字面量中的反斜杠本身需要转义，写法与其他数据库不同
+     */
+    static final char LIKE_ESCAPE = '!';
+
+    private final SqlDialect dialect;
+    private final StringBuilder sql = new StringBuilder(128);
+    private final List<Object> params = new ArrayList<>();
+
+    private boolean namedParameters = false;
+    private boolean padInLists = true;
+    private String textSearchConfig = SqlDialect.DEFAULT_TEXT_SEARCH_CONFIG;
+    private final MySqlFullTextPhrase fullTextPhrase = new MySqlFullTextPhrase();
+
+    public JdbcSqlVisitor(Map<String, FiltroFieldMeta> fieldSpecMap, SqlDialect dialect) {
+        super(fieldSpecMap);
+        this.dialect = dialect;
+    }
+
+    public JdbcSqlVisitor(Map<String, FiltroFieldMeta> fieldSpecMap, int maxDepth, SqlDialect dialect) {
+        super(fieldSpecMap, maxDepth);
+        this.dialect = dialect;
+    }
+
+    /**
+     * 使用 {@code :filtro0}、{@code :filtro1} … 形式的命名参数代替 {@code ?}，见 {@link SqlFilter#paramMap()}
+     */
+    public JdbcSqlVisitor setNamedParameters(boolean namedParameters) {
+        this.namedParameters = namedParameters;
+        return this;
+    }
+
+    /**
+     * 是否将 IN 列表补齐到 2 的幂，默认开启
+     */
+    public JdbcSqlVisitor setPadInLists(boolean padInLists) {
+        this.padInLists = padInLists;
+        return this;
+    }
+
+    /**
+     * PostgreSQL 全文检索使用的文本检索配置（regconfig），须与表达式索引一致，默认 {@code simple}
+     */
+    public JdbcSqlVisitor setTextSearchConfig(String textSearchConfig) {
+        this.textSearchConfig = SqlDialect.requireTextSearchConfig(textSearchConfig);
+        return this;
+    }
+
+    /**
+     * MySQL {@code innodb_ft_min_token_size}，见 {@link MySqlFullTextPhrase}
+     */
+    public JdbcSqlVisitor setFullTextMinTokenSize(int fullTextMinTokenSize) {
+        fullTextPhrase.setFullTextMinTokenSize(fullTextMinTokenSize);
+        return this;
+    }
+
+    /**
+     * MySQL {@code ngram_token_size}，见 {@link MySqlFullTextPhrase}
+     */
+    public JdbcSqlVisitor setNgramTokenSize(int ngramTokenSize) {
+        fullTextPhrase.setNgramTokenSize(ngramTokenSize);
+        return this;
+    }
+
+    /**
+     * @return 不小于 size 的最小 2 的幂
+     */
+    static int bucket(int size) {
+        return size <= 1 ? 1 : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    /**
+     * 转义 LIKE 通配符 {@code %}、{@code _} 及转义符本身
+     */
+    static String escapeLike(String input) {
+        StringBuilder builder = null;
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                if (builder == null) {
+                    builder = new StringBuilder(input.length() + 8).append(input, 0, i);
+                }
+                builder.append(LIKE_ESCAPE);
+            }
+            if (builder != null) {
+                builder.append(c);
+            }
+        }
+        return builder == null ? input : builder.toString();
+    }
+
+    public SqlFilter apply(Node rootNode) {
+        return apply(compile(rootNode));
+    }
+
+    public SqlFilter apply(FiltroNode rootNode) {
+        sql.setLength(0);
+        params.clear();
+        write(rootNode);
+        return new SqlFilter(sql.toString(), params);
+    }
+
+    @Override
+    public SqlFilter visit(AndNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public SqlFilter visit(OrNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public SqlFilter visit(ComparisonNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public SqlFilter visit(FiltroAndNode node, Void param) {
+        return apply(node);
+    }
+
+    @Override
+    public SqlFilter visit(FiltroOrNode node, Void param) {
+        return apply(node);
+    }
+
+    @Override
+    public SqlFilter visit(FiltroComparisonNode node, Void param) {
+        return apply(node);
+    }
+
+    private void write(FiltroNode node) {
+        if (node instanceof FiltroComparisonNode comparison) {
+            writeComparison(comparison);
+        } else if (node instanceof FiltroAndNode and) {
+            List<FiltroNode> children = and.children();
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sql.append(" AND ");
+                }
+                write(children.get(i));
+            }
+        } else if (node instanceof FiltroOrNode or) {
+            // 子节点只会是比较条件或 AND，AND 优先级高于 OR，无需再加括号
+            List<FiltroNode> children = or.children();
+            sql.append('(');
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) {
+                    sql.append(" OR ");
+                }
+                write(children.get(i));
+            }
+            sql.append(')');
+        } else {
+            throw new IllegalArgumentException("Unknown FiltroNode: " + node.getClass().getName());
+        }
+    }
+
+    private void writeComparison(FiltroComparisonNode node) {
+        FiltroOperator operator = node.operator();
+        String column = node.key();
+        switch (operator) {
+            case EQ -> condition(column, " = ", bindValue(node, 0));
+            case NEQ -> condition(column, " <> ", bindValue(node, 0));
+            case NULLABLE_NEQ -> {
+                sql.append('(').append(column).append(" IS NULL OR ");
+                condition(column, " <> ", bindValue(node, 0));
+                sql.append(')');
+            }
+            case GT, ALT_GT -> condition(column, " > ", bindValue(node, 0));
+            case GTE, ALT_GTE -> condition(column, " >= ", bindValue(node, 0));
+            case LT, ALT_LT -> condition(column, " < ", bindValue(node, 0));
+            case LTE, ALT_LTE -> condition(column, " <= ", bindValue(node, 0));
+            case IN -> list(node, column, " IN (");
+            case NOT_IN -> list(node, column, " NOT IN (");
+            case CONTAINS -> contains(node, column);
+            case NOT_CONTAINS -> like(column, " NOT LIKE ", '%' + escapeLike(node.firstArgument()) + '%');
+            case STARTS_WITH -> like(column, " LIKE ", escapeLike(node.firstArgument()) + '%');
+            case IS_NULL -> sql.append(column).append(" IS NULL");
+            case NOT_NULL -> sql.append(column).append(" IS NOT NULL");
+            default -> throw new IllegalArgumentException("FiltroOperator " + operator.getSymbol()
+                    + " is not supported in " + this.getClass().getSimpleName());
+        }
+    }
+
+    private void contains(FiltroComparisonNode node, String column) {
+        FiltroFieldMeta meta = node.meta();
+        Object argument = meta.getQueryIntent() == QueryIntent.SEARCH && dialect.supportsMatch(meta.getSearchMode())
+                ? dialect.matchArgument(meta, node.firstArgument(), fullTextPhrase)
+                : null;
+        if (argument == null) {
+            like(column, " LIKE ", '%' + escapeLike(node.firstArgument()) + '%');
+            return;
+        }
+        sql.append(dialect.match(column, nextPlaceholder(), textSearchConfig));
+        params.add(argument);
+    }
+
+    private void condition(String column, String operator, Object value) {
+        sql.append(column).append(operator);
+        placeholder(value);
+    }
+
+    private void like(String column, String operator, String pattern) {
+        sql.append(column).append(operator);
+        placeholder(pattern);
+        sql.append(" ESCAPE '").append(LIKE_ESCAPE).append('\'');
+    }
+
+    private void list(FiltroComparisonNode node, String column, String operator) {
+        int size = node.values().size();
+        int padded = padInLists ? bucket(size) : size;
+        sql.append(column).append(operator);
+        for (int i = 0; i < padded; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            placeholder(bindValue(node, Math.min(i, size - 1)));
+        }
+        sql.append(')');
+    }
+
+    private void placeholder(Object value) {
+        sql.append(nextPlaceholder());
+        params.add(value);
+    }
+
+    private String nextPlaceholder() {
+        return namedParameters ? ":" + SqlFilter.PARAMETER_PREFIX + params.size() : "?";
+    }
+
+    /**
+     * 数值、布尔、日期时间使用 IR 中的类型化值，由 JDBC 4.2 驱动按列类型绑定；枚举取常量名；
+     * {@link Instant} 不在 JDBC 规范支持的类型之内，转为 UTC 的 {@link java.time.OffsetDateTime}。其余按原始字符串绑定。
+     */
+    private static Object bindValue(FiltroComparisonNode node, int index) {
+        Object value = node.values().get(index);
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        if (value instanceof Instant instant) {
+            return instant.atOffset(ZoneOffset.UTC);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Temporal) {
+            return value;
+        }
+        return node.arguments().get(index);
+    }
+}
@@ -0,0 +1,122 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.MySqlFullTextPhrase;
+import cc.ddrpa.filtro.core.field.SearchMode;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 各数据库在 Filtro 生成的 SQL 中的差异点，目前只有 {@code SEARCH} 字段的全文检索写法：
+ * <ul>
+ *   <li>MySQL：{@link SearchMode#FULLTEXT} / {@link SearchMode#NGRAM} 生成 {@code MATCH(col) AGAINST(? IN BOOLEAN MODE)}，
+ *       参数为空或含短于分词长度的词时退回 {@code LIKE}，判定与 MyBatis-Plus 后端共用 {@link MySqlFullTextPhrase}</li>
+ *   <li>PostgreSQL：{@link SearchMode#FULLTEXT} 生成 {@code to_tsvector('simple', col) @@ phraseto_tsquery('simple', ?)}，
+ *       与表达式索引 {@code USING GIN (to_tsvector('simple', col))} 一致；NGRAM 保持 {@code LIKE}（由 pg_trgm 索引支持）</li>
+ *   <li>H2：无全文检索语法，一律 {@code LIKE}</li>
+ * </ul>
+ * 其余条件只使用三者共有的标准 SQL。
+ */
+public enum SqlDialect {
+
+    MYSQL {
+        @Override
+        boolean supportsMatch(SearchMode mode) {
+            return mode == SearchMode.FULLTEXT || mode == SearchMode.NGRAM;
+        }
+
+        @Override
+        String match(String column, String placeholder, String textSearchConfig) {
+            return "MATCH(" + column + ") AGAINST(" + placeholder + " IN BOOLEAN MODE)";
+        }
+
+        @Override
+        Object matchArgument(FiltroFieldMeta meta, String value, MySqlFullTextPhrase fullTextPhrase) {
+            return fullTextPhrase.toPhrase(meta, value);
+        }
+    },
+
+    POSTGRESQL {
+        @Override
+        boolean supportsMatch(SearchMode mode) {
+            return mode == SearchMode.FULLTEXT;
+        }
+
+        /**
+         * 显式指定 regconfig：单参数的 {@code to_tsvector} 依赖会话配置，不能用于表达式索引
+         */
+        @Override
+        String match(String column, String placeholder, String textSearchConfig) {
+            String config = "'" + textSearchConfig + "'";
+            return "to_tsvector(" + config + ", " + column + ") @@ phraseto_tsquery(" + config + ", " + placeholder + ")";
+        }
+    },
+
+    H2;
+
+    /**
+     * PostgreSQL 默认文本检索配置，不做词干化与停用词处理
+     */
+    public static final String DEFAULT_TEXT_SEARCH_CONFIG = "simple";
+
+    private static final Pattern TEXT_SEARCH_CONFIG = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    /**
+     * 按 {@link java.sql.DatabaseMetaData#getDatabaseProductName()} 识别，其他数据库按 H2（标准 SQL）处理。
+     */
+    public static SqlDialect fromProductName(String productName) {
+        return recognize(productName).orElse(H2);
+    }
+
+    /**
+     * @return 产品名无法识别时为空
+     */
+    public static Optional<SqlDialect> recognize(String productName) {
+        String name = productName == null ? "" : productName.toLowerCase(Locale.ROOT);
+        if (name.contains("mysql") || name.contains("mariadb")) {
+            return Optional.of(MYSQL);
+        }
+        if (name.contains("postgres")) {
+            return Optional.of(POSTGRESQL);
+        }
+        if (name.contains("h2")) {
+            return Optional.of(H2);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * 文本检索配置以字面量写入 SQL，只接受（可带 schema 的）标识符
+     */
+    static String requireTextSearchConfig(String textSearchConfig) {
+        if (textSearchConfig == null || !TEXT_SEARCH_CONFIG.matcher(textSearchConfig).matches()) {
+            throw new IllegalArgumentException("Invalid text search config: " + textSearchConfig);
+        }
+        return textSearchConfig;
+    }
+
+    /**
+     * 该搜索模式的 {@code =contains=} 是否生成全文检索条件，否则使用 {@code LIKE}
+     */
+    boolean supportsMatch(SearchMode mode) {
+        return false;
+    }
+
+    /**
+     * @param placeholder      参数占位符，{@code ?} 或 {@code :name}
+     * @param textSearchConfig PostgreSQL 文本检索配置（regconfig）
+     * @return 全文检索条件；仅在 {@link #supportsMatch} 返回 true 时调用
+     */
+    String match(String column, String placeholder, String textSearchConfig) {
+        throw new UnsupportedOperationException(name() + " has no full-text predicate");
+    }
+
+    /**
+     * @return 全文检索的绑定参数；为 null 时全文检索无法命中，退回 {@code LIKE}
+     */
+    Object matchArgument(FiltroFieldMeta meta, String value, MySqlFullTextPhrase fullTextPhrase) {
+        return value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,50 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 参数化的 SQL WHERE 片段与其绑定参数，不可变。
+ * <p>
+ * 占位符为 {@code ?} 时交给 {@code jdbcTemplate.query(sql + filter.whereFragment(), rowMapper, filter.paramArray())}；
+ * 为命名参数时交给 {@code namedJdbcTemplate.query(sql, filter.paramMap(), rowMapper)}。
+ * 片段不含 {@code WHERE} 关键字，根节点为 OR 时自带括号，可直接以 {@code AND} 拼接到已有条件之后。
+ *
+ * @param whereFragment WHERE 条件片段
+ * @param params        按占位符顺序排列的参数
+ */
+public record SqlFilter(String whereFragment, List<Object> params) {
+
+    /**
+     * 命名参数的名称前缀，第 i 个参数名为 {@code filtro<i>}
+     */
+    public static final String PARAMETER_PREFIX = "filtro";
+
+    public SqlFilter {
+        whereFragment = Objects.requireNonNullElse(whereFragment, "");
+        params = params == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(params));
+    }
+
+    public boolean isEmpty() {
+        return whereFragment.isBlank();
+    }
+
+    public Object[] paramArray() {
+        return params.toArray();
+    }
+
+    /**
+     * 以 {@link #PARAMETER_PREFIX} 加下标为键，供 {@code NamedParameterJdbcTemplate} 使用
+     */
+    public Map<String, Object> paramMap() {
+        Map<String, Object> map = new LinkedHashMap<>(params.size() * 2);
+        for (int i = 0; i < params.size(); i++) {
+            map.put(PARAMETER_PREFIX + i, params.get(i));
+        }
+        return map;
+    }
+}
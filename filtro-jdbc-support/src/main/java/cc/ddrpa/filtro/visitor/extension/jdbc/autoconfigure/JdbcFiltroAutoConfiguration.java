@@ -0,0 +1,71 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc.autoconfigure;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cc.ddrpa.filtro.visitor.extension.jdbc.JdbcSqlFilterNodeHandler;
+import cc.ddrpa.filtro.visitor.extension.jdbc.SqlDialect;
+import cc.ddrpa.filtro.visitor.extension.jdbc.SqlFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Optional;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass({SqlFilter.class, JdbcUtils.class})
+@EnableConfigurationProperties(JdbcFiltroProperties.class)
+public class JdbcFiltroAutoConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcFiltroAutoConfiguration.class);
+
+    /**
+     * 方言优先取 {@code filtro.jdbc.dialect}，未配置时由 {@link DataSource} 的元数据识别
+     */
+    @Bean
+    @ConditionalOnMissingBean(value = SqlFilter.class, parameterizedContainer = RsqlNodeHandler.class)
+    public RsqlNodeHandler<SqlFilter> jdbcSqlFilterNodeHandler(FiltroRegistry filtroRegistry,
+                                                               JdbcFiltroProperties properties,
+                                                               ObjectProvider<DataSource> dataSource) {
+        SqlDialect dialect = properties.getDialect() != null
+                ? properties.getDialect()
+                : detect(dataSource.getIfAvailable());
+        return new JdbcSqlFilterNodeHandler(filtroRegistry, dialect)
+                .setTextSearchConfig(properties.getTextSearchConfig())
+                .setFullTextMinTokenSize(properties.getFullTextMinTokenSize())
+                .setNgramTokenSize(properties.getNgramTokenSize());
+    }
+
+    /**
+     * 无法识别时按 H2（标准 SQL）处理：全文检索字段退化为 {@code LIKE}，因此输出警告
+     */
+    static SqlDialect detect(DataSource dataSource) {
+        if (dataSource == null) {
+            logger.warn("No DataSource available, Filtro SQL falls back to the H2 dialect; "
+                    + "set filtro.jdbc.dialect to choose one explicitly");
+            return SqlDialect.H2;
+        }
+        String productName;
+        try {
+            productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        } catch (MetaDataAccessException e) {
+            logger.warn("Failed to read database metadata, Filtro SQL falls back to the H2 dialect; "
+                    + "set filtro.jdbc.dialect to choose one explicitly", e);
+            return SqlDialect.H2;
+        }
+        Optional<SqlDialect> dialect = SqlDialect.recognize(productName);
+        if (dialect.isEmpty()) {
+            logger.warn("Unrecognized database product '{}', Filtro SQL falls back to the H2 dialect; "
+                    + "set filtro.jdbc.dialect to choose one explicitly", productName);
+        }
+        return dialect.orElse(SqlDialect.H2);
+    }
+}
@@ -0,0 +1,64 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc.autoconfigure;
+
+import cc.ddrpa.filtro.core.field.MySqlFullTextPhrase;
+import cc.ddrpa.filtro.visitor.extension.jdbc.SqlDialect;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "filtro.jdbc")
+public class JdbcFiltroProperties {
+    /**
+     * SQL 方言；未配置时按 {@code DataSource} 元数据识别，识别失败按 H2（标准 SQL）处理并输出警告。
+     */
+    private SqlDialect dialect;
+
+    /**
+     * PostgreSQL 全文检索使用的文本检索配置（regconfig），默认 {@code simple}。
+     */
+    private String textSearchConfig = SqlDialect.DEFAULT_TEXT_SEARCH_CONFIG;
+
+    /**
+     * MySQL {@code innodb_ft_min_token_size}，默认 3。
+     */
+    private int fullTextMinTokenSize = MySqlFullTextPhrase.DEFAULT_FULLTEXT_MIN_TOKEN_SIZE;
+
+    /**
+     * MySQL {@code ngram_token_size}，默认 2。
+     */
+    private int ngramTokenSize = MySqlFullTextPhrase.DEFAULT_NGRAM_TOKEN_SIZE;
+
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
+    public JdbcFiltroProperties setDialect(SqlDialect dialect) {
+        this.dialect = dialect;
+        return this;
+    }
+
+    public String getTextSearchConfig() {
+        return textSearchConfig;
+    }
+
+    public JdbcFiltroProperties setTextSearchConfig(String textSearchConfig) {
+        this.textSearchConfig = textSearchConfig;
+        return this;
+    }
+
+    public int getFullTextMinTokenSize() {
+        return fullTextMinTokenSize;
+    }
+
+    public JdbcFiltroProperties setFullTextMinTokenSize(int fullTextMinTokenSize) {
+        this.fullTextMinTokenSize = fullTextMinTokenSize;
+        return this;
+    }
+
+    public int getNgramTokenSize() {
+        return ngramTokenSize;
+    }
+
+    public JdbcFiltroProperties setNgramTokenSize(int ngramTokenSize) {
+        this.ngramTokenSize = ngramTokenSize;
+        return this;
+    }
+}
@@ -0,0 +1,322 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdbcSqlVisitorTest {
+
+    private Map<String, FiltroFieldMeta> fieldMap;
+    private RSQLParser parser;
+
+    private static FiltroFieldMeta meta(String field, String key, QueryIntent intent,
+                                        Class<?> javaType, Set<FiltroOperator> ops) {
+        FiltroFieldMeta m = new FiltroFieldMeta();
+        m.setField(field);
+        m.setKey(key);
+        m.setQueryIntent(intent);
+        m.setJavaType(javaType);
+        m.setSupportedOperations(ops);
+        return m;
+    }
+
+    @BeforeEach
+    void setUp() {
+        FiltroFieldMeta status = meta("status", "status", QueryIntent.EXACT, Status.class,
+                Set.of(FiltroOperator.EQ, FiltroOperator.IN, FiltroOperator.NOT_IN));
+        status.setEnumerationClass(Status.class);
+        FiltroFieldMeta summary = meta("summary", "summary", QueryIntent.SEARCH, String.class,
+                Set.of(FiltroOperator.CONTAINS));
+        summary.setSearchMode(SearchMode.FULLTEXT);
+
+        fieldMap = new HashMap<>();
+        fieldMap.put("title", meta("title", "title", QueryIntent.SEARCH, String.class,
+                Set.of(FiltroOperator.EQ, FiltroOperator.NEQ, FiltroOperator.NULLABLE_NEQ,
+                        FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS, FiltroOperator.STARTS_WITH,
+                        FiltroOperator.IS_NULL, FiltroOperator.NOT_NULL)));
+        fieldMap.put("price", meta("price", "price", QueryIntent.RANGE, Integer.class,
+                Set.of(FiltroOperator.EQ, FiltroOperator.GT, FiltroOperator.ALT_GT,
+                        FiltroOperator.GTE, FiltroOperator.ALT_GTE,
+                        FiltroOperator.LT, FiltroOperator.ALT_LT,
+                        FiltroOperator.LTE, FiltroOperator.ALT_LTE, FiltroOperator.IN, FiltroOperator.NOT_IN)));
+        fieldMap.put("active", meta("active", "active", QueryIntent.EXACT, Boolean.class,
+                Set.of(FiltroOperator.EQ)));
+        fieldMap.put("publishedAt", meta("publishedAt", "published_at", QueryIntent.RANGE,
+                LocalDateTime.class,
+                Set.of(FiltroOperator.GT, FiltroOperator.ALT_GT, FiltroOperator.LT, FiltroOperator.ALT_LT)));
+        fieldMap.put("status", status);
+        fieldMap.put("summary", summary);
+
+        Set<ComparisonOperator> operators = new HashSet<>(RSQLOperators.defaultOperators());
+        Pattern symbolPattern = Pattern.compile("=[a-zA-Z]*=|[><]=?|!=");
+        Arrays.stream(FiltroOperator.values())
+                .filter(op -> !op.isRsqlOriginal())
+                .filter(op -> symbolPattern.matcher(op.getSymbol()).matches())
+                .map(op -> new ComparisonOperator(op.getSymbol(), op.isMultiValue()))
+                .forEach(operators::add);
+        parser = new RSQLParser(operators);
+    }
+
+    private SqlFilter translate(String rsql) {
+        return translate(rsql, SqlDialect.H2);
+    }
+
+    private SqlFilter translate(String rsql, SqlDialect dialect) {
+        return new JdbcSqlFilterNodeHandler(new FiltroRegistry(), dialect).parse(fieldMap, parser.parse(rsql));
+    }
+
+    enum Status {ACTIVE, INACTIVE}
+
+    @Nested
+    @DisplayName("SQL 片段")
+    class Fragments {
+        @Test
+        void comparisonsAreBound() {
+            SqlFilter filter = translate("title==java;price>=10;active==true");
+            assertThat(filter.whereFragment()).isEqualTo("title = ? AND price >= ? AND active = ?");
+            assertThat(filter.params()).containsExactly("java", 10L, true);
+        }
+
+        @Test
+        void orIsParenthesized() {
+            assertThat(translate("title==a,price<3;title==b").whereFragment())
+                    .isEqualTo("(title = ? OR price < ? AND title = ?)");
+            assertThat(translate("price>1;(title==a,title==b)").whereFragment())
+                    .isEqualTo("price > ? AND (title = ? OR title = ?)");
+        }
+
+        @Test
+        void nullableNeq() {
+            assertThat(translate("title=nullableneq=x").whereFragment()).isEqualTo("(title IS NULL OR title <> ?)");
+        }
+
+        @Test
+        void likeIsEscaped() {
+            SqlFilter filter = translate("title=contains='50%_off!'");
+            assertThat(filter.whereFragment()).isEqualTo("title LIKE ? ESCAPE '!'");
+            assertThat(filter.params()).containsExactly("%50!%!_off!!%");
+            assertThat(translate("title=startswith=ab").params()).containsExactly("ab%");
+        }
+
+        @Test
+        void enumBindsName() {
+            assertThat(translate("status==ACTIVE").params()).containsExactly("ACTIVE");
+        }
+
+        @Test
+        void namedParameters() {
+            SqlFilter filter = new JdbcSqlVisitor(fieldMap, SqlDialect.H2).setNamedParameters(true)
+                    .apply(parser.parse("title==a;price=in=(1,2,3)"));
+            assertThat(filter.whereFragment())
+                    .isEqualTo("title = :filtro0 AND price IN (:filtro1, :filtro2, :filtro3, :filtro4)");
+            assertThat(filter.paramMap()).containsEntry("filtro0", "a").containsEntry("filtro4", 3L);
+        }
+
+        @Test
+        void emptyResult() {
+            SqlFilter filter = translate("price>10;price<5");
+            assertThat(filter.whereFragment()).isEqualTo(JdbcSqlFilterNodeHandler.EMPTY_RESULT_CONDITION);
+            assertThat(filter.params()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("语句形状稳定")
+    class StableShapes {
+        @Test
+        void bucketIsNextPowerOfTwo() {
+            assertThat(JdbcSqlVisitor.bucket(1)).isEqualTo(1);
+            assertThat(JdbcSqlVisitor.bucket(2)).isEqualTo(2);
+            assertThat(JdbcSqlVisitor.bucket(3)).isEqualTo(4);
+            assertThat(JdbcSqlVisitor.bucket(5)).isEqualTo(8);
+            assertThat(JdbcSqlVisitor.bucket(1000)).isEqualTo(1024);
+        }
+
+        @Test
+        void inListIsPaddedWithLastValue() {
+            SqlFilter filter = translate("price=in=(1,2,3,4,5)");
+            assertThat(filter.whereFragment()).isEqualTo("price IN (?, ?, ?, ?, ?, ?, ?, ?)");
+            assertThat(filter.params()).containsExactly(1L, 2L, 3L, 4L, 5L, 5L, 5L, 5L);
+        }
+
+        @Test
+        void sameShapeSameSql() {
+            assertThat(translate("price=in=(1,2,3);title=contains=x").whereFragment())
+                    .isEqualTo(translate("price=in=(7,8,9,10);title=contains='hello world'").whereFragment());
+        }
+
+        @Test
+        void paddingCanBeDisabled() {
+            SqlFilter filter = new JdbcSqlFilterNodeHandler(new FiltroRegistry(), SqlDialect.H2)
+                    .setPadInLists(false)
+                    .parse(fieldMap, parser.parse("price=out=(1,2,3)"));
+            assertThat(filter.whereFragment()).isEqualTo("price NOT IN (?, ?, ?)");
+        }
+    }
+
+    @Nested
+    @DisplayName("方言")
+    class Dialects {
+        @Test
+        void mysqlFullText() {
+            SqlFilter filter = translate("summary=contains='spring \"boot'", SqlDialect.MYSQL);
+            assertThat(filter.whereFragment()).isEqualTo("MATCH(summary) AGAINST(? IN BOOLEAN MODE)");
+            assertThat(filter.params()).containsExactly("\"spring  boot\"");
+        }
+
+        @Test
+        void mysqlPatternFieldKeepsLike() {
+            assertThat(translate("title=contains=spring", SqlDialect.MYSQL).whereFragment())
+                    .isEqualTo("title LIKE ? ESCAPE '!'");
+        }
+
+        @Test
+        void mysqlShortTermFallsBackToLike() {
+            SqlFilter filter = translate("summary=contains='to be'", SqlDialect.MYSQL);
+            assertThat(filter.whereFragment()).isEqualTo("summary LIKE ? ESCAPE '!'");
+            assertThat(filter.params()).containsExactly("%to be%");
+            fieldMap.get("summary").setSearchMode(SearchMode.NGRAM);
+            assertThat(translate("summary=contains=资", SqlDialect.MYSQL).whereFragment())
+                    .isEqualTo("summary LIKE ? ESCAPE '!'");
+            assertThat(new JdbcSqlFilterNodeHandler(new FiltroRegistry(), SqlDialect.MYSQL).setNgramTokenSize(1)
+                    .parse(fieldMap, parser.parse("summary=contains=资")).whereFragment())
+                    .isEqualTo("MATCH(summary) AGAINST(? IN BOOLEAN MODE)");
+        }
+
+        @Test
+        void blankPhraseFallsBackToLike() {
+            assertThat(translate("summary=contains='\"\"'", SqlDialect.MYSQL).whereFragment())
+                    .isEqualTo("summary LIKE ? ESCAPE '!'");
+            assertThat(translate("summary=contains=' '", SqlDialect.POSTGRESQL).whereFragment())
+                    .isEqualTo("summary LIKE ? ESCAPE '!'");
+        }
+
+        @Test
+        void postgresFullText() {
+            SqlFilter filter = translate("summary=contains='spring boot'", SqlDialect.POSTGRESQL);
+            assertThat(filter.whereFragment())
+                    .isEqualTo("to_tsvector('simple', summary) @@ phraseto_tsquery('simple', ?)");
+            assertThat(filter.params()).containsExactly("spring boot");
+        }
+
+        @Test
+        void postgresTextSearchConfigIsConfigurable() {
+            JdbcSqlFilterNodeHandler handler = new JdbcSqlFilterNodeHandler(new FiltroRegistry(), SqlDialect.POSTGRESQL)
+                    .setTextSearchConfig("pg_catalog.english");
+            assertThat(handler.parse(fieldMap, parser.parse("summary=contains=spring")).whereFragment())
+                    .isEqualTo("to_tsvector('pg_catalog.english', summary) @@ phraseto_tsquery('pg_catalog.english', ?)");
+            assertThatThrownBy(() -> handler.setTextSearchConfig("english'); --"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+
+        @Test
+        void h2UsesLike() {
+            assertThat(translate("summary=contains=spring", SqlDialect.H2).whereFragment())
+                    .isEqualTo("summary LIKE ? ESCAPE '!'");
+        }
+
+        @Test
+        void fromProductName() {
+            assertThat(SqlDialect.fromProductName("MySQL")).isEqualTo(SqlDialect.MYSQL);
+            assertThat(SqlDialect.fromProductName("MariaDB")).isEqualTo(SqlDialect.MYSQL);
+            assertThat(SqlDialect.fromProductName("PostgreSQL")).isEqualTo(SqlDialect.POSTGRESQL);
+            assertThat(SqlDialect.fromProductName("H2")).isEqualTo(SqlDialect.H2);
+            assertThat(SqlDialect.fromProductName(null)).isEqualTo(SqlDialect.H2);
+            assertThat(SqlDialect.recognize("H2")).contains(SqlDialect.H2);
+            assertThat(SqlDialect.recognize("Oracle")).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("H2 执行")
+    @TestInstance(TestInstance.Lifecycle.PER_CLASS)
+    class H2 {
+        private final DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:filtro;DB_CLOSE_DELAY=-1", "sa", "");
+        private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        @BeforeAll
+        void createTable() {
+            jdbcTemplate.execute("CREATE TABLE book (id INT PRIMARY KEY, title VARCHAR(64), price INT, "
+                    + "active BOOLEAN, status VARCHAR(16), published_at TIMESTAMP, summary VARCHAR(255))");
+            jdbcTemplate.update("INSERT INTO book VALUES (1, 'java', 30, TRUE, 'ACTIVE', '2024-01-10 08:00:00', 'spring')");
+            jdbcTemplate.update("INSERT INTO book VALUES (2, 'python', 50, FALSE, 'INACTIVE', '2024-03-01 08:00:00', NULL)");
+            jdbcTemplate.update("INSERT INTO book VALUES (3, '50%_off', 10, TRUE, 'ACTIVE', '2024-05-01 08:00:00', NULL)");
+            jdbcTemplate.update("INSERT INTO book VALUES (4, NULL, 70, TRUE, 'INACTIVE', NULL, NULL)");
+        }
+
+        @AfterAll
+        void dropTable() {
+            jdbcTemplate.execute("DROP TABLE book");
+        }
+
+        private List<Integer> ids(String rsql) {
+            SqlFilter filter = translate(rsql);
+            return jdbcTemplate.queryForList("SELECT id FROM book WHERE " + filter.whereFragment() + " ORDER BY id",
+                    Integer.class, filter.paramArray());
+        }
+
+        @Test
+        void typedComparisons() {
+            assertThat(ids("price>=30;active==true")).containsExactly(1, 4);
+            assertThat(ids("publishedAt>2024-02-01T00:00:00")).containsExactly(2, 3);
+            assertThat(ids("status==INACTIVE")).containsExactly(2, 4);
+        }
+
+        @Test
+        void paddedInList() {
+            assertThat(ids("price=in=(10,30,50)")).containsExactly(1, 2, 3);
+            assertThat(ids("price=out=(10,30,50)")).containsExactly(4);
+        }
+
+        @Test
+        void likeWildcardsAreLiteral() {
+            assertThat(ids("title=contains='%_'")).containsExactly(3);
+            assertThat(ids("title=startswith=py")).containsExactly(2);
+        }
+
+        @Test
+        void orAndNullable() {
+            assertThat(ids("title==java,price>60")).containsExactly(1, 4);
+            assertThat(ids("title=nullableneq=java")).containsExactly(2, 3, 4);
+        }
+
+        @Test
+        void emptyResultMatchesNothing() {
+            assertThat(ids("price>60;price<20")).isEmpty();
+        }
+
+        @Test
+        void namedParameterTemplate() {
+            SqlFilter filter = new JdbcSqlFilterNodeHandler(new FiltroRegistry(), SqlDialect.H2)
+                    .setNamedParameters(true)
+                    .parse(fieldMap, parser.parse("price=in=(30,50,70);active==true"));
+            List<Integer> ids = new NamedParameterJdbcTemplate(dataSource).queryForList(
+                    "SELECT id FROM book WHERE " + filter.whereFragment() + " ORDER BY id",
+                    filter.paramMap(), Integer.class);
+            assertThat(ids).containsExactly(1, 4);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package cc.ddrpa.filtro.visitor.extension.jdbc.autoconfigure;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.visitor.extension.jdbc.JdbcSqlFilterNodeHandler;
+import cc.ddrpa.filtro.visitor.extension.jdbc.SqlDialect;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JdbcFiltroAutoConfigurationTest {
+
+    private static final DataSource UNREACHABLE = (DataSource) Proxy.newProxyInstance(
+            DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                throw new SQLException("connection refused");
+            });
+
+    @Test
+    void detectsDialectFromMetadata() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:dialect");
+        assertThat(JdbcFiltroAutoConfiguration.detect(dataSource)).isEqualTo(SqlDialect.H2);
+    }
+
+    @Test
+    void fallsBackToH2WhenDetectionFails() {
+        assertThat(JdbcFiltroAutoConfiguration.detect(null)).isEqualTo(SqlDialect.H2);
+        assertThat(JdbcFiltroAutoConfiguration.detect(UNREACHABLE)).isEqualTo(SqlDialect.H2);
+    }
+
+    @Test
+    void configuredDialectSkipsDetection() {
+        JdbcFiltroProperties properties = new JdbcFiltroProperties().setDialect(SqlDialect.MYSQL);
+        JdbcSqlFilterNodeHandler handler = (JdbcSqlFilterNodeHandler) new JdbcFiltroAutoConfiguration()
+                .jdbcSqlFilterNodeHandler(new FiltroRegistry(), properties, dataSource(UNREACHABLE));
+        assertThat(handler.getDialect()).isEqualTo(SqlDialect.MYSQL);
+    }
+
+    private static ObjectProvider<DataSource> dataSource(DataSource dataSource) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("dataSource", dataSource);
+        return beanFactory.getBeanProvider(DataSource.class);
+    }
+}
@@ -2,10 +2,13 @@ package cc.ddrpa.filtro.visitor.extension.jpa.mongo;
 
 import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
 import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
 import cz.jirutka.rsql.parser.ast.Node;
 import org.springframework.data.mongodb.core.query.Criteria;
 
+import java.util.Collections;
 import java.util.Map;
 
 public class MongoCriteriaNodeHandler implements RsqlNodeHandler<Criteria> {
@@ -23,9 +26,18 @@ public class MongoCriteriaNodeHandler implements RsqlNodeHandler<Criteria> {
 
     @Override
     public Criteria parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+        return translate(new FiltroPlanner(filtroRegistry.getMaxDepth()).plan(metaMap, queryRoot));
+    }
+
+    @Override
+    public Criteria translate(FiltroPlan plan) {
+        if (plan.isEmptyResult()) {
+            // _id 上的空 $in 走索引且边界为空，不扫描任何文档
+            return Criteria.where("_id").in(Collections.emptyList());
+        }
         Criteria criteria = new Criteria();
-        new MongoCriteriaVisitor(metaMap, filtroRegistry.getMaxDepth())
-                .apply(queryRoot, criteria);
+        new MongoCriteriaVisitor(plan.getFields(), filtroRegistry.getMaxDepth())
+                .apply(plan.getRoot(), criteria);
         return criteria;
     }
 }
\ No newline at end of file
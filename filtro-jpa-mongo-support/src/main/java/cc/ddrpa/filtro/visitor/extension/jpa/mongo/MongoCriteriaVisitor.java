@@ -1,22 +1,53 @@
 package cc.ddrpa.filtro.visitor.extension.jpa.mongo;
 
-import cc.ddrpa.filtro.core.exception.PredicateBuildException;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroNodeVisitor;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
 import cc.ddrpa.filtro.core.rsql.AbstractRSQLVisitor;
 import cz.jirutka.rsql.parser.ast.*;
 import org.bson.types.Decimal128;
 import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 
+import java.math.BigDecimal;
 import java.time.*;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.regex.Pattern;
 
+/**
+ * IR → Spring Data MongoDB {@link Criteria}。
+ * <p>
+ * {@code SEARCH} 字段按 {@link FiltroFieldMeta#getSearchMode()} 生成模糊匹配：
+ * <ul>
+ *   <li>{@link SearchMode#PATTERN}：非锚定正则，需要全集合或全索引扫描</li>
+ *   <li>{@link SearchMode#FULLTEXT}：{@code =contains=} 生成 {@code $text} 短语检索，需要文本索引，单个查询至多一个，
+ *       且不能位于 {@code $or} / {@code $nor} 之下</li>
+ *   <li>{@link SearchMode#COLLATION}：{@code =startswith=} 生成 {@code [x, x + U+FFFF)} 前缀范围，
+ *       执行时须在 {@code Query} 上声明与索引一致的大小写不敏感 collation，如
+ *       {@code query.collation(Collation.of("en").strength(Collation.ComparisonLevel.secondary()))}；
+ *       collation 对正则不生效，{@code =contains=} 为忽略大小写的非锚定正则</li>
+ * </ul>
+ */
 public class MongoCriteriaVisitor extends AbstractRSQLVisitor<Criteria>
-        implements RSQLVisitor<Criteria, Criteria> {
+        implements RSQLVisitor<Criteria, Criteria>, FiltroNodeVisitor<Criteria, Criteria> {
+
+    /**
+     * COLLATION 模式下前缀范围的上界后缀；ICU 排序规则中 U+FFFF 的主权重最大，排在任何以该前缀开头的字符串之后
+     */
+    static final String PREFIX_UPPER_BOUND = "\uFFFF";
+
+    // MongoDB 限制单个查询至多一个 $text 表达式
+    private int textClauses;
+    // 当前所在的 $or 层数，$text 不能出现在其中
+    private int orDepth;
 
     public MongoCriteriaVisitor(Map<String, FiltroFieldMeta> fieldSpecMap) {
         super(fieldSpecMap);
@@ -26,130 +57,172 @@ public class MongoCriteriaVisitor extends AbstractRSQLVisitor<Criteria>
         super(fieldSpecMap, maxDepth);
     }
 
-    private static Function<String, Object> wrap(Function<String, Object> fn,
-                                                 FiltroFieldMeta meta, String stage) {
-        return raw -> {
-            try {
-                return fn.apply(raw);
-            } catch (Exception e) {
-                throw new PredicateBuildException(meta.getField(), raw, stage, e);
-            }
-        };
+    public void apply(Node rootNode, Criteria criteria) {
+        apply(compile(rootNode), criteria);
     }
 
-    public void apply(Node rootNode, Criteria criteria) {
-        validateDepth(rootNode);
+    public void apply(FiltroNode rootNode, Criteria criteria) {
+        textClauses = 0;
+        orDepth = 0;
         criteria.andOperator(rootNode.accept(this, criteria));
     }
 
     @Override
     public Criteria visit(AndNode node, Criteria param) {
-        Criteria[] children = node.getChildren().stream()
+        return compile(node).accept(this, param);
+    }
+
+    @Override
+    public Criteria visit(OrNode node, Criteria param) {
+        return compile(node).accept(this, param);
+    }
+
+    @Override
+    public Criteria visit(ComparisonNode node, Criteria param) {
+        return visit(compile(node), param);
+    }
+
+    @Override
+    public Criteria visit(FiltroAndNode node, Criteria param) {
+        Criteria[] children = node.children().stream()
                 .map(n -> n.accept(this, null))
                 .toArray(Criteria[]::new);
         return new Criteria().andOperator(children);
     }
 
     @Override
-    public Criteria visit(OrNode node, Criteria param) {
-        Criteria[] children = node.getChildren().stream()
+    public Criteria visit(FiltroOrNode node, Criteria param) {
+        orDepth++;
+        Criteria[] children = node.children().stream()
                 .map(n -> n.accept(this, null))
                 .toArray(Criteria[]::new);
+        orDepth--;
         return new Criteria().orOperator(children);
     }
 
     @Override
-    public Criteria visit(ComparisonNode node, Criteria param) {
-        ResolvedComparison resolved = resolve(node);
-        FiltroOperator claimedFiltroOperator = resolved.operator();
-        FiltroFieldMeta filtroFieldMeta = resolved.meta();
-        List<String> arguments = resolved.arguments();
+    public Criteria visit(FiltroComparisonNode node, Criteria param) {
+        FiltroOperator claimedFiltroOperator = node.operator();
+        String key = node.key();
+
+        SearchMode searchMode = node.meta().getQueryIntent() == QueryIntent.SEARCH
+                ? node.meta().getSearchMode() : SearchMode.PATTERN;
+        if (searchMode == SearchMode.FULLTEXT && claimedFiltroOperator == FiltroOperator.CONTAINS) {
+            return text(node);
+        }
+        if (searchMode == SearchMode.COLLATION) {
+            switch (claimedFiltroOperator) {
+                case STARTS_WITH -> {
+                    return prefix(key, node.firstArgument());
+                }
+                // 子串无法用范围表达，保留正则并与 collation 一样忽略大小写
+                case CONTAINS -> {
+                    return Criteria.where(key).regex(Pattern.quote(node.firstArgument()), "i");
+                }
+                case NOT_CONTAINS -> {
+                    return Criteria.where(key).not().regex(Pattern.quote(node.firstArgument()), "i");
+                }
+                default -> {
+                }
+            }
+        }
 
         return switch (claimedFiltroOperator) {
-            case EQ -> Criteria.where(filtroFieldMeta.getKey()).is(cast(filtroFieldMeta, arguments.get(0)));
-            case NEQ -> Criteria.where(filtroFieldMeta.getKey()).ne(cast(filtroFieldMeta, arguments.get(0)));
+            case EQ -> Criteria.where(key).is(cast(node));
+            case NEQ -> Criteria.where(key).ne(cast(node));
             case NULLABLE_NEQ -> new Criteria().orOperator(
-                    Criteria.where(filtroFieldMeta.getKey()).is(null),
-                    Criteria.where(filtroFieldMeta.getKey()).ne(cast(filtroFieldMeta, arguments.get(0)))
+                    Criteria.where(key).is(null),
+                    Criteria.where(key).ne(cast(node))
             );
-            case GT, ALT_GT -> Criteria.where(filtroFieldMeta.getKey()).gt(cast(filtroFieldMeta, arguments.get(0)));
-            case GTE, ALT_GTE -> Criteria.where(filtroFieldMeta.getKey()).gte(cast(filtroFieldMeta, arguments.get(0)));
-            case LT, ALT_LT -> Criteria.where(filtroFieldMeta.getKey()).lt(cast(filtroFieldMeta, arguments.get(0)));
-            case LTE, ALT_LTE -> Criteria.where(filtroFieldMeta.getKey()).lte(cast(filtroFieldMeta, arguments.get(0)));
-            case IN -> Criteria.where(filtroFieldMeta.getKey()).in(cast(filtroFieldMeta, arguments));
-            case NOT_IN -> Criteria.where(filtroFieldMeta.getKey()).nin(cast(filtroFieldMeta, arguments));
-            case CONTAINS -> Criteria.where(filtroFieldMeta.getKey()).regex(Pattern.quote(arguments.get(0)));
-            case NOT_CONTAINS -> Criteria.where(filtroFieldMeta.getKey()).not().regex(Pattern.quote(arguments.get(0)));
+            case GT, ALT_GT -> Criteria.where(key).gt(cast(node));
+            case GTE, ALT_GTE -> Criteria.where(key).gte(cast(node));
+            case LT, ALT_LT -> Criteria.where(key).lt(cast(node));
+            case LTE, ALT_LTE -> Criteria.where(key).lte(cast(node));
+            case IN -> Criteria.where(key).in(castAll(node));
+            case NOT_IN -> Criteria.where(key).nin(castAll(node));
+            case CONTAINS -> Criteria.where(key).regex(Pattern.quote(node.firstArgument()));
+            case NOT_CONTAINS -> Criteria.where(key).not().regex(Pattern.quote(node.firstArgument()));
+            // 以 ^ 锚定的区分大小写前缀正则可使用索引边界
+            case STARTS_WITH -> Criteria.where(key).regex("^" + Pattern.quote(node.firstArgument()));
             case IS_NULL -> new Criteria().orOperator(
-                    Criteria.where(filtroFieldMeta.getKey()).is(null),
-                    Criteria.where(filtroFieldMeta.getKey()).exists(false)
+                    Criteria.where(key).is(null),
+                    Criteria.where(key).exists(false)
             );
             case NOT_NULL -> new Criteria().andOperator(
-                    Criteria.where(filtroFieldMeta.getKey()).ne(null),
-                    Criteria.where(filtroFieldMeta.getKey()).exists(true)
+                    Criteria.where(key).ne(null),
+                    Criteria.where(key).exists(true)
             );
             default -> throw new IllegalArgumentException("FiltroOperator " + claimedFiltroOperator.getSymbol()
                     + " is not supported in " + this.getClass().getSimpleName());
         };
     }
 
+    /**
+     * {@code $text} 不针对单个字段，而是检索集合上唯一的文本索引；参数作为短语匹配，避免被拆成 OR 关系的多个词
+     */
+    private Criteria text(FiltroComparisonNode node) {
+        if (orDepth > 0) {
+            throw new IllegalArgumentException("FiltroOperator " + FiltroOperator.CONTAINS.getSymbol()
+                    + " on FULLTEXT field " + node.meta().getField()
+                    + ": MongoDB does not allow $text under $or or $nor");
+        }
+        if (++textClauses > 1) {
+            throw new IllegalArgumentException("FiltroOperator " + FiltroOperator.CONTAINS.getSymbol()
+                    + " on FULLTEXT field " + node.meta().getField()
+                    + ": MongoDB allows at most one $text clause per query");
+        }
+        Object search = TextCriteria.forDefaultLanguage()
+                .matchingPhrase(node.firstArgument())
+                .getCriteriaObject()
+                .get("$text");
+        return Criteria.where("$text").is(search);
+    }
+
+    private static Criteria prefix(String key, String value) {
+        return Criteria.where(key).gte(value).lt(value + PREFIX_UPPER_BOUND);
+    }
+
     // MongoDB 由于 schema-less 导致类型敏感，因此 < 2000 和 < "2000" 是两种含义
-    private List<Object> cast(FiltroFieldMeta filtroFieldMeta, List<String> arguments) {
-        Function<String, Object> caster = casterFor(filtroFieldMeta);
-        return arguments.stream().map(caster).toList();
+    private List<Object> castAll(FiltroComparisonNode node) {
+        requireJavaType(node.meta());
+        return node.values().stream().map(MongoCriteriaVisitor::toBson).toList();
     }
 
     // MongoDB 由于 schema-less 导致类型敏感，因此 < 2000 和 < "2000" 是两种含义
-    private Object cast(FiltroFieldMeta filtroFieldMeta, String argument) {
-        return casterFor(filtroFieldMeta).apply(argument);
+    private Object cast(FiltroComparisonNode node) {
+        requireJavaType(node.meta());
+        return toBson(node.firstValue());
     }
 
-    private Function<String, Object> casterFor(FiltroFieldMeta filtroFieldMeta) {
-        Class<?> type = filtroFieldMeta.getJavaType();
-        if (type == null) {
+    private static void requireJavaType(FiltroFieldMeta filtroFieldMeta) {
+        if (filtroFieldMeta.getJavaType() == null) {
             throw new IllegalArgumentException("FiltroFieldMeta.javaType is required for Mongo casting: "
                     + filtroFieldMeta.getField());
         }
-        if (Integer.class.equals(type) || int.class.equals(type)
-                || Long.class.equals(type) || long.class.equals(type)
-                || Short.class.equals(type) || short.class.equals(type)) {
-            return wrap(Long::parseLong, filtroFieldMeta, "INT");
+    }
+
+    /**
+     * IR 类型化值 → BSON 友好类型：BigDecimal → Decimal128，日期时间 → UTC {@link Date}，枚举 → 名称。
+     */
+    private static Object toBson(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return new Decimal128(decimal);
         }
-        if (Float.class.equals(type) || float.class.equals(type)
-                || Double.class.equals(type) || double.class.equals(type)) {
-            return wrap(Double::parseDouble, filtroFieldMeta, "FLOAT");
+        if (value instanceof Instant instant) {
+            return Date.from(instant);
         }
-        if (java.math.BigDecimal.class.equals(type) || Decimal128.class.equals(type)
-                || "org.bson.types.Decimal128".equals(type.getName())) {
-            return wrap(Decimal128::parse, filtroFieldMeta, "DECIMAL");
+        if (value instanceof LocalDateTime dateTime) {
+            return Date.from(dateTime.atZone(ZoneOffset.UTC).toInstant());
         }
-        if (Boolean.class.equals(type) || boolean.class.equals(type)) {
-            return wrap(Boolean::parseBoolean, filtroFieldMeta, "BOOLEAN");
+        if (value instanceof LocalDate date) {
+            return Date.from(date.atStartOfDay(ZoneOffset.UTC).toInstant());
         }
-        if (LocalDate.class.equals(type) || LocalDateTime.class.equals(type)
-                || Instant.class.equals(type) || LocalTime.class.equals(type)
-                || Date.class.equals(type)) {
-            return wrap(this::parseDateTime, filtroFieldMeta, "DATETIME");
+        if (value instanceof LocalTime time) {
+            return time.toString();
         }
-        return a -> a;
-    }
-
-    /**
-     * 三层 fallback：Instant → LocalDateTime → LocalDate。
-     */
-    private Date parseDateTime(String raw) {
-        try {
-            return Date.from(Instant.parse(raw));
-        } catch (DateTimeException e1) {
-            try {
-                return Date.from(LocalDateTime.parse(raw).atZone(ZoneOffset.UTC).toInstant());
-            } catch (DateTimeException e2) {
-                try {
-                    return Date.from(LocalDate.parse(raw).atStartOfDay(ZoneOffset.UTC).toInstant());
-                } catch (DateTimeException e3) {
-                    throw new PredicateBuildException("DATETIME", raw, "parseDateTime", e3);
-                }
-            }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
         }
+        return value;
     }
 }
@@ -1,8 +1,10 @@
 package cc.ddrpa.filtro.visitor.extension.jpa.mongo;
 
+import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
 import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
 import cz.jirutka.rsql.parser.RSQLParser;
 import cz.jirutka.rsql.parser.ast.ComparisonOperator;
 import cz.jirutka.rsql.parser.ast.Node;
@@ -44,7 +46,7 @@ class MongoCriteriaVisitorTest {
         fieldMap = Map.of(
                 "title", meta("title", "title", QueryIntent.SEARCH, String.class,
                         Set.of(FiltroOperator.EQ, FiltroOperator.NEQ,
-                                FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS,
+                                FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS, FiltroOperator.STARTS_WITH,
                                 FiltroOperator.IS_NULL, FiltroOperator.NOT_NULL,
                                 FiltroOperator.NULLABLE_NEQ)),
                 "price", meta("price", "price", QueryIntent.RANGE, Integer.class,
@@ -123,6 +125,12 @@ class MongoCriteriaVisitorTest {
             assertThat(doc.toJson()).contains("$regularExpression");
         }
 
+        @Test
+        void startsWithGeneratesAnchoredRegex() {
+            Document doc = criteriaDoc(parse("title=startswith=a.b"));
+            assertThat(doc.toJson()).contains("\"pattern\": \"^\\\\Qa.b\\\\E\"");
+        }
+
         @Test
         void notContainsGeneratesNotRegex() {
             Criteria c = parse("title=nocontains=java");
@@ -194,4 +202,100 @@ class MongoCriteriaVisitorTest {
                     .hasMessageContaining("not supported");
         }
     }
+
+    @Nested
+    @DisplayName("不可满足条件")
+    class EmptyResult {
+        private Document translate(String rsql) {
+            return new MongoCriteriaNodeHandler(new FiltroRegistry()).parse(fieldMap, parser.parse(rsql))
+                    .getCriteriaObject();
+        }
+
+        @Test
+        void contradictionEmitsEmptyIdIn() {
+            Document doc = translate("title=null='';title==java");
+            assertThat(doc.keySet()).containsExactly("_id");
+            assertThat(((Document) doc.get("_id")).get("$in")).asList().isEmpty();
+        }
+
+        @Test
+        void satisfiableQueryIsEmittedNormally() {
+            assertThat(translate("price=gt=10;price=lt=20").toJson()).doesNotContain("_id");
+        }
+    }
+
+    @Nested
+    @DisplayName("搜索模式")
+    class SearchModes {
+
+        @Test
+        void fullTextContainsGeneratesTextPhrase() {
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            Document doc = criteriaDoc(parse("title=contains='red car';price=gt=1"));
+            assertThat(doc.toJson())
+                    .contains("\"$text\": {\"$search\": \"\\\"red car\\\"\"}")
+                    .doesNotContain("$regularExpression");
+        }
+
+        @Test
+        void fullTextKeepsRegexForNegationAndPrefix() {
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            assertThat(criteriaDoc(parse("title=nocontains=x;title=startswith=y")).toJson())
+                    .doesNotContain("$text")
+                    .contains("$not", "^\\\\Qy\\\\E");
+        }
+
+        @Test
+        void fullTextAllowsSingleTextClause() {
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            assertThatThrownBy(() -> parse("title=contains=a;title=contains=b"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("at most one $text");
+        }
+
+        @Test
+        void fullTextRejectsTextUnderOr() {
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            assertThatThrownBy(() -> parse("title=contains=a,price=gt=1"))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("$or");
+        }
+
+        @Test
+        void collationContainsKeepsCaseInsensitiveRegex() {
+            fieldMap.get("title").setSearchMode(SearchMode.COLLATION);
+            Pattern title = (Pattern) criteriaDoc(parse("title=contains=Java")).getList("$and", Document.class)
+                    .get(0).get("title");
+            assertThat(title.pattern()).isEqualTo("\\QJava\\E");
+            assertThat(title.flags() & Pattern.CASE_INSENSITIVE).isNotZero();
+        }
+
+        @Test
+        void collationStartsWithGeneratesPrefixRange() {
+            fieldMap.get("title").setSearchMode(SearchMode.COLLATION);
+            assertThat(criteriaDoc(parse("title=startswith=a.b")).toJson())
+                    .contains("$gte", "$lt")
+                    .doesNotContain("$regularExpression");
+        }
+
+        @Test
+        void collationNotContainsNegatesRegex() {
+            fieldMap.get("title").setSearchMode(SearchMode.COLLATION);
+            assertThat(criteriaDoc(parse("title=nocontains=x")).toJson())
+                    .contains("$not", "\"options\": \"i\"")
+                    .doesNotContain("$gte");
+        }
+
+        @Test
+        void collationKeepsEquality() {
+            fieldMap.get("title").setSearchMode(SearchMode.COLLATION);
+            assertThat(criteriaDoc(parse("title==Java")).toJson()).contains("\"title\": \"Java\"");
+        }
+
+        @Test
+        void searchModeIsIgnoredOutsideSearchIntent() {
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT).setQueryIntent(QueryIntent.EXACT);
+            assertThat(criteriaDoc(parse("title=contains=x")).toJson()).contains("$regularExpression");
+        }
+    }
 }
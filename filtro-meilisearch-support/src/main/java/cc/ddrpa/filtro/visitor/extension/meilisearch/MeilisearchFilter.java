@@ -1,20 +1,135 @@
 package cc.ddrpa.filtro.visitor.extension.meilisearch;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
- * Meilisearch {@code filter} 表达式的不可变包装。
+ * Meilisearch {@code filter} 的不可变包装，有字符串与数组两种形式。
  * <p>
- * 将 {@link #expression()} 传给 Meilisearch 客户端的搜索参数即可，例如
- * {@code searchRequest.setFilter(filter.expression())}。
+ * 查询为合取范式（AND 下只有比较条件或由比较条件组成的 OR）时同时携带数组形式，外层为 AND、内层为 OR，
+ * 可直接交给 {@code searchRequest.setFilterArray(filter.filterArray())}，避免服务端重新解析长表达式；
+ * 其余形状只有字符串形式，交给 {@code searchRequest.setFilter(new String[]{filter.expression()})}。
+ * <p>
+ * Meilisearch 没有恒假表达式，条件不可满足时 {@link #expression()} 仍为原条件（执行结果为空），
+ * 调用方可先检查 {@link #isEmptyResult()} 直接返回空结果，省去一次搜索请求。
  */
-public record MeilisearchFilter(String expression) {
+public final class MeilisearchFilter {
+
+    private final String[][] filterArray;
+    private final boolean emptyResult;
+    // 数组形式下按需拼接
+    private String expression;
+
+    /**
+     * @param expression  filter 表达式
+     * @param emptyResult 条件是否恒不可满足
+     */
+    public MeilisearchFilter(String expression, boolean emptyResult) {
+        this.expression = Objects.requireNonNullElse(expression, "");
+        this.filterArray = null;
+        this.emptyResult = emptyResult;
+    }
+
+    public MeilisearchFilter(String expression) {
+        this(expression, false);
+    }
+
+    private MeilisearchFilter(String[][] filterArray, boolean emptyResult) {
+        this.filterArray = filterArray;
+        this.emptyResult = emptyResult;
+    }
+
+    /**
+     * @param filterArray 外层为 AND、内层为 OR 的条件数组
+     */
+    public static MeilisearchFilter ofArray(String[][] filterArray, boolean emptyResult) {
+        Objects.requireNonNull(filterArray, "filterArray");
+        String[][] copy = new String[filterArray.length][];
+        for (int i = 0; i < filterArray.length; i++) {
+            copy[i] = filterArray[i].clone();
+        }
+        return new MeilisearchFilter(copy, emptyResult);
+    }
+
+    /**
+     * 字符串形式；由数组形式构造时首次调用才拼接，与 {@link MeilisearchFilterVisitor#apply} 的结果语义一致
+     */
+    public String expression() {
+        String result = expression;
+        if (result == null) {
+            result = join(filterArray);
+            expression = result;
+        }
+        return result;
+    }
+
+    public boolean hasFilterArray() {
+        return filterArray != null;
+    }
 
-    public MeilisearchFilter {
-        expression = Objects.requireNonNullElse(expression, "");
+    /**
+     * @return 数组形式的副本，查询不是合取范式时为 null
+     */
+    public String[][] filterArray() {
+        if (filterArray == null) {
+            return null;
+        }
+        String[][] copy = new String[filterArray.length][];
+        for (int i = 0; i < filterArray.length; i++) {
+            copy[i] = filterArray[i].clone();
+        }
+        return copy;
     }
 
     public boolean isEmpty() {
-        return expression.isBlank();
+        return filterArray != null ? filterArray.length == 0 : expression.isBlank();
+    }
+
+    public boolean isEmptyResult() {
+        return emptyResult;
+    }
+
+    private static String join(String[][] clauses) {
+        if (clauses.length == 0) {
+            return "";
+        }
+        if (clauses.length == 1) {
+            return group(clauses[0]);
+        }
+        StringBuilder builder = new StringBuilder("(");
+        for (int i = 0; i < clauses.length; i++) {
+            if (i > 0) {
+                builder.append(" AND ");
+            }
+            builder.append(group(clauses[i]));
+        }
+        return builder.append(')').toString();
+    }
+
+    private static String group(String[] disjuncts) {
+        return disjuncts.length == 1 ? disjuncts[0] : "(" + String.join(" OR ", disjuncts) + ")";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MeilisearchFilter that)) {
+            return false;
+        }
+        return emptyResult == that.emptyResult
+                && Arrays.deepEquals(filterArray, that.filterArray)
+                && expression().equals(that.expression());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(expression(), emptyResult);
+    }
+
+    @Override
+    public String toString() {
+        return "MeilisearchFilter[expression=" + expression() + ", emptyResult=" + emptyResult + "]";
     }
 }
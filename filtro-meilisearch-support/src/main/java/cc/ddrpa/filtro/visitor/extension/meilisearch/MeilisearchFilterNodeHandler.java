@@ -2,15 +2,33 @@ package cc.ddrpa.filtro.visitor.extension.meilisearch;
 
 import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
 import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
 import cz.jirutka.rsql.parser.ast.Node;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MeilisearchFilterNodeHandler implements RsqlNodeHandler<MeilisearchFilter> {
 
+    /**
+     * 容量提示的上限，避免个别超长表达式让后续每次渲染都预分配大缓冲区
+     */
+    static final int MAX_CAPACITY_HINT = 1 << 16;
+
+    /**
+     * 表达式变短时，容量提示每次回落差值的 {@code 1 / 2^DECAY_SHIFT}
+     */
+    static final int DECAY_SHIFT = 3;
+
     private final FiltroRegistry filtroRegistry;
 
+    // 近期表达式长度的估计，作为下一次渲染的缓冲区初始容量：变长时立即跟上，变短时逐步回落
+    private final AtomicInteger capacityHint = new AtomicInteger(MeilisearchFilterVisitor.DEFAULT_CAPACITY);
+
+    private boolean filterArray = true;
+
     public MeilisearchFilterNodeHandler(FiltroRegistry filtroRegistry) {
         this.filtroRegistry = filtroRegistry;
     }
@@ -22,8 +40,48 @@ public class MeilisearchFilterNodeHandler implements RsqlNodeHandler<Meilisearch
 
     @Override
     public MeilisearchFilter parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
-        String expression = new MeilisearchFilterVisitor(metaMap, filtroRegistry.getMaxDepth())
-                .apply(queryRoot);
-        return new MeilisearchFilter(expression);
+        return translate(new FiltroPlanner(filtroRegistry.getMaxDepth()).plan(metaMap, queryRoot));
+    }
+
+    /**
+     * 合取范式的查询输出数组形式，其余形状渲染为字符串
+     */
+    @Override
+    public MeilisearchFilter translate(FiltroPlan plan) {
+        MeilisearchFilterVisitor visitor = new MeilisearchFilterVisitor(plan.getFields(), filtroRegistry.getMaxDepth(),
+                capacityHint.get());
+        if (filterArray) {
+            String[][] clauses = visitor.applyArray(plan.getRoot());
+            if (clauses != null) {
+                return MeilisearchFilter.ofArray(clauses, plan.isEmptyResult());
+            }
+        }
+        String expression = visitor.apply(plan.getRoot());
+        int hint = capacityHint.get();
+        int next = nextCapacityHint(hint, Math.min(expression.length(), MAX_CAPACITY_HINT));
+        // 只是估计值，并发更新失败时直接放弃，不重试
+        if (next != hint) {
+            capacityHint.compareAndSet(hint, next);
+        }
+        return new MeilisearchFilter(expression, plan.isEmptyResult());
+    }
+
+    static int nextCapacityHint(int hint, int length) {
+        if (length >= hint) {
+            return length;
+        }
+        return hint - ((hint - length + (1 << DECAY_SHIFT) - 1) >>> DECAY_SHIFT);
+    }
+
+    /**
+     * @param filterArray 是否在查询形状允许时输出数组形式，默认开启
+     */
+    public MeilisearchFilterNodeHandler setFilterArray(boolean filterArray) {
+        this.filterArray = filterArray;
+        return this;
+    }
+
+    public int getCapacityHint() {
+        return capacityHint.get();
     }
 }
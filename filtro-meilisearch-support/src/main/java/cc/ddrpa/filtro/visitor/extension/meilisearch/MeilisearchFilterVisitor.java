@@ -1,154 +1,253 @@
 package cc.ddrpa.filtro.visitor.extension.meilisearch;
 
-import cc.ddrpa.filtro.core.exception.PredicateBuildException;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroNodeVisitor;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
 import cc.ddrpa.filtro.core.rsql.AbstractRSQLVisitor;
 import cz.jirutka.rsql.parser.ast.*;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 将 RSQL AST 转为 Meilisearch filter 表达式字符串。
+ * <p>
+ * 整个表达式写入同一个 {@link StringBuilder}，逻辑节点与比较条件直接追加，不产生中间字符串；
+ * 同一实例可多次 {@link #apply(FiltroNode)}，缓冲区随之复用。实例非线程安全。
  */
 public class MeilisearchFilterVisitor extends AbstractRSQLVisitor<String>
-        implements RSQLVisitor<String, Void> {
+        implements RSQLVisitor<String, Void>, FiltroNodeVisitor<String, Void> {
+
+    /**
+     * 缓冲区默认初始容量
+     */
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private final StringBuilder buffer;
 
     public MeilisearchFilterVisitor(Map<String, FiltroFieldMeta> fieldSpecMap) {
-        super(fieldSpecMap);
+        this(fieldSpecMap, DEFAULT_MAX_DEPTH, DEFAULT_CAPACITY);
     }
 
     public MeilisearchFilterVisitor(Map<String, FiltroFieldMeta> fieldSpecMap, int maxDepth) {
-        super(fieldSpecMap, maxDepth);
+        this(fieldSpecMap, maxDepth, DEFAULT_CAPACITY);
     }
 
-    private static String condition(String attr, String op, String value) {
-        return attr + " " + op + " " + value;
+    /**
+     * @param initialCapacity 缓冲区初始容量，可取同类查询以往的表达式长度
+     */
+    public MeilisearchFilterVisitor(Map<String, FiltroFieldMeta> fieldSpecMap, int maxDepth, int initialCapacity) {
+        super(fieldSpecMap, maxDepth);
+        this.buffer = new StringBuilder(Math.max(initialCapacity, 16));
     }
 
-    private static String quote(String value) {
-        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    public String apply(Node rootNode) {
+        return apply(compile(rootNode));
     }
 
-    private static String toEnumName(Class<?> clazz, String name) {
-        if (clazz == null || name == null) {
-            throw new IllegalArgumentException("Enum class and name must not be null");
-        }
-        if (!clazz.isEnum()) {
-            throw new IllegalArgumentException(clazz + " is not an enum type");
-        }
-        @SuppressWarnings({"unchecked", "rawtypes"})
-        Enum<?> constant = Enum.valueOf((Class<? extends Enum>) clazz, name);
-        return constant.name();
+    public String apply(FiltroNode rootNode) {
+        buffer.setLength(0);
+        write(rootNode);
+        return buffer.toString();
     }
 
-    public String apply(Node rootNode) {
-        validateDepth(rootNode);
-        return rootNode.accept(this);
+    /**
+     * 渲染为 Meilisearch 的数组形式：外层元素之间为 AND，内层元素之间为 OR。
+     * 仅当查询为深度不超过 2 的合取范式时可用，{@code =nullableneq=} 展开为同组内的两个条件。
+     *
+     * @return 条件数组；查询形状不满足时返回 null，由调用方回退到 {@link #apply(FiltroNode)}
+     */
+    public String[][] applyArray(FiltroNode rootNode) {
+        if (rootNode instanceof FiltroAndNode and) {
+            List<FiltroNode> children = and.children();
+            for (FiltroNode child : children) {
+                if (!isClause(child)) {
+                    return null;
+                }
+            }
+            String[][] clauses = new String[children.size()][];
+            for (int i = 0; i < clauses.length; i++) {
+                clauses[i] = clause(children.get(i));
+            }
+            return clauses;
+        }
+        return isClause(rootNode) ? new String[][]{clause(rootNode)} : null;
     }
 
     @Override
     public String visit(AndNode node, Void param) {
-        return node.getChildren().stream()
-                .map(child -> child.accept(this))
-                .collect(Collectors.joining(" AND ", "(", ")"));
+        return apply(compile(node));
     }
 
     @Override
     public String visit(OrNode node, Void param) {
-        return node.getChildren().stream()
-                .map(child -> child.accept(this))
-                .collect(Collectors.joining(" OR ", "(", ")"));
+        return apply(compile(node));
     }
 
     @Override
     public String visit(ComparisonNode node, Void param) {
-        ResolvedComparison resolved = resolve(node);
-        FiltroOperator operator = resolved.operator();
-        FiltroFieldMeta meta = resolved.meta();
-        List<String> arguments = resolved.arguments();
-        String attr = meta.getKey();
-
-        if (meta.isEnumeration()) {
-            arguments = arguments.stream()
-                    .map(name -> toEnumName(meta.getEnumerationClass(), name))
-                    .toList();
+        return apply(compile(node));
+    }
+
+    @Override
+    public String visit(FiltroAndNode node, Void param) {
+        return apply(node);
+    }
+
+    @Override
+    public String visit(FiltroOrNode node, Void param) {
+        return apply(node);
+    }
+
+    @Override
+    public String visit(FiltroComparisonNode node, Void param) {
+        return apply(node);
+    }
+
+    private void write(FiltroNode node) {
+        if (node instanceof FiltroComparisonNode comparison) {
+            writeComparison(comparison);
+        } else if (node instanceof FiltroAndNode and) {
+            writeGroup(and.children(), " AND ");
+        } else if (node instanceof FiltroOrNode or) {
+            writeGroup(or.children(), " OR ");
+        } else {
+            throw new IllegalArgumentException("Unknown FiltroNode: " + node.getClass().getName());
         }
+    }
 
-        return switch (operator) {
-            case EQ -> condition(attr, "=", formatValue(meta, arguments.get(0)));
-            case NEQ -> condition(attr, "!=", formatValue(meta, arguments.get(0)));
-            case NULLABLE_NEQ -> "(" + condition(attr, "!=", formatValue(meta, arguments.get(0)))
-                    + " OR " + attr + " IS NULL)";
-            case GT, ALT_GT -> condition(attr, ">", formatValue(meta, arguments.get(0)));
-            case GTE, ALT_GTE -> condition(attr, ">=", formatValue(meta, arguments.get(0)));
-            case LT, ALT_LT -> condition(attr, "<", formatValue(meta, arguments.get(0)));
-            case LTE, ALT_LTE -> condition(attr, "<=", formatValue(meta, arguments.get(0)));
-            case IN -> attr + " IN [" + formatList(meta, arguments) + "]";
-            case NOT_IN -> attr + " NOT IN [" + formatList(meta, arguments) + "]";
-            case CONTAINS -> condition(attr, "CONTAINS", formatValue(meta, arguments.get(0)));
-            case NOT_CONTAINS -> condition(attr, "NOT CONTAINS", formatValue(meta, arguments.get(0)));
-            case IS_NULL -> attr + " IS NULL";
-            case NOT_NULL -> attr + " IS NOT NULL";
+    // 单个比较条件，或只由比较条件组成的 OR
+    private static boolean isClause(FiltroNode node) {
+        if (node instanceof FiltroOrNode or) {
+            for (FiltroNode child : or.children()) {
+                if (!(child instanceof FiltroComparisonNode)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return node instanceof FiltroComparisonNode;
+    }
+
+    private String[] clause(FiltroNode node) {
+        List<FiltroNode> comparisons = node instanceof FiltroOrNode or ? or.children() : List.of(node);
+        List<String> disjuncts = new ArrayList<>(comparisons.size() + 1);
+        for (FiltroNode child : comparisons) {
+            FiltroComparisonNode comparison = (FiltroComparisonNode) child;
+            buffer.setLength(0);
+            if (comparison.operator() == FiltroOperator.NULLABLE_NEQ) {
+                condition(comparison, comparison.key(), "!=");
+                disjuncts.add(buffer.toString());
+                disjuncts.add(comparison.key() + " IS NULL");
+            } else {
+                writeComparison(comparison);
+                disjuncts.add(buffer.toString());
+            }
+        }
+        return disjuncts.toArray(String[]::new);
+    }
+
+    private void writeGroup(List<FiltroNode> children, String separator) {
+        buffer.append('(');
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                buffer.append(separator);
+            }
+            write(children.get(i));
+        }
+        buffer.append(')');
+    }
+
+    private void writeComparison(FiltroComparisonNode node) {
+        FiltroOperator operator = node.operator();
+        String attr = node.key();
+
+        switch (operator) {
+            case EQ -> condition(node, attr, "=");
+            case NEQ -> condition(node, attr, "!=");
+            case NULLABLE_NEQ -> {
+                buffer.append('(');
+                condition(node, attr, "!=");
+                buffer.append(" OR ").append(attr).append(" IS NULL)");
+            }
+            case GT, ALT_GT -> condition(node, attr, ">");
+            case GTE, ALT_GTE -> condition(node, attr, ">=");
+            case LT, ALT_LT -> condition(node, attr, "<");
+            case LTE, ALT_LTE -> condition(node, attr, "<=");
+            case IN -> list(node, attr, " IN [");
+            case NOT_IN -> list(node, attr, " NOT IN [");
+            case CONTAINS -> condition(node, attr, "CONTAINS");
+            case NOT_CONTAINS -> condition(node, attr, "NOT CONTAINS");
+            case STARTS_WITH -> condition(node, attr, "STARTS WITH");
+            case IS_NULL -> buffer.append(attr).append(" IS NULL");
+            case NOT_NULL -> buffer.append(attr).append(" IS NOT NULL");
             default -> throw new IllegalArgumentException(
                     "FiltroOperator " + operator.getSymbol()
                             + " is not supported in " + this.getClass().getSimpleName());
-        };
+        }
     }
 
-    private String formatList(FiltroFieldMeta meta, List<String> arguments) {
-        return arguments.stream()
-                .map(a -> formatValue(meta, a))
-                .collect(Collectors.joining(", "));
+    private void condition(FiltroComparisonNode node, String attr, String op) {
+        buffer.append(attr).append(' ').append(op).append(' ');
+        writeValue(node, 0);
     }
 
-    /**
-     * 按 Java 字段类型格式化字面量：数值/布尔无引号，字符串加双引号。
-     */
-    private String formatValue(FiltroFieldMeta meta, String raw) {
-        Class<?> type = meta.getJavaType();
-        if (type == null) {
-            throw new IllegalArgumentException("FiltroFieldMeta.javaType is required for Meilisearch formatting: "
-                    + meta.getField());
+    private void list(FiltroComparisonNode node, String attr, String op) {
+        List<String> arguments = node.arguments();
+        // 参数原文长度之和加上引号与分隔符，长 IN 列表只扩容一次
+        int estimate = attr.length() + op.length() + 1;
+        for (String argument : arguments) {
+            estimate += argument.length() + 4;
         }
-        if (Integer.class.equals(type) || int.class.equals(type)
-                || Long.class.equals(type) || long.class.equals(type)
-                || Short.class.equals(type) || short.class.equals(type)) {
-            try {
-                Long.parseLong(raw);
-                return raw;
-            } catch (NumberFormatException e) {
-                throw new PredicateBuildException(meta.getField(), raw, "INT", e);
+        buffer.ensureCapacity(buffer.length() + estimate);
+        buffer.append(attr).append(op);
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                buffer.append(", ");
             }
+            writeValue(node, i);
         }
-        if (Float.class.equals(type) || float.class.equals(type)
-                || Double.class.equals(type) || double.class.equals(type)) {
-            try {
-                Double.parseDouble(raw);
-                return raw;
-            } catch (NumberFormatException e) {
-                throw new PredicateBuildException(meta.getField(), raw, type.getSimpleName(), e);
-            }
+        buffer.append(']');
+    }
+
+    /**
+     * 按 IR 类型化值写入字面量：数值/布尔无引号，枚举取常量名，其余（字符串、日期时间）加双引号。
+     */
+    private void writeValue(FiltroComparisonNode node, int index) {
+        if (node.meta().getJavaType() == null) {
+            throw new IllegalArgumentException("FiltroFieldMeta.javaType is required for Meilisearch formatting: "
+                    + node.meta().getField());
         }
-        if (BigDecimal.class.equals(type)
-                || "org.bson.types.Decimal128".equals(type.getName())) {
-            try {
-                new BigDecimal(raw);
-                return raw;
-            } catch (NumberFormatException e) {
-                throw new PredicateBuildException(meta.getField(), raw, type.getSimpleName(), e);
-            }
+        Object value = node.values().get(index);
+        if (value instanceof Number) {
+            buffer.append(node.arguments().get(index));
+        } else if (value instanceof Boolean bool) {
+            buffer.append(bool ? "true" : "false");
+        } else if (value instanceof Enum<?> constant) {
+            quote(constant.name());
+        } else {
+            quote(node.arguments().get(index));
         }
-        if (Boolean.class.equals(type) || boolean.class.equals(type)) {
-            if (!"true".equalsIgnoreCase(raw) && !"false".equalsIgnoreCase(raw)) {
-                throw new PredicateBuildException(meta.getField(), raw, "BOOLEAN",
-                        new IllegalArgumentException("not a boolean"));
+    }
+
+    /**
+     * 单遍转义 {@code \} 与 {@code "}，无需转义的连续片段整段追加。
+     */
+    private void quote(String value) {
+        buffer.append('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                buffer.append(value, from, i).append('\\');
+                from = i;
             }
-            return Boolean.parseBoolean(raw) ? "true" : "false";
         }
-        return quote(raw);
+        buffer.append(value, from, value.length()).append('"');
     }
 }
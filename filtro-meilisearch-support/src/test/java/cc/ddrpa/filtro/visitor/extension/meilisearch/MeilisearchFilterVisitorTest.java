@@ -1,9 +1,11 @@
 package cc.ddrpa.filtro.visitor.extension.meilisearch;
 
+import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.exception.PredicateBuildException;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
 import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
 import cz.jirutka.rsql.parser.RSQLParser;
 import cz.jirutka.rsql.parser.ast.ComparisonNode;
 import cz.jirutka.rsql.parser.ast.ComparisonOperator;
@@ -45,7 +47,7 @@ class MeilisearchFilterVisitorTest {
         fieldMap = new HashMap<>();
         fieldMap.put("title", meta("title", "title", QueryIntent.SEARCH, String.class,
                 Set.of(FiltroOperator.EQ, FiltroOperator.NEQ, FiltroOperator.NULLABLE_NEQ,
-                        FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS, FiltroOperator.IN,
+                        FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS, FiltroOperator.STARTS_WITH, FiltroOperator.IN,
                         FiltroOperator.IS_NULL, FiltroOperator.NOT_NULL)));
         fieldMap.put("price", meta("price", "price", QueryIntent.RANGE, Integer.class,
                 Set.of(FiltroOperator.EQ, FiltroOperator.GT, FiltroOperator.ALT_GT,
@@ -180,6 +182,11 @@ class MeilisearchFilterVisitorTest {
             assertThat(parse("title=contains=java")).isEqualTo("title CONTAINS \"java\"");
         }
 
+        @Test
+        void startsWith() {
+            assertThat(parse("title=startswith=ja")).isEqualTo("title STARTS WITH \"ja\"");
+        }
+
         @Test
         void notContains() {
             assertThat(parse("title=nocontains=java")).isEqualTo("title NOT CONTAINS \"java\"");
@@ -238,4 +245,131 @@ class MeilisearchFilterVisitorTest {
                     .isInstanceOf(IllegalArgumentException.class);
         }
     }
+
+    @Nested
+    @DisplayName("不可满足条件")
+    class EmptyResult {
+        private MeilisearchFilter translate(String rsql) {
+            return new MeilisearchFilterNodeHandler(new FiltroRegistry()).parse(fieldMap, parser.parse(rsql));
+        }
+
+        @Test
+        void contradictionIsFlagged() {
+            MeilisearchFilter filter = translate("status==ACTIVE;status==INACTIVE");
+            assertThat(filter.isEmptyResult()).isTrue();
+            assertThat(filter.expression()).isEqualTo("(status = \"ACTIVE\" AND status = \"INACTIVE\")");
+        }
+
+        @Test
+        void satisfiableQueryIsNotFlagged() {
+            assertThat(translate("status==ACTIVE").isEmptyResult()).isFalse();
+        }
+    }
+
+    @Nested
+    @DisplayName("缓冲区复用")
+    class Buffer {
+        @Test
+        void visitorIsReusable() {
+            MeilisearchFilterVisitor visitor = new MeilisearchFilterVisitor(fieldMap, 8, 4);
+            assertThat(visitor.apply(parser.parse("title=contains=java;price<40")))
+                    .isEqualTo("(title CONTAINS \"java\" AND price < 40)");
+            assertThat(visitor.apply(parser.parse("price=in=(1,2,3)")))
+                    .isEqualTo("price IN [1, 2, 3]");
+        }
+
+        @Test
+        void quoteEscapesBackslashAndQuote() {
+            MeilisearchFilterVisitor visitor = new MeilisearchFilterVisitor(fieldMap) {
+                @Override
+                protected ResolvedComparison resolve(ComparisonNode node) {
+                    return new ResolvedComparison(
+                            fieldMap.get("title"), FiltroOperator.EQ, List.of("a\\b\"c\\"));
+                }
+            };
+            ComparisonNode node = new ComparisonNode(
+                    RSQLOperators.EQUAL, "title", List.of("placeholder"));
+            assertThat(visitor.visit(node, null)).isEqualTo("title = \"a\\\\b\\\"c\\\\\"");
+        }
+
+        @Test
+        void handlerTracksExpressionLength() {
+            MeilisearchFilterNodeHandler handler = new MeilisearchFilterNodeHandler(new FiltroRegistry())
+                    .setFilterArray(false);
+            assertThat(handler.getCapacityHint()).isEqualTo(MeilisearchFilterVisitor.DEFAULT_CAPACITY);
+            String rsql = "title=in=(" + "x".repeat(300) + ",y)";
+            String expression = handler.parse(fieldMap, parser.parse(rsql)).expression();
+            assertThat(handler.getCapacityHint()).isEqualTo(expression.length());
+            handler.parse(fieldMap, parser.parse("price<40"));
+            assertThat(handler.getCapacityHint()).isLessThan(expression.length())
+                    .isGreaterThan(expression.length() / 2);
+        }
+
+        @Test
+        void capacityHintDecaysAfterLongExpression() {
+            int hint = MeilisearchFilterNodeHandler.MAX_CAPACITY_HINT;
+            for (int i = 0; i < 100; i++) {
+                hint = MeilisearchFilterNodeHandler.nextCapacityHint(hint, 40);
+            }
+            assertThat(hint).isEqualTo(40);
+            assertThat(MeilisearchFilterNodeHandler.nextCapacityHint(40, 500)).isEqualTo(500);
+            assertThat(MeilisearchFilterNodeHandler.nextCapacityHint(41, 40)).isEqualTo(40);
+        }
+    }
+
+    @Nested
+    @DisplayName("数组形式")
+    class FilterArray {
+        private String[][] array(String rsql) {
+            return new MeilisearchFilterVisitor(fieldMap).applyArray(
+                    new FiltroPlanner().plan(fieldMap, parser.parse(rsql)).getRoot());
+        }
+
+        @Test
+        void singleComparison() {
+            assertThat(array("price<40")).isDeepEqualTo(new String[][]{{"price < 40"}});
+        }
+
+        @Test
+        void conjunctionOfDisjunctions() {
+            assertThat(array("price<40;(title=contains=java,title=startswith=py);status=in=(ACTIVE,INACTIVE)"))
+                    .isDeepEqualTo(new String[][]{
+                            {"price < 40"},
+                            {"title CONTAINS \"java\"", "title STARTS WITH \"py\""},
+                            {"status IN [\"ACTIVE\", \"INACTIVE\"]"}});
+        }
+
+        @Test
+        void rootDisjunctionIsOneGroup() {
+            assertThat(array("title==a,price>3"))
+                    .isDeepEqualTo(new String[][]{{"title = \"a\"", "price > 3"}});
+        }
+
+        @Test
+        void nullableNeqExpandsWithinGroup() {
+            assertThat(array("title=nullableneq=x;price<40"))
+                    .isDeepEqualTo(new String[][]{{"title != \"x\"", "title IS NULL"}, {"price < 40"}});
+        }
+
+        @Test
+        void deeperShapeFallsBack() {
+            assertThat(array("title==a,(title==b;price<40)")).isNull();
+        }
+
+        @Test
+        void handlerPrefersArrayAndFallsBack() {
+            MeilisearchFilterNodeHandler handler = new MeilisearchFilterNodeHandler(new FiltroRegistry());
+            MeilisearchFilter cnf = handler.parse(fieldMap, parser.parse("price<40;(title==a,price>90)"));
+            assertThat(cnf.hasFilterArray()).isTrue();
+            assertThat(cnf.expression()).isEqualTo("(price < 40 AND (title = \"a\" OR price > 90))");
+
+            MeilisearchFilter nested = handler.parse(fieldMap, parser.parse("title==a,(title==b;price<40)"));
+            assertThat(nested.hasFilterArray()).isFalse();
+            assertThat(nested.filterArray()).isNull();
+            assertThat(nested.expression()).isEqualTo("(title = \"a\" OR (title = \"b\" AND price < 40))");
+
+            MeilisearchFilter disabled = handler.setFilterArray(false).parse(fieldMap, parser.parse("price<40"));
+            assertThat(disabled.hasFilterArray()).isFalse();
+        }
+    }
 }
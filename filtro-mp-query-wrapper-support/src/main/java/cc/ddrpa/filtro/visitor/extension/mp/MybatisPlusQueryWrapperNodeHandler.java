@@ -2,6 +2,8 @@ package cc.ddrpa.filtro.visitor.extension.mp;
 
 import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
 import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import cz.jirutka.rsql.parser.ast.Node;
@@ -10,12 +12,36 @@ import java.util.Map;
 
 public class MybatisPlusQueryWrapperNodeHandler implements RsqlNodeHandler<QueryWrapper<?>> {
 
+    /**
+     * 条件不可满足时写入的 SQL 片段，MySQL 执行计划直接判定为 Impossible WHERE，不读取任何行
+     */
+    public static final String EMPTY_RESULT_CONDITION = "1 = 0";
+
     private final FiltroRegistry filtroRegistry;
 
+    private int fullTextMinTokenSize = MybatisPlusQueryWrapperVisitor.DEFAULT_FULLTEXT_MIN_TOKEN_SIZE;
+    private int ngramTokenSize = MybatisPlusQueryWrapperVisitor.DEFAULT_NGRAM_TOKEN_SIZE;
+
     public MybatisPlusQueryWrapperNodeHandler(FiltroRegistry filtroRegistry) {
         this.filtroRegistry = filtroRegistry;
     }
 
+    /**
+     * 与服务端 {@code innodb_ft_min_token_size} 保持一致，见 {@link MybatisPlusQueryWrapperVisitor}
+     */
+    public MybatisPlusQueryWrapperNodeHandler setFullTextMinTokenSize(int fullTextMinTokenSize) {
+        this.fullTextMinTokenSize = fullTextMinTokenSize;
+        return this;
+    }
+
+    /**
+     * 与服务端 {@code ngram_token_size} 保持一致
+     */
+    public MybatisPlusQueryWrapperNodeHandler setNgramTokenSize(int ngramTokenSize) {
+        this.ngramTokenSize = ngramTokenSize;
+        return this;
+    }
+
     @Override
     public boolean supports(Class<?> targetType) {
         return QueryWrapper.class.equals(targetType);
@@ -23,9 +49,20 @@ public class MybatisPlusQueryWrapperNodeHandler implements RsqlNodeHandler<Query
 
     @Override
     public QueryWrapper<?> parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+        return translate(new FiltroPlanner(filtroRegistry.getMaxDepth()).plan(metaMap, queryRoot));
+    }
+
+    @Override
+    public QueryWrapper<?> translate(FiltroPlan plan) {
         QueryWrapper<?> queryWrapper = new QueryWrapper<>();
-        new MybatisPlusQueryWrapperVisitor(metaMap, filtroRegistry.getMaxDepth())
-                .apply(queryRoot, queryWrapper);
+        if (plan.isEmptyResult()) {
+            queryWrapper.apply(EMPTY_RESULT_CONDITION);
+            return queryWrapper;
+        }
+        new MybatisPlusQueryWrapperVisitor(plan.getFields(), filtroRegistry.getMaxDepth())
+                .setFullTextMinTokenSize(fullTextMinTokenSize)
+                .setNgramTokenSize(ngramTokenSize)
+                .apply(plan.getRoot(), queryWrapper);
         return queryWrapper;
     }
 }
\ No newline at end of file
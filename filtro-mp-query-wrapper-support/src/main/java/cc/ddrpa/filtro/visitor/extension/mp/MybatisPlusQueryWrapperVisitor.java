@@ -2,15 +2,43 @@ package cc.ddrpa.filtro.visitor.extension.mp;
 
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.MySqlFullTextPhrase;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroNodeVisitor;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
 import cc.ddrpa.filtro.core.rsql.AbstractRSQLVisitor;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import cz.jirutka.rsql.parser.ast.*;
 
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * IR → MyBatis-Plus {@link QueryWrapper}。
+ * <p>
+ * {@code SEARCH} 字段声明 {@link SearchMode#FULLTEXT} / {@link SearchMode#NGRAM} 时，{@code =contains=} 生成
+ * {@code MATCH(col) AGAINST(? IN BOOLEAN MODE)} 短语检索，要求该列建有对应的 FULLTEXT 索引；
+ * 参数为空或存在短于分词长度的词时全文索引无法命中，退回 {@code LIKE}，判定见 {@link MySqlFullTextPhrase}。
+ */
 public class MybatisPlusQueryWrapperVisitor extends AbstractRSQLVisitor<QueryWrapper<?>>
-        implements RSQLVisitor<QueryWrapper<?>, QueryWrapper<?>> {
+        implements RSQLVisitor<QueryWrapper<?>, QueryWrapper<?>>, FiltroNodeVisitor<QueryWrapper<?>, QueryWrapper<?>> {
+
+    /**
+     * MySQL {@code innodb_ft_min_token_size} 默认值
+     */
+    public static final int DEFAULT_FULLTEXT_MIN_TOKEN_SIZE = MySqlFullTextPhrase.DEFAULT_FULLTEXT_MIN_TOKEN_SIZE;
+
+    /**
+     * MySQL {@code ngram_token_size} 默认值
+     */
+    public static final int DEFAULT_NGRAM_TOKEN_SIZE = MySqlFullTextPhrase.DEFAULT_NGRAM_TOKEN_SIZE;
+
+    private final MySqlFullTextPhrase fullTextPhrase = new MySqlFullTextPhrase();
 
     public MybatisPlusQueryWrapperVisitor(Map<String, FiltroFieldMeta> fieldSpecMap) {
         super(fieldSpecMap);
@@ -20,6 +48,11 @@ public class MybatisPlusQueryWrapperVisitor extends AbstractRSQLVisitor<QueryWra
         super(fieldSpecMap, maxDepth);
     }
 
+    /**
+     * @deprecated IR 中的枚举值已由字段的 {@link cc.ddrpa.filtro.core.codec.FiltroValueCodec} 按预建的常量名表解码，
+     * 无需再反射调用 {@link Enum#valueOf}；需要单独解码时使用 {@link cc.ddrpa.filtro.core.codec.FiltroValueCodecs#forEnum(Class)}
+     */
+    @Deprecated
     public static <T extends Enum<T>> T toEnum(Class<?> clazz, String name) {
         if (clazz == null || name == null) {
             throw new IllegalArgumentException("Enum class and name must not be null");
@@ -51,69 +84,129 @@ public class MybatisPlusQueryWrapperVisitor extends AbstractRSQLVisitor<QueryWra
                 .replace("_", "\\_");
     }
 
+    /**
+     * 与服务端 {@code innodb_ft_min_token_size} 保持一致
+     */
+    public MybatisPlusQueryWrapperVisitor setFullTextMinTokenSize(int fullTextMinTokenSize) {
+        fullTextPhrase.setFullTextMinTokenSize(fullTextMinTokenSize);
+        return this;
+    }
+
+    /**
+     * 与服务端 {@code ngram_token_size} 保持一致
+     */
+    public MybatisPlusQueryWrapperVisitor setNgramTokenSize(int ngramTokenSize) {
+        fullTextPhrase.setNgramTokenSize(ngramTokenSize);
+        return this;
+    }
+
     public void apply(Node rootNode, QueryWrapper<?> rootWrapper) {
-        validateDepth(rootNode);
+        apply(compile(rootNode), rootWrapper);
+    }
+
+    public void apply(FiltroNode rootNode, QueryWrapper<?> rootWrapper) {
         rootNode.accept(this, rootWrapper);
     }
 
     @Override
     public QueryWrapper<?> visit(AndNode node, QueryWrapper<?> param) {
-        param.nested(w -> {
-            for (Node child : node.getChildren()) {
-                child.accept(this, w);
-            }
-        });
-        return param;
+        return compile(node).accept(this, param);
     }
 
     @Override
     public QueryWrapper<?> visit(OrNode node, QueryWrapper<?> param) {
+        return compile(node).accept(this, param);
+    }
+
+    @Override
+    public QueryWrapper<?> visit(ComparisonNode node, QueryWrapper<?> param) {
+        return visit(compile(node), param);
+    }
+
+    /**
+     * AND 的子条件直接以 AND 连接写入当前 wrapper；SQL 中 AND 优先级高于 OR，只有 OR 子节点需要括号。
+     */
+    @Override
+    public QueryWrapper<?> visit(FiltroAndNode node, QueryWrapper<?> param) {
+        for (FiltroNode child : node.children()) {
+            child.accept(this, param);
+        }
+        return param;
+    }
+
+    /**
+     * OR 只可能出现在根节点或 AND 之下，两处都需要括号，以免与调用方追加的条件或外层 AND 结合错误；
+     * 括号内的 AND 分支无需再加括号：{@code a OR b AND c} 即 {@code a OR (b AND c)}。
+     */
+    @Override
+    public QueryWrapper<?> visit(FiltroOrNode node, QueryWrapper<?> param) {
         param.nested(w -> {
             boolean first = true;
-            for (Node child : node.getChildren()) {
-                if (first) {
-                    child.accept(this, w);
-                    first = false;
-                } else {
+            for (FiltroNode child : node.children()) {
+                if (!first) {
                     w.or();
-                    child.accept(this, w);
                 }
+                first = false;
+                child.accept(this, w);
             }
         });
         return param;
     }
 
     @Override
-    public QueryWrapper<?> visit(ComparisonNode node, QueryWrapper<?> param) {
-        ResolvedComparison resolved = resolve(node);
-        FiltroOperator claimedFiltroOperator = resolved.operator();
-        FiltroFieldMeta filtroFieldMeta = resolved.meta();
-        List<?> arguments = resolved.arguments();
-
-        if (filtroFieldMeta.isEnumeration()) {
-            arguments = arguments.stream()
-                    .map(str -> toEnum(filtroFieldMeta.getEnumerationClass(), (String) str))
-                    .toList();
-        }
-        Object firstArgument = arguments.get(0);
+    public QueryWrapper<?> visit(FiltroComparisonNode node, QueryWrapper<?> param) {
+        FiltroOperator claimedFiltroOperator = node.operator();
+        String key = node.key();
         switch (claimedFiltroOperator) {
-            case EQ -> param.eq(filtroFieldMeta.getKey(), firstArgument);
-            case NEQ -> param.ne(filtroFieldMeta.getKey(), firstArgument);
-            case NULLABLE_NEQ -> param.nested(w -> w.isNull(filtroFieldMeta.getKey())
-                    .or().ne(filtroFieldMeta.getKey(), firstArgument));
-            case GT, ALT_GT -> param.gt(filtroFieldMeta.getKey(), firstArgument);
-            case GTE, ALT_GTE -> param.ge(filtroFieldMeta.getKey(), firstArgument);
-            case LT, ALT_LT -> param.lt(filtroFieldMeta.getKey(), firstArgument);
-            case LTE, ALT_LTE -> param.le(filtroFieldMeta.getKey(), firstArgument);
-            case IN -> param.in(filtroFieldMeta.getKey(), arguments);
-            case NOT_IN -> param.notIn(filtroFieldMeta.getKey(), arguments);
-            case CONTAINS -> param.like(filtroFieldMeta.getKey(), escapeLike((String) firstArgument));
-            case NOT_CONTAINS -> param.notLike(filtroFieldMeta.getKey(), escapeLike((String) firstArgument));
-            case IS_NULL -> param.isNull(filtroFieldMeta.getKey());
-            case NOT_NULL -> param.isNotNull(filtroFieldMeta.getKey());
+            case EQ -> param.eq(key, bindValue(node, 0));
+            case NEQ -> param.ne(key, bindValue(node, 0));
+            case NULLABLE_NEQ -> param.nested(w -> w.isNull(key).or().ne(key, bindValue(node, 0)));
+            case GT, ALT_GT -> param.gt(key, bindValue(node, 0));
+            case GTE, ALT_GTE -> param.ge(key, bindValue(node, 0));
+            case LT, ALT_LT -> param.lt(key, bindValue(node, 0));
+            case LTE, ALT_LTE -> param.le(key, bindValue(node, 0));
+            case IN -> param.in(key, bindValues(node));
+            case NOT_IN -> param.notIn(key, bindValues(node));
+            case CONTAINS -> contains(node, param);
+            case NOT_CONTAINS -> param.notLike(key, escapeLike(node.firstArgument()));
+            case STARTS_WITH -> param.likeRight(key, escapeLike(node.firstArgument()));
+            case IS_NULL -> param.isNull(key);
+            case NOT_NULL -> param.isNotNull(key);
             default -> throw new IllegalArgumentException("FiltroOperator " + claimedFiltroOperator.getSymbol()
                     + " is not supported in " + this.getClass().getSimpleName());
         }
         return param;
     }
+
+    private void contains(FiltroComparisonNode node, QueryWrapper<?> param) {
+        String key = node.key();
+        String value = node.firstArgument();
+        String phrase = fullTextPhrase.toPhrase(node.meta(), value);
+        if (phrase == null) {
+            param.like(key, escapeLike(value));
+        } else {
+            param.apply("MATCH(" + key + ") AGAINST({0} IN BOOLEAN MODE)", phrase);
+        }
+    }
+
+    /**
+     * 枚举、数值、布尔、日期时间使用 IR 中的类型化值，由 MyBatis 的 JSR-310 TypeHandler 绑定，
+     * 避免数据库对字符串参数做隐式转换（字符串与 DATETIME 列比较时 MySQL 按字符串语义逐行转换）；其余按原始字符串绑定。
+     */
+    private static Object bindValue(FiltroComparisonNode node, int index) {
+        Object value = node.values().get(index);
+        if (value instanceof Enum<?> || value instanceof Number || value instanceof Boolean
+                || value instanceof Temporal) {
+            return value;
+        }
+        return node.arguments().get(index);
+    }
+
+    private static List<Object> bindValues(FiltroComparisonNode node) {
+        List<Object> values = new ArrayList<>(node.values().size());
+        for (int i = 0; i < node.values().size(); i++) {
+            values.add(bindValue(node, i));
+        }
+        return values;
+    }
 }
@@ -1,8 +1,11 @@
 package cc.ddrpa.filtro.visitor.extension.mp;
 
+import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
 import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.MySqlFullTextPhrase;
 import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import cz.jirutka.rsql.parser.RSQLParser;
 import cz.jirutka.rsql.parser.ast.ComparisonOperator;
@@ -43,7 +46,7 @@ class MybatisPlusQueryWrapperVisitorTest {
         fieldMap = Map.of(
                 "title", meta("title", "title", QueryIntent.SEARCH, String.class,
                         Set.of(FiltroOperator.EQ, FiltroOperator.NEQ,
-                                FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS,
+                                FiltroOperator.CONTAINS, FiltroOperator.NOT_CONTAINS, FiltroOperator.STARTS_WITH,
                                 FiltroOperator.IS_NULL, FiltroOperator.NOT_NULL,
                                 FiltroOperator.NULLABLE_NEQ)),
                 "price", meta("price", "price", QueryIntent.RANGE, Integer.class,
@@ -110,6 +113,13 @@ class MybatisPlusQueryWrapperVisitorTest {
             assertThat(w.getSqlSegment()).contains("LIKE");
         }
 
+        @Test
+        void startsWithGeneratesPrefixLike() {
+            QueryWrapper<?> w = parse("title=startswith=a_b");
+            assertThat(w.getSqlSegment()).contains("title LIKE");
+            assertThat(w.getParamNameValuePairs()).containsValue("a\\_b%");
+        }
+
         @Test
         void notContainsGeneratesNotLike() {
             QueryWrapper<?> w = parse("title=nocontains=java");
@@ -189,6 +199,13 @@ class MybatisPlusQueryWrapperVisitorTest {
             // OR is inside a nested block
             assertThat(w.getSqlSegment()).isNotEmpty();
         }
+
+        @Test
+        void equalityOrChainBecomesIn() {
+            QueryWrapper<?> w = parse("status==ACTIVE,status==INACTIVE");
+            assertThat(w.getSqlSegment()).contains("status IN").doesNotContain("OR");
+            assertThat(w.getParamNameValuePairs()).containsValues(Status.ACTIVE, Status.INACTIVE);
+        }
     }
 
     @Nested
@@ -240,4 +257,145 @@ class MybatisPlusQueryWrapperVisitorTest {
                     .hasMessageContaining("not supported");
         }
     }
+
+    @Nested
+    @DisplayName("不可满足条件")
+    class EmptyResult {
+        private QueryWrapper<?> translate(String rsql) {
+            return new MybatisPlusQueryWrapperNodeHandler(new FiltroRegistry()).parse(fieldMap, parser.parse(rsql));
+        }
+
+        @Test
+        void contradictionEmitsImpossibleCondition() {
+            assertThat(translate("price=lt=10;price=gt=20").getSqlSegment())
+                    .isEqualTo("(" + MybatisPlusQueryWrapperNodeHandler.EMPTY_RESULT_CONDITION + ")");
+        }
+
+        @Test
+        void satisfiableQueryIsEmittedNormally() {
+            assertThat(translate("price=gt=10;price=lt=20").getSqlSegment())
+                    .doesNotContain(MybatisPlusQueryWrapperNodeHandler.EMPTY_RESULT_CONDITION);
+        }
+    }
+
+    @Nested
+    @DisplayName("全文检索")
+    class FullText {
+
+        @Test
+        void fullTextContainsGeneratesMatchAgainst() {
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            QueryWrapper<?> w = parse("title=contains='red car'");
+            assertThat(w.getSqlSegment()).contains("MATCH(title) AGAINST(#{").contains("IN BOOLEAN MODE)")
+                    .doesNotContain("LIKE");
+            assertThat(w.getParamNameValuePairs()).containsValue("\"red car\"");
+        }
+
+        @Test
+        void ngramContainsGeneratesMatchAgainst() {
+            fieldMap.get("title").setSearchMode(SearchMode.NGRAM);
+            QueryWrapper<?> w = parse("title=contains=资产名称");
+            assertThat(w.getSqlSegment()).contains("MATCH(title) AGAINST");
+            assertThat(w.getParamNameValuePairs()).containsValue("\"资产名称\"");
+        }
+
+        @Test
+        void termShorterThanTokenSizeFallsBackToLike() {
+            fieldMap.get("title").setSearchMode(SearchMode.NGRAM);
+            assertThat(parse("title=contains=资").getSqlSegment()).contains("LIKE").doesNotContain("MATCH");
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            assertThat(parse("title=contains='to be'").getSqlSegment()).contains("LIKE");
+        }
+
+        @Test
+        void tokenSizeIsConfigurable() {
+            fieldMap.get("title").setSearchMode(SearchMode.NGRAM);
+            QueryWrapper<?> w = new QueryWrapper<>();
+            new MybatisPlusQueryWrapperVisitor(fieldMap).setNgramTokenSize(1)
+                    .apply(parser.parse("title=contains=资"), w);
+            assertThat(w.getSqlSegment()).contains("MATCH(title)");
+        }
+
+        @Test
+        void quotesAreStrippedFromPhrase() {
+            assertThat(MySqlFullTextPhrase.toPhrase("a\"bc\" de+f", 1)).isEqualTo("\"a bc  de+f\"");
+            assertThat(MySqlFullTextPhrase.toPhrase("\"\"", 2)).isNull();
+        }
+
+        @Test
+        void blankPhraseFallsBackToLike() {
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            assertThat(parse("title=contains='\"\"'").getSqlSegment()).contains("LIKE").doesNotContain("MATCH");
+            assertThat(parse("title=contains=' '").getSqlSegment()).contains("LIKE").doesNotContain("MATCH");
+        }
+
+        @Test
+        void patternModeAndNegationKeepLike() {
+            assertThat(parse("title=contains=java").getSqlSegment()).contains("LIKE");
+            fieldMap.get("title").setSearchMode(SearchMode.FULLTEXT);
+            assertThat(parse("title=nocontains=java").getSqlSegment()).contains("NOT LIKE");
+        }
+    }
+
+    @Nested
+    @DisplayName("日期时间绑定")
+    class Temporal {
+
+        private QueryWrapper<?> parseWithDate(String rsql) {
+            Map<String, FiltroFieldMeta> fields = new java.util.HashMap<>(fieldMap);
+            fields.put("createdAt", meta("createdAt", "created_at", QueryIntent.RANGE, java.time.LocalDateTime.class,
+                    Set.of(FiltroOperator.EQ, FiltroOperator.ALT_GTE, FiltroOperator.ALT_LT)));
+            QueryWrapper<?> wrapper = new QueryWrapper<>();
+            new MybatisPlusQueryWrapperVisitor(fields).apply(parser.parse(rsql), wrapper);
+            // 参数表在生成 SQL 片段时才填充
+            wrapper.getSqlSegment();
+            return wrapper;
+        }
+
+        @Test
+        void temporalValuesAreBoundTyped() {
+            QueryWrapper<?> w = parseWithDate("createdAt>=2024-01-15;createdAt<2024-02-01T08:00:00");
+            assertThat(w.getParamNameValuePairs()).containsValues(
+                    java.time.LocalDate.of(2024, 1, 15), java.time.LocalDateTime.of(2024, 2, 1, 8, 0));
+        }
+
+        @Test
+        void instantIsBoundTyped() {
+            assertThat(parseWithDate("createdAt==2024-01-15T00:00:00Z").getParamNameValuePairs())
+                    .containsValue(java.time.Instant.parse("2024-01-15T00:00:00Z"));
+        }
+    }
+
+    @Nested
+    @DisplayName("括号最小化")
+    class Parentheses {
+
+        private String sql(String rsql) {
+            return parse(rsql).getSqlSegment().replaceAll("#\\{ew\\.paramNameValuePairs\\.\\w+}", "?");
+        }
+
+        @Test
+        void conjunctionIsFlat() {
+            assertThat(sql("title==a;price=gt=1")).isEqualTo("(title = ? AND price > ?)");
+        }
+
+        // MyBatis-Plus 为整个 WHERE 片段加一层外括号；根 OR 仍需自己的括号，调用方之后追加的 AND 条件才不会并入最后一个分支
+        @Test
+        void disjunctionIsParenthesizedOnce() {
+            assertThat(sql("title==a,price=gt=1")).isEqualTo("((title = ? OR price > ?))");
+        }
+
+        @Test
+        void conjunctionInsideDisjunctionNeedsNoParentheses() {
+            assertThat(sql("title==a,(price=gt=1;price=lt=9)"))
+                    .isEqualTo("((title = ? OR price > ? AND price < ?))");
+        }
+
+        @Test
+        void disjunctionInsideConjunctionIsParenthesized() {
+            assertThat(sql("title==a;(price==1,price=gt=9);(title==b,(title==c;(price==3,price==4)))"))
+                    .isEqualTo("(title = ? AND (price = ? OR price > ?)"
+                            + " AND (title = ? OR title = ? AND price IN (?,?)))");
+        }
+    }
 }
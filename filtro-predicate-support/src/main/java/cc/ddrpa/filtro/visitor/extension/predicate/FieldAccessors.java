@@ -0,0 +1,127 @@
+package cc.ddrpa.filtro.visitor.extension.predicate;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 字段读取句柄的解析，结果形如 {@code (Object) -> R}，R 保留字段的声明类型（含基本类型）。
+ * <p>
+ * 注解字段（{@link FiltroFieldMeta#getSourceField()} 非空）优先使用 public getter（record 访问器、{@code getX()}、
+ * {@code isX()}），没有时直接读字段；动态字段按运行时类型查找同名字段，目标为 {@link Map} 时取 {@code map.get(field)}。
+ * <p>
+ * 解析结果按声明类（{@link ClassValue}）或动态字段名缓存，命中时无锁；Provider 刷新后新的元数据指向同一字段，直接复用已有句柄。
+ */
+final class FieldAccessors {
+
+    private static final MethodHandle DYNAMIC_READ;
+
+    // 注解字段：声明类 → 字段 → 句柄；句柄只引用声明类自身，不妨碍其卸载
+    private static final ClassValue<Map<Field, MethodHandle>> FIELD_CACHE = new ClassValue<>() {
+        @Override
+        protected Map<Field, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    // 动态字段名 → 按名读取的句柄
+    private static final Map<String, MethodHandle> DYNAMIC_READERS = new ConcurrentHashMap<>();
+
+    // 动态字段：运行时类型 → 字段名 → 句柄
+    private static final ClassValue<Map<String, MethodHandle>> DYNAMIC_CACHE = new ClassValue<>() {
+        @Override
+        protected Map<String, MethodHandle> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    static {
+        try {
+            DYNAMIC_READ = MethodHandles.lookup().findStatic(FieldAccessors.class, "readDynamic",
+                    MethodType.methodType(Object.class, String.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private FieldAccessors() {
+    }
+
+    static MethodHandle resolve(FiltroFieldMeta meta) {
+        Field field = meta.getSourceField();
+        if (field == null) {
+            return DYNAMIC_READERS.computeIfAbsent(meta.getField(),
+                    name -> MethodHandles.insertArguments(DYNAMIC_READ, 0, name));
+        }
+        return FIELD_CACHE.get(field.getDeclaringClass()).computeIfAbsent(field, key -> {
+            MethodHandle handle = getter(key);
+            return handle.asType(handle.type().changeParameterType(0, Object.class));
+        });
+    }
+
+    private static MethodHandle getter(Field field) {
+        Method method = findGetter(field);
+        if (method != null) {
+            try {
+                return MethodHandles.publicLookup().unreflect(method);
+            } catch (IllegalAccessException ignored) {
+                // 所在类不是 public，退回读字段
+            }
+        }
+        try {
+            field.trySetAccessible();
+            return MethodHandles.lookup().unreflectGetter(field);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot access field " + field.getDeclaringClass().getName()
+                    + "." + field.getName(), e);
+        }
+    }
+
+    private static Method findGetter(Field field) {
+        Class<?> owner = field.getDeclaringClass();
+        String name = field.getName();
+        String capitalized = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String[] candidates = owner.isRecord()
+                ? new String[]{name}
+                : new String[]{"get" + capitalized, "is" + capitalized};
+        for (String candidate : candidates) {
+            try {
+                Method method = owner.getMethod(candidate);
+                if (method.getReturnType() == field.getType() && !Modifier.isStatic(method.getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException ignored) {
+                // 尝试下一个候选
+            }
+        }
+        return null;
+    }
+
+    private static Object readDynamic(String name, Object target) throws Throwable {
+        if (target instanceof Map<?, ?> map) {
+            return map.get(name);
+        }
+        MethodHandle handle = DYNAMIC_CACHE.get(target.getClass())
+                .computeIfAbsent(name, key -> dynamicGetter(target.getClass(), key));
+        return handle.invoke(target);
+    }
+
+    private static MethodHandle dynamicGetter(Class<?> type, String name) {
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            try {
+                MethodHandle handle = getter(current.getDeclaredField(name));
+                return handle.asType(MethodType.methodType(Object.class, Object.class));
+            } catch (NoSuchFieldException ignored) {
+                // 继续查找父类
+            }
+        }
+        throw new IllegalArgumentException("No field '" + name + "' in " + type.getName());
+    }
+}
@@ -0,0 +1,70 @@
+package cc.ddrpa.filtro.visitor.extension.predicate;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cz.jirutka.rsql.parser.ast.Node;
+
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 控制器参数声明为 {@code @FiltroQuery(Asset.class) Predicate<Asset>} 时，将查询编译为内存过滤条件。
+ * <p>
+ * 字段句柄由 {@link FieldAccessors} 按声明类缓存，同一字段在多次请求间只解析一次，读取缓存不加锁。
+ * 设置 {@link #setCompiler(PredicateClassCompiler)} 后，判定树再经字节码编译为隐藏类（需要 {@code org.ow2.asm:asm}）。
+ */
+public class InMemoryPredicateNodeHandler implements RsqlNodeHandler<Predicate<?>> {
+
+    private static final Predicate<Object> NONE = target -> false;
+
+    private final FiltroRegistry filtroRegistry;
+
+    private ZoneId zone = ZoneId.systemDefault();
+    private PredicateClassCompiler compiler;
+
+    public InMemoryPredicateNodeHandler(FiltroRegistry filtroRegistry) {
+        this.filtroRegistry = filtroRegistry;
+    }
+
+    /**
+     * 见 {@link InMemoryPredicateVisitor#setZone(ZoneId)}
+     */
+    public InMemoryPredicateNodeHandler setZone(ZoneId zone) {
+        this.zone = zone;
+        return this;
+    }
+
+    /**
+     * 见 {@link PredicateClassCompiler}，为 null 时（默认）直接返回解释执行的判定树
+     */
+    public InMemoryPredicateNodeHandler setCompiler(PredicateClassCompiler compiler) {
+        this.compiler = compiler;
+        return this;
+    }
+
+    @Override
+    public boolean supports(Class<?> targetType) {
+        return Predicate.class.equals(targetType);
+    }
+
+    @Override
+    public Predicate<?> parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+        return translate(new FiltroPlanner(filtroRegistry.getMaxDepth()).plan(metaMap, queryRoot));
+    }
+
+    @Override
+    public Predicate<?> translate(FiltroPlan plan) {
+        if (plan.isEmptyResult()) {
+            return NONE;
+        }
+        Predicate<Object> tree = new InMemoryPredicateVisitor(plan.getFields(), filtroRegistry.getMaxDepth(),
+                FieldAccessors::resolve)
+                .setZone(zone)
+                .apply(plan.getRoot());
+        return compiler == null ? tree : compiler.compile(tree);
+    }
+}
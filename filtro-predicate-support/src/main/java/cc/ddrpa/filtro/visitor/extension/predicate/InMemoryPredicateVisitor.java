@@ -0,0 +1,505 @@
+package cc.ddrpa.filtro.visitor.extension.predicate;
+
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cc.ddrpa.filtro.core.plan.FiltroAndNode;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroNode;
+import cc.ddrpa.filtro.core.plan.FiltroNodeVisitor;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
+import cc.ddrpa.filtro.core.rsql.AbstractRSQLVisitor;
+import cz.jirutka.rsql.parser.ast.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * IR → 内存中的 {@link Predicate} 树，用于过滤堆内缓存的对象列表。
+ * <p>
+ * 编译时一次性完成字段句柄解析与常量转型，求值时不再查表或解析字符串：
+ * <ul>
+ *   <li>基本类型整数字段（{@code int}/{@code long}/{@code short}/{@code byte}/{@code char}）以 {@code (Object) -> long}
+ *       句柄读取并与 {@code long} 常量比较，{@code =in=} 使用排序后的 {@code long[]} 二分查找，全程不装箱；
+ *       {@code float}/{@code double} 同理使用 {@code double}</li>
+ *   <li>包装类型数值取 {@link Number#longValue()} / {@link Number#doubleValue()} 比较，同样不产生新对象</li>
+ *   <li>日期时间常量按字段类型预先换算（{@link LocalDate} → 当天零点，{@link Instant} ↔ {@link LocalDateTime} /
+ *       {@link Date} 使用 {@link #setZone(ZoneId) 时区}），{@link BigDecimal} 按数值而非标度比较</li>
+ * </ul>
+ * 空值语义与 SQL 一致：字段为 null 时只有 {@code =null=} 与 {@code =nullableneq=} 匹配。
+ * {@code =contains=} 区分大小写，{@link SearchMode#COLLATION} 字段忽略大小写。
+ */
+public class InMemoryPredicateVisitor extends AbstractRSQLVisitor<Predicate<Object>>
+        implements RSQLVisitor<Predicate<Object>, Void>, FiltroNodeVisitor<Predicate<Object>, Void> {
+
+    static final Predicate<Object> ALWAYS = target -> true;
+    static final Predicate<Object> NEVER = target -> false;
+
+    private final Function<FiltroFieldMeta, MethodHandle> accessors;
+    private ZoneId zone = ZoneId.systemDefault();
+
+    public InMemoryPredicateVisitor(Map<String, FiltroFieldMeta> fieldSpecMap) {
+        this(fieldSpecMap, DEFAULT_MAX_DEPTH);
+    }
+
+    public InMemoryPredicateVisitor(Map<String, FiltroFieldMeta> fieldSpecMap, int maxDepth) {
+        this(fieldSpecMap, maxDepth, FieldAccessors::resolve);
+    }
+
+    /**
+     * @param accessors 字段句柄的来源，Handler 借此在多次编译间复用已解析的句柄
+     */
+    InMemoryPredicateVisitor(Map<String, FiltroFieldMeta> fieldSpecMap, int maxDepth,
+                             Function<FiltroFieldMeta, MethodHandle> accessors) {
+        super(fieldSpecMap, maxDepth);
+        this.accessors = accessors;
+    }
+
+    /**
+     * {@link Instant} / {@link Date} 与 {@link LocalDateTime} / {@link LocalDate} 互相换算时使用的时区，默认为系统时区
+     */
+    public InMemoryPredicateVisitor setZone(ZoneId zone) {
+        this.zone = zone;
+        return this;
+    }
+
+    public Predicate<Object> apply(Node rootNode) {
+        return apply(compile(rootNode));
+    }
+
+    public Predicate<Object> apply(FiltroNode rootNode) {
+        return rootNode.accept(this, null);
+    }
+
+    @Override
+    public Predicate<Object> visit(AndNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public Predicate<Object> visit(OrNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public Predicate<Object> visit(ComparisonNode node, Void param) {
+        return apply(compile(node));
+    }
+
+    @Override
+    public Predicate<Object> visit(FiltroAndNode node, Void param) {
+        return new AllOf(children(node.children()));
+    }
+
+    @Override
+    public Predicate<Object> visit(FiltroOrNode node, Void param) {
+        return new AnyOf(children(node.children()));
+    }
+
+    @Override
+    public Predicate<Object> visit(FiltroComparisonNode node, Void param) {
+        MethodHandle getter = accessors.apply(node.meta());
+        Object field = fieldIdentity(node.meta());
+        Class<?> type = getter.type().returnType();
+        FiltroOperator operator = canonical(node.operator());
+        if (operator == FiltroOperator.IS_NULL || operator == FiltroOperator.NOT_NULL) {
+            if (type.isPrimitive()) {
+                return operator == FiltroOperator.NOT_NULL ? ALWAYS : NEVER;
+            }
+            return new NullTest(field, getter.asType(MethodType.methodType(Object.class, Object.class)),
+                    operator == FiltroOperator.IS_NULL);
+        }
+        if (type == long.class || type == int.class || type == short.class || type == byte.class
+                || type == char.class) {
+            return primitiveLong(node, operator, field,
+                    getter.asType(MethodType.methodType(long.class, Object.class)));
+        }
+        if (type == double.class || type == float.class) {
+            return primitiveDouble(node, operator, field,
+                    getter.asType(MethodType.methodType(double.class, Object.class)));
+        }
+        Class<?> valueType = type == Object.class ? wrap(node.meta().getJavaType()) : wrap(type);
+        return new ObjectTest(field, getter.asType(MethodType.methodType(Object.class, Object.class)),
+                valueTest(node, operator, valueType), operator == FiltroOperator.NULLABLE_NEQ);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<Object>[] children(List<FiltroNode> children) {
+        Predicate<Object>[] predicates = new Predicate[children.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = children.get(i).accept(this, null);
+        }
+        return predicates;
+    }
+
+    private Predicate<Object> primitiveLong(FiltroComparisonNode node, FiltroOperator operator, Object field,
+                                            MethodHandle getter) {
+        return switch (operator) {
+            case IN, NOT_IN -> new LongIn(field, getter, longs(node), operator == FiltroOperator.NOT_IN);
+            default -> new LongCompare(field, getter, Cmp.of(operator, node), longValue(node.firstValue(), node));
+        };
+    }
+
+    private Predicate<Object> primitiveDouble(FiltroComparisonNode node, FiltroOperator operator, Object field,
+                                              MethodHandle getter) {
+        return switch (operator) {
+            case IN, NOT_IN -> new DoubleIn(field, getter, doubles(node), operator == FiltroOperator.NOT_IN);
+            default -> new DoubleCompare(field, getter, Cmp.of(operator, node),
+                    doubleValue(node.firstValue(), node));
+        };
+    }
+
+    /**
+     * 字段句柄的身份：注解字段为 {@link java.lang.reflect.Field}，动态字段为字段名。身份相同的句柄读取结果相同
+     */
+    private static Object fieldIdentity(FiltroFieldMeta meta) {
+        return meta.getSourceField() != null ? meta.getSourceField() : meta.getField();
+    }
+
+    /**
+     * 非 null 值上的判定，常量在此一次性换算为字段类型
+     */
+    private Predicate<Object> valueTest(FiltroComparisonNode node, FiltroOperator operator, Class<?> valueType) {
+        switch (operator) {
+            case CONTAINS, NOT_CONTAINS, STARTS_WITH -> {
+                return textTest(node, operator);
+            }
+            case IN, NOT_IN -> {
+                Predicate<Object> member = membership(node, valueType);
+                return operator == FiltroOperator.IN ? member : member.negate();
+            }
+            default -> {
+            }
+        }
+        Cmp cmp = Cmp.of(operator, node);
+        if (isIntegral(valueType)) {
+            return new LongValueCompare(cmp, longValue(node.firstValue(), node));
+        }
+        if (valueType == Double.class || valueType == Float.class) {
+            return new DoubleValueCompare(cmp, doubleValue(node.firstValue(), node));
+        }
+        Object constant = coerce(node.firstValue(), valueType, node);
+        if (cmp == Cmp.EQ || cmp == Cmp.NE) {
+            boolean expected = cmp == Cmp.EQ;
+            if (constant instanceof BigDecimal decimal) {
+                return value -> (decimal.compareTo((BigDecimal) value) == 0) == expected;
+            }
+            return new ValueEquals(constant, !expected);
+        }
+        @SuppressWarnings("unchecked")
+        Comparable<Object> bound = (Comparable<Object>) constant;
+        // value.compareTo(bound) 的符号与 bound.compareTo(value) 相反
+        return value -> cmp.test(-Integer.signum(bound.compareTo(value)));
+    }
+
+    private static Predicate<Object> textTest(FiltroComparisonNode node, FiltroOperator operator) {
+        String text = node.firstArgument();
+        boolean ignoreCase = node.meta().getQueryIntent() == QueryIntent.SEARCH
+                && node.meta().getSearchMode() == SearchMode.COLLATION;
+        if (operator == FiltroOperator.STARTS_WITH) {
+            return value -> value.toString().regionMatches(ignoreCase, 0, text, 0, text.length());
+        }
+        Predicate<Object> contains = ignoreCase
+                ? value -> containsIgnoreCase(value.toString(), text)
+                : value -> value.toString().contains(text);
+        return operator == FiltroOperator.CONTAINS ? contains : contains.negate();
+    }
+
+    private static boolean containsIgnoreCase(String value, String text) {
+        for (int i = 0, last = value.length() - text.length(); i <= last; i++) {
+            if (value.regionMatches(true, i, text, 0, text.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Predicate<Object> membership(FiltroComparisonNode node, Class<?> valueType) {
+        if (isIntegral(valueType)) {
+            long[] sorted = longs(node);
+            return value -> Arrays.binarySearch(sorted, ((Number) value).longValue()) >= 0;
+        }
+        if (valueType == Double.class || valueType == Float.class) {
+            double[] sorted = doubles(node);
+            return value -> Arrays.binarySearch(sorted, ((Number) value).doubleValue()) >= 0;
+        }
+        // BigDecimal 按数值比较，1.0 与 1.00 视为同一个值
+        Set<Object> constants = valueType == BigDecimal.class ? new TreeSet<>() : new HashSet<>();
+        for (Object value : node.values()) {
+            constants.add(coerce(value, valueType, node));
+        }
+        return constants::contains;
+    }
+
+    private Object coerce(Object value, Class<?> valueType, FiltroComparisonNode node) {
+        if (valueType == LocalDateTime.class) {
+            if (value instanceof LocalDate date) {
+                return date.atStartOfDay();
+            }
+            if (value instanceof Instant instant) {
+                return LocalDateTime.ofInstant(instant, zone);
+            }
+        } else if (valueType == Instant.class) {
+            if (value instanceof LocalDate date) {
+                return date.atStartOfDay(zone).toInstant();
+            }
+            if (value instanceof LocalDateTime dateTime) {
+                return dateTime.atZone(zone).toInstant();
+            }
+        } else if (valueType == Date.class) {
+            if (value instanceof Instant instant) {
+                return Date.from(instant);
+            }
+            if (value instanceof LocalDateTime dateTime) {
+                return Date.from(dateTime.atZone(zone).toInstant());
+            }
+            if (value instanceof LocalDate date) {
+                return Date.from(date.atStartOfDay(zone).toInstant());
+            }
+        } else if (valueType == LocalDate.class && !(value instanceof LocalDate)) {
+            throw new IllegalArgumentException("Field " + node.meta().getField()
+                    + " is a date and cannot be compared with " + value);
+        } else if (valueType == String.class && value instanceof Enum<?> constant) {
+            // 以字符串存储、按枚举解码的字段
+            return constant.name();
+        } else if (valueType == BigDecimal.class && value instanceof Number number
+                && !(value instanceof BigDecimal)) {
+            return new BigDecimal(number.toString());
+        }
+        return value;
+    }
+
+    private static long[] longs(FiltroComparisonNode node) {
+        long[] values = new long[node.values().size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = longValue(node.values().get(i), node);
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private static double[] doubles(FiltroComparisonNode node) {
+        double[] values = new double[node.values().size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = doubleValue(node.values().get(i), node);
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    private static long longValue(Object value, FiltroComparisonNode node) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        throw new IllegalArgumentException("Field " + node.meta().getField() + " expects a number, got " + value);
+    }
+
+    private static double doubleValue(Object value, FiltroComparisonNode node) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        throw new IllegalArgumentException("Field " + node.meta().getField() + " expects a number, got " + value);
+    }
+
+    private static boolean isIntegral(Class<?> type) {
+        return type == Long.class || type == Integer.class || type == Short.class || type == Byte.class;
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        if (type == null || !type.isPrimitive()) {
+            return type == null ? Object.class : type;
+        }
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    private static FiltroOperator canonical(FiltroOperator operator) {
+        return switch (operator) {
+            case ALT_GT -> FiltroOperator.GT;
+            case ALT_GTE -> FiltroOperator.GTE;
+            case ALT_LT -> FiltroOperator.LT;
+            case ALT_LTE -> FiltroOperator.LTE;
+            default -> operator;
+        };
+    }
+
+    static RuntimeException rethrow(Throwable e) {
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+    }
+
+    /**
+     * 比较结果（负 / 零 / 正）到布尔值的映射
+     */
+    enum Cmp {
+        EQ, NE, GT, GE, LT, LE;
+
+        static Cmp of(FiltroOperator operator, FiltroComparisonNode node) {
+            return switch (operator) {
+                case EQ -> EQ;
+                case NEQ, NULLABLE_NEQ -> NE;
+                case GT -> GT;
+                case GTE -> GE;
+                case LT -> LT;
+                case LTE -> LE;
+                default -> throw new IllegalArgumentException("FiltroOperator " + operator.getSymbol()
+                        + " is not supported for field " + node.meta().getField()
+                        + " in " + InMemoryPredicateVisitor.class.getSimpleName());
+            };
+        }
+
+        boolean test(int order) {
+            return switch (this) {
+                case EQ -> order == 0;
+                case NE -> order != 0;
+                case GT -> order > 0;
+                case GE -> order >= 0;
+                case LT -> order < 0;
+                case LE -> order <= 0;
+            };
+        }
+    }
+
+    record AllOf(Predicate<Object>[] predicates) implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            for (Predicate<Object> predicate : predicates) {
+                if (!predicate.test(target)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    record AnyOf(Predicate<Object>[] predicates) implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            for (Predicate<Object> predicate : predicates) {
+                if (predicate.test(target)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    record NullTest(Object field, MethodHandle getter, boolean expectNull) implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            try {
+                return ((Object) getter.invokeExact(target) == null) == expectNull;
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+    }
+
+    record ObjectTest(Object field, MethodHandle getter, Predicate<Object> test, boolean whenNull)
+            implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            Object value;
+            try {
+                value = (Object) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return value == null ? whenNull : test.test(value);
+        }
+    }
+
+    record LongCompare(Object field, MethodHandle getter, Cmp cmp, long constant) implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            long value;
+            try {
+                value = (long) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return cmp.test(Long.compare(value, constant));
+        }
+    }
+
+    record LongIn(Object field, MethodHandle getter, long[] sorted, boolean exclude) implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            long value;
+            try {
+                value = (long) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return (Arrays.binarySearch(sorted, value) >= 0) != exclude;
+        }
+    }
+
+    record DoubleCompare(Object field, MethodHandle getter, Cmp cmp, double constant)
+            implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            double value;
+            try {
+                value = (double) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return cmp.test(Double.compare(value, constant));
+        }
+    }
+
+    record DoubleIn(Object field, MethodHandle getter, double[] sorted, boolean exclude)
+            implements Predicate<Object> {
+        @Override
+        public boolean test(Object target) {
+            double value;
+            try {
+                value = (double) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+            return (Arrays.binarySearch(sorted, value) >= 0) != exclude;
+        }
+    }
+
+    /**
+     * 包装类型整数与常量比较，作用于非 null 的字段值
+     */
+    record LongValueCompare(Cmp cmp, long constant) implements Predicate<Object> {
+        @Override
+        public boolean test(Object value) {
+            return cmp.test(Long.compare(((Number) value).longValue(), constant));
+        }
+    }
+
+    record DoubleValueCompare(Cmp cmp, double constant) implements Predicate<Object> {
+        @Override
+        public boolean test(Object value) {
+            return cmp.test(Double.compare(((Number) value).doubleValue(), constant));
+        }
+    }
+
+    record ValueEquals(Object constant, boolean exclude) implements Predicate<Object> {
+        @Override
+        public boolean test(Object value) {
+            return constant.equals(value) != exclude;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package cc.ddrpa.filtro.visitor.extension.predicate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * 以 {@link ForkJoinPool} 分块求值的内存过滤，结果保持原有顺序。
+ * <p>
+ * 行数低于阈值时直接在调用线程上顺序过滤；否则切分为固定大小的块，各块的命中结果写入各自的槽位，全部完成后按块序一次拼接。
+ * {@link InMemoryPredicateNodeHandler} 生成的判定条件（包括编译后的隐藏类）无状态，可被多线程共享。
+ * <pre>{@code
+ * ParallelFilter filter = new ParallelFilter(new ForkJoinPool(16));
+ * List<Asset> matched = filter.filter(assets, predicate);
+ * }</pre>
+ */
+public final class ParallelFilter {
+
+    /**
+     * 默认并行阈值，行数低于该值时顺序过滤
+     */
+    public static final int DEFAULT_THRESHOLD = 100_000;
+
+    /**
+     * 默认每块行数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private final ForkJoinPool pool;
+    private int threshold = DEFAULT_THRESHOLD;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * 使用 {@link ForkJoinPool#commonPool()}
+     */
+    public ParallelFilter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ParallelFilter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ParallelFilter setThreshold(int threshold) {
+        this.threshold = threshold;
+        return this;
+    }
+
+    public ParallelFilter setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive, got " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @return 命中的行，顺序与 {@code rows} 一致，可修改；判定条件抛出的异常原样传播
+     */
+    public <T> List<T> filter(List<? extends T> rows, Predicate<? super T> predicate) {
+        int size = rows.size();
+        if (size < threshold || pool.getParallelism() < 2) {
+            List<T> matched = new ArrayList<>();
+            for (T row : rows) {
+                if (predicate.test(row)) {
+                    matched.add(row);
+                }
+            }
+            return matched;
+        }
+        // 非随机访问的列表按下标读取代价高，先复制为数组
+        Object[] source = rows.toArray();
+        int chunkRows = chunkSize;
+        int chunkCount = (size + chunkRows - 1) / chunkRows;
+        Object[][] chunks = new Object[chunkCount][];
+        int[] counts = new int[chunkCount];
+        pool.invoke(new Scan(source, predicate, chunkRows, chunks, counts, 0, chunkCount));
+
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        // 按总数一次分配，逐块追加，每行只复制一次
+        List<T> matched = new ArrayList<>(total);
+        for (int c = 0; c < chunkCount; c++) {
+            append(matched, chunks[c], counts[c]);
+        }
+        return matched;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void append(List<T> matched, Object[] chunk, int count) {
+        for (int i = 0; i < count; i++) {
+            matched.add((T) chunk[i]);
+        }
+    }
+
+    /**
+     * 二分切分块区间 {@code [from, to)}，每个叶子任务处理一块
+     */
+    private static final class Scan extends RecursiveAction {
+
+        private final Object[] source;
+        private final Predicate<Object> predicate;
+        private final int chunkRows;
+        private final Object[][] chunks;
+        private final int[] counts;
+        private final int from;
+        private final int to;
+
+        @SuppressWarnings("unchecked")
+        Scan(Object[] source, Predicate<?> predicate, int chunkRows, Object[][] chunks, int[] counts,
+             int from, int to) {
+            this.source = source;
+            this.predicate = (Predicate<Object>) predicate;
+            this.chunkRows = chunkRows;
+            this.chunks = chunks;
+            this.counts = counts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Scan(source, predicate, chunkRows, chunks, counts, from, middle),
+                        new Scan(source, predicate, chunkRows, chunks, counts, middle, to));
+                return;
+            }
+            int start = from * chunkRows;
+            int end = Math.min(start + chunkRows, source.length);
+            Object[] matched = new Object[end - start];
+            int count = 0;
+            for (int i = start; i < end; i++) {
+                if (predicate.test(source[i])) {
+                    matched[count++] = source[i];
+                }
+            }
+            chunks[from] = matched;
+            counts[from] = count;
+        }
+    }
+}
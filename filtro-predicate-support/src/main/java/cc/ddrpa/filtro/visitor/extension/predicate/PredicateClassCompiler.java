@@ -0,0 +1,397 @@
+package cc.ddrpa.filtro.visitor.extension.predicate;
+
+import cc.ddrpa.filtro.visitor.extension.predicate.InMemoryPredicateVisitor.*;
+import org.objectweb.asm.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * 将 {@link InMemoryPredicateVisitor} 产出的判定树编译为隐藏类（{@link MethodHandles.Lookup#defineHiddenClass}），
+ * 其 {@code test(Object)} 是一段没有多态分派的直线代码，JIT 可将整个条件内联进调用方的循环。
+ * <ul>
+ *   <li>生成的类按查询形状（逻辑结构、字段、操作符）缓存，常量不参与形状：{@code price>10} 与 {@code price>20} 共用一个类</li>
+ *   <li>字段句柄作为类数据（class data），以常量动态（condy）加载，JIT 将其视为常量并内联到字段读取</li>
+ *   <li>常量作为实例的 final 字段，由构造器一次性绑定；隐藏类的 final 字段同样受 JIT 信任</li>
+ *   <li>基本类型与包装类型数值的比较、{@code ==} / {@code !=} 直接生成字节码；文本匹配、{@code BigDecimal}、日期与
+ *       {@code =in=} 集合等仍调用字段中保存的 {@link Predicate}，调用点属于生成的类，类型剖面保持单态</li>
+ * </ul>
+ * 缓存达到上限后，新形状不再生成类，直接返回解释执行的判定树：查询形状由客户端决定，否则每个请求都可能定义一个新类。
+ * 编译结果与解释执行的判定树语义一致。
+ */
+public class PredicateClassCompiler {
+
+    public static final int DEFAULT_MAX_SHAPES = 256;
+
+    private static final String CLASS_NAME =
+            PredicateClassCompiler.class.getPackageName().replace('.', '/') + "/CompiledPredicate";
+    private static final String PREDICATE = Type.getInternalName(Predicate.class);
+    private static final String TEST_DESCRIPTOR = "(Ljava/lang/Object;)Z";
+    private static final String METHOD_HANDLE = Type.getInternalName(MethodHandle.class);
+    private static final Handle CLASS_DATA_AT = new Handle(H_INVOKESTATIC,
+            Type.getInternalName(MethodHandles.class), "classDataAt",
+            "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;I)Ljava/lang/Object;",
+            false);
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Predicate.class, Object[].class);
+
+    private final Map<Shape, MethodHandle> factories = new ConcurrentHashMap<>();
+    private final int maxShapes;
+
+    public PredicateClassCompiler() {
+        this(DEFAULT_MAX_SHAPES);
+    }
+
+    /**
+     * @param maxShapes 最多缓存的形状数；生成的类持有字段句柄，也就持有实体类，需要限制数量
+     */
+    public PredicateClassCompiler(int maxShapes) {
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * @param tree {@link InMemoryPredicateVisitor} 的编译结果；其他 {@link Predicate} 原样作为一个整体调用
+     * @return 生成类的实例；形状未缓存且缓存已满时为 tree 本身
+     */
+    @SuppressWarnings("unchecked")
+    public Predicate<Object> compile(Predicate<Object> tree) {
+        Layout layout = new Layout();
+        layout.walk(tree);
+        Shape shape = new Shape(layout.descriptor.toString(), layout.fields);
+        MethodHandle factory = factories.get(shape);
+        if (factory == null) {
+            if (factories.size() >= maxShapes) {
+                return tree;
+            }
+            factory = define(tree, layout);
+            MethodHandle prior = factories.putIfAbsent(shape, factory);
+            factory = prior != null ? prior : factory;
+        }
+        Object[] constants = layout.constants.toArray();
+        try {
+            return (Predicate<Object>) factory.invokeExact(constants);
+        } catch (Throwable e) {
+            throw InMemoryPredicateVisitor.rethrow(e);
+        }
+    }
+
+    /**
+     * @return 已缓存的形状数
+     */
+    public int getCachedShapes() {
+        return factories.size();
+    }
+
+    private static MethodHandle define(Predicate<Object> tree, Layout layout) {
+        byte[] bytes = new Generator(layout).generate(tree);
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytes, List.copyOf(layout.getters), true);
+            return lookup.findConstructor(lookup.lookupClass(), MethodType.methodType(void.class, Object[].class))
+                    .asType(FACTORY_TYPE);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot define compiled predicate for shape " + layout.descriptor, e);
+        }
+    }
+
+    /**
+     * 形状：结构描述串 + 各字段句柄的身份（{@link java.lang.reflect.Field} 或动态字段名）
+     */
+    private record Shape(String descriptor, List<Object> fields) {
+    }
+
+    /**
+     * 按先序遍历为字段句柄与常量编号，同时写出形状描述串；{@link Generator} 以相同顺序遍历，编号一一对应
+     */
+    private static final class Layout {
+        private final StringBuilder descriptor = new StringBuilder(64);
+        private final List<Object> fields = new ArrayList<>();
+        private final List<MethodHandle> getters = new ArrayList<>();
+        private final List<Object> constants = new ArrayList<>();
+        private final List<String> constantTypes = new ArrayList<>();
+
+        private void walk(Predicate<Object> node) {
+            if (node instanceof AllOf all) {
+                group('&', all.predicates());
+            } else if (node instanceof AnyOf any) {
+                group('|', any.predicates());
+            } else if (node == InMemoryPredicateVisitor.ALWAYS) {
+                descriptor.append('T');
+            } else if (node == InMemoryPredicateVisitor.NEVER) {
+                descriptor.append('F');
+            } else if (node instanceof NullTest test) {
+                getter("N", test.field(), test.getter()).append(test.expectNull());
+            } else if (node instanceof LongCompare test) {
+                getter("J", test.field(), test.getter()).append(test.cmp());
+                constant(test.constant(), "J");
+            } else if (node instanceof LongIn test) {
+                getter("JI", test.field(), test.getter()).append(test.exclude());
+                constant(test.sorted(), "[J");
+            } else if (node instanceof DoubleCompare test) {
+                getter("D", test.field(), test.getter()).append(test.cmp());
+                constant(test.constant(), "D");
+            } else if (node instanceof DoubleIn test) {
+                getter("DI", test.field(), test.getter()).append(test.exclude());
+                constant(test.sorted(), "[D");
+            } else if (node instanceof ObjectTest test) {
+                getter("O", test.field(), test.getter()).append(test.whenNull()).append(':');
+                value(test.test());
+            } else {
+                descriptor.append('P');
+                constant(node, "L" + PREDICATE + ";");
+            }
+            descriptor.append(',');
+        }
+
+        private void group(char kind, Predicate<Object>[] children) {
+            descriptor.append(kind).append('(');
+            for (Predicate<Object> child : children) {
+                walk(child);
+            }
+            descriptor.append(')');
+        }
+
+        private void value(Predicate<Object> test) {
+            if (test instanceof LongValueCompare compare) {
+                descriptor.append('j').append(compare.cmp());
+                constant(compare.constant(), "J");
+            } else if (test instanceof DoubleValueCompare compare) {
+                descriptor.append('d').append(compare.cmp());
+                constant(compare.constant(), "D");
+            } else if (test instanceof ValueEquals equals) {
+                descriptor.append('e').append(equals.exclude());
+                constant(equals.constant(), "Ljava/lang/Object;");
+            } else {
+                descriptor.append('p');
+                constant(test, "L" + PREDICATE + ";");
+            }
+        }
+
+        private StringBuilder getter(String kind, Object field, MethodHandle getter) {
+            fields.add(field);
+            getters.add(getter);
+            return descriptor.append(kind).append(getters.size() - 1).append(':');
+        }
+
+        private void constant(Object value, String type) {
+            constants.add(value);
+            constantTypes.add(type);
+        }
+    }
+
+    private static final class Generator {
+        private final Layout layout;
+        private MethodVisitor mv;
+        private int nextGetter;
+        private int nextConstant;
+
+        private Generator(Layout layout) {
+            this.layout = layout;
+        }
+
+        private byte[] generate(Predicate<Object> tree) {
+            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+                @Override
+                protected String getCommonSuperClass(String type1, String type2) {
+                    // 合并点上只有 Object 与字段值，无需加载类
+                    return "java/lang/Object";
+                }
+            };
+            cw.visit(V17, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, CLASS_NAME, null, "java/lang/Object",
+                    new String[]{PREDICATE});
+            for (int i = 0; i < layout.constantTypes.size(); i++) {
+                cw.visitField(ACC_PRIVATE | ACC_FINAL, "c" + i, layout.constantTypes.get(i), null, null).visitEnd();
+            }
+            constructor(cw);
+
+            mv = cw.visitMethod(ACC_PUBLIC, "test", TEST_DESCRIPTOR, null, null);
+            mv.visitCode();
+            Label fail = new Label();
+            branch(tree, false, fail);
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(IRETURN);
+            mv.visitLabel(fail);
+            mv.visitInsn(ICONST_0);
+            mv.visitInsn(IRETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        private void constructor(ClassWriter cw) {
+            MethodVisitor init = cw.visitMethod(0, "<init>", "([Ljava/lang/Object;)V", null, null);
+            init.visitCode();
+            init.visitVarInsn(ALOAD, 0);
+            init.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+            for (int i = 0; i < layout.constantTypes.size(); i++) {
+                String type = layout.constantTypes.get(i);
+                init.visitVarInsn(ALOAD, 0);
+                init.visitVarInsn(ALOAD, 1);
+                init.visitLdcInsn(i);
+                init.visitInsn(AALOAD);
+                switch (type) {
+                    case "J" -> {
+                        init.visitTypeInsn(CHECKCAST, "java/lang/Long");
+                        init.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Long", "longValue", "()J", false);
+                    }
+                    case "D" -> {
+                        init.visitTypeInsn(CHECKCAST, "java/lang/Double");
+                        init.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Double", "doubleValue", "()D", false);
+                    }
+                    case "Ljava/lang/Object;" -> {
+                    }
+                    default -> init.visitTypeInsn(CHECKCAST, Type.getType(type).getInternalName());
+                }
+                init.visitFieldInsn(PUTFIELD, CLASS_NAME, "c" + i, type);
+            }
+            init.visitInsn(RETURN);
+            init.visitMaxs(0, 0);
+            init.visitEnd();
+        }
+
+        /**
+         * 生成 node 的判定代码：结果等于 jumpIf 时跳转到 target，否则顺序执行
+         */
+        private void branch(Predicate<Object> node, boolean jumpIf, Label target) {
+            if (node instanceof AllOf all) {
+                group(all.predicates(), true, jumpIf, target);
+            } else if (node instanceof AnyOf any) {
+                group(any.predicates(), false, jumpIf, target);
+            } else if (node == InMemoryPredicateVisitor.ALWAYS || node == InMemoryPredicateVisitor.NEVER) {
+                if ((node == InMemoryPredicateVisitor.ALWAYS) == jumpIf) {
+                    mv.visitJumpInsn(GOTO, target);
+                }
+            } else if (node instanceof NullTest test) {
+                read("Ljava/lang/Object;");
+                mv.visitJumpInsn(test.expectNull() == jumpIf ? IFNULL : IFNONNULL, target);
+            } else if (node instanceof LongCompare test) {
+                read("J");
+                loadConstant("J");
+                mv.visitInsn(LCMP);
+                mv.visitJumpInsn(compare(test.cmp(), jumpIf), target);
+            } else if (node instanceof DoubleCompare test) {
+                read("D");
+                loadConstant("D");
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "compare", "(DD)I", false);
+                mv.visitJumpInsn(compare(test.cmp(), jumpIf), target);
+            } else if (node instanceof LongIn test) {
+                // 先取常量数组再读字段，栈上顺序与 binarySearch 的参数一致
+                loadConstant("[J");
+                read("J");
+                mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "binarySearch", "([JJ)I", false);
+                mv.visitJumpInsn(!test.exclude() == jumpIf ? IFGE : IFLT, target);
+            } else if (node instanceof DoubleIn test) {
+                loadConstant("[D");
+                read("D");
+                mv.visitMethodInsn(INVOKESTATIC, "java/util/Arrays", "binarySearch", "([DD)I", false);
+                mv.visitJumpInsn(!test.exclude() == jumpIf ? IFGE : IFLT, target);
+            } else if (node instanceof ObjectTest test) {
+                objectTest(test, jumpIf, target);
+            } else {
+                loadConstant("L" + PREDICATE + ";");
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEINTERFACE, PREDICATE, "test", TEST_DESCRIPTOR, true);
+                mv.visitJumpInsn(jumpIf ? IFNE : IFEQ, target);
+            }
+        }
+
+        /**
+         * AND 在任一子条件为假时短路，OR 在任一子条件为真时短路；其余子条件跳过到组末尾
+         */
+        private void group(Predicate<Object>[] children, boolean conjunction, boolean jumpIf, Label target) {
+            if (children.length == 0) {
+                if (conjunction == jumpIf) {
+                    mv.visitJumpInsn(GOTO, target);
+                }
+                return;
+            }
+            boolean shortCircuit = !conjunction;
+            if (shortCircuit == jumpIf) {
+                for (Predicate<Object> child : children) {
+                    branch(child, jumpIf, target);
+                }
+                return;
+            }
+            Label end = new Label();
+            for (int i = 0; i < children.length - 1; i++) {
+                branch(children[i], shortCircuit, end);
+            }
+            branch(children[children.length - 1], jumpIf, target);
+            mv.visitLabel(end);
+        }
+
+        private void objectTest(ObjectTest test, boolean jumpIf, Label target) {
+            read("Ljava/lang/Object;");
+            Label present = new Label();
+            Label end = new Label();
+            mv.visitInsn(DUP);
+            mv.visitJumpInsn(IFNONNULL, present);
+            mv.visitInsn(POP);
+            mv.visitJumpInsn(GOTO, test.whenNull() == jumpIf ? target : end);
+            mv.visitLabel(present);
+            Predicate<Object> value = test.test();
+            if (value instanceof LongValueCompare compare) {
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Number");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Number", "longValue", "()J", false);
+                loadConstant("J");
+                mv.visitInsn(LCMP);
+                mv.visitJumpInsn(compare(compare.cmp(), jumpIf), target);
+            } else if (value instanceof DoubleValueCompare compare) {
+                mv.visitTypeInsn(CHECKCAST, "java/lang/Number");
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Number", "doubleValue", "()D", false);
+                loadConstant("D");
+                mv.visitMethodInsn(INVOKESTATIC, "java/lang/Double", "compare", "(DD)I", false);
+                mv.visitJumpInsn(compare(compare.cmp(), jumpIf), target);
+            } else if (value instanceof ValueEquals equals) {
+                loadConstant("Ljava/lang/Object;");
+                mv.visitInsn(SWAP);
+                mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object", "equals", "(Ljava/lang/Object;)Z", false);
+                mv.visitJumpInsn(!equals.exclude() == jumpIf ? IFNE : IFEQ, target);
+            } else {
+                loadConstant("L" + PREDICATE + ";");
+                mv.visitInsn(SWAP);
+                mv.visitMethodInsn(INVOKEINTERFACE, PREDICATE, "test", TEST_DESCRIPTOR, true);
+                mv.visitJumpInsn(jumpIf ? IFNE : IFEQ, target);
+            }
+            mv.visitLabel(end);
+        }
+
+        /**
+         * 以类数据中的句柄读取字段，结果类型为 returnType
+         */
+        private void read(String returnType) {
+            mv.visitLdcInsn(new ConstantDynamic("_", "L" + METHOD_HANDLE + ";", CLASS_DATA_AT, nextGetter++));
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitMethodInsn(INVOKEVIRTUAL, METHOD_HANDLE, "invokeExact", "(Ljava/lang/Object;)" + returnType,
+                    false);
+        }
+
+        private void loadConstant(String type) {
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitFieldInsn(GETFIELD, CLASS_NAME, "c" + nextConstant++, type);
+        }
+
+        /**
+         * 栈顶为比较结果（负 / 零 / 正），返回 cmp 成立（jumpIf 为 true）或不成立时跳转的指令
+         */
+        private static int compare(Cmp cmp, boolean jumpIf) {
+            return switch (cmp) {
+                case EQ -> jumpIf ? IFEQ : IFNE;
+                case NE -> jumpIf ? IFNE : IFEQ;
+                case GT -> jumpIf ? IFGT : IFLE;
+                case GE -> jumpIf ? IFGE : IFLT;
+                case LT -> jumpIf ? IFLT : IFGE;
+                case LE -> jumpIf ? IFLE : IFGT;
+            };
+        }
+    }
+}
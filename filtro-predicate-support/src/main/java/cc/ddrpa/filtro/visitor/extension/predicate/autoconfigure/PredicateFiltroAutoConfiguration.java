@@ -0,0 +1,20 @@
+package cc.ddrpa.filtro.visitor.extension.predicate.autoconfigure;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cc.ddrpa.filtro.visitor.extension.predicate.InMemoryPredicateNodeHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.Predicate;
+
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnClass(InMemoryPredicateNodeHandler.class)
+public class PredicateFiltroAutoConfiguration {
+
+    @Bean
+    public RsqlNodeHandler<Predicate<?>> inMemoryPredicateNodeHandler(FiltroRegistry filtroRegistry) {
+        return new InMemoryPredicateNodeHandler(filtroRegistry);
+    }
+}
@@ -0,0 +1,344 @@
+package cc.ddrpa.filtro.visitor.extension.predicate;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.annotation.Filtro;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroFieldMetaBuilder;
+import cc.ddrpa.filtro.core.field.FiltroFieldMetaFactory;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.field.SearchMode;
+import cz.jirutka.rsql.parser.RSQLParser;
+import cz.jirutka.rsql.parser.ast.ComparisonOperator;
+import cz.jirutka.rsql.parser.ast.RSQLOperators;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryPredicateVisitorTest {
+
+    private static final List<Asset> ASSETS = List.of(
+            new Asset(1, 10, 4.5, 2.0, new BigDecimal("9.90"), "Java Handbook", Status.ACTIVE,
+                    LocalDateTime.of(2024, 1, 10, 8, 0), true),
+            new Asset(2, 0, null, 1.5, new BigDecimal("25"), "python cookbook", Status.INACTIVE,
+                    LocalDateTime.of(2024, 3, 1, 8, 0), false),
+            new Asset(3, 5, 3.0, 0.5, null, null, Status.ACTIVE, null, null));
+
+    private Map<String, FiltroFieldMeta> fieldMap;
+    private RSQLParser parser;
+    private PredicateClassCompiler compiler;
+
+    @BeforeEach
+    void setUp() {
+        fieldMap = new HashMap<>();
+        for (Field field : Asset.class.getDeclaredFields()) {
+            Filtro anno = field.getAnnotation(Filtro.class);
+            if (anno != null) {
+                FiltroFieldMeta meta = new FiltroFieldMetaBuilder(field, anno).build();
+                meta.setSupportedOperations(EnumSet.allOf(FiltroOperator.class));
+                fieldMap.put(meta.getField(), meta);
+            }
+        }
+
+        Set<ComparisonOperator> operators = new HashSet<>(RSQLOperators.defaultOperators());
+        Pattern symbolPattern = Pattern.compile("=[a-zA-Z]*=|[><]=?|!=");
+        Arrays.stream(FiltroOperator.values())
+                .filter(op -> !op.isRsqlOriginal())
+                .filter(op -> symbolPattern.matcher(op.getSymbol()).matches())
+                .map(op -> new ComparisonOperator(op.getSymbol(), op.isMultiValue()))
+                .forEach(operators::add);
+        parser = new RSQLParser(operators);
+        compiler = new PredicateClassCompiler();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Predicate<Object> compile(String rsql) {
+        return (Predicate<Object>) new InMemoryPredicateNodeHandler(new FiltroRegistry())
+                .setZone(ZoneOffset.UTC)
+                .parse(fieldMap, parser.parse(rsql));
+    }
+
+    /**
+     * 同时以解释执行与字节码编译两种方式求值，两者结果必须一致
+     */
+    private List<Long> ids(String rsql) {
+        Predicate<Object> predicate = compile(rsql);
+        List<Long> interpreted = ASSETS.stream().filter(predicate).map(Asset::getId).toList();
+        List<Long> compiled = ASSETS.stream().filter(compiler.compile(predicate)).map(Asset::getId).toList();
+        assertThat(compiled).as("compiled %s", rsql).isEqualTo(interpreted);
+        return interpreted;
+    }
+
+    enum Status {ACTIVE, INACTIVE}
+
+    static class Asset {
+        @Filtro
+        private final long id;
+        // 无 getter，直接读字段
+        @Filtro
+        private final int stock;
+        @Filtro
+        private final Double rating;
+        @Filtro
+        private final double weight;
+        @Filtro
+        private final BigDecimal price;
+        @Filtro(intent = QueryIntent.SEARCH)
+        private final String name;
+        @Filtro
+        private final Status status;
+        @Filtro
+        private final LocalDateTime createdAt;
+        @Filtro
+        private final Boolean active;
+
+        Asset(long id, int stock, Double rating, double weight, BigDecimal price, String name, Status status,
+              LocalDateTime createdAt, Boolean active) {
+            this.id = id;
+            this.stock = stock;
+            this.rating = rating;
+            this.weight = weight;
+            this.price = price;
+            this.name = name;
+            this.status = status;
+            this.createdAt = createdAt;
+            this.active = active;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public Double getRating() {
+            return rating;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    record Book(String title, int pages) {
+    }
+
+    @Nested
+    @DisplayName("数值")
+    class Numbers {
+        @Test
+        void primitiveLongAndInt() {
+            assertThat(ids("id>1")).containsExactly(2L, 3L);
+            assertThat(ids("stock>=5;stock<=10")).containsExactly(1L, 3L);
+            assertThat(ids("stock=in=(0,5)")).containsExactly(2L, 3L);
+            assertThat(ids("stock=out=(0,5)")).containsExactly(1L);
+        }
+
+        @Test
+        void primitiveDouble() {
+            assertThat(ids("weight<1.6")).containsExactly(2L, 3L);
+        }
+
+        @Test
+        void boxedNullNeverMatchesComparison() {
+            assertThat(ids("rating>1")).containsExactly(1L, 3L);
+            assertThat(ids("rating!=3.0")).containsExactly(1L);
+            assertThat(ids("rating=nullableneq=3.0")).containsExactly(1L, 2L);
+        }
+
+        @Test
+        void bigDecimalComparesByValue() {
+            assertThat(ids("price==9.9")).containsExactly(1L);
+            assertThat(ids("price=in=(25.00,1)")).containsExactly(2L);
+            assertThat(ids("price>10")).containsExactly(2L);
+        }
+
+        @Test
+        void primitiveIsNeverNull() {
+            assertThat(ids("stock=null=''")).isEmpty();
+            assertThat(ids("stock=nonull=''")).containsExactly(1L, 2L, 3L);
+        }
+    }
+
+    @Nested
+    @DisplayName("其他类型")
+    class Others {
+        @Test
+        void text() {
+            assertThat(ids("name=contains=cook")).containsExactly(2L);
+            assertThat(ids("name=nocontains=cook")).containsExactly(1L);
+            assertThat(ids("name=startswith=Java")).containsExactly(1L);
+            assertThat(ids("name=null=''")).containsExactly(3L);
+        }
+
+        @Test
+        void collationIgnoresCase() {
+            fieldMap.get("name").setSearchMode(SearchMode.COLLATION);
+            assertThat(ids("name=contains=JAVA")).containsExactly(1L);
+            assertThat(ids("name=startswith=PY")).containsExactly(2L);
+        }
+
+        @Test
+        void enumAndBoolean() {
+            assertThat(ids("status==ACTIVE")).containsExactly(1L, 3L);
+            assertThat(ids("status=out=(ACTIVE)")).containsExactly(2L);
+            assertThat(ids("active==false")).containsExactly(2L);
+        }
+
+        @Test
+        void dateTimeConstantsAreCoerced() {
+            assertThat(ids("createdAt>2024-02-01T00:00:00")).containsExactly(2L);
+            assertThat(ids("createdAt>=2024-01-10")).containsExactly(1L, 2L);
+            assertThat(ids("createdAt<2024-01-10T08:00:00Z")).isEmpty();
+        }
+
+        @Test
+        void accessorsAreSharedAcrossRefreshedMeta() throws NoSuchFieldException {
+            Field field = Asset.class.getDeclaredField("stock");
+            FiltroFieldMeta refreshed = new FiltroFieldMetaBuilder(field, field.getAnnotation(Filtro.class)).build();
+            assertThat(FieldAccessors.resolve(refreshed)).isSameAs(FieldAccessors.resolve(fieldMap.get("stock")));
+        }
+    }
+
+    @Nested
+    @DisplayName("逻辑与访问方式")
+    class Logic {
+        @Test
+        void andOr() {
+            assertThat(ids("status==ACTIVE;(stock>5,rating<3.5)")).containsExactly(1L, 3L);
+            assertThat(ids("id==2,name=contains=Java")).containsExactly(1L, 2L);
+        }
+
+        @Test
+        void contradictionMatchesNothing() {
+            assertThat(ids("stock>10;stock<5")).isEmpty();
+        }
+
+        @Test
+        void recordAccessor() throws NoSuchFieldException {
+            Field pages = Book.class.getDeclaredField("pages");
+            FiltroFieldMeta meta = new FiltroFieldMeta().setField("pages").setKey("pages")
+                    .setQueryIntent(QueryIntent.RANGE).setJavaType(int.class).setSourceField(pages)
+                    .setSupportedOperations(EnumSet.of(FiltroOperator.ALT_GT));
+            Predicate<Object> predicate = new InMemoryPredicateVisitor(Map.of("pages", meta))
+                    .apply(parser.parse("pages>100"));
+            assertThat(predicate.test(new Book("a", 300))).isTrue();
+            assertThat(predicate.test(new Book("b", 50))).isFalse();
+        }
+
+        @Test
+        void dynamicFieldsReadMapsAndObjects() {
+            FiltroFieldMeta meta = new FiltroFieldMeta().setField("stock").setKey("stock")
+                    .setQueryIntent(QueryIntent.RANGE).setJavaType(Integer.class)
+                    .setSupportedOperations(EnumSet.of(FiltroOperator.ALT_GT));
+            Predicate<Object> predicate = new InMemoryPredicateVisitor(Map.of("stock", meta))
+                    .apply(parser.parse("stock>3"));
+            assertThat(predicate.test(Map.of("stock", 4))).isTrue();
+            assertThat(predicate.test(new HashMap<>())).isFalse();
+            assertThat(ASSETS.stream().filter(predicate).map(Asset::getId)).containsExactly(1L, 3L);
+        }
+
+        @Test
+        void enumDecodedStringFieldComparesByName() {
+            FiltroFieldMeta meta = FiltroFieldMetaFactory.create("status", QueryIntent.EXACT, String.class)
+                    .enumerationClass(Status.class)
+                    .build();
+            Predicate<Object> predicate = new InMemoryPredicateVisitor(Map.of("status", meta))
+                    .apply(parser.parse("status=in=(ACTIVE)"));
+            assertThat(predicate.test(Map.of("status", "ACTIVE"))).isTrue();
+            assertThat(predicate.test(Map.of("status", "INACTIVE"))).isFalse();
+        }
+
+        @Test
+        void legacyDateConstantsAreCoerced() {
+            FiltroFieldMeta meta = new FiltroFieldMeta().setField("at").setKey("at")
+                    .setQueryIntent(QueryIntent.RANGE).setJavaType(Date.class)
+                    .setSupportedOperations(EnumSet.of(FiltroOperator.ALT_GT, FiltroOperator.EQ, FiltroOperator.IN));
+            Map<String, FiltroFieldMeta> fields = Map.of("at", meta);
+            Map<String, Object> row = Map.of("at", Date.from(LocalDateTime.of(2024, 1, 10, 8, 0)
+                    .toInstant(ZoneOffset.UTC)));
+            InMemoryPredicateVisitor visitor = new InMemoryPredicateVisitor(fields).setZone(ZoneOffset.UTC);
+            assertThat(visitor.apply(parser.parse("at>2024-01-10")).test(row)).isTrue();
+            assertThat(visitor.apply(parser.parse("at>2024-01-10T08:00:00Z")).test(row)).isFalse();
+            assertThat(visitor.apply(parser.parse("at==2024-01-10T08:00:00")).test(row)).isTrue();
+            assertThat(visitor.apply(parser.parse("at=in=(2024-01-10T08:00:00Z,2024-02-01)")).test(row)).isTrue();
+        }
+
+        @Test
+        void dateFieldRejectsDateTimeConstant() {
+            FiltroFieldMeta meta = new FiltroFieldMeta().setField("day").setKey("day")
+                    .setQueryIntent(QueryIntent.RANGE).setJavaType(java.time.LocalDate.class)
+                    .setSupportedOperations(EnumSet.of(FiltroOperator.ALT_GT));
+            assertThatThrownBy(() -> new InMemoryPredicateVisitor(Map.of("day", meta))
+                    .apply(parser.parse("day>2024-01-01T10:00:00")))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("字节码编译")
+    class Compiled {
+        @Test
+        void constantsDoNotChangeShape() {
+            Predicate<Object> cheap = compiler.compile(compile("stock>5;status==ACTIVE"));
+            Predicate<Object> wide = compiler.compile(compile("stock>-1;status==INACTIVE"));
+            assertThat(cheap.getClass()).isSameAs(wide.getClass());
+            assertThat(cheap.getClass().isHidden()).isTrue();
+            assertThat(compiler.getCachedShapes()).isEqualTo(1);
+            assertThat(ASSETS.stream().filter(cheap).map(Asset::getId)).containsExactly(1L);
+            assertThat(ASSETS.stream().filter(wide).map(Asset::getId)).containsExactly(2L);
+        }
+
+        @Test
+        void operatorsAndFieldsChangeShape() {
+            compiler.compile(compile("stock>5"));
+            compiler.compile(compile("stock<5"));
+            compiler.compile(compile("id>5"));
+            assertThat(compiler.getCachedShapes()).isEqualTo(3);
+        }
+
+        @Test
+        void cacheIsBounded() {
+            PredicateClassCompiler bounded = new PredicateClassCompiler(1);
+            Class<?> cached = bounded.compile(compile("stock>5")).getClass();
+            Predicate<Object> tree = compile("id>1");
+            Predicate<Object> uncached = bounded.compile(tree);
+            // 缓存已满时不再定义新类，退回解释执行
+            assertThat(uncached).isSameAs(tree);
+            assertThat(bounded.compile(tree)).isSameAs(tree);
+            assertThat(bounded.getCachedShapes()).isEqualTo(1);
+            assertThat(ASSETS.stream().filter(uncached).map(Asset::getId)).containsExactly(2L, 3L);
+            // 已缓存的形状照常复用
+            assertThat(bounded.compile(compile("stock>0")).getClass()).isSameAs(cached);
+        }
+
+        @Test
+        void handlerCompilesWhenEnabled() {
+            InMemoryPredicateNodeHandler handler = new InMemoryPredicateNodeHandler(new FiltroRegistry())
+                    .setCompiler(compiler);
+            Predicate<?> predicate = handler.parse(fieldMap, parser.parse("rating>=3.0;name=nonull=''"));
+            assertThat(predicate.getClass().getName()).contains("CompiledPredicate");
+            // 矛盾条件直接返回恒假，不经编译
+            assertThat(handler.parse(fieldMap, parser.parse("stock>10;stock<5")).getClass().getName())
+                    .doesNotContain("CompiledPredicate");
+        }
+
+        @Test
+        void deepAlternation() {
+            assertThat(ids("id==1,(stock>0;(rating=nullableneq=4.5,(weight<1;name=null='')))"))
+                    .containsExactly(1L, 3L);
+            assertThat(ids("(id==1,stock==0);(status==ACTIVE,active==false);rating=null=''"))
+                    .containsExactly(2L);
+        }
+    }
+}
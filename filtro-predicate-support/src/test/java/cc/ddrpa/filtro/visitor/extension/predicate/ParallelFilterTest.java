@@ -0,0 +1,80 @@
+package cc.ddrpa.filtro.visitor.extension.predicate;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelFilterTest {
+
+    private final List<Book> books = IntStream.range(0, 10_000)
+            .mapToObj(i -> new Book("b" + i, i % 997))
+            .toList();
+
+    record Book(String title, int pages) {
+    }
+
+    @Test
+    void preservesOrderAcrossChunks() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Predicate<Book> thick = book -> book.pages() > 500;
+            List<Book> matched = new ParallelFilter(pool).setThreshold(0).setChunkSize(333)
+                    .filter(books, thick);
+            assertThat(matched).isEqualTo(books.stream().filter(thick).toList());
+            // 块数不是 2 的幂，末块不满
+            assertThat(new ParallelFilter(pool).setThreshold(0).setChunkSize(4096)
+                    .filter(new LinkedList<>(books), thick)).isEqualTo(matched);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void staysSequentialBelowThreshold() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Set<String> threads = Collections.synchronizedSet(new HashSet<>());
+            new ParallelFilter(pool).setThreshold(books.size() + 1).filter(books, book -> {
+                threads.add(Thread.currentThread().getName());
+                return true;
+            });
+            assertThat(threads).containsExactly(Thread.currentThread().getName());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void returnsMutableListOnBothPaths() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Book> sequential = new ParallelFilter(pool).setThreshold(books.size() + 1)
+                    .filter(books, book -> book.pages() == 0);
+            List<Book> parallel = new ParallelFilter(pool).setThreshold(0).setChunkSize(100)
+                    .filter(books, book -> book.pages() == 0);
+            assertThat(parallel).isEqualTo(sequential).isInstanceOf(ArrayList.class);
+            assertThat(sequential).isInstanceOf(ArrayList.class);
+            parallel.add(new Book("extra", 0));
+            assertThat(parallel).hasSize(sequential.size() + 1);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void propagatesPredicateFailure() {
+        ParallelFilter filter = new ParallelFilter().setThreshold(0).setChunkSize(100);
+        assertThatThrownBy(() -> filter.filter(books, book -> {
+            if (book.pages() == 996) {
+                throw new IllegalStateException("boom");
+            }
+            return false;
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+}
@@ -3,12 +3,14 @@ package cc.ddrpa.filtro.springboot;
 import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.annotation.FiltroQuery;
 import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
-import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanCache;
+import cc.ddrpa.filtro.core.plan.FiltroPlanKey;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.FiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
 import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
-import cz.jirutka.rsql.parser.RSQLParser;
-import cz.jirutka.rsql.parser.ast.ComparisonOperator;
 import cz.jirutka.rsql.parser.ast.Node;
-import cz.jirutka.rsql.parser.ast.RSQLOperators;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.MethodParameter;
@@ -18,28 +20,54 @@ import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.method.support.ModelAndViewContainer;
 
-import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class FiltroArgumentResolver implements HandlerMethodArgumentResolver {
     private static final Logger logger = LoggerFactory.getLogger(FiltroArgumentResolver.class);
 
-    private final RSQLParser rsqlParser;
+    private final FiltroQueryParser queryParser;
     private final FiltroRegistry filtroRegistry;
     private final List<RsqlNodeHandler<?>> factories;
+    private final FiltroPlanCache planCache;
+    private final FiltroPlanner planner;
+    private final ConcurrentMap<MethodParameter, FiltroParameterBinding> bindings = new ConcurrentHashMap<>();
 
     public FiltroArgumentResolver(FiltroRegistry filtroRegistry, List<RsqlNodeHandler<?>> factories) {
-        Set<ComparisonOperator> comparisonOperatorSet = new HashSet<>(RSQLOperators.defaultOperators());
-        Pattern symbolPattern = Pattern.compile("=[a-zA-Z]*=|[><]=?|!=");
-        Stream.of(FiltroOperator.values())
-                .filter(op -> !op.isRsqlOriginal())
-                .filter(op -> symbolPattern.matcher(op.getSymbol()).matches())
-                .map(op -> new ComparisonOperator(op.getSymbol(), op.isMultiValue()))
-                .forEach(comparisonOperatorSet::add);
-        this.rsqlParser = new RSQLParser(comparisonOperatorSet);
+        this(filtroRegistry, factories, null);
+    }
+
+    /**
+     * @param planCache 查询计划缓存，为 null 时每次请求都重新解析
+     */
+    public FiltroArgumentResolver(FiltroRegistry filtroRegistry, List<RsqlNodeHandler<?>> factories,
+                                  FiltroPlanCache planCache) {
+        this(filtroRegistry, factories, planCache, new FiltroPlanner(filtroRegistry.getMaxDepth()));
+    }
+
+    /**
+     * @param planCache 查询计划缓存，为 null 时每次请求都重新解析
+     * @param planner   AST → IR 编译器
+     */
+    public FiltroArgumentResolver(FiltroRegistry filtroRegistry, List<RsqlNodeHandler<?>> factories,
+                                  FiltroPlanCache planCache, FiltroPlanner planner) {
+        this(filtroRegistry, factories, planCache, planner, new JirutkaFiltroQueryParser());
+    }
+
+    /**
+     * @param planCache   查询计划缓存，为 null 时每次请求都重新解析
+     * @param planner     AST → IR 编译器
+     * @param queryParser {@code q} 表达式解析器
+     */
+    public FiltroArgumentResolver(FiltroRegistry filtroRegistry, List<RsqlNodeHandler<?>> factories,
+                                  FiltroPlanCache planCache, FiltroPlanner planner, FiltroQueryParser queryParser) {
+        this.queryParser = queryParser;
         this.filtroRegistry = filtroRegistry;
         this.factories = factories;
+        this.planCache = planCache;
+        this.planner = planner;
     }
 
     @Override
@@ -58,23 +86,71 @@ public class FiltroArgumentResolver implements HandlerMethodArgumentResolver {
             }
             return null;
         }
-        Node queryRootNode = rsqlParser.parse(query);
-        if (logger.isDebugEnabled()) {
-            logger.debug("RSQL parsed: {}", queryRootNode);
+        FiltroParameterBinding binding = bind(parameter);
+        if (binding.handler() != null) {
+            return binding.handler().translate(plan(query, binding));
+        } else {
+            // 无匹配 Handler 时直接交出 RSQL AST，由调用方自行校验
+            return parse(query);
         }
-        FiltroQuery filtroQueryAnno = parameter.getParameterAnnotation(FiltroQuery.class);
-        Class<?> entityType = filtroQueryAnno.value();
-        Class<?> entityGroup = filtroQueryAnno.group();
-        Map<String, FiltroFieldMeta> fieldMetaMap = filtroRegistry.getAsMap(entityType, entityGroup);
+    }
+
+    /**
+     * 获取参数绑定：注解取值与 Handler 选择只在每个参数首次解析时进行。
+     */
+    public FiltroParameterBinding bind(MethodParameter parameter) {
+        FiltroParameterBinding binding = bindings.get(parameter);
+        if (binding == null) {
+            binding = bindings.computeIfAbsent(parameter, this::createBinding);
+        }
+        return binding;
+    }
 
+    private FiltroParameterBinding createBinding(MethodParameter parameter) {
+        FiltroQuery filtroQueryAnno = parameter.getParameterAnnotation(FiltroQuery.class);
+        if (filtroQueryAnno == null) {
+            throw new IllegalStateException("Parameter " + parameter + " is not annotated with @FiltroQuery");
+        }
         Class<?> parameterType = parameter.getParameterType();
-        Optional<RsqlNodeHandler<?>> optionalVisitorFactory = this.factories.stream()
+        RsqlNodeHandler<?> handler = this.factories.stream()
                 .filter(factory -> factory.supports(parameterType))
-                .findFirst();
-        if (optionalVisitorFactory.isPresent()) {
-            return optionalVisitorFactory.get().parse(fieldMetaMap, queryRootNode);
-        } else {
-            return queryRootNode;
+                .findFirst()
+                .orElse(null);
+        return new FiltroParameterBinding(filtroQueryAnno.value(), filtroQueryAnno.group(), parameterType, handler);
+    }
+
+    public FiltroPlanCache getPlanCache() {
+        return planCache;
+    }
+
+    private FiltroPlan plan(String query, FiltroParameterBinding binding) {
+        Class<?> entityType = binding.criteriaType();
+        Class<?> entityGroup = binding.group();
+        if (planCache == null) {
+            return compile(query, entityType, entityGroup);
+        }
+        FiltroPlanKey key = new FiltroPlanKey(query, entityType, entityGroup, binding.targetType());
+        // 拉模式 Provider 不发变更通知，只缓存 AST，字段元数据每次重新读取并重新编译 IR
+        if (!filtroRegistry.isChangeTracked(entityType)) {
+            Node source = planCache.getSource(key, k -> parse(query));
+            return planner.plan(fieldMetaMap(entityType, entityGroup), source);
         }
+        return planCache.get(key, k -> compile(query, entityType, entityGroup));
+    }
+
+    private FiltroPlan compile(String query, Class<?> entityType, Class<?> entityGroup) {
+        return planner.plan(fieldMetaMap(entityType, entityGroup), parse(query));
+    }
+
+    private Node parse(String query) {
+        Node queryRootNode = queryParser.parse(query);
+        if (logger.isDebugEnabled()) {
+            logger.debug("RSQL parsed: {}", queryRootNode);
+        }
+        return queryRootNode;
+    }
+
+    private Map<String, FiltroFieldMeta> fieldMetaMap(Class<?> entityType, Class<?> entityGroup) {
+        return filtroRegistry.getAsMap(entityType, entityGroup);
     }
 }
\ No newline at end of file
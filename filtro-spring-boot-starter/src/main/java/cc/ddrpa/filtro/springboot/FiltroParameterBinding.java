@@ -0,0 +1,17 @@
+package cc.ddrpa.filtro.springboot;
+
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+
+/**
+ * {@code @FiltroQuery} 方法参数的解析绑定，每个参数首次解析时计算一次。
+ *
+ * @param criteriaType {@code @FiltroQuery#value()}
+ * @param group        {@code @FiltroQuery#group()}
+ * @param targetType   参数类型
+ * @param handler      匹配参数类型的 Handler；为 null 时直接返回 RSQL AST
+ */
+public record FiltroParameterBinding(Class<?> criteriaType,
+                                     Class<?> group,
+                                     Class<?> targetType,
+                                     RsqlNodeHandler<?> handler) {
+}
@@ -2,14 +2,21 @@ package cc.ddrpa.filtro.springboot.autoconfigure;
 
 import cc.ddrpa.filtro.core.FiltroRegistry;
 import cc.ddrpa.filtro.core.dictionary.FiltroDictionarySourceResolver;
+import cc.ddrpa.filtro.core.plan.FiltroPlanCache;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
 import cc.ddrpa.filtro.core.provider.AnnotatedClassFiltroFieldMetaProvider;
 import cc.ddrpa.filtro.core.provider.FiltroFieldMetaProvider;
 import cc.ddrpa.filtro.core.provider.InMemoryFiltroFieldMetaProvider;
+import cc.ddrpa.filtro.core.rsql.FiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.NativeFiltroQueryParser;
 import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
 import cc.ddrpa.filtro.springboot.dictionary.SpringFiltroDictionarySourceResolver;
 import cc.ddrpa.filtro.springboot.properties.FiltroProperties;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.ApplicationContext;
@@ -32,8 +39,36 @@ public class FiltroAutoConfiguration {
 
     @Bean
     public FiltroWebMvcConfigurer filtroWebMvcConfigurer(FiltroRegistry registry,
-                                                        List<RsqlNodeHandler<?>> factories) {
-        return new FiltroWebMvcConfigurer(registry, factories);
+                                                        List<RsqlNodeHandler<?>> factories,
+                                                        ObjectProvider<FiltroPlanCache> planCache,
+                                                        FiltroPlanner planner,
+                                                        FiltroQueryParser queryParser) {
+        return new FiltroWebMvcConfigurer(registry, factories, planCache.getIfAvailable(), planner, queryParser);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FiltroQueryParser filtroQueryParser(FiltroProperties properties) {
+        return switch (properties.getParser()) {
+            case JIRUTKA -> new JirutkaFiltroQueryParser();
+            case NATIVE -> new NativeFiltroQueryParser();
+        };
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FiltroPlanner filtroPlanner(FiltroProperties properties) {
+        return new FiltroPlanner(properties.getMaxDepth(), properties.getBudget().toQueryBudget());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "filtro.plan-cache", name = "enabled", matchIfMissing = true)
+    public FiltroPlanCache filtroPlanCache(FiltroProperties properties, FiltroRegistry registry) {
+        FiltroProperties.PlanCache config = properties.getPlanCache();
+        FiltroPlanCache planCache = new FiltroPlanCache(config.getMaximumSize(), config.getMaximumWeight());
+        registry.addChangeListener(planCache::invalidate);
+        return planCache;
     }
 
     @Bean
@@ -1,5 +1,7 @@
 package cc.ddrpa.filtro.springboot.autoconfigure;
 
+import cc.ddrpa.filtro.core.exception.FiltroQuerySyntaxException;
+import cc.ddrpa.filtro.core.exception.FiltroQueryTooComplexException;
 import cc.ddrpa.filtro.core.exception.PredicateBuildException;
 import cz.jirutka.rsql.parser.ParseException;
 import org.slf4j.Logger;
@@ -22,6 +24,7 @@ import java.time.Instant;
 public class FiltroExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(FiltroExceptionHandler.class);
     private static final URI TYPE_INVALID_FILTER = URI.create("https://filtro.ddrpa.cc/problems/invalid-filter");
+    private static final URI TYPE_FILTER_TOO_COMPLEX = URI.create("https://filtro.ddrpa.cc/problems/filter-too-complex");
 
     /**
      * RSQL 语法解析异常。
@@ -37,6 +40,43 @@ public class FiltroExceptionHandler {
         return ResponseEntity.badRequest().body(problem);
     }
 
+    /**
+     * {@code q} 表达式语法错误，附带出错偏移。
+     */
+    @ExceptionHandler(FiltroQuerySyntaxException.class)
+    public ResponseEntity<ProblemDetail> handleQuerySyntax(FiltroQuerySyntaxException ex) {
+        logger.warn("RSQL parse error: {}", ex.getMessage());
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                "Invalid filter syntax: " + ex.getMessage());
+        problem.setTitle("Bad Filter Expression");
+        problem.setType(TYPE_INVALID_FILTER);
+        problem.setProperty("timestamp", Instant.now());
+        if (ex.getOffset() >= 0) {
+            problem.setProperty("offset", ex.getOffset());
+        }
+        return ResponseEntity.badRequest().body(problem);
+    }
+
+    /**
+     * 超出复杂度预算，附带触发的限制项、上限与实际值。
+     */
+    @ExceptionHandler(FiltroQueryTooComplexException.class)
+    public ResponseEntity<ProblemDetail> handleTooComplex(FiltroQueryTooComplexException ex) {
+        logger.warn("FiltroQuery rejected by budget: {}", ex.getMessage());
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                "Filter too complex: " + ex.getMessage());
+        problem.setTitle("Filter Too Complex");
+        problem.setType(TYPE_FILTER_TOO_COMPLEX);
+        problem.setProperty("timestamp", Instant.now());
+        problem.setProperty("limit", ex.getLimit().name());
+        problem.setProperty("maximum", ex.getMaximum());
+        problem.setProperty("actual", ex.getActual());
+        if (ex.getField() != null) {
+            problem.setProperty("field", ex.getField());
+        }
+        return ResponseEntity.badRequest().body(problem);
+    }
+
     /**
      * 字段不存在、操作符不支持、嵌套深度超限、IN 参数超量等校验异常。
      */
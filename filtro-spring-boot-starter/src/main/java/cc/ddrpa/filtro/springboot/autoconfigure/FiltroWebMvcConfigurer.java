@@ -1,6 +1,10 @@
 package cc.ddrpa.filtro.springboot.autoconfigure;
 
 import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.plan.FiltroPlanCache;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.rsql.FiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
 import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
 import cc.ddrpa.filtro.springboot.FiltroArgumentResolver;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
@@ -12,14 +16,35 @@ public class FiltroWebMvcConfigurer implements WebMvcConfigurer {
 
     private final FiltroRegistry filtroRegistry;
     private final List<RsqlNodeHandler<?>> factories;
+    private final FiltroPlanCache planCache;
+    private final FiltroPlanner planner;
+    private final FiltroQueryParser queryParser;
 
     public FiltroWebMvcConfigurer(FiltroRegistry registry, List<RsqlNodeHandler<?>> factories) {
+        this(registry, factories, null);
+    }
+
+    public FiltroWebMvcConfigurer(FiltroRegistry registry, List<RsqlNodeHandler<?>> factories,
+                                  FiltroPlanCache planCache) {
+        this(registry, factories, planCache, new FiltroPlanner(registry.getMaxDepth()));
+    }
+
+    public FiltroWebMvcConfigurer(FiltroRegistry registry, List<RsqlNodeHandler<?>> factories,
+                                  FiltroPlanCache planCache, FiltroPlanner planner) {
+        this(registry, factories, planCache, planner, new JirutkaFiltroQueryParser());
+    }
+
+    public FiltroWebMvcConfigurer(FiltroRegistry registry, List<RsqlNodeHandler<?>> factories,
+                                  FiltroPlanCache planCache, FiltroPlanner planner, FiltroQueryParser queryParser) {
         this.filtroRegistry = registry;
         this.factories = factories;
+        this.planCache = planCache;
+        this.planner = planner;
+        this.queryParser = queryParser;
     }
 
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
-        resolvers.add(new FiltroArgumentResolver(filtroRegistry, factories));
+        resolvers.add(new FiltroArgumentResolver(filtroRegistry, factories, planCache, planner, queryParser));
     }
 }
\ No newline at end of file
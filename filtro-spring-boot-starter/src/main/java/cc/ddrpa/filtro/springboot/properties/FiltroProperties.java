@@ -1,5 +1,7 @@
 package cc.ddrpa.filtro.springboot.properties;
 
+import cc.ddrpa.filtro.core.plan.FiltroPlanCache;
+import cc.ddrpa.filtro.core.plan.FiltroQueryBudget;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "filtro")
@@ -24,6 +26,21 @@ public class FiltroProperties {
      */
     private String metadataEndpointSuffix = ":filtro";
 
+    /**
+     * {@code q} 表达式解析器实现，默认 {@link Parser#JIRUTKA}。
+     */
+    private Parser parser = Parser.JIRUTKA;
+
+    /**
+     * 查询计划缓存配置。
+     */
+    private PlanCache planCache = new PlanCache();
+
+    /**
+     * 查询复杂度预算配置。
+     */
+    private Budget budget = new Budget();
+
     public String[] getControllerPackages() {
         return controllerPackages;
     }
@@ -59,4 +76,199 @@ public class FiltroProperties {
         this.metadataEndpointSuffix = metadataEndpointSuffix;
         return this;
     }
-}
\ No newline at end of file
+
+    public Parser getParser() {
+        return parser;
+    }
+
+    public FiltroProperties setParser(Parser parser) {
+        this.parser = parser;
+        return this;
+    }
+
+    public PlanCache getPlanCache() {
+        return planCache;
+    }
+
+    public FiltroProperties setPlanCache(PlanCache planCache) {
+        this.planCache = planCache;
+        return this;
+    }
+
+    public Budget getBudget() {
+        return budget;
+    }
+
+    public FiltroProperties setBudget(Budget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    public enum Parser {
+        /**
+         * jirutka rsql-parser（JavaCC 生成）
+         */
+        JIRUTKA,
+        /**
+         * filtro-core 内置的手写递归下降解析器，语法与 jirutka 一致，分配更少
+         */
+        NATIVE
+    }
+
+    public static class PlanCache {
+        /**
+         * 是否缓存已解析的查询计划，默认 true。
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大缓存条目数。
+         */
+        private int maximumSize = FiltroPlanCache.DEFAULT_MAXIMUM_SIZE;
+
+        /**
+         * 所有缓存 {@code q} 字符串长度之和的上限。
+         */
+        private long maximumWeight = FiltroPlanCache.DEFAULT_MAXIMUM_WEIGHT;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public PlanCache setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public PlanCache setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        public long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public PlanCache setMaximumWeight(long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+            return this;
+        }
+    }
+
+    public static class Budget {
+        /**
+         * 是否启用复杂度预算校验，默认 false；关闭时以下各项上限均不生效。
+         */
+        private boolean enabled = false;
+
+        /**
+         * 单个 {@code =in=} / {@code =out=} 的参数个数上限。
+         */
+        private int maxInArguments = FiltroQueryBudget.DEFAULT_MAX_IN_ARGUMENTS;
+
+        /**
+         * 比较条件总数上限。
+         */
+        private int maxComparisons = FiltroQueryBudget.DEFAULT_MAX_COMPARISONS;
+
+        /**
+         * 单个 OR 节点的子条件数上限。
+         */
+        private int maxOrFanOut = FiltroQueryBudget.DEFAULT_MAX_OR_FAN_OUT;
+
+        /**
+         * {@code =contains=} / {@code =nocontains=} 条件总数上限。
+         */
+        private int maxContains = FiltroQueryBudget.DEFAULT_MAX_CONTAINS;
+
+        /**
+         * 查询总代价上限。
+         */
+        private long maxCost = FiltroQueryBudget.DEFAULT_MAX_COST;
+
+        /**
+         * 模糊匹配条件的代价系数。
+         */
+        private int containsWeight = FiltroQueryBudget.DEFAULT_CONTAINS_WEIGHT;
+
+        public FiltroQueryBudget toQueryBudget() {
+            if (!enabled) {
+                return FiltroQueryBudget.unlimited();
+            }
+            return new FiltroQueryBudget()
+                    .setMaxInArguments(maxInArguments)
+                    .setMaxComparisons(maxComparisons)
+                    .setMaxOrFanOut(maxOrFanOut)
+                    .setMaxContains(maxContains)
+                    .setMaxCost(maxCost)
+                    .setContainsWeight(containsWeight);
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public Budget setEnabled(boolean enabled) {
+            this.enabled = enabled;
+            return this;
+        }
+
+        public int getMaxInArguments() {
+            return maxInArguments;
+        }
+
+        public Budget setMaxInArguments(int maxInArguments) {
+            this.maxInArguments = maxInArguments;
+            return this;
+        }
+
+        public int getMaxComparisons() {
+            return maxComparisons;
+        }
+
+        public Budget setMaxComparisons(int maxComparisons) {
+            this.maxComparisons = maxComparisons;
+            return this;
+        }
+
+        public int getMaxOrFanOut() {
+            return maxOrFanOut;
+        }
+
+        public Budget setMaxOrFanOut(int maxOrFanOut) {
+            this.maxOrFanOut = maxOrFanOut;
+            return this;
+        }
+
+        public int getMaxContains() {
+            return maxContains;
+        }
+
+        public Budget setMaxContains(int maxContains) {
+            this.maxContains = maxContains;
+            return this;
+        }
+
+        public long getMaxCost() {
+            return maxCost;
+        }
+
+        public Budget setMaxCost(long maxCost) {
+            this.maxCost = maxCost;
+            return this;
+        }
+
+        public int getContainsWeight() {
+            return containsWeight;
+        }
+
+        public Budget setContainsWeight(int containsWeight) {
+            this.containsWeight = containsWeight;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package cc.ddrpa.filtro.springboot;
+
+import cc.ddrpa.filtro.core.FiltroRegistry;
+import cc.ddrpa.filtro.core.annotation.FiltroQuery;
+import cc.ddrpa.filtro.core.exception.FiltroQueryTooComplexException;
+import cc.ddrpa.filtro.core.exception.FiltroQueryTooComplexException.Limit;
+import cc.ddrpa.filtro.core.field.FiltroFieldMeta;
+import cc.ddrpa.filtro.core.field.FiltroFieldMetaFactory;
+import cc.ddrpa.filtro.core.field.FiltroOperator;
+import cc.ddrpa.filtro.core.field.QueryIntent;
+import cc.ddrpa.filtro.core.plan.FiltroComparisonNode;
+import cc.ddrpa.filtro.core.plan.FiltroOrNode;
+import cc.ddrpa.filtro.core.plan.FiltroPlan;
+import cc.ddrpa.filtro.core.plan.FiltroPlanCache;
+import cc.ddrpa.filtro.core.plan.FiltroPlanner;
+import cc.ddrpa.filtro.core.provider.FiltroFieldMetaProvider;
+import cc.ddrpa.filtro.core.provider.InMemoryFiltroFieldMetaProvider;
+import cc.ddrpa.filtro.core.rsql.FiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.JirutkaFiltroQueryParser;
+import cc.ddrpa.filtro.core.rsql.RsqlNodeHandler;
+import cc.ddrpa.filtro.springboot.properties.FiltroProperties;
+import cz.jirutka.rsql.parser.ast.Node;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FiltroArgumentResolverTest {
+
+    interface AdminRole {
+    }
+
+    static class Book {
+    }
+
+    static class Handled {
+    }
+
+    static class StubHandler implements RsqlNodeHandler<Handled> {
+        @Override
+        public boolean supports(Class<?> targetType) {
+            return Handled.class.equals(targetType);
+        }
+
+        @Override
+        public Handled parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+            return new Handled();
+        }
+    }
+
+    @SuppressWarnings("unused")
+    static class Controller {
+        void handled(@FiltroQuery(value = Book.class, group = AdminRole.class) Handled filter) {
+        }
+
+        void raw(@FiltroQuery(Book.class) Node filter) {
+        }
+
+        void planned(@FiltroQuery(Book.class) FiltroPlan plan) {
+        }
+    }
+
+    static class PlanHandler implements RsqlNodeHandler<FiltroPlan> {
+        @Override
+        public boolean supports(Class<?> targetType) {
+            return FiltroPlan.class.equals(targetType);
+        }
+
+        @Override
+        public FiltroPlan parse(Map<String, FiltroFieldMeta> metaMap, Node queryRoot) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public FiltroPlan translate(FiltroPlan plan) {
+            return plan;
+        }
+    }
+
+    private static NativeWebRequest request(String query) {
+        return (NativeWebRequest) Proxy.newProxyInstance(FiltroArgumentResolverTest.class.getClassLoader(),
+                new Class<?>[]{NativeWebRequest.class},
+                (proxy, method, args) -> "getParameter".equals(method.getName()) && "q".equals(args[0]) ? query : null);
+    }
+
+    private static MethodParameter parameter(String methodName, Class<?> type) throws NoSuchMethodException {
+        return new MethodParameter(Controller.class.getDeclaredMethod(methodName, type), 0);
+    }
+
+    private final StubHandler handler = new StubHandler();
+    private final FiltroArgumentResolver resolver =
+            new FiltroArgumentResolver(new FiltroRegistry(), List.of(handler));
+
+    @Test
+    void bindingCapturesAnnotationAndHandler() throws NoSuchMethodException {
+        FiltroParameterBinding binding = resolver.bind(parameter("handled", Handled.class));
+        assertThat(binding.criteriaType()).isEqualTo(Book.class);
+        assertThat(binding.group()).isEqualTo(AdminRole.class);
+        assertThat(binding.targetType()).isEqualTo(Handled.class);
+        assertThat(binding.handler()).isSameAs(handler);
+    }
+
+    @Test
+    void bindingIsComputedOncePerParameter() throws NoSuchMethodException {
+        FiltroParameterBinding first = resolver.bind(parameter("handled", Handled.class));
+        FiltroParameterBinding second = resolver.bind(parameter("handled", Handled.class));
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void unmatchedTypeHasNoHandler() throws NoSuchMethodException {
+        FiltroParameterBinding binding = resolver.bind(parameter("raw", Node.class));
+        assertThat(binding.handler()).isNull();
+        assertThat(binding.group()).isEqualTo(void.class);
+    }
+
+    @Nested
+    @DisplayName("默认配置下的端到端解析")
+    class DefaultProperties {
+
+        private final FiltroProperties properties = new FiltroProperties();
+
+        private FiltroPlan resolve(String query) throws NoSuchMethodException {
+            InMemoryFiltroFieldMetaProvider provider = new InMemoryFiltroFieldMetaProvider();
+            FiltroFieldMeta status = FiltroFieldMetaFactory.create("status", QueryIntent.EXACT, String.class).build()
+                    .setSupportedOperations(EnumSet.of(FiltroOperator.EQ, FiltroOperator.IN));
+            FiltroFieldMeta title = FiltroFieldMetaFactory.create("title", QueryIntent.SEARCH, String.class).build();
+            provider.register(Book.class, List.of(status, title));
+            FiltroRegistry registry = new FiltroRegistry(List.of(provider));
+            FiltroPlanner planner = new FiltroPlanner(properties.getMaxDepth(), properties.getBudget().toQueryBudget());
+            FiltroArgumentResolver resolver =
+                    new FiltroArgumentResolver(registry, List.of(new PlanHandler()), null, planner);
+            return (FiltroPlan) resolver.resolveArgument(parameter("planned", FiltroPlan.class), null,
+                    request(query), null);
+        }
+
+        private String equalityDisjunction(int terms) {
+            return IntStream.range(0, terms).mapToObj(i -> "status==S" + i).collect(Collectors.joining(","));
+        }
+
+        @Test
+        void longEqualityDisjunctionMergesIntoIn() throws NoSuchMethodException {
+            FiltroComparisonNode merged = (FiltroComparisonNode) resolve(equalityDisjunction(200)).getRoot();
+            assertThat(merged.operator()).isEqualTo(FiltroOperator.IN);
+            assertThat(merged.arguments()).hasSize(200).startsWith("S0", "S1").endsWith("S199");
+        }
+
+        @Test
+        void budgetIsDisabledByDefault() throws NoSuchMethodException {
+            String query = IntStream.range(0, 120).mapToObj(i -> "title=contains=t" + i)
+                    .collect(Collectors.joining(","));
+            assertThat(properties.getBudget().isEnabled()).isFalse();
+            assertThat(((FiltroOrNode) resolve(query).getRoot()).children()).hasSize(120);
+        }
+
+        @Test
+        void mergedInIsCheckedAgainstMaxInArguments() {
+            properties.getBudget().setEnabled(true).setMaxInArguments(100);
+            assertThatThrownBy(() -> resolve(equalityDisjunction(200)))
+                    .isInstanceOfSatisfying(FiltroQueryTooComplexException.class, ex -> {
+                        assertThat(ex.getLimit()).isEqualTo(Limit.IN_ARGUMENTS);
+                        assertThat(ex.getActual()).isEqualTo(200);
+                        assertThat(ex.getField()).isEqualTo("status");
+                    });
+        }
+    }
+
+    @Nested
+    @DisplayName("查询计划缓存")
+    class PlanCaching {
+
+        private final AtomicInteger parses = new AtomicInteger();
+        private final FiltroQueryParser parser = query -> {
+            parses.incrementAndGet();
+            return new JirutkaFiltroQueryParser().parse(query);
+        };
+        private final FiltroPlanCache planCache = new FiltroPlanCache();
+
+        private FiltroArgumentResolver resolver(FiltroFieldMetaProvider provider) {
+            return new FiltroArgumentResolver(new FiltroRegistry(List.of(provider)), List.of(new PlanHandler()),
+                    planCache, new FiltroPlanner(), parser);
+        }
+
+        private FiltroPlan resolve(FiltroArgumentResolver resolver, String query) throws NoSuchMethodException {
+            return (FiltroPlan) resolver.resolveArgument(parameter("planned", FiltroPlan.class), null,
+                    request(query), null);
+        }
+
+        private FiltroFieldMeta field(String name) {
+            return FiltroFieldMetaFactory.create(name, QueryIntent.EXACT, String.class).build()
+                    .setSupportedOperations(EnumSet.of(FiltroOperator.EQ));
+        }
+
+        @Test
+        void trackedTypeReusesPlan() throws NoSuchMethodException {
+            InMemoryFiltroFieldMetaProvider provider = new InMemoryFiltroFieldMetaProvider();
+            provider.register(Book.class, List.of(field("status")));
+            FiltroArgumentResolver resolver = resolver(provider);
+
+            FiltroPlan first = resolve(resolver, "status==a");
+            assertThat(resolve(resolver, "status==a")).isSameAs(first);
+            assertThat(parses).hasValue(1);
+        }
+
+        @Test
+        void untrackedTypeCachesOnlySource() throws NoSuchMethodException {
+            AtomicReference<List<FiltroFieldMeta>> fields = new AtomicReference<>(List.of(field("status")));
+            FiltroArgumentResolver resolver = resolver(new FiltroFieldMetaProvider() {
+                @Override
+                public boolean supports(Class<?> criteriaType) {
+                    return Book.class.equals(criteriaType);
+                }
+
+                @Override
+                public List<FiltroFieldMeta> getFields(Class<?> criteriaType) {
+                    return fields.get();
+                }
+            });
+
+            FiltroPlan first = resolve(resolver, "status==a");
+            FiltroFieldMeta replaced = field("status");
+            fields.set(List.of(replaced));
+            FiltroPlan second = resolve(resolver, "status==a");
+
+            assertThat(second.getSource()).isSameAs(first.getSource());
+            assertThat(second.getFields().get("status")).isSameAs(replaced);
+            assertThat(parses).hasValue(1);
+            assertThat(planCache.stats().hitCount()).isEqualTo(1);
+            assertThat(planCache.stats().missCount()).isEqualTo(1);
+        }
+    }
+}